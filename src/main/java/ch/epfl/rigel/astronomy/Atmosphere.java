@@ -0,0 +1,171 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * An Atmosphere Of Given Temperature And Pressure, Refracting And Dimming The Celestial Objects.
+ * -The refraction raises the objects, as a function of their geometric altitude (formula of Saemundsson, scaled by
+ *  the pressure and the temperature). Under -2°, the refraction at -2° is used.
+ * -The extinction dims the objects by a magnitude proportional to the airmass crossed at their apparent altitude
+ *  (formula of Kasten and Young), of 0.2 per airmass at the sea level pressure. Under the horizon, the extinction
+ *  at the horizon is used.
+ * Both are tabulated at construction every 0.05° of altitude and linearly interpolated, so that an object only
+ * costs a table lookup.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Atmosphere {
+
+    /**
+     * An atmosphere neither refracting nor dimming the objects.
+     */
+    public final static Atmosphere NONE = new Atmosphere(Double.NaN, 0);
+
+    private final static double STEP_DEG = 0.05;
+    private final static double MIN_ALT_DEG = -2;
+    private final static double MAX_ALT_DEG = 90;
+    private final static double MIN_TEMPERATURE = -90;
+    private final static double MAX_TEMPERATURE = 60;
+    private final static double MAX_PRESSURE = 1100;
+    private final static double SEA_LEVEL_PRESSURE = 1013.25;
+    private final static double EXTINCTION_COEFFICIENT = 0.2;
+
+    private final double temperature;
+    private final double pressure;
+    private final boolean none;
+    private final double[] refractions;
+    private final double[] extinctions;
+
+    private Atmosphere(double temperature, double pressure) {
+        this.temperature = temperature;
+        this.pressure = pressure;
+        this.none = Double.isNaN(temperature);
+        int size = (int) Math.round((MAX_ALT_DEG - MIN_ALT_DEG) / STEP_DEG) + 1;
+        this.refractions = new double[size];
+        this.extinctions = new double[size];
+        if(none) return;
+        double scale = (pressure / 1010) * (283 / (273 + temperature));
+        double extinctionPerAirmass = EXTINCTION_COEFFICIENT * pressure / SEA_LEVEL_PRESSURE;
+        for(int i = 0; i < size; ++i) {
+            double altDeg = MIN_ALT_DEG + i*STEP_DEG;
+            double refractionArcmin = 1.02 / Math.tan(Angle.ofDeg(altDeg + 10.3 / (altDeg + 5.11)));
+            refractions[i] = Angle.ofArcsec(60 * Math.max(0, refractionArcmin) * scale);
+            double apparentDeg = Math.max(0, altDeg);
+            double airmass = 1 / (Math.sin(Angle.ofDeg(apparentDeg)) + 0.50572 * Math.pow(apparentDeg + 6.07995, -1.6364));
+            extinctions[i] = extinctionPerAirmass * airmass;
+        }
+    }
+
+    /**
+     * Returns the atmosphere of given temperature, in degrees Celsius, and pressure, in hectopascals.
+     * Throws IAE if they are not valid (see isValidTemperature and isValidPressure).
+     *
+     * @param double (temperature)
+     * @param double (pressure)
+     * @return Atmosphere (atmosphere)
+     */
+    public static Atmosphere of(double temperature, double pressure) {
+        checkArgument(isValidTemperature(temperature) && isValidPressure(pressure));
+        return new Atmosphere(temperature, pressure);
+    }
+
+    /**
+     * Returns true if the given temperature, in degrees Celsius, is in [-90;60].
+     *
+     * @param double (temperature)
+     * @return boolean (isValid)
+     */
+    public static boolean isValidTemperature(double temperature) {
+        return MIN_TEMPERATURE <= temperature && temperature <= MAX_TEMPERATURE;
+    }
+
+    /**
+     * Returns true if the given pressure, in hectopascals, is in [0;1100].
+     *
+     * @param double (pressure)
+     * @return boolean (isValid)
+     */
+    public static boolean isValidPressure(double pressure) {
+        return 0 <= pressure && pressure <= MAX_PRESSURE;
+    }
+
+    /**
+     * Returns the temperature of the atmosphere, in degrees Celsius (NaN for NONE).
+     *
+     * @return double (temperature)
+     */
+    public double temperature() {
+        return temperature;
+    }
+
+    /**
+     * Returns the pressure of the atmosphere, in hectopascals (0 for NONE).
+     *
+     * @return double (pressure)
+     */
+    public double pressure() {
+        return pressure;
+    }
+
+    /**
+     * Returns the refraction, in radiant, of an object at the given geometric altitude, in radiant.
+     *
+     * @param double (alt)
+     * @return double (refraction)
+     */
+    public double refraction(double alt) {
+        return none ? 0 : interpolate(refractions, alt);
+    }
+
+    /**
+     * Returns the extinction, in magnitudes, of an object at the given apparent altitude, in radiant.
+     *
+     * @param double (alt)
+     * @return double (extinction)
+     */
+    public double extinction(double alt) {
+        return none ? 0 : interpolate(extinctions, alt);
+    }
+
+    /**
+     * Refracts in place an array of horizontal positions, in the form (az, alt) in radiant : the altitudes of the
+     * numPts positions starting at the index offset become apparent ones.
+     *
+     * @param double[] (horizontalPts)
+     * @param int (offset)
+     * @param int (numPts)
+     */
+    public void refract(double[] horizontalPts, int offset, int numPts) {
+        checkArgument(numPts >= 0);
+        if(none) return;
+        for(int i = offset + 1; i < offset + 2*numPts; i += 2) horizontalPts[i] += interpolate(refractions, horizontalPts[i]);
+    }
+
+    /**
+     * Computes the extinctions, in magnitudes, of the numPts horizontal positions, in the form (az, alt) in radiant
+     * with apparent altitudes, starting at the index srcOff of horizontalPts. The extinction of the i-th position
+     * is written at the index dstOff + i of extinctions.
+     *
+     * @param double[] (horizontalPts)
+     * @param int (srcOff)
+     * @param double[] (extinctions)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public void extinctions(double[] horizontalPts, int srcOff, double[] extinctions, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        for(int i = 0; i < numPts; ++i) extinctions[dstOff + i] = none ? 0 : interpolate(this.extinctions, horizontalPts[srcOff + 2*i + 1]);
+    }
+
+    private static double interpolate(double[] table, double alt) {
+        double position = (Angle.toDeg(alt) - MIN_ALT_DEG) / STEP_DEG;
+        if(!(position > 0)) return table[0];
+        if(position >= table.length - 1) return table[table.length - 1];
+        int index = (int) position;
+        double fraction = position - index;
+        return table[index] + fraction * (table[index + 1] - table[index]);
+    }
+}
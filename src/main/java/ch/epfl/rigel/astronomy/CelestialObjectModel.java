@@ -20,4 +20,14 @@ public interface CelestialObjectModel <O> {
      */
     public abstract O at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion);
     
+    /**
+     * Returns the genericObject modelized at a given moment, in milliseconds since 1970-01-01T00:00Z.
+     * 
+     * @param long (epochMillis)
+     * @return O (genericObject)
+     */
+    public default O at(long epochMillis) {
+        return at(Epoch.J2010.daysUntil(epochMillis), new EclipticToEquatorialConversion(epochMillis));
+    }
+    
 }
\ No newline at end of file
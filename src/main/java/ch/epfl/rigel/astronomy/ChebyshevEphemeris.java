@@ -0,0 +1,325 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ChebyshevSeries;
+
+/**
+ * An Ephemeris Approximating An EclipticModel With Piecewise Chebyshev Series.
+ * The time is cut in fixed windows (in days since J2010). On the first request falling in a window, each channel
+ * of the model is interpolated at the Chebyshev nodes of the window, and the fit is checked against the model :
+ * the error is measured on a grid twice as fine as the extrema of the Chebyshev polynomial of the fit degree (where
+ * the error of such an interpolation peaks), multiplied by a safety factor and increased by a margin for rounding.
+ * This is an estimate of the error, not a proven bound : the model is only known through its samples. If the
+ * estimate exceeds the tolerance, the degree is doubled up to a maximum degree, after which the window falls back
+ * to the direct model.
+ * The following requests in the window only cost the evaluation of the series. The fitted windows are kept in a
+ * bounded LRU map. Instances are thread safe.
+ * Shared ephemerides of the Sun, of the Moon and of the planets are provided (SUN, MOON and of(PlanetModel)), so
+ * that the batch computations (e.g. ConjunctionSearch) fit each window only once.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ChebyshevEphemeris<O> implements EclipticModel<O> {
+
+    private final static double SAFETY_FACTOR = 3;
+    //Absolute margin covering the rounding errors of the model and of the evaluation of the series
+    private final static double ROUNDOFF_MARGIN = 1e-10;
+    //About 90 years of windows of the default length, so that the scans of several decades are fitted once
+    private final static int SHARED_MAX_WINDOWS = 2048;
+
+    /**
+     * Shared ephemeris of the Sun, with the default parameters but keeping 2048 windows.
+     */
+    public final static ChebyshevEphemeris<Sun> SUN = new Builder<>(SunModel.SUN).setMaxWindows(SHARED_MAX_WINDOWS).build();
+
+    /**
+     * Shared ephemeris of the Moon, with the default parameters but keeping 2048 windows.
+     */
+    public final static ChebyshevEphemeris<Moon> MOON = new Builder<>(MoonModel.MOON).setMaxWindows(SHARED_MAX_WINDOWS).build();
+
+    private final static Map<PlanetModel, ChebyshevEphemeris<Planet>> PLANETS = planets();
+
+    private static Map<PlanetModel, ChebyshevEphemeris<Planet>> planets() {
+        Map<PlanetModel, ChebyshevEphemeris<Planet>> planets = new EnumMap<>(PlanetModel.class);
+        for(PlanetModel planet : SolarSystemSnapshot.PLANET_MODELS) planets.put(planet, new Builder<>(planet).setMaxWindows(SHARED_MAX_WINDOWS).build());
+        return planets;
+    }
+
+    private final EclipticModel<O> model;
+    private final double windowDays;
+    private final int degree;
+    private final int maxDegree;
+    private final double tolerance;
+    private final Map<Long, Window> windows;
+    private volatile Window lastWindow;
+
+    private ChebyshevEphemeris(Builder<O> builder) {
+        this.model = builder.model;
+        this.windowDays = builder.windowDays;
+        this.degree = builder.degree;
+        this.maxDegree = builder.maxDegree;
+        this.tolerance = builder.tolerance;
+        int maxWindows = builder.maxWindows;
+        this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Window> eldest) {
+                return size() > maxWindows;
+            }
+        };
+    }
+
+    /**
+     * Returns the shared ephemeris of the given planet, with the default parameters but keeping 2048 windows.
+     * Throws IAE if the planet is the Earth.
+     *
+     * @param PlanetModel (planet)
+     * @return ChebyshevEphemeris<Planet> (ephemeris)
+     */
+    public static ChebyshevEphemeris<Planet> of(PlanetModel planet) {
+        checkArgument(PLANETS.containsKey(planet));
+        return PLANETS.get(planet);
+    }
+
+    /**
+     * Returns the genericObject at the given numbers of days since J2010, built from the approximated channels,
+     * using the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     *
+     * @param double (daysSinceJ2010)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return O (genericObject)
+     */
+    @Override
+    public O at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        double[] channels = new double[EclipticModel.CHANNELS];
+        channelsAt(daysSinceJ2010, channels);
+        return model.fromChannels(channels, eclipticToEquatorialConversion);
+    }
+
+    /**
+     * Computes the approximated channels of the model at the given numbers of days since J2010 (see EclipticModel),
+     * into the first EclipticModel.CHANNELS indexes of the given array.
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (channels)
+     */
+    @Override
+    public void channelsAt(double daysSinceJ2010, double[] channels) {
+        Window window = window(daysSinceJ2010);
+        if(window.series == null) {
+            model.channelsAt(daysSinceJ2010, channels);
+            return;
+        }
+        for(int i = 0; i < EclipticModel.CHANNELS; ++i) channels[i] = window.series[i].at(daysSinceJ2010);
+    }
+
+    /**
+     * Returns the genericObject determined by the given channels, built by the approximated model.
+     *
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return O (genericObject)
+     */
+    @Override
+    public O fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return model.fromChannels(channels, eclipticToEquatorialConversion);
+    }
+
+    /**
+     * Returns the error estimate of the window containing the given numbers of days since J2010 : the largest
+     * difference expected between a channel approximated by this ephemeris and the direct model, estimated from
+     * samples (0 if the window falls back to the direct model).
+     *
+     * @param double (daysSinceJ2010)
+     * @return double (errorEstimate)
+     */
+    public double errorEstimate(double daysSinceJ2010) {
+        return window(daysSinceJ2010).errorEstimate;
+    }
+
+    /**
+     * Returns the number of windows currently kept.
+     *
+     * @return int (windowCount)
+     */
+    public int windowCount() {
+        synchronized(windows) {
+            return windows.size();
+        }
+    }
+
+    /**
+     * Returns the model approximated by this ephemeris.
+     *
+     * @return EclipticModel<O> (model)
+     */
+    public EclipticModel<O> model() {
+        return model;
+    }
+
+    private Window window(double daysSinceJ2010) {
+        long index = (long) Math.floor(daysSinceJ2010 / windowDays);
+        //Consecutive requests mostly fall in the same window, which is then found without locking
+        Window window = lastWindow;
+        if(window != null && window.index == index) return window;
+        synchronized(windows) {
+            window = windows.get(index);
+        }
+        if(window == null) {
+            //Fitted outside of the lock, concurrent misses on a same window may fit it twice.
+            window = fit(index);
+            synchronized(windows) {
+                windows.put(index, window);
+            }
+        }
+        lastWindow = window;
+        return window;
+    }
+
+    private Window fit(long index) {
+        double low = index * windowDays;
+        double high = low + windowDays;
+        double[] channels = new double[EclipticModel.CHANNELS];
+        for(int n = degree; n <= maxDegree; n *= 2) {
+            double[] nodes = ChebyshevSeries.nodes(low, high, n + 1);
+            double[][] values = new double[EclipticModel.CHANNELS][n + 1];
+            for(int k = 0; k <= n; ++k) {
+                model.channelsAt(nodes[k], channels);
+                //The longitude is made continuous over the window
+                if(k > 0) channels[0] += Angle.TAU * Math.rint((values[0][k - 1] - channels[0]) / Angle.TAU);
+                for(int i = 0; i < EclipticModel.CHANNELS; ++i) values[i][k] = channels[i];
+            }
+            ChebyshevSeries[] series = new ChebyshevSeries[EclipticModel.CHANNELS];
+            for(int i = 0; i < EclipticModel.CHANNELS; ++i) series[i] = ChebyshevSeries.interpolating(low, high, values[i]);
+            //The error is measured at the extrema of the Chebyshev polynomial of degree 2n, which include the ends
+            double error = 0;
+            for(int j = 0; j <= 2*n; ++j) {
+                double x = low + (1 - Math.cos(Math.PI * j / (2*n))) * windowDays / 2;
+                model.channelsAt(x, channels);
+                for(int i = 0; i < EclipticModel.CHANNELS; ++i) {
+                    double diff = channels[i] - series[i].at(x);
+                    if(i == 0) diff -= Angle.TAU * Math.rint(diff / Angle.TAU);
+                    error = Math.max(error, Math.abs(diff));
+                }
+                if(Double.isNaN(error)) break;
+            }
+            double errorEstimate = SAFETY_FACTOR * error + ROUNDOFF_MARGIN;
+            if(errorEstimate <= tolerance) return new Window(index, series, errorEstimate);
+        }
+        return new Window(index, null, 0);
+    }
+
+    /**
+     * Private class representing a fitted window, or a window falling back to the direct model (null series).
+     */
+    private static final class Window {
+
+        private final long index;
+        private final ChebyshevSeries[] series;
+        private final double errorEstimate;
+
+        private Window(long index, ChebyshevSeries[] series, double errorEstimate) {
+            this.index = index;
+            this.series = series;
+            this.errorEstimate = errorEstimate;
+        }
+    }
+
+    /**
+     * Static imbricated class representing a ChebyshevEphemeris.Builder.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public final static class Builder<O> {
+
+        private final static double DEFAULT_WINDOW_DAYS = 16;
+        private final static int DEFAULT_DEGREE = 12;
+        private final static int DEFAULT_MAX_DEGREE = 48;
+        private final static double DEFAULT_TOLERANCE = 1e-8;
+        private final static int DEFAULT_MAX_WINDOWS = 512;
+
+        private final EclipticModel<O> model;
+        private double windowDays = DEFAULT_WINDOW_DAYS;
+        private int degree = DEFAULT_DEGREE;
+        private int maxDegree = DEFAULT_MAX_DEGREE;
+        private double tolerance = DEFAULT_TOLERANCE;
+        private int maxWindows = DEFAULT_MAX_WINDOWS;
+
+        /**
+         * Default constructor of a ChebyshevEphemeris.Builder approximating the given model with the default parameters.
+         *
+         * @param EclipticModel<O> (model)
+         */
+        public Builder(EclipticModel<O> model) {
+            this.model = model;
+        }
+
+        /**
+         * Sets the length of the windows, in days.
+         *
+         * @param double (windowDays)
+         * @return Builder<O> (this)
+         */
+        public Builder<O> setWindowDays(double windowDays) {
+            checkArgument(windowDays > 0);
+            this.windowDays = windowDays;
+            return this;
+        }
+
+        /**
+         * Sets the initial and maximum degrees of the series.
+         *
+         * @param int (degree)
+         * @param int (maxDegree)
+         * @return Builder<O> (this)
+         */
+        public Builder<O> setDegrees(int degree, int maxDegree) {
+            checkArgument(0 < degree && degree <= maxDegree);
+            this.degree = degree;
+            this.maxDegree = maxDegree;
+            return this;
+        }
+
+        /**
+         * Sets the largest error estimate accepted for a window, in the units of the channels (radiant for the angles).
+         *
+         * @param double (tolerance)
+         * @return Builder<O> (this)
+         */
+        public Builder<O> setTolerance(double tolerance) {
+            checkArgument(tolerance > 0);
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of windows kept.
+         *
+         * @param int (maxWindows)
+         * @return Builder<O> (this)
+         */
+        public Builder<O> setMaxWindows(int maxWindows) {
+            checkArgument(maxWindows > 0);
+            this.maxWindows = maxWindows;
+            return this;
+        }
+
+        /**
+         * Builds the ChebyshevEphemeris. No window is fitted before the first request.
+         *
+         * @return ChebyshevEphemeris<O> (ephemeris)
+         */
+        public ChebyshevEphemeris<O> build() {
+            return new ChebyshevEphemeris<>(this);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+/**
+ * A Celestial Object Model Whose Objects Are Determined By Their Ecliptic Coordinates.
+ * The model is split in two steps : the computation of CHANNELS smooth functions of the time,
+ * and the construction of the object from these values. This allows these functions to be approximated
+ * (see ChebyshevEphemeris) without changing the objects built.
+ * The channels are :
+ * -[0] : ecliptic longitude in radiant, not normalized (continuous up to multiples of TAU)
+ * -[1] : ecliptic latitude in radiant
+ * -[2] : angular size in radiant
+ * -[3] : a quantity specific to the model (e.g. the mean anomaly of the Sun, the phase of the Moon)
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public interface EclipticModel<O> extends CelestialObjectModel<O> {
+
+    /**
+     * The number of channels of a model.
+     */
+    public final static int CHANNELS = 4;
+
+    /**
+     * Computes the channels of the model at the given numbers of days since J2010, into the first
+     * CHANNELS indexes of the given array.
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (channels)
+     */
+    public abstract void channelsAt(double daysSinceJ2010, double[] channels);
+
+    /**
+     * Returns the genericObject determined by the given channels, using the given conversion to get
+     * its EquatorialCoordinates from its EclipticCoordinates.
+     *
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return O (genericObject)
+     */
+    public abstract O fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion);
+
+    /**
+     * Returns the genericObject modelized by the numbers of days since J2010, built from its channels.
+     *
+     * @param double (daysSinceJ2010)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return O (genericObject)
+     */
+    @Override
+    public default O at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        double[] channels = new double[CHANNELS];
+        channelsAt(daysSinceJ2010, channels);
+        return fromChannels(channels, eclipticToEquatorialConversion);
+    }
+}
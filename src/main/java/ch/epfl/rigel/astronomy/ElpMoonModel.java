@@ -0,0 +1,184 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.Polynomial;
+
+/**
+ * A Moon Model Based On The Truncated ELP-2000/82 Series.
+ * The geocentric ecliptic longitude, latitude and distance of the Moon are the sums of the periodic terms of the
+ * file elp2000.txt whose amplitude is at least the given level (0 keeping all the terms of the file), the amplitude
+ * of a distance term being taken as the angle it subtends at the mean distance of the Moon. The additive terms
+ * (action of Venus and Jupiter, flattening of the Earth) are always kept. The phase follows from the phase angle
+ * of J. Meeus (Astronomical Algorithms, chapter 48), and the angular size from the distance.
+ * The time is used as terrestrial time (the difference with the universal time, about a minute, is neglected).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ElpMoonModel implements EclipticModel<Moon> {
+
+    private final static String ELP_PATH = "/elp2000.txt";
+    private final static String ENCODING = "US-ASCII";
+    //Terms in the form {D, M, M', F, l, r} (longitude and distance) and {D, M, M', F, b} (latitude)
+    private final static List<double[]> LR_TERMS = new ArrayList<>();
+    private final static List<double[]> B_TERMS = new ArrayList<>();
+    static {
+        load();
+    }
+
+    //Fundamental arguments, in degrees, as functions of the Julian centuries since J2000
+    private final static Polynomial MEAN_LONGITUDE = Polynomial.of(-1 / 65194000.0, 1 / 538841.0, -0.0015786, 481267.88123421, 218.3164477);
+    private final static Polynomial MEAN_ELONGATION = Polynomial.of(-1 / 113065000.0, 1 / 545868.0, -0.0018819, 445267.1114034, 297.8501921);
+    private final static Polynomial SUN_MEAN_ANOMALY = Polynomial.of(1 / 24490000.0, -0.0001536, 35999.0502909, 357.5291092);
+    private final static Polynomial MEAN_ANOMALY = Polynomial.of(-1 / 14712000.0, 1 / 69699.0, 0.0087414, 477198.8675055, 134.9633964);
+    private final static Polynomial ARGUMENT_OF_LATITUDE = Polynomial.of(1 / 863310000.0, -1 / 3526000.0, -0.0036539, 483202.0175233, 93.2720950);
+    private final static Polynomial ECCENTRICITY_FACTOR = Polynomial.of(-0.0000074, -0.002516, 1);
+    private final static double ANGLE_UNIT = Angle.ofDeg(1e-6);
+    private final static double DISTANCE_UNIT_KM = 1e-3;
+    private final static double MEAN_DISTANCE_KM = 385000.56;
+    private final static double MOON_RADIUS_KM = 1737.4;
+
+    private final int[] lrArguments;
+    private final double[] longitudeAmplitudes;
+    private final double[] distanceAmplitudes;
+    private final int[] bArguments;
+    private final double[] latitudeAmplitudes;
+
+    /**
+     * Default constructor of an ElpMoonModel, keeping the terms whose amplitude is at least minAmplitude (in radiant).
+     * Throws IllegalArgumentException if minAmplitude is negative.
+     *
+     * @param double (minAmplitude)
+     */
+    public ElpMoonModel(double minAmplitude) {
+        checkArgument(minAmplitude >= 0);
+        List<double[]> lrTerms = new ArrayList<>();
+        for(double[] term : LR_TERMS) {
+            if(Math.max(Math.abs(term[4]) * ANGLE_UNIT, Math.abs(term[5]) * DISTANCE_UNIT_KM / MEAN_DISTANCE_KM) >= minAmplitude) lrTerms.add(term);
+        }
+        List<double[]> bTerms = new ArrayList<>();
+        for(double[] term : B_TERMS) {
+            if(Math.abs(term[4]) * ANGLE_UNIT >= minAmplitude) bTerms.add(term);
+        }
+        this.lrArguments = new int[4*lrTerms.size()];
+        this.longitudeAmplitudes = new double[lrTerms.size()];
+        this.distanceAmplitudes = new double[lrTerms.size()];
+        for(int t = 0; t < lrTerms.size(); ++t) {
+            for(int j = 0; j < 4; ++j) lrArguments[4*t + j] = (int) lrTerms.get(t)[j];
+            longitudeAmplitudes[t] = lrTerms.get(t)[4] * ANGLE_UNIT;
+            distanceAmplitudes[t] = lrTerms.get(t)[5] * DISTANCE_UNIT_KM;
+        }
+        this.bArguments = new int[4*bTerms.size()];
+        this.latitudeAmplitudes = new double[bTerms.size()];
+        for(int t = 0; t < bTerms.size(); ++t) {
+            for(int j = 0; j < 4; ++j) bArguments[4*t + j] = (int) bTerms.get(t)[j];
+            latitudeAmplitudes[t] = bTerms.get(t)[4] * ANGLE_UNIT;
+        }
+    }
+
+    /**
+     * Computes the channels of the Moon at the given numbers of days since J2010 :
+     * its ecliptic longitude and latitude, its angular size and its phase.
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (channels)
+     */
+    @Override
+    public void channelsAt(double daysSinceJ2010, double[] channels) {
+        double t = (daysSinceJ2010 + Vsop87PlanetModel.DAYS_J2000_TO_J2010) / 36525;
+        double meanLongitude = Angle.ofDeg(MEAN_LONGITUDE.at(t));
+        double[] arguments = {
+                Angle.ofDeg(MEAN_ELONGATION.at(t)),
+                Angle.ofDeg(SUN_MEAN_ANOMALY.at(t)),
+                Angle.ofDeg(MEAN_ANOMALY.at(t)),
+                Angle.ofDeg(ARGUMENT_OF_LATITUDE.at(t))
+        };
+        double e = ECCENTRICITY_FACTOR.at(t);
+        double longitude = 0;
+        double distance = 0;
+        for(int i = 0; i < longitudeAmplitudes.length; ++i) {
+            double argument = argument(lrArguments, i, arguments);
+            double factor = eccentricityFactor(lrArguments[4*i + 1], e);
+            longitude += factor * longitudeAmplitudes[i] * Math.sin(argument);
+            distance += factor * distanceAmplitudes[i] * Math.cos(argument);
+        }
+        double latitude = 0;
+        for(int i = 0; i < latitudeAmplitudes.length; ++i) {
+            latitude += eccentricityFactor(bArguments[4*i + 1], e) * latitudeAmplitudes[i] * Math.sin(argument(bArguments, i, arguments));
+        }
+        double a1 = Angle.ofDeg(119.75 + 131.849*t);
+        double a2 = Angle.ofDeg(53.09 + 479264.290*t);
+        double a3 = Angle.ofDeg(313.45 + 481266.484*t);
+        double f = arguments[3];
+        double anomaly = arguments[2];
+        longitude += ANGLE_UNIT * (3958*Math.sin(a1) + 1962*Math.sin(meanLongitude - f) + 318*Math.sin(a2));
+        latitude += ANGLE_UNIT * (-2235*Math.sin(meanLongitude) + 382*Math.sin(a3) + 175*Math.sin(a1 - f) + 175*Math.sin(a1 + f)
+                + 127*Math.sin(meanLongitude - anomaly) - 115*Math.sin(meanLongitude + anomaly));
+        double elongation = arguments[0];
+        double sunAnomaly = arguments[1];
+        double phaseAngle = Math.PI - elongation - Angle.ofDeg(6.289*Math.sin(anomaly) - 2.100*Math.sin(sunAnomaly) + 1.274*Math.sin(2*elongation - anomaly)
+                + 0.658*Math.sin(2*elongation) + 0.214*Math.sin(2*anomaly) + 0.110*Math.sin(elongation));
+        channels[0] = meanLongitude + longitude;
+        channels[1] = latitude;
+        channels[2] = 2 * Math.asin(MOON_RADIUS_KM / (MEAN_DISTANCE_KM + distance));
+        channels[3] = (1 + Math.cos(phaseAngle)) / 2;
+    }
+
+    /**
+     * Returns the Moon determined by the given channels, as built by MoonModel.
+     *
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return Moon (moon)
+     */
+    @Override
+    public Moon fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return MoonModel.MOON.fromChannels(channels, eclipticToEquatorialConversion);
+    }
+
+    /**
+     * Returns the number of periodic terms kept.
+     *
+     * @return int (termCount)
+     */
+    public int termCount() {
+        return longitudeAmplitudes.length + latitudeAmplitudes.length;
+    }
+
+    private static double argument(int[] multiples, int term, double[] arguments) {
+        double argument = 0;
+        for(int j = 0; j < 4; ++j) argument += multiples[4*term + j] * arguments[j];
+        return argument;
+    }
+
+    //The terms depending on the mean anomaly of the Sun decrease with the eccentricity of the orbit of the Earth
+    private static double eccentricityFactor(int sunAnomalyMultiple, double e) {
+        return (sunAnomalyMultiple == 0) ? 1 : (Math.abs(sunAnomalyMultiple) == 1) ? e : e*e;
+    }
+
+    private static void load() {
+        try (BufferedReader b = new BufferedReader(new InputStreamReader(ElpMoonModel.class.getResourceAsStream(ELP_PATH), Charset.forName(ENCODING)))) {
+            b.lines().filter(s -> !s.isBlank() && !s.startsWith("#"))
+                     .forEachOrdered(s -> {
+                         String[] str = s.strip().split("\\s+");
+                         double[] term = new double[str.length - 1];
+                         for(int i = 1; i < str.length; ++i) term[i - 1] = Double.parseDouble(str[i]);
+                         (str[0].equals("LR") ? LR_TERMS : B_TERMS).add(term);
+                     });
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
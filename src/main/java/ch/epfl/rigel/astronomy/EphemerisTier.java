@@ -0,0 +1,110 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The Precision Tiers Of The Models Of The Solar System.
+ * -STANDARD : the models of the project (SunModel, MoonModel, PlanetModel), with errors of the order of the minute
+ *  of arc for the Sun and the Moon, and up to several degrees for the planets (first-order equation of the center) ;
+ * -TRUNCATED : the truncated VSOP87D and ELP-2000/82 series (see Vsop87PlanetModel, Vsop87SunModel, ElpMoonModel),
+ *  keeping the terms of at least 1e-5 radiant (about 2") ;
+ * -FULL : the same series with all their tabulated terms.
+ * The models of a tier are created once, by the initialization of its holder class on the first request.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public enum EphemerisTier {
+
+    STANDARD(Double.NaN),
+    TRUNCATED(1e-5),
+    FULL(0);
+
+    private final double minAmplitude;
+
+    private EphemerisTier(double minAmplitude) {
+        this.minAmplitude = minAmplitude;
+    }
+
+    /**
+     * Returns the amplitude of the smallest terms kept by the series of the tier, in radiant (NaN for STANDARD).
+     *
+     * @return double (minAmplitude)
+     */
+    public double minAmplitude() {
+        return minAmplitude;
+    }
+
+    /**
+     * Returns the model of the Sun of the tier.
+     *
+     * @return EclipticModel<Sun> (sun)
+     */
+    public EclipticModel<Sun> sun() {
+        return (this == STANDARD) ? SunModel.SUN : series().sun;
+    }
+
+    /**
+     * Returns the model of the Moon of the tier.
+     *
+     * @return EclipticModel<Moon> (moon)
+     */
+    public EclipticModel<Moon> moon() {
+        return (this == STANDARD) ? MoonModel.MOON : series().moon;
+    }
+
+    /**
+     * Returns the model of the given planet of the tier.
+     * Throws IllegalArgumentException if the planet is the Earth and the tier is not STANDARD.
+     *
+     * @param PlanetModel (planet)
+     * @return EclipticModel<Planet> (model)
+     */
+    public EclipticModel<Planet> planet(PlanetModel planet) {
+        if(this == STANDARD) return planet;
+        checkArgument(planet != PlanetModel.EARTH);
+        return series().planets.get(planet);
+    }
+
+    private Series series() {
+        return (this == TRUNCATED) ? TruncatedSeries.SERIES : FullSeries.SERIES;
+    }
+
+    /**
+     * Private class representing the models of the series of a tier.
+     */
+    private static final class Series {
+
+        private final EclipticModel<Sun> sun;
+        private final EclipticModel<Moon> moon;
+        private final Map<PlanetModel, EclipticModel<Planet>> planets;
+
+        private Series(double minAmplitude) {
+            this.sun = new Vsop87SunModel(minAmplitude);
+            this.moon = new ElpMoonModel(minAmplitude);
+            Map<PlanetModel, EclipticModel<Planet>> planets = new EnumMap<>(PlanetModel.class);
+            for(PlanetModel planet : PlanetModel.ALL) {
+                if(planet != PlanetModel.EARTH) planets.put(planet, new Vsop87PlanetModel(planet, minAmplitude));
+            }
+            this.planets = Collections.unmodifiableMap(planets);
+        }
+    }
+
+    /**
+     * Private class holding the models of TRUNCATED, created when it is first used.
+     */
+    private static final class TruncatedSeries {
+        private final static Series SERIES = new Series(TRUNCATED.minAmplitude);
+    }
+
+    /**
+     * Private class holding the models of FULL, created when it is first used.
+     */
+    private static final class FullSeries {
+        private final static Series SERIES = new Series(FULL.minAmplitude);
+    }
+}
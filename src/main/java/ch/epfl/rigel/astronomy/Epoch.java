@@ -21,11 +21,13 @@ public enum Epoch {
     J2010((ZonedDateTime.of(LocalDate.of(2010, Month.JANUARY, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC)).minusDays(1));
    
     private final ZonedDateTime t;
+    private final long epochMillis;
     private final static int DAYS_IN_JUSTINIAN_CENTURY = 36525;
     private final static int MILLIS_IN_DAY = 24*60*60*1000;
     
     private Epoch(ZonedDateTime t) {
         this.t = t;
+        this.epochMillis = t.toInstant().toEpochMilli();
     }
     
     /**
@@ -46,5 +48,25 @@ public enum Epoch {
      */
     public double julianCenturiesUntil(ZonedDateTime when) {
         return daysUntil(when)/DAYS_IN_JUSTINIAN_CENTURY;
+    }
+    
+    /**
+     * Returns the number of days between a given moment, in milliseconds since 1970-01-01T00:00Z, and an epoch(this).
+     * 
+     * @param long (epochMillis)
+     * @return double (nbDays)
+     */
+    public double daysUntil(long epochMillis) {
+        return (epochMillis - this.epochMillis) / (double)MILLIS_IN_DAY;
+    }
+    
+    /**
+     * Returns the number of Julian centuries between a given moment, in milliseconds since 1970-01-01T00:00Z, and an epoch(this).
+     * 
+     * @param long (epochMillis)
+     * @return double (nbJulianCenturies)
+     */
+    public double julianCenturiesUntil(long epochMillis) {
+        return daysUntil(epochMillis)/DAYS_IN_JUSTINIAN_CENTURY;
     }   
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.List;
+
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+
+/**
+ * The Horizontal Coordinates Of All The Celestial Objects Seen From A Given Position At A Given Moment.
+ * Second layer of an ObservedSky : it does not depend on the projection, and can therefore be shared
+ * by the skies observed with different projection centers.
+ * Each object class is only converted on its first access. The altitudes are the apparent ones, refracted by the
+ * Atmosphere of the HorizontalSky, which also gives the extinctions of the objects.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+final class HorizontalSky {
+
+    private final SolarSystemSnapshot ephemeris;
+    private final StarCatalogue starCatalogue;
+    private final Atmosphere atmosphere;
+    private final Lazy<double[]> sunPosition;
+    private final Lazy<double[]> moonPosition;
+    private final Lazy<double[]> planetPositions;
+    private final Lazy<double[]> starPositions;
+    private final Lazy<VisibleMinorBodies> minorBodies;
+    private final Lazy<double[]> planetExtinctions;
+    private final Lazy<double[]> starExtinctions;
+    private final Lazy<double[]> minorBodyExtinctions;
+
+    /**
+     * Default constructor of a HorizontalSky, for the bodies of the given SolarSystemSnapshot and the stars of
+     * the given StarCatalogue, at a given moment (in milliseconds since 1970-01-01T00:00Z) and position (GeographicCoordinates).
+     *
+     * @param SolarSystemSnapshot (ephemeris)
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param StarCatalogue (starCatalogue)
+     */
+    HorizontalSky(SolarSystemSnapshot ephemeris, long epochMillis, GeographicCoordinates geoCoords, StarCatalogue starCatalogue) {
+        this(ephemeris, epochMillis, geoCoords, starCatalogue, MinorBodyCatalogue.EMPTY, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Constructor of a HorizontalSky also containing the minor bodies of the given MinorBodyCatalogue of magnitude
+     * at most maxMagnitude and above the horizon (see MinorBodyCatalogue.visibleAt).
+     *
+     * @param SolarSystemSnapshot (ephemeris)
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param StarCatalogue (starCatalogue)
+     * @param MinorBodyCatalogue (minorBodyCatalogue)
+     * @param double (maxMagnitude)
+     */
+    HorizontalSky(SolarSystemSnapshot ephemeris, long epochMillis, GeographicCoordinates geoCoords, StarCatalogue starCatalogue,
+            MinorBodyCatalogue minorBodyCatalogue, double maxMagnitude) {
+        this(ephemeris, epochMillis, geoCoords, starCatalogue, minorBodyCatalogue, maxMagnitude, Atmosphere.NONE);
+    }
+
+    /**
+     * Constructor of a HorizontalSky also containing minor bodies (see above), whose objects are seen through
+     * the given Atmosphere.
+     *
+     * @param SolarSystemSnapshot (ephemeris)
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param StarCatalogue (starCatalogue)
+     * @param MinorBodyCatalogue (minorBodyCatalogue)
+     * @param double (maxMagnitude)
+     * @param Atmosphere (atmosphere)
+     */
+    HorizontalSky(SolarSystemSnapshot ephemeris, long epochMillis, GeographicCoordinates geoCoords, StarCatalogue starCatalogue,
+            MinorBodyCatalogue minorBodyCatalogue, double maxMagnitude, Atmosphere atmosphere) {
+        this.ephemeris = ephemeris;
+        this.starCatalogue = starCatalogue;
+        this.atmosphere = atmosphere;
+        EquatorialToHorizontalConversion eqToHorConversion = new EquatorialToHorizontalConversion(epochMillis, geoCoords);
+        this.sunPosition = new Lazy<>(() -> toHorizontal(eqToHorConversion, List.of(ephemeris.sun())));
+        this.moonPosition = new Lazy<>(() -> toHorizontal(eqToHorConversion, List.of(ephemeris.moon())));
+        this.planetPositions = new Lazy<>(() -> toHorizontal(eqToHorConversion, ephemeris.planets()));
+        this.starPositions = new Lazy<>(() -> {
+            double[] positions = new double[2 * starCatalogue.stars().size()];
+            //The catalogue positions are of J2000 : precession and nutation are fused in their conversion
+            EquatorialToHorizontalConversion.ofJ2000(epochMillis, geoCoords).apply(starCatalogue.sharedEquatorialPositionsAt(epochMillis), 0, positions, 0, positions.length / 2);
+            atmosphere.refract(positions, 0, positions.length / 2);
+            return positions;
+        });
+        this.minorBodies = new Lazy<>(() -> {
+            VisibleMinorBodies bodies = minorBodyCatalogue.visibleAt(epochMillis, geoCoords, maxMagnitude, true);
+            //The bodies were just created for this sky, their positions can be refracted in place
+            atmosphere.refract(bodies.sharedHorizontalPositions(), 0, bodies.count());
+            return bodies;
+        });
+        this.planetExtinctions = new Lazy<>(() -> extinctions(planetPositions.get()));
+        this.starExtinctions = new Lazy<>(() -> extinctions(starPositions.get()));
+        this.minorBodyExtinctions = new Lazy<>(() -> extinctions(minorBodies.get().sharedHorizontalPositions()));
+    }
+
+    private double[] extinctions(double[] positions) {
+        double[] extinctions = new double[positions.length / 2];
+        atmosphere.extinctions(positions, 0, extinctions, 0, extinctions.length);
+        return extinctions;
+    }
+
+    private double[] toHorizontal(EquatorialToHorizontalConversion eqToHorConversion, List<? extends CelestialObject> objects) {
+        double[] positions = new double[2 * objects.size()];
+        int counter = 0;
+        for(CelestialObject obj : objects) {
+            positions[counter++] = obj.equatorialPos().ra();
+            positions[counter++] = obj.equatorialPos().dec();
+        }
+        eqToHorConversion.apply(positions, 0, positions, 0, objects.size());
+        atmosphere.refract(positions, 0, objects.size());
+        return positions;
+    }
+
+    /**
+     * Returns the SolarSystemSnapshot from which the HorizontalSky was built.
+     *
+     * @return SolarSystemSnapshot (ephemeris)
+     */
+    SolarSystemSnapshot ephemeris() {
+        return ephemeris;
+    }
+
+    /**
+     * Returns the StarCatalogue from which the HorizontalSky was built.
+     *
+     * @return StarCatalogue (starCatalogue)
+     */
+    StarCatalogue starCatalogue() {
+        return starCatalogue;
+    }
+
+    /**
+     * Returns the horizontal position (az, alt) of the Sun. The returned array must not be modified.
+     *
+     * @return [] double (sunPosition)
+     */
+    double[] sunPosition() {
+        return sunPosition.get();
+    }
+
+    /**
+     * Returns the horizontal position (az, alt) of the Moon. The returned array must not be modified.
+     *
+     * @return [] double (moonPosition)
+     */
+    double[] moonPosition() {
+        return moonPosition.get();
+    }
+
+    /**
+     * Returns the horizontal positions (az, alt) of the planets, in the order of the SolarSystemSnapshot.
+     * The returned array must not be modified.
+     *
+     * @return [] double (planetPositions)
+     */
+    double[] planetPositions() {
+        return planetPositions.get();
+    }
+
+    /**
+     * Returns the horizontal positions (az, alt) of the stars, in the order of the catalogue.
+     * The returned array must not be modified.
+     *
+     * @return [] double (starPositions)
+     */
+    double[] starPositions() {
+        return starPositions.get();
+    }
+
+    /**
+     * Returns the visible minor bodies, with their horizontal positions.
+     *
+     * @return VisibleMinorBodies (minorBodies)
+     */
+    VisibleMinorBodies minorBodies() {
+        return minorBodies.get();
+    }
+
+    /**
+     * Returns the Atmosphere through which the objects are seen.
+     *
+     * @return Atmosphere (atmosphere)
+     */
+    Atmosphere atmosphere() {
+        return atmosphere;
+    }
+
+    /**
+     * Returns the extinctions of the planets, in magnitudes and in the order of the SolarSystemSnapshot.
+     * The returned array must not be modified.
+     *
+     * @return [] double (planetExtinctions)
+     */
+    double[] planetExtinctions() {
+        return planetExtinctions.get();
+    }
+
+    /**
+     * Returns the extinctions of the stars, in magnitudes and in the order of the catalogue.
+     * The returned array must not be modified.
+     *
+     * @return [] double (starExtinctions)
+     */
+    double[] starExtinctions() {
+        return starExtinctions.get();
+    }
+
+    /**
+     * Returns the extinctions of the visible minor bodies, in magnitudes and in their order.
+     * The returned array must not be modified.
+     *
+     * @return [] double (minorBodyExtinctions)
+     */
+    double[] minorBodyExtinctions() {
+        return minorBodyExtinctions.get();
+    }
+}
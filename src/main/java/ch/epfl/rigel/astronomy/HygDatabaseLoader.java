@@ -12,6 +12,8 @@ import ch.epfl.rigel.coordinates.EquatorialCoordinates;;
 
 /**
  * A Hygdatabase Loader.
+ * The positions of the database are the ones of the epoch J2000, and its proper motions (PMRARAD, PMDECRAD) are
+ * given in radiant per year, the one in right ascension being multiplied by the cosine of the declination.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
@@ -43,7 +45,9 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader {
                              EquatorialCoordinates eqCoords = EquatorialCoordinates.of(Double.parseDouble(st[Hyg.RARAD.ordinal()]), Double.parseDouble(st[Hyg.DECRAD.ordinal()]));
                              float magnitude = (st[Hyg.MAG.ordinal()].isEmpty()) ? 0f : Float.parseFloat(st[Hyg.MAG.ordinal()]);
                              float colorIndex = (st[Hyg.CI.ordinal()].isEmpty()) ? 0f : Float.parseFloat(st[Hyg.CI.ordinal()]);
-                             Star star = new Star(hipparcosId, name, eqCoords, magnitude, colorIndex);
+                             double properMotionRa = (st[Hyg.PMRARAD.ordinal()].isEmpty()) ? 0 : Double.parseDouble(st[Hyg.PMRARAD.ordinal()]);
+                             double properMotionDec = (st[Hyg.PMDECRAD.ordinal()].isEmpty()) ? 0 : Double.parseDouble(st[Hyg.PMDECRAD.ordinal()]);
+                             Star star = new Star(hipparcosId, name, eqCoords, magnitude, colorIndex, properMotionRa, properMotionDec);
                              builder.addStar(star);
                          });
         }
@@ -0,0 +1,77 @@
+package ch.epfl.rigel.astronomy;
+
+/**
+ * Solvers Of The Equation Of Kepler.
+ * The elliptic solver works on arrays, with the same operations applied to every element at each iteration
+ * (the iterations only stop when all the elements have converged), so that the loops can be vectorized.
+ * The hyperbolic and parabolic cases, rare among the minor bodies, are solved one by one.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+final class KeplerSolver {
+
+    private final static int MAX_ITERATIONS = 64;
+    private final static double TOLERANCE = 1e-12;
+
+    private KeplerSolver() {
+        // Non instantiable class
+    }
+
+    /**
+     * Computes the eccentric anomalies E solving E - e*sin(E) = M for the first count mean anomalies M (in [-PI;PI])
+     * and eccentricities e (in [0;1[) of the given arrays, into eccentricAnomalies.
+     *
+     * @param double[] (meanAnomalies)
+     * @param double[] (eccentricities)
+     * @param double[] (eccentricAnomalies)
+     * @param int (count)
+     */
+    static void eccentricAnomalies(double[] meanAnomalies, double[] eccentricities, double[] eccentricAnomalies, int count) {
+        //Solved for |M| : E - e*sin(E) - |M| being convex on [0;PI], Newton's method started on the right of the root converges monotonically
+        for(int i = 0; i < count; ++i) eccentricAnomalies[i] = Math.min(Math.abs(meanAnomalies[i]) + eccentricities[i], Math.PI);
+        for(int iteration = 0; iteration < MAX_ITERATIONS; ++iteration) {
+            double maxCorrection = 0;
+            for(int i = 0; i < count; ++i) {
+                double e = eccentricities[i];
+                double anomaly = eccentricAnomalies[i];
+                double correction = (anomaly - e*Math.sin(anomaly) - Math.abs(meanAnomalies[i])) / (1 - e*Math.cos(anomaly));
+                eccentricAnomalies[i] = anomaly - correction;
+                maxCorrection = Math.max(maxCorrection, Math.abs(correction));
+            }
+            if(maxCorrection <= TOLERANCE) break;
+        }
+        for(int i = 0; i < count; ++i) eccentricAnomalies[i] = Math.copySign(eccentricAnomalies[i], meanAnomalies[i]);
+    }
+
+    /**
+     * Returns the hyperbolic anomaly F solving e*sinh(F) - F = M for the given mean anomaly M and eccentricity e (greater than 1).
+     *
+     * @param double (meanAnomaly)
+     * @param double (eccentricity)
+     * @return double (hyperbolicAnomaly)
+     */
+    static double hyperbolicAnomaly(double meanAnomaly, double eccentricity) {
+        //Convex on [0;+inf[ : after the first step, Newton's method converges monotonically
+        double m = Math.abs(meanAnomaly);
+        double anomaly = Math.log(2*m/eccentricity + 1.8);
+        for(int iteration = 0; iteration < MAX_ITERATIONS; ++iteration) {
+            double correction = (eccentricity*Math.sinh(anomaly) - anomaly - m) / (eccentricity*Math.cosh(anomaly) - 1);
+            anomaly -= correction;
+            if(Math.abs(correction) <= TOLERANCE * Math.max(1, anomaly)) break;
+        }
+        return Math.copySign(anomaly, meanAnomaly);
+    }
+
+    /**
+     * Returns tan(v/2), v being the true anomaly of a parabolic orbit, solving the equation of Barker
+     * s^3 + 3*s = W for the given W (the mean anomaly of the parabola).
+     *
+     * @param double (w)
+     * @return double (halfAngleTangent)
+     */
+    static double parabolicAnomaly(double w) {
+        double y = Math.cbrt(w/2 + Math.sqrt(w*w/4 + 1));
+        return y - 1/y;
+    }
+}
@@ -0,0 +1,49 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A Lazily Computed Value.
+ * The value is computed by the given supplier on the first call to get, and kept afterwards.
+ * Instances are thread safe : the supplier is called at most once, even when several threads
+ * ask for the value at the same time.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+final class Lazy<T> implements Supplier<T> {
+
+    private Supplier<? extends T> supplier;
+    private volatile T value;
+
+    /**
+     * Default constructor of a Lazy value, computed by the given supplier (which must not return null).
+     *
+     * @param Supplier<? extends T> (supplier)
+     */
+    Lazy(Supplier<? extends T> supplier) {
+        this.supplier = Objects.requireNonNull(supplier);
+    }
+
+    /**
+     * Returns the value, computing it if it is the first call.
+     *
+     * @return T (value)
+     */
+    @Override
+    public T get() {
+        T result = value;
+        if(result == null) {
+            synchronized(this) {
+                result = value;
+                if(result == null) {
+                    result = Objects.requireNonNull(supplier.get());
+                    value = result;
+                    supplier = null; //The captured state can be collected
+                }
+            }
+        }
+        return result;
+    }
+}
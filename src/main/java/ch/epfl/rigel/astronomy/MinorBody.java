@@ -0,0 +1,38 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+/**
+ * A Minor Body (Asteroid Or Comet).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class MinorBody extends CelestialObject {
+
+    private final boolean comet;
+
+    /**
+     * Default constructor of a MinorBody : constructs a MinorBody from a given
+     * name (String), equatorialPos (EquatorialCoordinates) and magnitude (float), its angular size being zero.
+     * Throws NullPointerException if the name or the equatorialPos are null.
+     *
+     * @param String (name)
+     * @param EquatorialCoordinates (equatorialPos)
+     * @param float (magnitude)
+     * @param boolean (comet)
+     */
+    public MinorBody(String name, EquatorialCoordinates equatorialPos, float magnitude, boolean comet) {
+        super(name, equatorialPos, 0, magnitude);
+        this.comet = comet;
+    }
+
+    /**
+     * Returns true if the MinorBody is a comet, false if it is an asteroid.
+     *
+     * @return boolean (comet)
+     */
+    public boolean isComet() {
+        return comet;
+    }
+}
@@ -0,0 +1,421 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Catalogue Of Minor Bodies (Asteroids And Comets) Given By Their Osculating Orbital Elements.
+ * The elements, referred to the ecliptic and equinox J2000, are stored in primitive arrays (one per element), so
+ * that catalogues of a million bodies stay compact. The positions are computed by chunks of consecutive bodies,
+ * possibly in parallel : the equations of Kepler of the elliptic orbits of a chunk are solved together (see
+ * KeplerSolver), the heliocentric positions are referred to the Earth (VSOP87D series, see EphemerisTier.TRUNCATED),
+ * and the geocentric ones are precessed to the equinox of date by the general precession in longitude.
+ * The light-time, the aberration and the perturbations since the epoch of the elements are neglected.
+ * The apparent magnitudes follow the H-G system for the asteroids, and m = H + 5*log(delta) + 2.5*K*log(r)
+ * for the comets.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class MinorBodyCatalogue {
+
+    private final static int CHUNK_SIZE = 4096;
+    //Gaussian gravitational constant, in radiant per day
+    private final static double GAUSSIAN_CONSTANT = 0.01720209895;
+    private final static double PARABOLIC_RATE = 3 * GAUSSIAN_CONSTANT / Math.sqrt(2);
+    //General precession in longitude, in radiant per Julian century
+    private final static double PRECESSION_RATE = Angle.ofArcsec(5029.0966);
+    private final static Vsop87Series EARTH = Vsop87Series.of(PlanetModel.EARTH, EphemerisTier.TRUNCATED.minAmplitude());
+    //Coefficients of the phase functions of the H-G system
+    private final static double A1 = 3.33, B1 = 0.63, A2 = 1.87, B2 = 1.22;
+    private final static byte ELLIPTIC = 0, PARABOLIC = 1, HYPERBOLIC = 2;
+    //Number of elements of a body in the builder, in the form {orbitType, q, e, perihelionDays, meanMotion, Px, Py, Pz, Qx, Qy, Qz, H, G}
+    private final static int ELEMENTS = 13;
+
+    /**
+     * The catalogue without any body.
+     */
+    public final static MinorBodyCatalogue EMPTY = new Builder().build();
+
+    private final String[] names;
+    private final boolean[] comets;
+    private final byte[] orbitTypes;
+    private final double[] perihelionDistances;
+    private final double[] eccentricities;
+    private final double[] perihelionDays;
+    private final double[] meanMotions;
+    //Unit vectors P (towards the perihelion) and Q of the orbital planes, in the form (Px, Py, Pz, Qx, Qy, Qz)
+    private final double[] orientations;
+    private final double[] absoluteMagnitudes;
+    private final double[] slopes;
+
+    private MinorBodyCatalogue(Builder builder) {
+        int count = builder.names.size();
+        double[] elements = builder.elements;
+        this.names = builder.names.toArray(new String[0]);
+        this.comets = Arrays.copyOf(builder.comets, count);
+        this.orbitTypes = new byte[count];
+        this.perihelionDistances = new double[count];
+        this.eccentricities = new double[count];
+        this.perihelionDays = new double[count];
+        this.meanMotions = new double[count];
+        this.orientations = new double[6*count];
+        this.absoluteMagnitudes = new double[count];
+        this.slopes = new double[count];
+        for(int i = 0; i < count; ++i) {
+            int offset = ELEMENTS*i;
+            orbitTypes[i] = (byte) elements[offset];
+            perihelionDistances[i] = elements[offset + 1];
+            eccentricities[i] = elements[offset + 2];
+            perihelionDays[i] = elements[offset + 3];
+            meanMotions[i] = elements[offset + 4];
+            System.arraycopy(elements, offset + 5, orientations, 6*i, 6);
+            absoluteMagnitudes[i] = elements[offset + 11];
+            slopes[i] = elements[offset + 12];
+        }
+    }
+
+    /**
+     * Returns the number of bodies of the catalogue.
+     *
+     * @return int (size)
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the body of the given index.
+     *
+     * @param int (index)
+     * @return String (name)
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns true if the body of the given index is a comet, false if it is an asteroid.
+     *
+     * @param int (index)
+     * @return boolean (comet)
+     */
+    public boolean isComet(int index) {
+        return comets[index];
+    }
+
+    /**
+     * Computes the geocentric ecliptic positions, in the form (lon, lat) in radiant referred to the equinox of date,
+     * and the apparent magnitudes of the count bodies starting at the index from, at the given number of days since
+     * J2010. The position of the body from + i is written at the indexes 2i and 2i + 1 of eclipticPts, and its
+     * magnitude at the index i of magnitudes (NaN if its absolute magnitude is unknown).
+     * Throws IndexOutOfBoundsException if the bodies are not in the catalogue or if an array is too short.
+     *
+     * @param double (daysSinceJ2010)
+     * @param int (from)
+     * @param int (count)
+     * @param double[] (eclipticPts)
+     * @param double[] (magnitudes)
+     */
+    public void eclipticPositions(double daysSinceJ2010, int from, int count, double[] eclipticPts, double[] magnitudes) {
+        Objects.checkFromIndexSize(from, count, size());
+        Objects.checkFromIndexSize(0, 2*count, eclipticPts.length);
+        Objects.checkFromIndexSize(0, count, magnitudes.length);
+        double daysSinceJ2000 = daysSinceJ2010 + Vsop87PlanetModel.DAYS_J2000_TO_J2010;
+        double precession = PRECESSION_RATE * daysSinceJ2000 / 36525;
+        //Heliocentric position of the Earth, referred to the equinox J2000
+        double[] earth = new double[3];
+        EARTH.heliocentric(daysSinceJ2000 / Vsop87PlanetModel.DAYS_IN_MILLENNIUM, earth, 0);
+        double earthDistance = earth[2];
+        double earthX = earthDistance * Math.cos(earth[1]) * Math.cos(earth[0] - precession);
+        double earthY = earthDistance * Math.cos(earth[1]) * Math.sin(earth[0] - precession);
+        double earthZ = earthDistance * Math.sin(earth[1]);
+
+        double[] meanAnomalies = new double[count];
+        double[] ellipticEccentricities = new double[count];
+        double[] anomalies = new double[count];
+        for(int i = 0; i < count; ++i) {
+            int b = from + i;
+            //The other orbits are solved afterwards, the elliptic solver receiving the trivial equation E = 0
+            if(orbitTypes[b] == ELLIPTIC) {
+                meanAnomalies[i] = Math.IEEEremainder(meanMotions[b] * (daysSinceJ2010 - perihelionDays[b]), Angle.TAU);
+                ellipticEccentricities[i] = eccentricities[b];
+            }
+        }
+        KeplerSolver.eccentricAnomalies(meanAnomalies, ellipticEccentricities, anomalies, count);
+
+        for(int i = 0; i < count; ++i) {
+            int b = from + i;
+            double q = perihelionDistances[b];
+            double e = eccentricities[b];
+            double x, y, r;
+            if(orbitTypes[b] == ELLIPTIC) {
+                double a = q / (1 - e);
+                double cos = Math.cos(anomalies[i]);
+                x = a * (cos - e);
+                y = a * Math.sqrt(1 - e*e) * Math.sin(anomalies[i]);
+                r = a * (1 - e*cos);
+            } else if(orbitTypes[b] == HYPERBOLIC) {
+                double a = q / (e - 1);
+                double anomaly = KeplerSolver.hyperbolicAnomaly(meanMotions[b] * (daysSinceJ2010 - perihelionDays[b]), e);
+                double cosh = Math.cosh(anomaly);
+                x = a * (e - cosh);
+                y = a * Math.sqrt(e*e - 1) * Math.sinh(anomaly);
+                r = a * (e*cosh - 1);
+            } else {
+                double s = KeplerSolver.parabolicAnomaly(meanMotions[b] * (daysSinceJ2010 - perihelionDays[b]));
+                x = q * (1 - s*s);
+                y = 2 * q * s;
+                r = q * (1 + s*s);
+            }
+            int o = 6*b;
+            double geoX = x*orientations[o] + y*orientations[o + 3] - earthX;
+            double geoY = x*orientations[o + 1] + y*orientations[o + 4] - earthY;
+            double geoZ = x*orientations[o + 2] + y*orientations[o + 5] - earthZ;
+            double distance = Math.sqrt(geoX*geoX + geoY*geoY + geoZ*geoZ);
+            eclipticPts[2*i] = Angle.normalizePositive(Math.atan2(geoY, geoX) + precession);
+            eclipticPts[2*i + 1] = Math.atan2(geoZ, Math.hypot(geoX, geoY));
+            magnitudes[i] = comets[b] ? cometMagnitude(b, r, distance) : asteroidMagnitude(b, r, distance, earthDistance);
+        }
+    }
+
+    private double cometMagnitude(int b, double r, double distance) {
+        return absoluteMagnitudes[b] + 5*Math.log10(distance) + 2.5*slopes[b]*Math.log10(r);
+    }
+
+    private double asteroidMagnitude(int b, double r, double distance, double earthDistance) {
+        double cosPhaseAngle = (r*r + distance*distance - earthDistance*earthDistance) / (2*r*distance);
+        double tan = Math.tan(Math.acos(Math.max(-1, Math.min(1, cosPhaseAngle))) / 2);
+        double phi1 = Math.exp(-A1 * Math.pow(tan, B1));
+        double phi2 = Math.exp(-A2 * Math.pow(tan, B2));
+        double g = slopes[b];
+        return absoluteMagnitudes[b] + 5*Math.log10(r*distance) - 2.5*Math.log10((1 - g)*phi1 + g*phi2);
+    }
+
+    /**
+     * Returns the bodies visible at a given moment, in milliseconds since 1970-01-01T00:00Z, from a given position
+     * (GeographicCoordinates) : the bodies of magnitude at most maxMagnitude, above the horizon.
+     * The bodies are culled by magnitude before being converted to equatorial, then horizontal coordinates,
+     * with the batch conversions. The chunks of bodies are computed in parallel if parallel is true.
+     *
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @param double (maxMagnitude)
+     * @param boolean (parallel)
+     * @return VisibleMinorBodies (visible)
+     */
+    public VisibleMinorBodies visibleAt(long epochMillis, GeographicCoordinates where, double maxMagnitude, boolean parallel) {
+        double daysSinceJ2010 = Epoch.J2010.daysUntil(epochMillis);
+        EclipticToEquatorialConversion eclToEqu = new EclipticToEquatorialConversion(epochMillis);
+        EquatorialToHorizontalConversion equToHor = new EquatorialToHorizontalConversion(epochMillis, where);
+        int chunks = (size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream indexes = IntStream.range(0, chunks);
+        List<VisibleMinorBodies> parts = (parallel ? indexes.parallel() : indexes).mapToObj(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            int count = Math.min(CHUNK_SIZE, size() - from);
+            double[] eclipticPts = new double[2*count];
+            double[] magnitudes = new double[count];
+            eclipticPositions(daysSinceJ2010, from, count, eclipticPts, magnitudes);
+            //Culling by magnitude, then conversion of the bright bodies only
+            int bright = 0;
+            int[] indices = new int[count];
+            for(int i = 0; i < count; ++i) {
+                if(!(magnitudes[i] <= maxMagnitude)) continue;
+                indices[bright] = from + i;
+                magnitudes[bright] = magnitudes[i];
+                eclipticPts[2*bright] = eclipticPts[2*i];
+                eclipticPts[2*bright + 1] = eclipticPts[2*i + 1];
+                ++bright;
+            }
+            double[] equatorialPts = new double[2*bright];
+            double[] horizontalPts = new double[2*bright];
+            eclToEqu.apply(eclipticPts, 0, equatorialPts, 0, bright);
+            equToHor.apply(equatorialPts, 0, horizontalPts, 0, bright);
+            //Culling by altitude
+            int visible = 0;
+            for(int k = 0; k < bright; ++k) {
+                if(horizontalPts[2*k + 1] < 0) continue;
+                indices[visible] = indices[k];
+                magnitudes[visible] = magnitudes[k];
+                System.arraycopy(equatorialPts, 2*k, equatorialPts, 2*visible, 2);
+                System.arraycopy(horizontalPts, 2*k, horizontalPts, 2*visible, 2);
+                ++visible;
+            }
+            return new VisibleMinorBodies(this, Arrays.copyOf(indices, visible), Arrays.copyOf(equatorialPts, 2*visible),
+                    Arrays.copyOf(horizontalPts, 2*visible), Arrays.copyOf(magnitudes, visible));
+        }).collect(Collectors.toList());
+        return concatenate(parts);
+    }
+
+    private VisibleMinorBodies concatenate(List<VisibleMinorBodies> parts) {
+        int total = parts.stream().mapToInt(VisibleMinorBodies::count).sum();
+        int[] indices = new int[total];
+        double[] equatorialPts = new double[2*total];
+        double[] horizontalPts = new double[2*total];
+        double[] magnitudes = new double[total];
+        int size = 0;
+        for(VisibleMinorBodies part : parts) {
+            for(int k = 0; k < part.count(); ++k) {
+                indices[size] = part.index(k);
+                magnitudes[size] = part.magnitude(k);
+                ++size;
+            }
+            System.arraycopy(part.sharedEquatorialPositions(), 0, equatorialPts, 2*(size - part.count()), 2*part.count());
+            System.arraycopy(part.sharedHorizontalPositions(), 0, horizontalPts, 2*(size - part.count()), 2*part.count());
+        }
+        return new VisibleMinorBodies(this, indices, equatorialPts, horizontalPts, magnitudes);
+    }
+
+    /**
+     * Static imbricated class representing a MinorBodyCatalogue.Builder.
+     * The angles are in radiant, the distances in AU and the moments in days since J2010.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public final static class Builder {
+
+        private final static int INITIAL_CAPACITY = 1024;
+        private final static double DEFAULT_SLOPE = 0.15;
+
+        private final List<String> names = new ArrayList<>();
+        private boolean[] comets = new boolean[INITIAL_CAPACITY];
+        private double[] elements = new double[ELEMENTS*INITIAL_CAPACITY];
+
+        /**
+         * Default constructor of a MinorBodyCatalogue.Builder.
+         * Creates an empty list of minor bodies.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Adds an asteroid of the given semi-major axis a, eccentricity e, inclination i, longitude of the
+         * ascending node, argument of the perihelion and mean anomaly at the epoch, and of the given absolute
+         * magnitude H (NaN if unknown) and slope parameter G (NaN for the usual 0.15).
+         * Throws IAE if a is not strictly positive or if e is not in [0;1[.
+         *
+         * @param String (name)
+         * @param double (epochDays)
+         * @param double (a)
+         * @param double (e)
+         * @param double (i)
+         * @param double (node)
+         * @param double (perihelion)
+         * @param double (meanAnomaly)
+         * @param double (h)
+         * @param double (g)
+         * @return Builder (this)
+         */
+        public Builder addAsteroid(String name, double epochDays, double a, double e, double i, double node, double perihelion, double meanAnomaly, double h, double g) {
+            checkArgument(a > 0 && 0 <= e && e < 1);
+            double meanMotion = GAUSSIAN_CONSTANT / (a * Math.sqrt(a));
+            add(name, false, a * (1 - e), e, epochDays - meanAnomaly / meanMotion, i, node, perihelion, h, Double.isNaN(g) ? DEFAULT_SLOPE : g);
+            return this;
+        }
+
+        /**
+         * Adds a comet of the given time of perihelion passage, perihelion distance q, eccentricity e, inclination i,
+         * longitude of the ascending node and argument of the perihelion, and of the given absolute magnitude H
+         * (NaN if unknown) and slope parameter K.
+         * Throws IAE if q is not strictly positive or if e is negative.
+         *
+         * @param String (name)
+         * @param double (perihelionDays)
+         * @param double (q)
+         * @param double (e)
+         * @param double (i)
+         * @param double (node)
+         * @param double (perihelion)
+         * @param double (h)
+         * @param double (k)
+         * @return Builder (this)
+         */
+        public Builder addComet(String name, double perihelionDays, double q, double e, double i, double node, double perihelion, double h, double k) {
+            checkArgument(q > 0 && e >= 0);
+            add(name, true, q, e, perihelionDays, i, node, perihelion, h, k);
+            return this;
+        }
+
+        private void add(String name, boolean comet, double q, double e, double perihelionDays, double i, double node, double perihelion, double h, double slope) {
+            int index = names.size();
+            if(index == comets.length) {
+                comets = Arrays.copyOf(comets, 2*index);
+                elements = Arrays.copyOf(elements, 2*ELEMENTS*index);
+            }
+            names.add(Objects.requireNonNull(name));
+            comets[index] = comet;
+            double a = q / Math.abs(1 - e);
+            byte orbitType = (e < 1) ? ELLIPTIC : (e == 1) ? PARABOLIC : HYPERBOLIC;
+            double cosNode = Math.cos(node), sinNode = Math.sin(node);
+            double cosPerihelion = Math.cos(perihelion), sinPerihelion = Math.sin(perihelion);
+            double cosI = Math.cos(i), sinI = Math.sin(i);
+            double[] values = {
+                    orbitType, q, e, perihelionDays,
+                    (orbitType == PARABOLIC) ? PARABOLIC_RATE / (q * Math.sqrt(q)) : GAUSSIAN_CONSTANT / (a * Math.sqrt(a)),
+                    cosPerihelion*cosNode - sinPerihelion*sinNode*cosI,
+                    cosPerihelion*sinNode + sinPerihelion*cosNode*cosI,
+                    sinPerihelion*sinI,
+                    -sinPerihelion*cosNode - cosPerihelion*sinNode*cosI,
+                    -sinPerihelion*sinNode + cosPerihelion*cosNode*cosI,
+                    cosPerihelion*sinI,
+                    h, slope
+            };
+            System.arraycopy(values, 0, elements, ELEMENTS*index, ELEMENTS);
+        }
+
+        /**
+         * Loads the bodies of the given InputStream to the Builder (this) using a given Loader.
+         * Throws IOE in case of an IO error.
+         *
+         * @param InputStream (inputStream)
+         * @param Loader (loader)
+         * @return Builder (this)
+         * @throws IOException
+         */
+        public Builder loadFrom(InputStream inputStream, Loader loader) throws IOException {
+            loader.load(inputStream, this);
+            return this;
+        }
+
+        /**
+         * Builds the MinorBodyCatalogue.
+         * @return MinorBodyCatalogue (catalogue)
+         */
+        public MinorBodyCatalogue build() {
+            return new MinorBodyCatalogue(this);
+        }
+    }
+
+    /**
+     * Imbricated interface representing a MinorBodyCatalogue.Loader.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public interface Loader {
+
+        /**
+         * Loads minor bodies from a given InputStream and adds them in the Builder.
+         * Throws IOE in case of an IO error.
+         *
+         * @param InputStream (inputStream)
+         * @param Builder (builder)
+         * @throws IOException
+         */
+        public abstract void load(InputStream inputStream, Builder builder) throws IOException;
+    }
+}
@@ -4,6 +4,7 @@ import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
 
 /**
  * A Physical Moon Model.
@@ -11,7 +12,7 @@ import ch.epfl.rigel.math.Angle;
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
  */
-public enum MoonModel implements CelestialObjectModel<Moon> {
+public enum MoonModel implements EclipticModel<Moon> {
 
     MOON(91.929336, 130.143076, 291.682547, 5.145396, 0.0549, 0.5181);
     
@@ -22,6 +23,8 @@ public enum MoonModel implements CelestialObjectModel<Moon> {
     private final double theta0AngularSize;
     private final double cosOrbitInclination;
     private final double sinOrbitInclination;
+    
+    private final static ClosedInterval PHASE_INTERVAL = ClosedInterval.of(0, 1);
 
     private MoonModel(double meanLongitude, double perigeeMeanLongitude, double longitudeAscendingNode, double orbitInclination, double eccentricity, double theta0AngularSize) {
         this.meanLongitude = Angle.ofDeg(meanLongitude);
@@ -34,18 +37,31 @@ public enum MoonModel implements CelestialObjectModel<Moon> {
     }
 
     /**
-     * Returns the Moon modelized by the numbers of days since J2010, using
-     * the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     * Computes the channels of the Moon at the given numbers of days since J2010 :
+     * its ecliptic longitude and latitude, its angular size and its phase.
      * 
      * @param double (daysSinceJ2010)
-     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
-     * @return Moon (moon)
+     * @param double[] (channels)
      */
     @Override
-    public Moon at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
-        Sun s = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
-        double sunMeanAnomaly = s.meanAnomaly();
-        double sunEclipticLongitude = s.eclipticPos().lon();
+    public void channelsAt(double daysSinceJ2010, double[] channels) {
+        SunModel.SUN.channelsAt(daysSinceJ2010, channels, 0);
+        channelsAt(daysSinceJ2010, channels, 0, channels, 0);
+    }
+
+    /**
+     * Computes the channels of the Moon from the channels of the Sun at the same moment (see SunModel),
+     * read from sunChannels starting at sunOffset, into channels starting at offset (both arrays may be the same).
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (sunChannels)
+     * @param int (sunOffset)
+     * @param double[] (channels)
+     * @param int (offset)
+     */
+    void channelsAt(double daysSinceJ2010, double[] sunChannels, int sunOffset, double[] channels, int offset) {
+        double sunMeanAnomaly = (float)Angle.normalizePositive(sunChannels[sunOffset + 3]); //Same precision as Sun.meanAnomaly()
+        double sunEclipticLongitude = Angle.normalizePositive(sunChannels[sunOffset]);
         double meanOrbitalLongitude = Angle.ofDeg(13.1763966) * daysSinceJ2010 + meanLongitude;
         double meanAnomaly = meanOrbitalLongitude - Angle.ofDeg(0.1114041) * daysSinceJ2010 - perigeeMeanLongitude;
         double Ev = Angle.ofDeg(1.2739) * Math.sin(2 * (meanOrbitalLongitude - sunEclipticLongitude) - meanAnomaly);
@@ -63,11 +79,27 @@ public enum MoonModel implements CelestialObjectModel<Moon> {
         double temp = Math.sin(trueOrbitalLongitude - correctedAscendingNodeLongitude);
         double eclipticLongitude = Math.atan2(temp * cosOrbitInclination, Math.cos(trueOrbitalLongitude - correctedAscendingNodeLongitude)) + correctedAscendingNodeLongitude;
         double eclipticLatitude = Math.asin(temp * sinOrbitInclination);
-        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(eclipticLongitude), eclipticLatitude);
-        EquatorialCoordinates eqCoords = eclipticToEquatorialConversion.apply(eclCoords);
         double phase = (1 - Math.cos(trueOrbitalLongitude - sunEclipticLongitude)) / 2;
         double moonEarthDistance = (1 - eccentricity * eccentricity) / (1 + eccentricity*Math.cos(correctedMeanAnomaly + Ec));
-        double angularSize = theta0AngularSize / moonEarthDistance;
-        return new Moon(eqCoords, (float) angularSize, 0, (float) phase);
+        channels[offset] = eclipticLongitude;
+        channels[offset + 1] = eclipticLatitude;
+        channels[offset + 2] = theta0AngularSize / moonEarthDistance;
+        channels[offset + 3] = phase;
+    }
+    
+    /**
+     * Returns the Moon determined by the given channels, using
+     * the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     * The phase is clipped to [0;1], since approximated channels may slightly exceed it.
+     * 
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return Moon (moon)
+     */
+    @Override
+    public Moon fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(channels[0]), channels[1]);
+        EquatorialCoordinates eqCoords = eclipticToEquatorialConversion.apply(eclCoords);
+        return new Moon(eqCoords, (float) channels[2], 0, (float) PHASE_INTERVAL.clip(channels[3]));
     }   
 }
\ No newline at end of file
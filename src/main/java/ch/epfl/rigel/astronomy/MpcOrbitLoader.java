@@ -0,0 +1,84 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import ch.epfl.rigel.astronomy.MinorBodyCatalogue.Builder;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * Loaders Of The Orbital Elements Files Of The Minor Planet Center.
+ * -ASTEROIDS : the format of MPCORB.DAT (and of its extracts), one asteroid per line in fixed columns ; the header
+ *  lines are recognized by their epoch field, which is not a packed date.
+ * -COMETS : the format of CometEls.txt, one comet per line in fixed columns.
+ * The moments of the files, in terrestrial time, are used as universal time.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public enum MpcOrbitLoader implements MinorBodyCatalogue.Loader {
+
+    ASTEROIDS {
+        @Override
+        void loadLine(String line, Builder builder) {
+            if(line.length() < 103 || !line.substring(20, 25).matches("[I-K][0-9]{2}[1-9A-C][1-9A-V]")) return;
+            String packed = line.substring(0, 7).strip();
+            String name = (line.length() > 166) ? line.substring(166, Math.min(194, line.length())).strip() : "";
+            builder.addAsteroid(name.isEmpty() ? packed : name, packedEpoch(line.substring(20, 25)),
+                    number(line, 92, 103), number(line, 70, 79), degrees(line, 59, 68), degrees(line, 48, 57),
+                    degrees(line, 37, 46), degrees(line, 26, 35), number(line, 8, 13), number(line, 14, 19));
+        }
+    },
+    COMETS {
+        @Override
+        void loadLine(String line, Builder builder) {
+            if(line.length() < 100) return;
+            ZonedDateTime month = ZonedDateTime.of((int) number(line, 14, 18), (int) number(line, 19, 21), 1, 0, 0, 0, 0, ZoneOffset.UTC);
+            double perihelionDays = Epoch.J2010.daysUntil(month) + number(line, 22, 29) - 1;
+            String name = line.substring(102, Math.min(158, line.length())).strip();
+            builder.addComet(name, perihelionDays, number(line, 30, 39), number(line, 41, 49), degrees(line, 71, 79),
+                    degrees(line, 61, 69), degrees(line, 51, 59), number(line, 91, 95), number(line, 96, 100));
+        }
+    };
+
+    /**
+     * Loads the bodies of the given InputStream and adds them in the Builder.
+     * Throws IOE in case of an IO error.
+     *
+     * @param InputStream (inputStream)
+     * @param Builder (builder)
+     * @throws IOException
+     */
+    @Override
+    public void load(InputStream inputStream, Builder builder) throws IOException {
+        try(BufferedReader b = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("US-ASCII")))) {
+            b.lines().filter(s -> !s.isBlank())
+                     .forEachOrdered(s -> loadLine(s, builder));
+        }
+    }
+
+    abstract void loadLine(String line, Builder builder);
+
+    //The field between the given columns (0-based, end excluded), NaN if it is blank
+    private static double number(String line, int from, int to) {
+        String field = line.substring(from, Math.min(to, line.length())).strip();
+        return field.isEmpty() ? Double.NaN : Double.parseDouble(field);
+    }
+
+    private static double degrees(String line, int from, int to) {
+        return Angle.ofDeg(number(line, from, to));
+    }
+
+    //A packed date (e.g. K24AH for 2024-10-17) in days since J2010
+    private static double packedEpoch(String packed) {
+        int year = 100*Character.digit(packed.charAt(0), 36) + Integer.parseInt(packed.substring(1, 3));
+        int month = Character.digit(packed.charAt(3), 36);
+        int day = Character.digit(packed.charAt(4), 36);
+        return Epoch.J2010.daysUntil(ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC));
+    }
+}
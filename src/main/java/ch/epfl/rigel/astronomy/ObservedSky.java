@@ -1,26 +1,21 @@
 package ch.epfl.rigel.astronomy;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 
 import ch.epfl.rigel.coordinates.CartesianCoordinates;
-import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
-import ch.epfl.rigel.coordinates.EquatorialCoordinates;
-import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
 import ch.epfl.rigel.coordinates.GeographicCoordinates;
-import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.Projection;
 import ch.epfl.rigel.math.ClosedInterval;
 
 /**
  * A 2-Dimensional Observed Sky Containing All The Celestial Objects And Their
  * Respective Cartesian Coordinates.
+ * Each object class (Sun, Moon, planets, stars) and its positions are only computed on their first access,
+ * so that partial queries only pay for what they read. Instances are thread safe.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
@@ -28,57 +23,109 @@ import ch.epfl.rigel.math.ClosedInterval;
 public final class ObservedSky {
 
     private final StarCatalogue starCatalogue;
-    private final StereographicProjection stereoProj;
-    private final Sun sun;
-    private final Moon moon;
-    private final List<Planet> planets;
-    private final Map<CelestialObject, CartesianCoordinates> positions; 
+    private final Projection projection;
+    private final HorizontalSky horizontalSky;
+    private final Lazy<CartesianCoordinates> sunPosition;
+    private final Lazy<CartesianCoordinates> moonPosition;
+    private final Lazy<double[]> planetPositions;
+    private final Lazy<double[]> starPositions;
+    private final Lazy<List<MinorBody>> minorBodies;
+    private final Lazy<double[]> minorBodyPositions;
     
     /**
      * Default constructor of an ObservedSky. Creates an ObservedSky at a given moment (ZonedDateTime) and position (GeographicCoordinates),
-     * as well as a given StereographicProjection and StarCatalogue which represent the state of the sky.
+     * as well as a given Projection and StarCatalogue which represent the state of the sky.
      * 
      * @param ZonedDateTime (zdt)
      * @param GeographicCoordinates (geoCoords)
-     * @param StereographicProjection (stereoProj)
+     * @param Projection (projection)
      * @param StarCatalogue (starCatalogue)
      */
-    public ObservedSky(ZonedDateTime zdt, GeographicCoordinates geoCoords, StereographicProjection stereoProj, StarCatalogue starCatalogue) {        
-        this.stereoProj = stereoProj;
-        this.starCatalogue = starCatalogue;
-        double daysUntilJ2010 = Epoch.J2010.daysUntil(zdt);
-        EclipticToEquatorialConversion eclToEqConversion = new EclipticToEquatorialConversion(zdt);
-        EquatorialToHorizontalConversion eqToHorConversion = new EquatorialToHorizontalConversion(zdt, geoCoords);
-        Function<EquatorialCoordinates, CartesianCoordinates> eqToCart = eqToHorConversion.andThen(stereoProj);
-        Map<CelestialObject, CartesianCoordinates> intPositions = new HashMap<CelestialObject, CartesianCoordinates>();
-        this.sun = SunModel.SUN.at(daysUntilJ2010, eclToEqConversion);
-        intPositions.put(sun, eqToCart.apply(sun.equatorialPos()));
-        this.moon = MoonModel.MOON.at(daysUntilJ2010, eclToEqConversion);
-        intPositions.put(moon, eqToCart.apply(moon.equatorialPos()));
-        List<Planet> planetsInt = new ArrayList<Planet>();
-        for(PlanetModel model : PlanetModel.ALL) {
-            if(!model.equals(PlanetModel.EARTH)) {
-                Planet p = model.at(daysUntilJ2010, eclToEqConversion);
-                planetsInt.add(p);
-            }
-        }
-        this.planets = Collections.unmodifiableList(planetsInt);
-        for(Planet planet : planets) {
-            intPositions.put(planet, eqToCart.apply(planet.equatorialPos()));
-        }
-        for(Star star : starCatalogue.stars()) {
-            intPositions.put(star, eqToCart.apply(star.equatorialPos()));
-        }
-        this.positions = Collections.unmodifiableMap(intPositions);
+    public ObservedSky(ZonedDateTime zdt, GeographicCoordinates geoCoords, Projection projection, StarCatalogue starCatalogue) {        
+        this(zdt.toInstant().toEpochMilli(), geoCoords, projection, starCatalogue);
+    }
+    
+    /**
+     * Creates an ObservedSky at a given moment, in milliseconds since 1970-01-01T00:00Z, and position (GeographicCoordinates),
+     * with a given Projection and StarCatalogue.
+     * 
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param Projection (projection)
+     * @param StarCatalogue (starCatalogue)
+     */
+    public ObservedSky(long epochMillis, GeographicCoordinates geoCoords, Projection projection, StarCatalogue starCatalogue) {        
+        this(epochMillis, geoCoords, projection, starCatalogue, Atmosphere.NONE);
     }
     
     /**
-     * Returns the stereoProj (StereographicProjection) used to create the ObservedSky.
+     * Creates an ObservedSky at a given moment, in milliseconds since 1970-01-01T00:00Z, and position (GeographicCoordinates),
+     * with a given Projection and StarCatalogue, whose objects are seen through the given Atmosphere.
      * 
-     * @return StereographicProjection (stereoProj)
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param Projection (projection)
+     * @param StarCatalogue (starCatalogue)
+     * @param Atmosphere (atmosphere)
      */
-    public StereographicProjection projection() {
-        return stereoProj;
+    public ObservedSky(long epochMillis, GeographicCoordinates geoCoords, Projection projection, StarCatalogue starCatalogue, Atmosphere atmosphere) {        
+        this(new HorizontalSky(new SolarSystemSnapshot(epochMillis), epochMillis, geoCoords, starCatalogue, MinorBodyCatalogue.EMPTY, Double.NEGATIVE_INFINITY, atmosphere), projection);
+    }
+    
+    /**
+     * Creates an ObservedSky by projecting an already computed HorizontalSky with a given Projection.
+     * 
+     * @param HorizontalSky (horizontalSky)
+     * @param Projection (projection)
+     */
+    ObservedSky(HorizontalSky horizontalSky, Projection projection) {
+        this.projection = projection;
+        this.horizontalSky = horizontalSky;
+        this.starCatalogue = horizontalSky.starCatalogue();
+        this.sunPosition = new Lazy<>(() -> toCartesian(project(horizontalSky.sunPosition())));
+        this.moonPosition = new Lazy<>(() -> toCartesian(project(horizontalSky.moonPosition())));
+        this.planetPositions = new Lazy<>(() -> project(horizontalSky.planetPositions()));
+        this.starPositions = new Lazy<>(() -> project(horizontalSky.starPositions()));
+        this.minorBodies = new Lazy<>(() -> horizontalSky.minorBodies().bodies());
+        this.minorBodyPositions = new Lazy<>(() -> project(horizontalSky.minorBodies().sharedHorizontalPositions()));
+    }
+    
+    private double[] project(double[] horizontalPositions) {
+        double[] array = new double[horizontalPositions.length];
+        projection.apply(horizontalPositions, 0, array, 0, horizontalPositions.length / 2);
+        return array;
+    }
+    
+    private static CartesianCoordinates toCartesian(double[] position) {
+        return CartesianCoordinates.of(position[0], position[1]);
+    }
+    
+    /**
+     * Computes all the object classes and their positions which were not accessed yet, so that
+     * the subsequent accesses are immediate (e.g. before handing the ObservedSky to the JavaFX thread).
+     * 
+     * @return ObservedSky (this)
+     */
+    public ObservedSky computeAll() {
+        sunPosition.get();
+        moonPosition.get();
+        planetPositions.get();
+        starPositions.get();
+        minorBodies.get();
+        minorBodyPositions.get();
+        horizontalSky.planetExtinctions();
+        horizontalSky.starExtinctions();
+        horizontalSky.minorBodyExtinctions();
+        return this;
+    }
+    
+    /**
+     * Returns the projection (Projection) used to create the ObservedSky.
+     * 
+     * @return Projection (projection)
+     */
+    public Projection projection() {
+        return projection;
     }
     
     /**
@@ -87,7 +134,17 @@ public final class ObservedSky {
      * @return Sun (sun)
      */
     public Sun sun() {
-        return sun;
+        return horizontalSky.ephemeris().sun();
+    }
+    
+    /**
+     * Returns the position of the sun in HorizontalCoordinates (with its apparent altitude), without projecting it.
+     * 
+     * @return HorizontalCoordinates (sunHorizontalPosition)
+     */
+    public HorizontalCoordinates sunHorizontalPosition() {
+        double[] position = horizontalSky.sunPosition();
+        return HorizontalCoordinates.of(position[0], position[1]);
     }
     
     /**
@@ -96,7 +153,7 @@ public final class ObservedSky {
      * @return CartesianCoordinates (sunPosition)
      */
     public CartesianCoordinates sunPosition() {
-        return positions.get(sun);
+        return sunPosition.get();
     }
     
     /**
@@ -105,7 +162,7 @@ public final class ObservedSky {
      * @return Moon (moon)
      */
     public Moon moon() {
-        return moon;
+        return horizontalSky.ephemeris().moon();
     }
     
     /**
@@ -114,7 +171,7 @@ public final class ObservedSky {
      * @return CartesianCoordinates (moonPosition)
      */
     public CartesianCoordinates moonPosition() {
-        return positions.get(moon);
+        return moonPosition.get();
     }
     
     /**
@@ -123,7 +180,7 @@ public final class ObservedSky {
      * @return List<Planet> (planets)
      */
     public List<Planet> planets() {
-        return planets;
+        return horizontalSky.ephemeris().planets();
     }
     
     /**
@@ -140,7 +197,7 @@ public final class ObservedSky {
      * @return [] double (planetPositions)</pre>
      */
     public double [] planetPositions() {
-        return extractPosition(planets);
+        return planetPositions.get().clone();
     }
     
     /**
@@ -164,17 +221,63 @@ public final class ObservedSky {
      * @return [] double (planetPositions)</pre>
      */
     public double [] starPositions() {
-        return extractPosition(starCatalogue.stars());
+        return starPositions.get().clone();
     }
     
-    private double[] extractPosition(List<? extends CelestialObject> c) {
-        double [] array = new double[2*c.size()];
-        int counter = 0;
-        for(CelestialObject o : c) {
-            array[counter++] = positions.get(o).x();
-            array[counter++] = positions.get(o).y();
-        }
-        return array;
+    /**
+     * Returns the list of the visible minor bodies in the ObservedSky (bright enough and above the horizon),
+     * empty if the sky was created without a MinorBodyCatalogue.
+     * 
+     * @return List<MinorBody> (minorBodies)
+     */
+    public List<MinorBody> minorBodies() {
+        return minorBodies.get();
+    }
+    
+    /**
+     * Returns the positions of the visible minor bodies in the ObservedSky in the form of a primitive Array,
+     * (x, y) for each of them in the order of minorBodies().
+     * 
+     * @return [] double (minorBodyPositions)
+     */
+    public double[] minorBodyPositions() {
+        return minorBodyPositions.get().clone();
+    }
+    
+    /**
+     * Returns the Atmosphere through which the objects of the ObservedSky are seen.
+     * 
+     * @return Atmosphere (atmosphere)
+     */
+    public Atmosphere atmosphere() {
+        return horizontalSky.atmosphere();
+    }
+    
+    /**
+     * Returns the extinctions of the planets, in magnitudes and in the order of planets().
+     * 
+     * @return [] double (planetExtinctions)
+     */
+    public double[] planetExtinctions() {
+        return horizontalSky.planetExtinctions().clone();
+    }
+    
+    /**
+     * Returns the extinctions of the stars, in magnitudes and in the order of stars().
+     * 
+     * @return [] double (starExtinctions)
+     */
+    public double[] starExtinctions() {
+        return horizontalSky.starExtinctions().clone();
+    }
+    
+    /**
+     * Returns the extinctions of the visible minor bodies, in magnitudes and in the order of minorBodies().
+     * 
+     * @return [] double (minorBodyExtinctions)
+     */
+    public double[] minorBodyExtinctions() {
+        return horizontalSky.minorBodyExtinctions().clone();
     }
     
     /**
@@ -205,19 +308,76 @@ public final class ObservedSky {
      * @return Optional<CelestialObject> (celestObj)
      */
     public Optional<CelestialObject> objectClosestTo(CartesianCoordinates cartCoords, double distance) {
-        double closestDistance = Double.MAX_VALUE;
-        CelestialObject closestObject = null;
         ClosedInterval xInterval = ClosedInterval.of(cartCoords.x() - distance, cartCoords.x() + distance);
         ClosedInterval yInterval = ClosedInterval.of(cartCoords.y() - distance, cartCoords.y() + distance);
-        double dist = 0;
-        for(CelestialObject obj : positions.keySet()) {
-          if(xInterval.contains(positions.get(obj).x()) &&  yInterval.contains(positions.get(obj).y())) {
-            if((dist = cartCoords.distanceToSquare(positions.get(obj))) < closestDistance) {
-                closestDistance = dist;
-                closestObject = obj;
+        Closest closest = new Closest(cartCoords, xInterval, yInterval);
+        closest.offer(sun(), sunPosition().x(), sunPosition().y());
+        closest.offer(moon(), moonPosition().x(), moonPosition().y());
+        closest.offerAll(planets(), planetPositions.get());
+        closest.offerAll(starCatalogue.stars(), starPositions.get());
+        closest.offerAll(minorBodies(), minorBodyPositions.get());
+        return ((closest.closestDistance > distance) ? Optional.empty() : Optional.of(closest.closestObject));
+    }
+
+    /**
+     * Returns the position (Optional) of the given CelestialObject (e.g. the one returned by objectClosestTo) in the
+     * ObservedSky, empty if the object is not one of the ObservedSky. The object is looked up by identity.
+     *
+     * @param CelestialObject (celestObj)
+     * @return Optional<CartesianCoordinates> (position)
+     */
+    public Optional<CartesianCoordinates> positionOf(CelestialObject celestObj) {
+        if(celestObj == sun()) return Optional.of(sunPosition());
+        if(celestObj == moon()) return Optional.of(moonPosition());
+        Optional<CartesianCoordinates> position = positionIn(celestObj, planets(), planetPositions.get());
+        if(position.isEmpty()) position = positionIn(celestObj, starCatalogue.stars(), starPositions.get());
+        if(position.isEmpty()) position = positionIn(celestObj, minorBodies(), minorBodyPositions.get());
+        return position;
+    }
+
+    private static Optional<CartesianCoordinates> positionIn(CelestialObject celestObj, List<? extends CelestialObject> objects, double[] positions) {
+        int counter = 0;
+        for(CelestialObject obj : objects) {
+            if(obj == celestObj) return Optional.of(CartesianCoordinates.of(positions[counter], positions[counter + 1]));
+            counter += 2;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Private class keeping track of the closest CelestialObject from given CartesianCoordinates, among the
+     * ones contained inside a given square.
+     */
+    private static final class Closest {
+        
+        private final CartesianCoordinates cartCoords;
+        private final ClosedInterval xInterval;
+        private final ClosedInterval yInterval;
+        private double closestDistance = Double.MAX_VALUE;
+        private CelestialObject closestObject = null;
+        
+        private Closest(CartesianCoordinates cartCoords, ClosedInterval xInterval, ClosedInterval yInterval) {
+            this.cartCoords = cartCoords;
+            this.xInterval = xInterval;
+            this.yInterval = yInterval;
+        }
+        
+        private void offer(CelestialObject obj, double x, double y) {
+            if(xInterval.contains(x) && yInterval.contains(y)) {
+                double dist = (x - cartCoords.x())*(x - cartCoords.x()) + (y - cartCoords.y())*(y - cartCoords.y());
+                if(dist < closestDistance) {
+                    closestDistance = dist;
+                    closestObject = obj;
+                }
             }
-          }
         }
-        return ((closestDistance > distance) ? Optional.empty() : Optional.of(closestObject));
-    }        
+        
+        private void offerAll(List<? extends CelestialObject> objects, double[] positions) {
+            int counter = 0;
+            for(CelestialObject obj : objects) {
+                offer(obj, positions[counter], positions[counter + 1]);
+                counter += 2;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,449 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.Projection;
+
+/**
+ * A Bounded LRU Cache Of ObservedSky.
+ * The keys are quantized (moment, position, projection type and center) tuples : two requests falling in the same
+ * quantization cells share the same entry, which is computed from the first of them.
+ * The cache is layered, so that a request only matching part of a key reuses the corresponding intermediate result :
+ * - EPHEMERIS layer (moment) : the Sun, the Moon and the planets.
+ * - HORIZONTAL layer (moment, position, atmosphere) : the horizontal coordinates of all the objects.
+ * - SKY layer (moment, position, atmosphere, projection type and center) : the full ObservedSky.
+ * Every layer is bounded by a number of entries, and the whole cache by an estimated memory size. The size of the
+ * HORIZONTAL and SKY entries grows with the number of their visible minor bodies, which are therefore computed
+ * when the entries are added.
+ * Instances are thread safe.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ObservedSkyCache {
+
+    private final static long EPHEMERIS_BYTES = 4096;
+    private final static long ARRAY_OVERHEAD_BYTES = 256;
+    private final static long BYTES_PER_POSITION = 2 * Double.BYTES;
+    //Per visible minor body : index, equatorial and horizontal positions, magnitude and extinction
+    private final static long HORIZONTAL_BYTES_PER_MINOR_BODY = Integer.BYTES + 2*BYTES_PER_POSITION + 2*Double.BYTES;
+    //Per visible minor body : projected position
+    private final static long SKY_BYTES_PER_MINOR_BODY = BYTES_PER_POSITION;
+
+    private final StarCatalogue catalogue;
+    private final MinorBodyCatalogue minorBodyCatalogue;
+    private final double maxMinorBodyMagnitude;
+    private final Atmosphere atmosphere;
+    private final long timeToleranceMillis;
+    private final double locationToleranceDeg;
+    private final double centerToleranceDeg;
+    private final long maxBytes;
+    private final long positionsBytes;
+    private final LruLayer<SolarSystemSnapshot> ephemerisLayer;
+    private final LruLayer<HorizontalSky> horizontalLayer;
+    private final LruLayer<ObservedSky> skyLayer;
+    private long totalBytes = 0;
+
+    private ObservedSkyCache(Builder builder) {
+        this.catalogue = builder.catalogue;
+        this.minorBodyCatalogue = builder.minorBodyCatalogue;
+        this.maxMinorBodyMagnitude = builder.maxMinorBodyMagnitude;
+        this.atmosphere = builder.atmosphere;
+        this.timeToleranceMillis = builder.timeToleranceMillis;
+        this.locationToleranceDeg = builder.locationToleranceDeg;
+        this.centerToleranceDeg = builder.centerToleranceDeg;
+        this.maxBytes = builder.maxBytes;
+        this.positionsBytes = ARRAY_OVERHEAD_BYTES + BYTES_PER_POSITION * (catalogue.stars().size() + PlanetModel.ALL.size() + 1);
+        this.ephemerisLayer = new LruLayer<>(builder.maxEntries, EPHEMERIS_BYTES);
+        //The horizontal skies also hold the extinctions of the objects
+        long extinctionsBytes = ARRAY_OVERHEAD_BYTES + Double.BYTES * (catalogue.stars().size() + PlanetModel.ALL.size());
+        this.horizontalLayer = new LruLayer<>(builder.maxEntries, positionsBytes + extinctionsBytes);
+        this.skyLayer = new LruLayer<>(builder.maxEntries, positionsBytes);
+    }
+
+    /**
+     * Returns the ObservedSky at a given moment (ZonedDateTime) and position (GeographicCoordinates), with a given
+     * Projection. Reuses the cached layers matching the quantized request, and computes the missing ones.
+     *
+     * @param ZonedDateTime (zdt)
+     * @param GeographicCoordinates (geoCoords)
+     * @param Projection (projection)
+     * @return ObservedSky (sky)
+     */
+    public ObservedSky get(ZonedDateTime zdt, GeographicCoordinates geoCoords, Projection projection) {
+        return get(zdt.toInstant().toEpochMilli(), geoCoords, projection);
+    }
+
+    /**
+     * Returns the ObservedSky at a given moment, in milliseconds since 1970-01-01T00:00Z, and position (GeographicCoordinates),
+     * with a given Projection. Reuses the cached layers matching the quantized request, and computes the missing ones.
+     *
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param Projection (projection)
+     * @return ObservedSky (sky)
+     */
+    public ObservedSky get(long epochMillis, GeographicCoordinates geoCoords, Projection projection) {
+        return get(epochMillis, geoCoords, projection, atmosphere);
+    }
+
+    /**
+     * Returns the ObservedSky at a given moment, in milliseconds since 1970-01-01T00:00Z, and position (GeographicCoordinates),
+     * with a given Projection, seen through the given Atmosphere instead of the one of the cache. The atmospheres
+     * of same temperature and pressure share their entries.
+     *
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (geoCoords)
+     * @param Projection (projection)
+     * @param Atmosphere (atmosphere)
+     * @return ObservedSky (sky)
+     */
+    public ObservedSky get(long epochMillis, GeographicCoordinates geoCoords, Projection projection, Atmosphere atmosphere) {
+        long time = Math.floorDiv(epochMillis, timeToleranceMillis);
+        long temperature = Double.doubleToLongBits(atmosphere.temperature());
+        long pressure = Double.doubleToLongBits(atmosphere.pressure());
+        Key ephemerisKey = new Key(time, 0, 0, 0, 0, 0, 0, null);
+        Key horizontalKey = new Key(time, quantize(geoCoords.lonDeg(), locationToleranceDeg), quantize(geoCoords.latDeg(), locationToleranceDeg), temperature, pressure, 0, 0, null);
+        HorizontalCoordinates center = projection.center();
+        Key skyKey = new Key(time, horizontalKey.lon, horizontalKey.lat, temperature, pressure, quantize(center.azDeg(), centerToleranceDeg), quantize(center.altDeg(), centerToleranceDeg), projection.getClass());
+
+        HorizontalSky horizontalSky;
+        SolarSystemSnapshot ephemeris;
+        synchronized(this) {
+            ObservedSky sky = skyLayer.get(skyKey);
+            if(sky != null) return sky;
+            horizontalSky = horizontalLayer.get(horizontalKey);
+            ephemeris = (horizontalSky == null) ? ephemerisLayer.get(ephemerisKey) : horizontalSky.ephemeris();
+        }
+        //The computations are done outside of the lock, concurrent misses on a same key may compute it twice.
+        if(ephemeris == null) {
+            ephemeris = new SolarSystemSnapshot(epochMillis);
+            put(ephemerisLayer, ephemerisKey, ephemeris, ephemerisLayer.baseBytes);
+        }
+        if(horizontalSky == null) {
+            horizontalSky = new HorizontalSky(ephemeris, epochMillis, geoCoords, catalogue, minorBodyCatalogue, maxMinorBodyMagnitude, atmosphere);
+            put(horizontalLayer, horizontalKey, horizontalSky, horizontalLayer.baseBytes + HORIZONTAL_BYTES_PER_MINOR_BODY * horizontalSky.minorBodies().count());
+        }
+        ObservedSky sky = new ObservedSky(horizontalSky, projection);
+        put(skyLayer, skyKey, sky, skyLayer.baseBytes + SKY_BYTES_PER_MINOR_BODY * horizontalSky.minorBodies().count());
+        return sky;
+    }
+
+    /**
+     * Returns the Atmosphere of the skies requested without one.
+     *
+     * @return Atmosphere (atmosphere)
+     */
+    public Atmosphere atmosphere() {
+        return atmosphere;
+    }
+
+    private static long quantize(double valueDeg, double toleranceDeg) {
+        return (toleranceDeg == 0) ? Double.doubleToLongBits(valueDeg) : Math.round(valueDeg / toleranceDeg);
+    }
+
+    private synchronized <V> void put(LruLayer<V> layer, Key key, V value, long bytes) {
+        if(layer.entries.containsKey(key)) return;
+        layer.entries.put(key, value);
+        layer.entryBytes.put(key, bytes);
+        totalBytes += bytes;
+        if(layer.entries.size() > layer.maxEntries) evictEldest(layer);
+        while(totalBytes > maxBytes && (evictEldest(skyLayer) || evictEldest(horizontalLayer) || evictEldest(ephemerisLayer)));
+    }
+
+    private boolean evictEldest(LruLayer<?> layer) {
+        Iterator<Key> it = layer.entries.keySet().iterator();
+        if(!it.hasNext()) return false;
+        Key key = it.next();
+        it.remove();
+        totalBytes -= layer.entryBytes.remove(key);
+        layer.evictions++;
+        return true;
+    }
+
+    private LruLayer<?> layer(Layer layer) {
+        switch(layer) {
+        case EPHEMERIS:
+            return ephemerisLayer;
+        case HORIZONTAL:
+            return horizontalLayer;
+        default:
+            return skyLayer;
+        }
+    }
+
+    /**
+     * Returns the number of requests served by the given layer.
+     *
+     * @param Layer (layer)
+     * @return long (hits)
+     */
+    public synchronized long hitCount(Layer layer) {
+        return layer(layer).hits;
+    }
+
+    /**
+     * Returns the number of requests the given layer could not serve.
+     *
+     * @param Layer (layer)
+     * @return long (misses)
+     */
+    public synchronized long missCount(Layer layer) {
+        return layer(layer).misses;
+    }
+
+    /**
+     * Returns the number of entries evicted from the given layer, either because it was full or because
+     * the memory limit of the cache was reached.
+     *
+     * @param Layer (layer)
+     * @return long (evictions)
+     */
+    public synchronized long evictionCount(Layer layer) {
+        return layer(layer).evictions;
+    }
+
+    /**
+     * Returns the number of entries currently held by the given layer.
+     *
+     * @param Layer (layer)
+     * @return int (size)
+     */
+    public synchronized int size(Layer layer) {
+        return layer(layer).entries.size();
+    }
+
+    /**
+     * Returns the estimated memory size of all the entries of the cache, in bytes.
+     *
+     * @return long (bytes)
+     */
+    public synchronized long estimatedBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Removes all the entries of the cache. The counters are kept.
+     */
+    public synchronized void clear() {
+        ephemerisLayer.clear();
+        horizontalLayer.clear();
+        skyLayer.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * The Layers Of An ObservedSkyCache.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public enum Layer {
+        EPHEMERIS, HORIZONTAL, SKY;
+    }
+
+    /**
+     * Private class representing one LRU layer of the cache, with the estimated size of each of its entries. Guarded by the lock of the cache.
+     */
+    private static final class LruLayer<V> {
+
+        private final Map<Key, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<Key, Long> entryBytes = new HashMap<>();
+        private final int maxEntries;
+        private final long baseBytes;
+        private long hits = 0;
+        private long misses = 0;
+        private long evictions = 0;
+
+        private LruLayer(int maxEntries, long baseBytes) {
+            this.maxEntries = maxEntries;
+            this.baseBytes = baseBytes;
+        }
+
+        private void clear() {
+            entries.clear();
+            entryBytes.clear();
+        }
+
+        private V get(Key key) {
+            V value = entries.get(key);
+            if(value == null) ++misses;
+            else ++hits;
+            return value;
+        }
+    }
+
+    /**
+     * Private class representing a quantized key. Unused components are set to 0 (null for the projection type).
+     */
+    private static final class Key {
+
+        private final long time;
+        private final long lon;
+        private final long lat;
+        private final long temperature;
+        private final long pressure;
+        private final long az;
+        private final long alt;
+        private final Class<?> projectionType;
+
+        private Key(long time, long lon, long lat, long temperature, long pressure, long az, long alt, Class<?> projectionType) {
+            this.time = time;
+            this.lon = lon;
+            this.lat = lat;
+            this.temperature = temperature;
+            this.pressure = pressure;
+            this.az = az;
+            this.alt = alt;
+            this.projectionType = projectionType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return time == that.time && lon == that.lon && lat == that.lat && temperature == that.temperature && pressure == that.pressure
+                    && az == that.az && alt == that.alt && projectionType == that.projectionType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, lon, lat, temperature, pressure, az, alt, projectionType);
+        }
+    }
+
+    /**
+     * Static imbricated class representing an ObservedSkyCache.Builder.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public final static class Builder {
+
+        private final static int DEFAULT_MAX_ENTRIES = 32;
+        private final static long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+        private final static long DEFAULT_TIME_TOLERANCE_MILLIS = 1000;
+        private final static double DEFAULT_LOCATION_TOLERANCE_DEG = 1e-3;
+        private final static double DEFAULT_CENTER_TOLERANCE_DEG = 1e-3;
+
+        private final StarCatalogue catalogue;
+        private MinorBodyCatalogue minorBodyCatalogue = MinorBodyCatalogue.EMPTY;
+        private double maxMinorBodyMagnitude = Double.NEGATIVE_INFINITY;
+        private Atmosphere atmosphere = Atmosphere.NONE;
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+        private long maxBytes = DEFAULT_MAX_BYTES;
+        private long timeToleranceMillis = DEFAULT_TIME_TOLERANCE_MILLIS;
+        private double locationToleranceDeg = DEFAULT_LOCATION_TOLERANCE_DEG;
+        private double centerToleranceDeg = DEFAULT_CENTER_TOLERANCE_DEG;
+
+        /**
+         * Default constructor of an ObservedSkyCache.Builder for the skies of a given StarCatalogue.
+         * By default, every layer holds at most 32 entries, the cache at most 64 MiB, the moments are quantized to the second
+         * and the angles to the thousandth of degree.
+         *
+         * @param StarCatalogue (catalogue)
+         */
+        public Builder(StarCatalogue catalogue) {
+            this.catalogue = Objects.requireNonNull(catalogue);
+        }
+
+        /**
+         * Sets the maximal number of entries of each layer. Throws IAE if it is not strictly positive.
+         * @param int (maxEntries)
+         * @return Builder (this)
+         */
+        public Builder setMaxEntries(int maxEntries) {
+            checkArgument(maxEntries > 0);
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the maximal estimated memory size of the cache, in bytes. Throws IAE if it is not strictly positive.
+         * @param long (maxBytes)
+         * @return Builder (this)
+         */
+        public Builder setMaxBytes(long maxBytes) {
+            checkArgument(maxBytes > 0);
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the quantization step of the moments. Throws IAE if it is shorter than a millisecond.
+         * @param Duration (timeTolerance)
+         * @return Builder (this)
+         */
+        public Builder setTimeTolerance(Duration timeTolerance) {
+            checkArgument(timeTolerance.toMillis() >= 1);
+            this.timeToleranceMillis = timeTolerance.toMillis();
+            return this;
+        }
+
+        /**
+         * Sets the quantization step of the observer longitude and latitude, in degrees (0 for an exact match).
+         * Throws IAE if it is negative.
+         * @param double (locationToleranceDeg)
+         * @return Builder (this)
+         */
+        public Builder setLocationToleranceDeg(double locationToleranceDeg) {
+            checkArgument(locationToleranceDeg >= 0);
+            this.locationToleranceDeg = locationToleranceDeg;
+            return this;
+        }
+
+        /**
+         * Sets the quantization step of the projection center azimut and altitude, in degrees (0 for an exact match).
+         * Throws IAE if it is negative.
+         * @param double (centerToleranceDeg)
+         * @return Builder (this)
+         */
+        public Builder setCenterToleranceDeg(double centerToleranceDeg) {
+            checkArgument(centerToleranceDeg >= 0);
+            this.centerToleranceDeg = centerToleranceDeg;
+            return this;
+        }
+
+        /**
+         * Sets the minor bodies of the skies, of which only the ones of magnitude at most maxMagnitude and above the
+         * horizon are kept. By default, the skies have no minor body.
+         * @param MinorBodyCatalogue (minorBodyCatalogue)
+         * @param double (maxMagnitude)
+         * @return Builder (this)
+         */
+        public Builder setMinorBodies(MinorBodyCatalogue minorBodyCatalogue, double maxMagnitude) {
+            this.minorBodyCatalogue = Objects.requireNonNull(minorBodyCatalogue);
+            this.maxMinorBodyMagnitude = maxMagnitude;
+            return this;
+        }
+
+        /**
+         * Sets the Atmosphere through which the objects of the skies are seen, when the requests do not give one.
+         * By default, the skies have no atmosphere (Atmosphere.NONE).
+         * @param Atmosphere (atmosphere)
+         * @return Builder (this)
+         */
+        public Builder setAtmosphere(Atmosphere atmosphere) {
+            this.atmosphere = Objects.requireNonNull(atmosphere);
+            return this;
+        }
+
+        /**
+         * Builds the ObservedSkyCache.
+         * @return ObservedSkyCache (cache)
+         */
+        public ObservedSkyCache build() {
+            return new ObservedSkyCache(this);
+        }
+    }
+}
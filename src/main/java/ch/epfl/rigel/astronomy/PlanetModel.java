@@ -14,7 +14,7 @@ import ch.epfl.rigel.math.Angle;
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
  */
-public enum PlanetModel implements CelestialObjectModel<Planet> {
+public enum PlanetModel implements EclipticModel<Planet> {
     
     MERCURY("Mercure", 0.24085, 75.5671, 77.612, 0.205627,
             0.387098, 7.0051, 48.449, 6.74, -0.42),
@@ -47,6 +47,11 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
     private final double sinOrbitInclination;
 
     private final static double SUN_TROPICAL_YEAR = 365.242191;
+
+    /**
+     * The number of usefull values of a planet (see usefullValues).
+     */
+    final static int USEFULL_VALUES = 5;
     
     private PlanetModel(String name, double tropicalYear, double longitudeJ2010, double longitudePerigee, double eccentricity, double semiMajorAxis, double orbitInclination, double longitudeAscendingNode, double theta0AngularSize, double v0Magnitude) {
         this.name = name;
@@ -68,24 +73,39 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
     public final static List<PlanetModel> ALL = List.of(values());
 
     /**
-     * Returns the Planet modelized by the numbers of days since J2010, using
-     * the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     * Computes the channels of the Planet at the given numbers of days since J2010 :
+     * its geocentric ecliptic longitude and latitude, its angular size and its magnitude.
      * 
      * @param double (daysSinceJ2010)
-     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
-     * @return Planet (planet)
+     * @param double[] (channels)
      */
     @Override
-    public Planet at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) { 
-        double [] planetValues = usefullValues(daysSinceJ2010);
-        double radiusInEclipticPlan = planetValues[0];
-        double longitudeInEclipticPlan = planetValues[1];
-        double helioEclipticLatitude = planetValues[2];
-        double radiusInOrbitPlan = planetValues[3];
-        double longitudeInOrbitPlan = planetValues[4];
-        double [] earthValues = EARTH.usefullValues(daysSinceJ2010);
-        double R = earthValues[3];
-        double L = earthValues[4];
+    public void channelsAt(double daysSinceJ2010, double[] channels) { 
+        double [] values = new double[2*USEFULL_VALUES];
+        EARTH.usefullValues(daysSinceJ2010, values, USEFULL_VALUES);
+        channelsAt(daysSinceJ2010, values, channels, 0);
+    }
+
+    /**
+     * Computes the channels of the Planet into channels starting at offset, using the values of the Earth at the
+     * same moment (see usefullValues), read from values starting at index USEFULL_VALUES.
+     * The first USEFULL_VALUES indexes of values are overwritten with the values of the Planet, so that a same
+     * array can be used for all the planets of a moment.
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (values)
+     * @param double[] (channels)
+     * @param int (offset)
+     */
+    void channelsAt(double daysSinceJ2010, double[] values, double[] channels, int offset) {
+        usefullValues(daysSinceJ2010, values, 0);
+        double radiusInEclipticPlan = values[0];
+        double longitudeInEclipticPlan = values[1];
+        double helioEclipticLatitude = values[2];
+        double radiusInOrbitPlan = values[3];
+        double longitudeInOrbitPlan = values[4];
+        double R = values[USEFULL_VALUES + 3];
+        double L = values[USEFULL_VALUES + 4];
         double eclipticLon = 0;
         double eclipticLat = 0;
         switch(this) {
@@ -104,38 +124,76 @@ public enum PlanetModel implements CelestialObjectModel<Planet> {
             break;
         }
         eclipticLat = Math.atan((radiusInEclipticPlan * Math.tan(helioEclipticLatitude) * Math.sin(eclipticLon - longitudeInEclipticPlan)) / (R*Math.sin(longitudeInEclipticPlan - L)));
-        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(eclipticLon), eclipticLat);
-        EquatorialCoordinates eqCoords = eclipticToEquatorialConversion.apply(eclCoords);
         double distanceFromEarth = Math.sqrt(R*R + radiusInOrbitPlan*radiusInOrbitPlan - 2*R*radiusInOrbitPlan*Math.cos(longitudeInOrbitPlan - L)*Math.cos(helioEclipticLatitude));
-        double angularSize = theta0AngularSize / distanceFromEarth;
+        double angularSize = angularSize(distanceFromEarth);
         double phase = (1 + Math.cos(eclipticLon - longitudeInOrbitPlan)) / 2;
-        double magnitude = v0Magnitude + 5*Math.log10(radiusInOrbitPlan*distanceFromEarth/(Math.sqrt(phase)));
-        return new Planet(name, eqCoords, (float) angularSize, (float) magnitude);
+        double magnitude = magnitude(radiusInOrbitPlan, distanceFromEarth, phase);
+        channels[offset] = eclipticLon;
+        channels[offset + 1] = eclipticLat;
+        channels[offset + 2] = angularSize;
+        channels[offset + 3] = magnitude;
+    }
+    
+    /**
+     * Returns the angular size of the Planet at the given distance from the Earth (in AU).
+     *
+     * @param double (distanceFromEarth)
+     * @return double (angularSize)
+     */
+    double angularSize(double distanceFromEarth) {
+        return theta0AngularSize / distanceFromEarth;
+    }
+
+    /**
+     * Returns the magnitude of the Planet at the given distances from the Sun and from the Earth (in AU),
+     * with the given phase.
+     *
+     * @param double (radius)
+     * @param double (distanceFromEarth)
+     * @param double (phase)
+     * @return double (magnitude)
+     */
+    double magnitude(double radius, double distanceFromEarth, double phase) {
+        return v0Magnitude + 5*Math.log10(radius*distanceFromEarth/(Math.sqrt(phase)));
+    }
+
+    /**
+     * Returns the Planet determined by the given channels, using
+     * the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     * 
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return Planet (planet)
+     */
+    @Override
+    public Planet fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(channels[0]), channels[1]);
+        EquatorialCoordinates eqCoords = eclipticToEquatorialConversion.apply(eclCoords);
+        return new Planet(name, eqCoords, (float) channels[2], (float) channels[3]);
     }
     
     /**
-     * Private method returning usefull values from any given planet and days since J2010.
-     * Returns the results in the form of a 5-dimension array :
+     * Computes the usefull values from any given planet and days since J2010, into the given array
+     * starting at the given offset :
      * -Index 0 = radiusInEclipticPlan
      * -Index 1 = longitudeInEclipticPlan
      * -Index 2 = helioEclipticLatitude
      * -Index 3 = radiusInOrbitPlan
      * -Index 4 = longitudeInOrbitPlan
      * @param double (daysSinceJ2010)
-     * @return double [] (values)
+     * @param double[] (val)
+     * @param int (offset)
      */
-    private double [] usefullValues(double daysSinceJ2010) {
-        double [] val = new double[5];
+    void usefullValues(double daysSinceJ2010, double[] val, int offset) {
         double meanAnomaly = Angle.TAU / SUN_TROPICAL_YEAR * daysSinceJ2010 / tropicalYear + longitudeJ2010 - longitudePerigee;
         double trueAnomaly = meanAnomaly + 2*eccentricity*Math.sin(meanAnomaly);
         double radiusInOrbitPlan = semiMajorAxis*(1 - eccentricity*eccentricity) / (1 + eccentricity*Math.cos(trueAnomaly));
         double longitudeInOrbitPlan = trueAnomaly + longitudePerigee;
         double helioEclipticLatitude = Math.asin(Math.sin(longitudeInOrbitPlan - longitudeAscendingNode)*sinOrbitInclination);
-        val[0] = radiusInOrbitPlan*Math.cos(helioEclipticLatitude);
-        val[1] = Math.atan2(Math.sin(longitudeInOrbitPlan - longitudeAscendingNode)*cosOrbitInclination, Math.cos(longitudeInOrbitPlan - longitudeAscendingNode)) + longitudeAscendingNode;
-        val[2] = helioEclipticLatitude;
-        val[3] = radiusInOrbitPlan;
-        val[4] = longitudeInOrbitPlan;
-        return val;
+        val[offset] = radiusInOrbitPlan*Math.cos(helioEclipticLatitude);
+        val[offset + 1] = Math.atan2(Math.sin(longitudeInOrbitPlan - longitudeAscendingNode)*cosOrbitInclination, Math.cos(longitudeInOrbitPlan - longitudeAscendingNode)) + longitudeAscendingNode;
+        val[offset + 2] = helioEclipticLatitude;
+        val[offset + 3] = radiusInOrbitPlan;
+        val[offset + 4] = longitudeInOrbitPlan;
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A Catalogue Of Artificial Satellites Given By Their Two-Line Elements (TLE).
+ * The mean elements are stored in primitive arrays (one per element), in the units of the TLE converted to
+ * radiant and radiant per minute, and are propagated by an Sgp4Propagator.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class SatelliteCatalogue {
+
+    private final String[] names;
+    private final long[] epochMillis;
+    private final double[] dragTerms;
+    private final double[] inclinations;
+    private final double[] nodes;
+    private final double[] eccentricities;
+    private final double[] perigeeArguments;
+    private final double[] meanAnomalies;
+    private final double[] meanMotions;
+
+    private SatelliteCatalogue(Builder builder) {
+        int count = builder.names.size();
+        this.names = builder.names.toArray(new String[0]);
+        this.epochMillis = Arrays.copyOf(builder.epochMillis, count);
+        this.dragTerms = Arrays.copyOf(builder.dragTerms, count);
+        this.inclinations = Arrays.copyOf(builder.inclinations, count);
+        this.nodes = Arrays.copyOf(builder.nodes, count);
+        this.eccentricities = Arrays.copyOf(builder.eccentricities, count);
+        this.perigeeArguments = Arrays.copyOf(builder.perigeeArguments, count);
+        this.meanAnomalies = Arrays.copyOf(builder.meanAnomalies, count);
+        this.meanMotions = Arrays.copyOf(builder.meanMotions, count);
+    }
+
+    /**
+     * Returns the number of satellites of the catalogue.
+     *
+     * @return int (size)
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the satellite of the given index.
+     *
+     * @param int (index)
+     * @return String (name)
+     */
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the epoch of the elements of the satellite of the given index, in milliseconds since 1970-01-01T00:00Z.
+     *
+     * @param int (index)
+     * @return long (epochMillis)
+     */
+    public long epochMillis(int index) {
+        return epochMillis[index];
+    }
+
+    /**
+     * Returns the drag term B* of the satellite of the given index, in inverse Earth radii.
+     *
+     * @param int (index)
+     * @return double (dragTerm)
+     */
+    double dragTerm(int index) {
+        return dragTerms[index];
+    }
+
+    /**
+     * Returns the inclination of the satellite of the given index, in radiant.
+     *
+     * @param int (index)
+     * @return double (inclination)
+     */
+    double inclination(int index) {
+        return inclinations[index];
+    }
+
+    /**
+     * Returns the right ascension of the ascending node of the satellite of the given index, in radiant.
+     *
+     * @param int (index)
+     * @return double (node)
+     */
+    double node(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the eccentricity of the satellite of the given index.
+     *
+     * @param int (index)
+     * @return double (eccentricity)
+     */
+    double eccentricity(int index) {
+        return eccentricities[index];
+    }
+
+    /**
+     * Returns the argument of the perigee of the satellite of the given index, in radiant.
+     *
+     * @param int (index)
+     * @return double (perigeeArgument)
+     */
+    double perigeeArgument(int index) {
+        return perigeeArguments[index];
+    }
+
+    /**
+     * Returns the mean anomaly at the epoch of the satellite of the given index, in radiant.
+     *
+     * @param int (index)
+     * @return double (meanAnomaly)
+     */
+    double meanAnomaly(int index) {
+        return meanAnomalies[index];
+    }
+
+    /**
+     * Returns the mean motion of the satellite of the given index, in radiant per minute.
+     *
+     * @param int (index)
+     * @return double (meanMotion)
+     */
+    double meanMotion(int index) {
+        return meanMotions[index];
+    }
+
+    /**
+     * Static imbricated class representing a SatelliteCatalogue.Builder.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public final static class Builder {
+
+        private final static int INITIAL_CAPACITY = 1024;
+
+        private final List<String> names = new ArrayList<>();
+        private long[] epochMillis = new long[INITIAL_CAPACITY];
+        private double[] dragTerms = new double[INITIAL_CAPACITY];
+        private double[] inclinations = new double[INITIAL_CAPACITY];
+        private double[] nodes = new double[INITIAL_CAPACITY];
+        private double[] eccentricities = new double[INITIAL_CAPACITY];
+        private double[] perigeeArguments = new double[INITIAL_CAPACITY];
+        private double[] meanAnomalies = new double[INITIAL_CAPACITY];
+        private double[] meanMotions = new double[INITIAL_CAPACITY];
+
+        /**
+         * Default constructor of a SatelliteCatalogue.Builder.
+         * Creates an empty list of satellites.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Adds a satellite of the given mean elements, at the given epoch (in milliseconds since 1970-01-01T00:00Z) :
+         * the drag term B* (in inverse Earth radii), the inclination, the right ascension of the ascending node,
+         * the eccentricity, the argument of the perigee and the mean anomaly (angles in radiant), and the mean motion
+         * (in radiant per minute).
+         * Throws IAE if the eccentricity is not in [0;1[ or if the mean motion is not strictly positive.
+         *
+         * @param String (name)
+         * @param long (epochMillis)
+         * @param double (dragTerm)
+         * @param double (inclination)
+         * @param double (node)
+         * @param double (eccentricity)
+         * @param double (perigeeArgument)
+         * @param double (meanAnomaly)
+         * @param double (meanMotion)
+         * @return Builder (this)
+         */
+        public Builder addSatellite(String name, long epochMillis, double dragTerm, double inclination, double node,
+                double eccentricity, double perigeeArgument, double meanAnomaly, double meanMotion) {
+            checkArgument(0 <= eccentricity && eccentricity < 1 && meanMotion > 0);
+            int index = names.size();
+            if(index == meanMotions.length) {
+                this.epochMillis = Arrays.copyOf(this.epochMillis, 2*index);
+                dragTerms = Arrays.copyOf(dragTerms, 2*index);
+                inclinations = Arrays.copyOf(inclinations, 2*index);
+                nodes = Arrays.copyOf(nodes, 2*index);
+                eccentricities = Arrays.copyOf(eccentricities, 2*index);
+                perigeeArguments = Arrays.copyOf(perigeeArguments, 2*index);
+                meanAnomalies = Arrays.copyOf(meanAnomalies, 2*index);
+                meanMotions = Arrays.copyOf(meanMotions, 2*index);
+            }
+            names.add(Objects.requireNonNull(name));
+            this.epochMillis[index] = epochMillis;
+            dragTerms[index] = dragTerm;
+            inclinations[index] = inclination;
+            nodes[index] = node;
+            eccentricities[index] = eccentricity;
+            perigeeArguments[index] = perigeeArgument;
+            meanAnomalies[index] = meanAnomaly;
+            meanMotions[index] = meanMotion;
+            return this;
+        }
+
+        /**
+         * Loads the satellites of the given InputStream to the Builder (this) using a given Loader.
+         * Throws IOE in case of an IO error.
+         *
+         * @param InputStream (inputStream)
+         * @param Loader (loader)
+         * @return Builder (this)
+         * @throws IOException
+         */
+        public Builder loadFrom(InputStream inputStream, Loader loader) throws IOException {
+            loader.load(inputStream, this);
+            return this;
+        }
+
+        /**
+         * Builds the SatelliteCatalogue.
+         * @return SatelliteCatalogue (catalogue)
+         */
+        public SatelliteCatalogue build() {
+            return new SatelliteCatalogue(this);
+        }
+    }
+
+    /**
+     * Imbricated interface representing a SatelliteCatalogue.Loader.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public interface Loader {
+
+        /**
+         * Loads satellites from a given InputStream and adds them in the Builder.
+         * Throws IOE in case of an IO error.
+         *
+         * @param InputStream (inputStream)
+         * @param Builder (builder)
+         * @throws IOException
+         */
+        public abstract void load(InputStream inputStream, Builder builder) throws IOException;
+    }
+}
@@ -0,0 +1,388 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * An SGP4 Propagator Of The Satellites Of A SatelliteCatalogue.
+ * Follows the SGP4 model of the Spacetrack Report #3, as revised by D. Vallado et al. (AIAA 2006-6753), with the
+ * WGS-72 constants. The constants of the model depending only on the elements are computed once, at construction,
+ * into primitive arrays (one per constant), so that the propagation of a satellite to a given moment only evaluates
+ * the time-dependent terms. The satellites of period longer than 225 minutes (deep space) are propagated with the
+ * same equations, without the lunar-solar and resonance terms of SDP4 : their positions degrade with the age of
+ * their elements.
+ * The positions are given in the TEME frame (true equator, mean equinox), and converted to horizontal coordinates
+ * through the Greenwich sidereal time, for an observer at the sea level of the WGS-72 ellipsoid.
+ * The satellites are propagated by chunks, in parallel if asked.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Sgp4Propagator {
+
+    private final static int CHUNK_SIZE = 256;
+    //WGS-72 constants : Earth radius (km), sqrt(GM) in Earth radii^1.5 per minute, zonal harmonics
+    private final static double EARTH_RADIUS_KM = 6378.135;
+    private final static double XKE = 60 / Math.sqrt(EARTH_RADIUS_KM*EARTH_RADIUS_KM*EARTH_RADIUS_KM / 398600.8);
+    private final static double J2 = 0.001082616;
+    private final static double J3 = -0.00000253881;
+    private final static double J4 = -0.00000165597;
+    private final static double J3_OVER_J2 = J3 / J2;
+    private final static double FLATTENING = 1 / 298.26;
+    private final static double TWO_THIRDS = 2.0 / 3;
+    private final static double DEEP_SPACE_PERIOD_MINUTES = 225;
+    private final static double MILLIS_IN_MINUTE = 60_000;
+    private final static int KEPLER_ITERATIONS = 10;
+    private final static double KEPLER_TOLERANCE = 1e-12;
+
+    private final SatelliteCatalogue catalogue;
+    private final int size;
+    //Elements and constants of the model, one array each
+    private final long[] epochMillis;
+    private final double[] bstar, inclination, node, eccentricity, perigee, meanAnomaly, meanMotion, semiMajorAxis;
+    private final double[] cosIncl, sinIncl, con41, x1mth2, x7thm1, eta, cc1, cc4, cc5, d2, d3, d4;
+    private final double[] delmo, sinmao, mdot, argpdot, nodedot, omgcof, xmcof, nodecf, t2cof, xlcof, aycof;
+    private final double[] t3cof, t4cof, t5cof;
+    private final boolean[] simple;
+    private final boolean[] deepSpace;
+
+    /**
+     * Default constructor of an Sgp4Propagator of the satellites of the given SatelliteCatalogue, computing
+     * the constants of their model.
+     *
+     * @param SatelliteCatalogue (catalogue)
+     */
+    public Sgp4Propagator(SatelliteCatalogue catalogue) {
+        this.catalogue = Objects.requireNonNull(catalogue);
+        this.size = catalogue.size();
+        epochMillis = new long[size];
+        bstar = new double[size]; inclination = new double[size]; node = new double[size]; eccentricity = new double[size];
+        perigee = new double[size]; meanAnomaly = new double[size]; meanMotion = new double[size]; semiMajorAxis = new double[size];
+        cosIncl = new double[size]; sinIncl = new double[size]; con41 = new double[size]; x1mth2 = new double[size];
+        x7thm1 = new double[size]; eta = new double[size]; cc1 = new double[size]; cc4 = new double[size];
+        cc5 = new double[size]; d2 = new double[size]; d3 = new double[size]; d4 = new double[size];
+        delmo = new double[size]; sinmao = new double[size]; mdot = new double[size]; argpdot = new double[size];
+        nodedot = new double[size]; omgcof = new double[size]; xmcof = new double[size]; nodecf = new double[size];
+        t2cof = new double[size]; xlcof = new double[size]; aycof = new double[size];
+        t3cof = new double[size]; t4cof = new double[size]; t5cof = new double[size];
+        simple = new boolean[size];
+        deepSpace = new boolean[size];
+        for(int i = 0; i < size; ++i) initialize(i);
+    }
+
+    private void initialize(int i) {
+        epochMillis[i] = catalogue.epochMillis(i);
+        bstar[i] = catalogue.dragTerm(i);
+        inclination[i] = catalogue.inclination(i);
+        node[i] = catalogue.node(i);
+        eccentricity[i] = catalogue.eccentricity(i);
+        perigee[i] = catalogue.perigeeArgument(i);
+        meanAnomaly[i] = catalogue.meanAnomaly(i);
+        double ecco = eccentricity[i];
+
+        //Recovery of the Brouwer mean motion from the Kozai mean motion of the TLE
+        double eccsq = ecco*ecco;
+        double omeosq = 1 - eccsq;
+        double rteosq = Math.sqrt(omeosq);
+        double cosio = Math.cos(inclination[i]);
+        double cosio2 = cosio*cosio;
+        double ak = Math.pow(XKE / catalogue.meanMotion(i), TWO_THIRDS);
+        double d1 = 0.75 * J2 * (3*cosio2 - 1) / (rteosq*omeosq);
+        double del = d1 / (ak*ak);
+        double adel = ak * (1 - del*del - del*(1.0/3 + 134*del*del/81));
+        del = d1 / (adel*adel);
+        double no = catalogue.meanMotion(i) / (1 + del);
+        meanMotion[i] = no;
+
+        double ao = Math.pow(XKE / no, TWO_THIRDS);
+        semiMajorAxis[i] = ao;
+        double sinio = Math.sin(inclination[i]);
+        double po = ao * omeosq;
+        double con42 = 1 - 5*cosio2;
+        double posq = po*po;
+        double rp = ao * (1 - ecco);
+        cosIncl[i] = cosio;
+        sinIncl[i] = sinio;
+        con41[i] = -con42 - 2*cosio2;
+        deepSpace[i] = Angle.TAU / no >= DEEP_SPACE_PERIOD_MINUTES;
+        simple[i] = rp < 220 / EARTH_RADIUS_KM + 1 || deepSpace[i];
+
+        //Atmospheric density parameters, lowered for the perigees under 156km
+        double sfour = 78 / EARTH_RADIUS_KM + 1;
+        double qzms24 = Math.pow((120 - 78) / EARTH_RADIUS_KM, 4);
+        double perigeeHeight = (rp - 1) * EARTH_RADIUS_KM;
+        if(perigeeHeight < 156) {
+            sfour = (perigeeHeight < 98) ? 20 : perigeeHeight - 78;
+            qzms24 = Math.pow((120 - sfour) / EARTH_RADIUS_KM, 4);
+            sfour = sfour / EARTH_RADIUS_KM + 1;
+        }
+        double pinvsq = 1 / posq;
+        double tsi = 1 / (ao - sfour);
+        eta[i] = ao * ecco * tsi;
+        double etasq = eta[i]*eta[i];
+        double eeta = ecco * eta[i];
+        double psisq = Math.abs(1 - etasq);
+        double coef = qzms24 * Math.pow(tsi, 4);
+        double coef1 = coef / Math.pow(psisq, 3.5);
+        double cc2 = coef1 * no * (ao*(1 + 1.5*etasq + eeta*(4 + etasq)) + 0.375*J2*tsi/psisq*con41[i]*(8 + 3*etasq*(8 + etasq)));
+        cc1[i] = bstar[i] * cc2;
+        double cc3 = (ecco > 1e-4) ? -2*coef*tsi*J3_OVER_J2*no*sinio/ecco : 0;
+        x1mth2[i] = 1 - cosio2;
+        cc4[i] = 2*no*coef1*ao*omeosq*(eta[i]*(2 + 0.5*etasq) + ecco*(0.5 + 2*etasq)
+                - J2*tsi/(ao*psisq)*(-3*con41[i]*(1 - 2*eeta + etasq*(1.5 - 0.5*eeta))
+                + 0.75*x1mth2[i]*(2*etasq - eeta*(1 + etasq))*Math.cos(2*perigee[i])));
+        cc5[i] = 2*coef1*ao*omeosq*(1 + 2.75*(etasq + eeta) + eeta*etasq);
+
+        //Secular rates of the mean anomaly, argument of the perigee and node
+        double cosio4 = cosio2*cosio2;
+        double temp1 = 1.5 * J2 * pinvsq * no;
+        double temp2 = 0.5 * temp1 * J2 * pinvsq;
+        double temp3 = -0.46875 * J4 * pinvsq * pinvsq * no;
+        mdot[i] = no + 0.5*temp1*rteosq*con41[i] + 0.0625*temp2*rteosq*(13 - 78*cosio2 + 137*cosio4);
+        argpdot[i] = -0.5*temp1*con42 + 0.0625*temp2*(7 - 114*cosio2 + 395*cosio4) + temp3*(3 - 36*cosio2 + 49*cosio4);
+        double xhdot1 = -temp1 * cosio;
+        nodedot[i] = xhdot1 + (0.5*temp2*(4 - 19*cosio2) + 2*temp3*(3 - 7*cosio2))*cosio;
+        omgcof[i] = bstar[i] * cc3 * Math.cos(perigee[i]);
+        xmcof[i] = (ecco > 1e-4) ? -TWO_THIRDS*coef*bstar[i]/eeta : 0;
+        nodecf[i] = 3.5 * omeosq * xhdot1 * cc1[i];
+        t2cof[i] = 1.5 * cc1[i];
+        double onePlusCos = (Math.abs(cosio + 1) > 1.5e-12) ? 1 + cosio : 1.5e-12;
+        xlcof[i] = -0.25 * J3_OVER_J2 * sinio * (3 + 5*cosio) / onePlusCos;
+        aycof[i] = -0.5 * J3_OVER_J2 * sinio;
+        delmo[i] = Math.pow(1 + eta[i]*Math.cos(meanAnomaly[i]), 3);
+        sinmao[i] = Math.sin(meanAnomaly[i]);
+        x7thm1[i] = 7*cosio2 - 1;
+
+        if(!simple[i]) {
+            double cc1sq = cc1[i]*cc1[i];
+            d2[i] = 4 * ao * tsi * cc1sq;
+            double temp = d2[i] * tsi * cc1[i] / 3;
+            d3[i] = (17*ao + sfour) * temp;
+            d4[i] = 0.5 * temp * ao * tsi * (221*ao + 31*sfour) * cc1[i];
+            t3cof[i] = d2[i] + 2*cc1sq;
+            t4cof[i] = 0.25 * (3*d3[i] + cc1[i]*(12*d2[i] + 10*cc1sq));
+            t5cof[i] = 0.2 * (3*d4[i] + 12*cc1[i]*d3[i] + 6*d2[i]*d2[i] + 15*cc1sq*(2*d2[i] + cc1sq));
+        }
+    }
+
+    /**
+     * Returns the SatelliteCatalogue of the propagator.
+     *
+     * @return SatelliteCatalogue (catalogue)
+     */
+    public SatelliteCatalogue catalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Returns the number of satellites propagated.
+     *
+     * @return int (size)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the satellite of the given index is a deep space one (of period longer than 225 minutes),
+     * propagated without the lunar-solar and resonance terms.
+     *
+     * @param int (index)
+     * @return boolean (deepSpace)
+     */
+    public boolean isDeepSpace(int index) {
+        return deepSpace[index];
+    }
+
+    /**
+     * Computes the positions in the TEME frame, in km, of the count satellites starting at the index from, at a given
+     * moment in milliseconds since 1970-01-01T00:00Z. The position of the satellite from + i is written at the indexes
+     * 3i, 3i + 1 and 3i + 2 of positions, or NaN if the model fails for it (decayed satellite).
+     * Throws IndexOutOfBoundsException if the satellites are not in the catalogue or if the array is too short.
+     *
+     * @param long (epochMillis)
+     * @param int (from)
+     * @param int (count)
+     * @param double[] (positions)
+     */
+    public void temePositions(long epochMillis, int from, int count, double[] positions) {
+        Objects.checkFromIndexSize(from, count, size);
+        Objects.checkFromIndexSize(0, 3*count, positions.length);
+        for(int i = 0; i < count; ++i) propagate(from + i, (epochMillis - this.epochMillis[from + i]) / MILLIS_IN_MINUTE, positions, 3*i);
+    }
+
+    private void propagate(int i, double t, double[] positions, int offset) {
+        //Secular gravity and atmospheric drag
+        double xmdf = meanAnomaly[i] + mdot[i]*t;
+        double argpdf = perigee[i] + argpdot[i]*t;
+        double nodedf = node[i] + nodedot[i]*t;
+        double argpm = argpdf;
+        double mm = xmdf;
+        double t2 = t*t;
+        double nodem = nodedf + nodecf[i]*t2;
+        double tempa = 1 - cc1[i]*t;
+        double tempe = bstar[i] * cc4[i] * t;
+        double templ = t2cof[i] * t2;
+        if(!simple[i]) {
+            double delomg = omgcof[i] * t;
+            double delmtemp = 1 + eta[i]*Math.cos(xmdf);
+            double delm = xmcof[i] * (delmtemp*delmtemp*delmtemp - delmo[i]);
+            double temp = delomg + delm;
+            mm = xmdf + temp;
+            argpm = argpdf - temp;
+            double t3 = t2*t;
+            double t4 = t3*t;
+            tempa = tempa - d2[i]*t2 - d3[i]*t3 - d4[i]*t4;
+            tempe = tempe + bstar[i]*cc5[i]*(Math.sin(mm) - sinmao[i]);
+            templ = templ + t3cof[i]*t3 + t4*(t4cof[i] + t*t5cof[i]);
+        }
+        double am = semiMajorAxis[i] * tempa*tempa;
+        double em = eccentricity[i] - tempe;
+        if(em >= 1 || em < -0.001 || am < 0.95) {
+            fail(positions, offset);
+            return;
+        }
+        em = Math.max(em, 1e-6);
+        mm += meanMotion[i] * templ;
+        double xlm = mm + argpm + nodem;
+        nodem = nodem % Angle.TAU;
+        argpm = argpm % Angle.TAU;
+        xlm = xlm % Angle.TAU;
+        mm = (xlm - argpm - nodem) % Angle.TAU;
+
+        //Long period periodics
+        double axnl = em * Math.cos(argpm);
+        double temp = 1 / (am * (1 - em*em));
+        double aynl = em*Math.sin(argpm) + temp*aycof[i];
+        double xl = mm + argpm + nodem + temp*xlcof[i]*axnl;
+
+        //Equation of Kepler
+        double u = (xl - nodem) % Angle.TAU;
+        double eo1 = u;
+        double sineo1 = 0, coseo1 = 0;
+        for(int k = 0; k < KEPLER_ITERATIONS; ++k) {
+            sineo1 = Math.sin(eo1);
+            coseo1 = Math.cos(eo1);
+            double correction = (u - aynl*coseo1 + axnl*sineo1 - eo1) / (1 - coseo1*axnl - sineo1*aynl);
+            correction = Math.max(-0.95, Math.min(0.95, correction));
+            eo1 += correction;
+            if(Math.abs(correction) < KEPLER_TOLERANCE) break;
+        }
+
+        //Short period periodics
+        double ecose = axnl*coseo1 + aynl*sineo1;
+        double esine = axnl*sineo1 - aynl*coseo1;
+        double el2 = axnl*axnl + aynl*aynl;
+        double pl = am * (1 - el2);
+        if(pl < 0) {
+            fail(positions, offset);
+            return;
+        }
+        double rl = am * (1 - ecose);
+        double betal = Math.sqrt(1 - el2);
+        temp = esine / (1 + betal);
+        double sinu = am / rl * (sineo1 - aynl - axnl*temp);
+        double cosu = am / rl * (coseo1 - axnl + aynl*temp);
+        double su = Math.atan2(sinu, cosu);
+        double sin2u = 2*cosu*sinu;
+        double cos2u = 1 - 2*sinu*sinu;
+        temp = 1 / pl;
+        double temp1 = 0.5 * J2 * temp;
+        double temp2 = temp1 * temp;
+        double mrt = rl*(1 - 1.5*temp2*betal*con41[i]) + 0.5*temp1*x1mth2[i]*cos2u;
+        if(mrt < 1) {
+            fail(positions, offset);
+            return;
+        }
+        su -= 0.25 * temp2 * x7thm1[i] * sin2u;
+        double xnode = nodem + 1.5*temp2*cosIncl[i]*sin2u;
+        double xinc = inclination[i] + 1.5*temp2*cosIncl[i]*sinIncl[i]*cos2u;
+
+        //Orientation vector
+        double sinsu = Math.sin(su), cossu = Math.cos(su);
+        double snod = Math.sin(xnode), cnod = Math.cos(xnode);
+        double sini = Math.sin(xinc), cosi = Math.cos(xinc);
+        double xmx = -snod * cosi;
+        double xmy = cnod * cosi;
+        double radius = mrt * EARTH_RADIUS_KM;
+        positions[offset] = radius * (xmx*sinsu + cnod*cossu);
+        positions[offset + 1] = radius * (xmy*sinsu + snod*cossu);
+        positions[offset + 2] = radius * sini * sinsu;
+    }
+
+    private static void fail(double[] positions, int offset) {
+        positions[offset] = Double.NaN;
+        positions[offset + 1] = Double.NaN;
+        positions[offset + 2] = Double.NaN;
+    }
+
+    /**
+     * Computes the horizontal positions of all the satellites seen from a given position (GeographicCoordinates)
+     * at a given moment in milliseconds since 1970-01-01T00:00Z, in the form (az, alt) in radiant, into the first
+     * 2*size indexes of horizontalPts (NaN for the satellites whose model fails). If illuminated is not null, its
+     * i-th value is set to true if the satellite i is lit by the Sun, i.e. outside of the cylindrical shadow of the
+     * Earth, the direction of the Sun being given by SunModel.
+     * The chunks of satellites are computed in parallel if parallel is true.
+     * Throws IAE if an array is too short.
+     *
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @param double[] (horizontalPts)
+     * @param boolean[] (illuminated)
+     * @param boolean (parallel)
+     */
+    public void horizontalPositions(long epochMillis, GeographicCoordinates where, double[] horizontalPts, boolean[] illuminated, boolean parallel) {
+        checkArgument(horizontalPts.length >= 2*size && (illuminated == null || illuminated.length >= size));
+        //Rotation from TEME to the terrestrial frame, and observer in the terrestrial frame
+        double siderealTime = SiderealTime.greenwich(epochMillis);
+        double cosTheta = Math.cos(siderealTime), sinTheta = Math.sin(siderealTime);
+        double sinLat = Math.sin(where.lat()), cosLat = Math.cos(where.lat());
+        double sinLon = Math.sin(where.lon()), cosLon = Math.cos(where.lon());
+        double e2 = FLATTENING * (2 - FLATTENING);
+        double c = EARTH_RADIUS_KM / Math.sqrt(1 - e2*sinLat*sinLat);
+        double observerX = c * cosLat * cosLon;
+        double observerY = c * cosLat * sinLon;
+        double observerZ = c * (1 - e2) * sinLat;
+        //Direction of the Sun in the equatorial frame of date (close enough to TEME for the shadow)
+        double[] sun = new double[3];
+        if(illuminated != null) {
+            EquatorialCoordinates sunPos = SunModel.SUN.at(Epoch.J2010.daysUntil(epochMillis), new EclipticToEquatorialConversion(epochMillis)).equatorialPos();
+            sun[0] = Math.cos(sunPos.dec()) * Math.cos(sunPos.ra());
+            sun[1] = Math.cos(sunPos.dec()) * Math.sin(sunPos.ra());
+            sun[2] = Math.sin(sunPos.dec());
+        }
+
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream indexes = IntStream.range(0, chunks);
+        (parallel ? indexes.parallel() : indexes).forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            int count = Math.min(CHUNK_SIZE, size - from);
+            double[] positions = new double[3*count];
+            temePositions(epochMillis, from, count, positions);
+            for(int k = 0; k < count; ++k) {
+                double x = positions[3*k], y = positions[3*k + 1], z = positions[3*k + 2];
+                if(illuminated != null) {
+                    double alongSun = x*sun[0] + y*sun[1] + z*sun[2];
+                    double fromAxis2 = x*x + y*y + z*z - alongSun*alongSun;
+                    illuminated[from + k] = alongSun >= 0 || fromAxis2 > EARTH_RADIUS_KM*EARTH_RADIUS_KM;
+                }
+                //Range in the terrestrial frame, then in the local frame (south, east, zenith)
+                double rx = x*cosTheta + y*sinTheta - observerX;
+                double ry = -x*sinTheta + y*cosTheta - observerY;
+                double rz = z - observerZ;
+                double south = sinLat*cosLon*rx + sinLat*sinLon*ry - cosLat*rz;
+                double east = -sinLon*rx + cosLon*ry;
+                double zenith = cosLat*cosLon*rx + cosLat*sinLon*ry + sinLat*rz;
+                horizontalPts[2*(from + k)] = Angle.normalizePositive(Math.atan2(east, -south));
+                horizontalPts[2*(from + k) + 1] = Math.asin(zenith / Math.sqrt(rx*rx + ry*ry + rz*rz));
+            }
+        });
+    }
+}
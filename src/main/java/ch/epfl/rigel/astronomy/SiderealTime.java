@@ -17,6 +17,7 @@ import ch.epfl.rigel.math.Polynomial;
 public final class SiderealTime {
 
     private final static int MILLIS_IN_HOUR = 1000*60*60;
+    private final static int MILLIS_IN_DAY = 24*MILLIS_IN_HOUR;
     private final static Polynomial P = Polynomial.of(0.000025862, 2400.051336, 6.697374558);
     private final static double C = 1.002737909;
 
@@ -39,6 +40,20 @@ public final class SiderealTime {
         double sg = P.at(Epoch.J2000.julianCenturiesUntil(zdtGreenwich0h)) + C*(zdtGreenwich0h.until(zdtGreenwich, ChronoUnit.MILLIS)/(double)MILLIS_IN_HOUR);
         return Angle.normalizePositive(Angle.ofHr(sg));
     }
+    
+    /**
+     * Returns the siderealtime of Greenwich from a given moment, in milliseconds since 1970-01-01T00:00Z, in radiant.
+     * Result normalized in the interval [0, TAU[.
+     * The reference is J2000 Epoch.
+     * 
+     * @param long (epochMillis)
+     * @return double (siderealtime)
+     */
+    public static double greenwich(long epochMillis) {
+        long greenwich0h = Math.floorDiv(epochMillis, MILLIS_IN_DAY) * MILLIS_IN_DAY;
+        double sg = P.at(Epoch.J2000.julianCenturiesUntil(greenwich0h)) + C*((epochMillis - greenwich0h)/(double)MILLIS_IN_HOUR);
+        return Angle.normalizePositive(Angle.ofHr(sg));
+    }
         
     
     /**
@@ -53,5 +68,19 @@ public final class SiderealTime {
      */
     public static double local(ZonedDateTime when, GeographicCoordinates where) {
         return Angle.normalizePositive(greenwich(when) + where.lon());
+    }
+    
+    /**
+     * Returns the siderealtime of given GeographicCoordinates (where)
+     * from a given moment, in milliseconds since 1970-01-01T00:00Z, in radiant.
+     * Result normalized in the interval [0, TAU[.
+     * The reference is J2000 Epoch.
+     * 
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @return double (siderealtime)
+     */
+    public static double local(long epochMillis, GeographicCoordinates where) {
+        return Angle.normalizePositive(greenwich(epochMillis) + where.lon());
     }   
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Calculator Of The Horizontal Positions Of The Sun For Batches Of (Moment, Location) Rows.
+ * The rows are given as primitive arrays : moments in milliseconds since 1970-01-01T00:00Z, and longitudes and
+ * latitudes in radiant. The positions are written in the form (az, alt) in radiant, as by
+ * EquatorialToHorizontalConversion, the altitude being refracted by the atmosphere of the calculator.
+ * The Sun (SunModel, converted to equatorial coordinates) is evaluated once per moment, as its Greenwich hour angle
+ * and its declination : a location only adds its longitude to the hour angle, so that consecutive rows of the same
+ * moment share the evaluation, as do the rows of a same moment in a grid. The sine and cosine of the latitude are
+ * likewise shared by consecutive rows of the same latitude.
+ * The rows are cut in chunks solved in parallel on the given ForkJoinPool; when streamed, only as many chunks as
+ * the parallelism of the pool are kept at once.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class SolarPositions {
+
+    private final static int CHUNK_ROWS = 4096;
+
+    private final ForkJoinPool pool;
+    private final Atmosphere atmosphere;
+
+    /**
+     * Default constructor of SolarPositions without atmosphere, computing in parallel on the common pool.
+     */
+    public SolarPositions() {
+        this(ForkJoinPool.commonPool(), Atmosphere.NONE);
+    }
+
+    /**
+     * Constructor of SolarPositions refracted by the given atmosphere, computing in parallel on the given pool.
+     *
+     * @param ForkJoinPool (pool)
+     * @param Atmosphere (atmosphere)
+     */
+    public SolarPositions(ForkJoinPool pool, Atmosphere atmosphere) {
+        this.pool = pool;
+        this.atmosphere = atmosphere;
+    }
+
+    /**
+     * Returns the atmosphere refracting the positions.
+     *
+     * @return Atmosphere (atmosphere)
+     */
+    public Atmosphere atmosphere() {
+        return atmosphere;
+    }
+
+    /**
+     * Computes the positions of the Sun of the numRows rows starting at the index srcOff of epochMillis, lons and lats.
+     * The position of the i-th row is written at the index dstOff + 2*i of horizontalPts.
+     * Throws IAE if numRows is negative.
+     *
+     * @param long[] (epochMillis)
+     * @param double[] (lons)
+     * @param double[] (lats)
+     * @param int (srcOff)
+     * @param double[] (horizontalPts)
+     * @param int (dstOff)
+     * @param int (numRows)
+     */
+    public void compute(long[] epochMillis, double[] lons, double[] lats, int srcOff, double[] horizontalPts, int dstOff, int numRows) {
+        checkArgument(numRows >= 0);
+        int chunks = (numRows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * CHUNK_ROWS;
+            int count = Math.min(CHUNK_ROWS, numRows - from);
+            computeRows(epochMillis, lons, lats, srcOff + from, horizontalPts, dstOff + 2*from, count);
+        })).join();
+    }
+
+    /**
+     * Computes the positions of the Sun of the grid of the given moments and locations (of longitudes lons and
+     * latitudes lats) : the position at the moment t and the location l is written at the index
+     * 2*(t*lons.length + l) of horizontalPts.
+     * Throws IAE if there are not as many latitudes as longitudes.
+     *
+     * @param long[] (epochMillis)
+     * @param double[] (lons)
+     * @param double[] (lats)
+     * @param double[] (horizontalPts)
+     */
+    public void grid(long[] epochMillis, double[] lons, double[] lats, double[] horizontalPts) {
+        checkArgument(lons.length == lats.length);
+        int locations = lons.length;
+        double[] sinLats = new double[locations];
+        double[] cosLats = new double[locations];
+        for(int l = 0; l < locations; ++l) {
+            sinLats[l] = Math.sin(lats[l]);
+            cosLats[l] = Math.cos(lats[l]);
+        }
+        pool.submit(() -> IntStream.range(0, epochMillis.length).parallel().forEach(t -> {
+            double[] sun = new double[EclipticModel.CHANNELS];
+            evaluate(epochMillis[t], sun);
+            for(int l = 0; l < locations; ++l) {
+                convert(sun, lons[l], sinLats[l], cosLats[l], horizontalPts, 2*(t*locations + l));
+            }
+        })).join();
+    }
+
+    /**
+     * Computes the positions of the Sun of all the rows of epochMillis, lons and lats (of the same length) by chunks
+     * of at most chunkRows rows, given to the consumer in the order of the rows. The buffers given to the consumer
+     * are reused once it returns.
+     * Throws IAE if the arrays are not of the same length or if chunkRows is not positive, IOE if the consumer does.
+     *
+     * @param long[] (epochMillis)
+     * @param double[] (lons)
+     * @param double[] (lats)
+     * @param int (chunkRows)
+     * @param ChunkConsumer (consumer)
+     * @throws IOException
+     */
+    public void stream(long[] epochMillis, double[] lons, double[] lats, int chunkRows, ChunkConsumer consumer) throws IOException {
+        checkArgument(epochMillis.length == lons.length && lons.length == lats.length && chunkRows > 0);
+        int rows = epochMillis.length;
+        int chunks = (int) (((long) rows + chunkRows - 1) / chunkRows);
+        int window = Math.max(1, Math.min(pool.getParallelism(), chunks));
+        double[][] buffers = new double[window][2*chunkRows];
+        for(int first = 0; first < chunks; first += window) {
+            int firstChunk = first;
+            int count = Math.min(window, chunks - first);
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(c -> {
+                int from = (firstChunk + c) * chunkRows;
+                computeRows(epochMillis, lons, lats, from, buffers[c], 0, Math.min(chunkRows, rows - from));
+            })).join();
+            for(int c = 0; c < count; ++c) {
+                int from = (first + c) * chunkRows;
+                consumer.accept(from, Math.min(chunkRows, rows - from), buffers[c]);
+            }
+        }
+    }
+
+    private void computeRows(long[] epochMillis, double[] lons, double[] lats, int srcOff, double[] horizontalPts, int dstOff, int numRows) {
+        double[] sun = new double[EclipticModel.CHANNELS];
+        long millis = 0;
+        double lat = Double.NaN;
+        double sinLat = 0;
+        double cosLat = 0;
+        for(int i = 0; i < numRows; ++i) {
+            if(i == 0 || epochMillis[srcOff + i] != millis) {
+                millis = epochMillis[srcOff + i];
+                evaluate(millis, sun);
+            }
+            if(lats[srcOff + i] != lat) {
+                lat = lats[srcOff + i];
+                sinLat = Math.sin(lat);
+                cosLat = Math.cos(lat);
+            }
+            convert(sun, lons[srcOff + i], sinLat, cosLat, horizontalPts, dstOff + 2*i);
+        }
+    }
+
+    //Computes the Greenwich hour angle, and the sine and cosine of the declination of the Sun at a given moment,
+    //into the first 3 indexes of sun (of length EclipticModel.CHANNELS, for its channels)
+    private static void evaluate(long epochMillis, double[] sun) {
+        SunModel.SUN.channelsAt(Epoch.J2010.daysUntil(epochMillis), sun, 0);
+        sun[0] = Angle.normalizePositive(sun[0]);
+        EclipticToEquatorialConversion.applyAt(epochMillis, 0, sun, 0, sun, 0, 1);
+        double dec = sun[1];
+        sun[0] = SiderealTime.greenwich(epochMillis) - sun[0];
+        sun[1] = Math.sin(dec);
+        sun[2] = Math.cos(dec);
+    }
+
+    //Same conversion as EquatorialToHorizontalConversion (reusing the sine of the altitude), followed by the refraction.
+    private void convert(double[] sun, double lon, double sinLat, double cosLat, double[] horizontalPts, int dstOff) {
+        double angleH = sun[0] + lon;
+        double sinDec = sun[1];
+        double cosDec = sun[2];
+        double sinAlt = Math.max(-1, Math.min(1, sinDec*sinLat + cosDec*cosLat*Math.cos(angleH)));
+        double alt = Angle.asin(sinAlt);
+        double az = Math.atan2(-cosDec*cosLat*Math.sin(angleH), sinDec - sinLat*sinAlt);
+        horizontalPts[dstOff] = az < 0 ? az + Angle.TAU : az;
+        horizontalPts[dstOff + 1] = alt + atmosphere.refraction(alt);
+    }
+
+    /**
+     * Imbricated interface representing a SolarPositions.ChunkConsumer.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+
+        /**
+         * Receives the positions of the Sun of the rowCount rows starting at firstRow, in the form (az, alt) in
+         * radiant starting at the index 0 of horizontalPts. Throws IOE in case of an IO error.
+         *
+         * @param int (firstRow)
+         * @param int (rowCount)
+         * @param double[] (horizontalPts)
+         * @throws IOException
+         */
+        public abstract void accept(int firstRow, int rowCount, double[] horizontalPts) throws IOException;
+    }
+}
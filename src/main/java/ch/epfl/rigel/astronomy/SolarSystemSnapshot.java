@@ -0,0 +1,224 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * The Sun, The Moon And The Planets At A Given Moment.
+ * The bodies are evaluated with the models of an EphemerisTier (STANDARD by default) on their first access, by class :
+ * the Sun and the Moon together, and the planets together. The STANDARD models share their intermediate values
+ * (the Moon reuses the Sun, the Earth is computed once for all the planets). The channels of each class (see EclipticModel) are kept in an array, from which the primitive
+ * positions are read without allocation, while the objects are only built on their first access.
+ * First layer of an ObservedSky : it only depends on the moment, and can therefore be shared
+ * by the skies observed from different positions or with different projections. Instances are thread safe.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class SolarSystemSnapshot {
+
+    /**
+     * The models of the planets of a snapshot, in the order of PlanetModel.ALL without the Earth.
+     */
+    public final static List<PlanetModel> PLANET_MODELS = planetModels();
+
+    /**
+     * The number of bodies of a snapshot : the Sun, the Moon and the planets (in this order).
+     */
+    public final static int BODY_COUNT = 2 + PLANET_MODELS.size();
+
+    //Offsets of the channels of the Sun and of the Moon in the first array, of the planets in the second one
+    private final static int SUN_OFFSET = 0;
+    private final static int MOON_OFFSET = EclipticModel.CHANNELS;
+    private final static int PLANETS_OFFSET = 0;
+
+    private final double daysSinceJ2010;
+    private final EphemerisTier tier;
+    private final EclipticToEquatorialConversion eclToEqConversion;
+    private final Lazy<double[]> sunMoonChannels;
+    private final Lazy<double[]> planetChannels;
+    private final Lazy<Sun> sun;
+    private final Lazy<Moon> moon;
+    private final Lazy<List<Planet>> planets;
+
+    /**
+     * Default constructor of a SolarSystemSnapshot, for the Sun, the Moon and the planets (except the Earth)
+     * at a given moment, in milliseconds since 1970-01-01T00:00Z.
+     *
+     * @param long (epochMillis)
+     */
+    public SolarSystemSnapshot(long epochMillis) {
+        this(epochMillis, EphemerisTier.STANDARD);
+    }
+
+    /**
+     * Constructor of a SolarSystemSnapshot, for the bodies given by the models of the given tier at a given moment,
+     * in milliseconds since 1970-01-01T00:00Z.
+     *
+     * @param long (epochMillis)
+     * @param EphemerisTier (tier)
+     */
+    public SolarSystemSnapshot(long epochMillis, EphemerisTier tier) {
+        this(Epoch.J2010.daysUntil(epochMillis), new EclipticToEquatorialConversion(epochMillis), tier);
+    }
+
+    /**
+     * Constructor of a SolarSystemSnapshot, for the bodies at the given numbers of days since J2010,
+     * using the given conversion to get their EquatorialCoordinates from their EclipticCoordinates.
+     *
+     * @param double (daysSinceJ2010)
+     * @param EclipticToEquatorialConversion (eclToEqConversion)
+     */
+    public SolarSystemSnapshot(double daysSinceJ2010, EclipticToEquatorialConversion eclToEqConversion) {
+        this(daysSinceJ2010, eclToEqConversion, EphemerisTier.STANDARD);
+    }
+
+    /**
+     * Constructor of a SolarSystemSnapshot, for the bodies given by the models of the given tier at the given
+     * numbers of days since J2010, using the given conversion to get their EquatorialCoordinates from their
+     * EclipticCoordinates.
+     *
+     * @param double (daysSinceJ2010)
+     * @param EclipticToEquatorialConversion (eclToEqConversion)
+     * @param EphemerisTier (tier)
+     */
+    public SolarSystemSnapshot(double daysSinceJ2010, EclipticToEquatorialConversion eclToEqConversion, EphemerisTier tier) {
+        this.daysSinceJ2010 = daysSinceJ2010;
+        this.tier = tier;
+        this.eclToEqConversion = eclToEqConversion;
+        this.sunMoonChannels = new Lazy<>(() -> {
+            double[] channels = new double[2*EclipticModel.CHANNELS];
+            if(tier == EphemerisTier.STANDARD) {
+                SunModel.SUN.channelsAt(daysSinceJ2010, channels, SUN_OFFSET);
+                MoonModel.MOON.channelsAt(daysSinceJ2010, channels, SUN_OFFSET, channels, MOON_OFFSET);
+            } else {
+                channelsAt(tier.sun(), daysSinceJ2010, channels, SUN_OFFSET);
+                channelsAt(tier.moon(), daysSinceJ2010, channels, MOON_OFFSET);
+            }
+            return channels;
+        });
+        this.planetChannels = new Lazy<>(() -> {
+            double[] channels = new double[PLANET_MODELS.size() * EclipticModel.CHANNELS];
+            if(tier == EphemerisTier.STANDARD) {
+                double[] values = new double[2*PlanetModel.USEFULL_VALUES];
+                PlanetModel.EARTH.usefullValues(daysSinceJ2010, values, PlanetModel.USEFULL_VALUES);
+                for(int i = 0; i < PLANET_MODELS.size(); ++i) {
+                    PLANET_MODELS.get(i).channelsAt(daysSinceJ2010, values, channels, PLANETS_OFFSET + i*EclipticModel.CHANNELS);
+                }
+            } else {
+                for(int i = 0; i < PLANET_MODELS.size(); ++i) {
+                    channelsAt(tier.planet(PLANET_MODELS.get(i)), daysSinceJ2010, channels, PLANETS_OFFSET + i*EclipticModel.CHANNELS);
+                }
+            }
+            return channels;
+        });
+        this.sun = new Lazy<>(() -> tier.sun().fromChannels(channels(sunMoonChannels.get(), SUN_OFFSET), eclToEqConversion));
+        this.moon = new Lazy<>(() -> tier.moon().fromChannels(channels(sunMoonChannels.get(), MOON_OFFSET), eclToEqConversion));
+        this.planets = new Lazy<>(() -> {
+            List<Planet> planetsInt = new ArrayList<Planet>();
+            for(int i = 0; i < PLANET_MODELS.size(); ++i) {
+                planetsInt.add(tier.planet(PLANET_MODELS.get(i)).fromChannels(channels(planetChannels.get(), PLANETS_OFFSET + i*EclipticModel.CHANNELS), eclToEqConversion));
+            }
+            return Collections.unmodifiableList(planetsInt);
+        });
+    }
+
+    /**
+     * Returns the numbers of days since J2010 of the snapshot.
+     *
+     * @return double (daysSinceJ2010)
+     */
+    public double daysSinceJ2010() {
+        return daysSinceJ2010;
+    }
+
+    /**
+     * Returns the tier of the models of the snapshot.
+     *
+     * @return EphemerisTier (tier)
+     */
+    public EphemerisTier tier() {
+        return tier;
+    }
+
+    /**
+     * Returns the Sun.
+     *
+     * @return Sun (sun)
+     */
+    public Sun sun() {
+        return sun.get();
+    }
+
+    /**
+     * Returns the Moon.
+     *
+     * @return Moon (moon)
+     */
+    public Moon moon() {
+        return moon.get();
+    }
+
+    /**
+     * Returns the unmodifiable list of the planets (in the order of PLANET_MODELS).
+     *
+     * @return List<Planet> (planets)
+     */
+    public List<Planet> planets() {
+        return planets.get();
+    }
+
+    /**
+     * Writes the ecliptic positions of the BODY_COUNT bodies, in the form (lon, lat) in radiant with the longitude
+     * normalized in [0;TAU[, into dstPts starting at dstOff. The bodies are in the order Sun, Moon, PLANET_MODELS.
+     *
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     */
+    public void eclipticPositions(double[] dstPts, int dstOff) {
+        checkArgument(dstOff >= 0 && dstOff + 2*BODY_COUNT <= dstPts.length);
+        for(int i = 0; i < BODY_COUNT; ++i) {
+            double[] channels = (i < 2) ? sunMoonChannels.get() : planetChannels.get();
+            int offset = (i < 2) ? i*EclipticModel.CHANNELS : PLANETS_OFFSET + (i - 2)*EclipticModel.CHANNELS;
+            dstPts[dstOff + 2*i] = Angle.normalizePositive(channels[offset]);
+            dstPts[dstOff + 2*i + 1] = channels[offset + 1];
+        }
+    }
+
+    /**
+     * Writes the equatorial positions of the BODY_COUNT bodies, in the form (ra, dec) in radiant,
+     * into dstPts starting at dstOff. The bodies are in the order Sun, Moon, PLANET_MODELS.
+     *
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     */
+    public void equatorialPositions(double[] dstPts, int dstOff) {
+        eclipticPositions(dstPts, dstOff);
+        eclToEqConversion.apply(dstPts, dstOff, dstPts, dstOff, BODY_COUNT);
+    }
+
+    //Evaluates the channels of a model into channels, at offset
+    private static void channelsAt(EclipticModel<?> model, double daysSinceJ2010, double[] channels, int offset) {
+        double[] bodyChannels = new double[EclipticModel.CHANNELS];
+        model.channelsAt(daysSinceJ2010, bodyChannels);
+        System.arraycopy(bodyChannels, 0, channels, offset, EclipticModel.CHANNELS);
+    }
+
+    private static double[] channels(double[] channels, int offset) {
+        double[] bodyChannels = new double[EclipticModel.CHANNELS];
+        System.arraycopy(channels, offset, bodyChannels, 0, EclipticModel.CHANNELS);
+        return bodyChannels;
+    }
+
+    private static List<PlanetModel> planetModels() {
+        List<PlanetModel> models = new ArrayList<>(PlanetModel.ALL);
+        models.remove(PlanetModel.EARTH);
+        return List.copyOf(models);
+    }
+}
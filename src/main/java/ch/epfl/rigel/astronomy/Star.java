@@ -21,6 +21,8 @@ public final class Star extends CelestialObject {
     @SuppressWarnings("unused")
     private final float colorIndex;
     private final int colorTemperature;
+    private final double properMotionRa;
+    private final double properMotionDec;
   
     /**
      * Default constructor of a Star : constructs a Star from a given hipparcosId (int),
@@ -36,7 +38,28 @@ public final class Star extends CelestialObject {
      * @param float (colorIndex)
      */
     public Star(int hipparcosId, String name, EquatorialCoordinates equatorialPos, float magnitude, float colorIndex) {
+        this(hipparcosId, name, equatorialPos, magnitude, colorIndex, 0, 0);
+    }
+
+    /**
+     * Constructor of a Star moving on the sky : its equatorialPos is the one of the epoch J2000, and its proper
+     * motion is given in right ascension (already multiplied by the cosine of the declination, as in the catalogues)
+     * and in declination, in radiant per Julian year.
+     * Throws IAE or NullPointerException in the same cases as the default constructor.
+     * 
+     * @param int (hipparcosId)
+     * @param String (name)
+     * @param EquatorialCoordinates (equatorialPos)
+     * @param float (magnitude)
+     * @param float (colorIndex)
+     * @param double (properMotionRa)
+     * @param double (properMotionDec)
+     */
+    public Star(int hipparcosId, String name, EquatorialCoordinates equatorialPos, float magnitude, float colorIndex,
+            double properMotionRa, double properMotionDec) {
         super(name, equatorialPos, STAR_ANGULAR_SIZE, magnitude);
+        this.properMotionRa = properMotionRa;
+        this.properMotionDec = properMotionDec;
         checkArgument(hipparcosId >= 0);
         this.hipparcosId = hipparcosId;
         this.colorIndex = (float)checkInInterval(COLOR_INDEX_INTERVAL, colorIndex);
@@ -62,4 +85,23 @@ public final class Star extends CelestialObject {
     public int colorTemperature() {
         return colorTemperature;
     }
+
+    /**
+     * Returns the proper motion in right ascension of the Star, multiplied by the cosine of its declination,
+     * in radiant per Julian year.
+     *
+     * @return double (properMotionRa)
+     */
+    public double properMotionRa() {
+        return properMotionRa;
+    }
+
+    /**
+     * Returns the proper motion in declination of the Star, in radiant per Julian year.
+     *
+     * @return double (properMotionDec)
+     */
+    public double properMotionDec() {
+        return properMotionDec;
+    }
 }
\ No newline at end of file
@@ -7,12 +7,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static ch.epfl.rigel.Preconditions.checkArgument;
 
+import ch.epfl.rigel.math.Angle;
+
 /**
  * A Catalogue of all the stars and asterisms.
+ * The positions of the stars are the ones of the epoch J2000. Their positions at another moment are obtained by
+ * moving them along their proper motions, in a single pass over primitive arrays ; the result is kept for the
+ * current step of a tenth of Julian year, so that it is only computed again when the moment moves far enough.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
@@ -21,6 +27,15 @@ public final class StarCatalogue {
 
     private final List<Star> stars;
     private final Map <Asterism, List<Integer>> map;
+    private final double[] equatorialPositions;
+    //Unit vectors of the J2000 positions and their motions per Julian year, 3 components per star
+    private final double[] directions;
+    private final double[] motions;
+    private final boolean moving;
+    private volatile Propagated propagated = null;
+    
+    private final static double PROPER_MOTION_STEP_DAYS = 36.525;
+    private final static double DAYS_IN_JULIAN_YEAR = 365.25;
     
     /**
      * Default constructor of a StarCatalogue. Creates a StarCatalogue from a given list of stars and asterisms.
@@ -43,6 +58,29 @@ public final class StarCatalogue {
         }
         this.stars = List.copyOf(stars);
         this.map = Collections.unmodifiableMap(map);
+        this.equatorialPositions = new double[2 * this.stars.size()];
+        this.directions = new double[3 * this.stars.size()];
+        this.motions = new double[3 * this.stars.size()];
+        boolean moving = false;
+        for(int i = 0; i < this.stars.size(); ++i) {
+            Star star = this.stars.get(i);
+            double ra = star.equatorialPos().ra();
+            double dec = star.equatorialPos().dec();
+            equatorialPositions[2*i] = ra;
+            equatorialPositions[2*i + 1] = dec;
+            double sinRa = Math.sin(ra), cosRa = Math.cos(ra);
+            double sinDec = Math.sin(dec), cosDec = Math.cos(dec);
+            directions[3*i] = cosDec * cosRa;
+            directions[3*i + 1] = cosDec * sinRa;
+            directions[3*i + 2] = sinDec;
+            //Motion along the unit vectors pointing to the east and to the north
+            double muRa = star.properMotionRa(), muDec = star.properMotionDec();
+            motions[3*i] = -muRa*sinRa - muDec*sinDec*cosRa;
+            motions[3*i + 1] = muRa*cosRa - muDec*sinDec*sinRa;
+            motions[3*i + 2] = muDec*cosDec;
+            moving |= muRa != 0 || muDec != 0;
+        }
+        this.moving = moving;
     }
     
     /**
@@ -54,6 +92,90 @@ public final class StarCatalogue {
         return stars;
     }
     
+    /**
+     * Returns the equatorial positions of the stars, in the form (ra, dec) in radiant and in the order of the catalogue,
+     * ready to be given to the batch conversions.
+     * 
+     * @return [] double (equatorialPositions)
+     */
+    public double[] equatorialPositions() {
+        return equatorialPositions.clone();
+    }
+    
+    /**
+     * Returns the equatorial positions of the stars without copying them. The returned array must not be modified.
+     * 
+     * @return [] double (equatorialPositions)
+     */
+    double[] sharedEquatorialPositions() {
+        return equatorialPositions;
+    }
+    
+    /**
+     * Returns the equatorial positions of the stars at a given moment, in milliseconds since 1970-01-01T00:00Z, in the
+     * form (ra, dec) in radiant and in the order of the catalogue. The stars are moved linearly along their proper
+     * motions (the radial velocities being ignored) to the middle of the step of a tenth of Julian year containing
+     * the moment.
+     * 
+     * @param long (epochMillis)
+     * @return [] double (equatorialPositions)
+     */
+    public double[] equatorialPositionsAt(long epochMillis) {
+        return sharedEquatorialPositionsAt(epochMillis).clone();
+    }
+    
+    /**
+     * Returns the equatorial positions of the stars at a given moment (see equatorialPositionsAt) without copying them.
+     * The returned array must not be modified.
+     * 
+     * @param long (epochMillis)
+     * @return [] double (equatorialPositions)
+     */
+    double[] sharedEquatorialPositionsAt(long epochMillis) {
+        if(!moving) return equatorialPositions;
+        long step = (long) Math.floor(Epoch.J2000.daysUntil(epochMillis) / PROPER_MOTION_STEP_DAYS);
+        Propagated current = propagated;
+        if(current != null && current.step == step) return current.positions;
+        double[] positions = new double[equatorialPositions.length];
+        propagate((step + 0.5) * PROPER_MOTION_STEP_DAYS / DAYS_IN_JULIAN_YEAR, positions);
+        propagated = new Propagated(step, positions);
+        return positions;
+    }
+    
+    /**
+     * Writes the equatorial position (ra, dec) in radiant of the star of the given index at a given moment
+     * (see equatorialPositionsAt) in dstPts, at dstOff, without computing the positions of the other stars.
+     * Throws IOOBE if the index is not the one of a star.
+     * 
+     * @param int (index)
+     * @param long (epochMillis)
+     * @param [] double (dstPts)
+     * @param int (dstOff)
+     */
+    public void equatorialPositionAt(int index, long epochMillis, double[] dstPts, int dstOff) {
+        Objects.checkIndex(index, stars.size());
+        if(!moving) {
+            System.arraycopy(equatorialPositions, 2*index, dstPts, dstOff, 2);
+            return;
+        }
+        long step = (long) Math.floor(Epoch.J2000.daysUntil(epochMillis) / PROPER_MOTION_STEP_DAYS);
+        Propagated current = propagated;
+        if(current != null && current.step == step) System.arraycopy(current.positions, 2*index, dstPts, dstOff, 2);
+        else propagate(index, (step + 0.5) * PROPER_MOTION_STEP_DAYS / DAYS_IN_JULIAN_YEAR, dstPts, dstOff);
+    }
+    
+    private void propagate(double years, double[] positions) {
+        for(int i = 0; i < stars.size(); ++i) propagate(i, years, positions, 2*i);
+    }
+    
+    private void propagate(int i, double years, double[] positions, int offset) {
+        double x = directions[3*i] + years*motions[3*i];
+        double y = directions[3*i + 1] + years*motions[3*i + 1];
+        double z = directions[3*i + 2] + years*motions[3*i + 2];
+        positions[offset] = Angle.normalizePositive(Math.atan2(y, x));
+        positions[offset + 1] = Math.atan2(z, Math.sqrt(x*x + y*y));
+    }
+    
     /**
      * Returns an unmodifiable set of the asterisms in the StarCatalogue.
      * 
@@ -74,6 +196,20 @@ public final class StarCatalogue {
         return map.get(asterism);
     }
     
+    /**
+     * Private class representing the positions of the stars propagated to a given step.
+     */
+    private static final class Propagated {
+        
+        private final long step;
+        private final double[] positions;
+        
+        private Propagated(long step, double[] positions) {
+            this.step = step;
+            this.positions = positions;
+        }
+    }
+    
     /**
      * Static imbricated class representing a StarCatalogue.Builder.
      * Mutable version of StarCatalogue. 
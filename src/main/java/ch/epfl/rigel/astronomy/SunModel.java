@@ -11,7 +11,7 @@ import ch.epfl.rigel.math.Angle;
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
  */
-public enum SunModel implements CelestialObjectModel<Sun> {
+public enum SunModel implements EclipticModel<Sun> {
     
     SUN(279.557208, 283.112438, 0.016705, 365.242191, 0.533128);
     
@@ -30,21 +30,55 @@ public enum SunModel implements CelestialObjectModel<Sun> {
     }
         
     /**
-     * Returns the Sun modelized by the numbers of days since J2010, using
-     * the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     * Computes the channels of the Sun at the given numbers of days since J2010 :
+     * its ecliptic longitude and latitude (always 0), its angular size and its mean anomaly (not normalized).
      * 
      * @param double (daysSinceJ2010)
-     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
-     * @return Sun (sun)
+     * @param double[] (channels)
      */
     @Override
-    public Sun at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+    public void channelsAt(double daysSinceJ2010, double[] channels) {
+        channelsAt(daysSinceJ2010, channels, 0);
+    }
+
+    /**
+     * Computes the channels of the Sun into the given array, starting at the given offset.
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (channels)
+     * @param int (offset)
+     */
+    void channelsAt(double daysSinceJ2010, double[] channels, int offset) {
         double meanAnomaly = Angle.TAU / tropicalYear * daysSinceJ2010 + longitudeJ2010 - longitudePerigee;
         double trueAnomaly = meanAnomaly + 2*eccentricity*Math.sin(meanAnomaly);
-        double eclipticLon = trueAnomaly + longitudePerigee;
-        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(eclipticLon), 0);
+        channels[offset] = trueAnomaly + longitudePerigee;
+        channels[offset + 1] = 0;
+        channels[offset + 2] = theta0AngularSize*((1+eccentricity*Math.cos(trueAnomaly))/(1-eccentricity*eccentricity));
+        channels[offset + 3] = meanAnomaly;
+    }
+    
+    /**
+     * Returns the angular size of the Sun at the given distance from the Earth (in AU).
+     *
+     * @param double (distance)
+     * @return double (angularSize)
+     */
+    double angularSize(double distance) {
+        return theta0AngularSize / distance;
+    }
+
+    /**
+     * Returns the Sun determined by the given channels, using
+     * the given conversion to get its EquatorialCoordinates from its EclipticCoordinates.
+     * 
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return Sun (sun)
+     */
+    @Override
+    public Sun fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        EclipticCoordinates eclCoords = EclipticCoordinates.of(Angle.normalizePositive(channels[0]), channels[1]);
         EquatorialCoordinates eqCoords = eclipticToEquatorialConversion.apply(eclCoords);
-        double angularSize = theta0AngularSize*((1+eccentricity*Math.cos(trueAnomaly))/(1-eccentricity*eccentricity));
-        return new Sun(eclCoords, eqCoords, (float)angularSize, (float)Angle.normalizePositive(meanAnomaly));
+        return new Sun(eclCoords, eqCoords, (float)channels[2], (float)Angle.normalizePositive(channels[3]));
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * Positions Of A Body Sampled Over A Time Range.
+ * The body is evaluated through its channels (see EclipticModel) and the positions are written into primitive
+ * arrays, without creating any object per sample. The i-th sample is taken at startMillis + i*stepMillis
+ * (in milliseconds since 1970-01-01T00:00Z), and its positions are exactly the ones of the objects that the
+ * model would give at that moment. The samples can be computed in parallel, by chunks of consecutive moments.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class TimeSeries {
+
+    private final static int CHUNK_SIZE = 1024;
+
+    private TimeSeries() {
+        // Non instantiable class
+    }
+
+    /**
+     * Computes the equatorial positions of the given body at count successive moments, in the form (ra, dec) in
+     * radiant, into the first 2*count indexes of equatorialPts.
+     * Throws IllegalArgumentException if count is negative or if the array is too short.
+     *
+     * @param EclipticModel<?> (body)
+     * @param long (startMillis)
+     * @param long (stepMillis)
+     * @param int (count)
+     * @param double[] (equatorialPts)
+     * @param boolean (parallel)
+     */
+    public static void equatorialPositions(EclipticModel<?> body, long startMillis, long stepMillis, int count, double[] equatorialPts, boolean parallel) {
+        positions(body, startMillis, stepMillis, count, null, equatorialPts, null, parallel);
+    }
+
+    /**
+     * Computes the positions of the given body at count successive moments : its equatorial positions, in the form
+     * (ra, dec) in radiant, into the first 2*count indexes of equatorialPts, and its horizontal positions as seen
+     * from the given observer, in the form (az, alt) in radiant, into the first 2*count indexes of horizontalPts.
+     * One of the arrays may be null if its positions are not needed (equatorialPts may also be the same array as
+     * horizontalPts, in which case it finally contains the horizontal positions).
+     * Throws IllegalArgumentException if count is negative, if both arrays are null or if an array is too short.
+     *
+     * @param EclipticModel<?> (body)
+     * @param long (startMillis)
+     * @param long (stepMillis)
+     * @param int (count)
+     * @param GeographicCoordinates (observer)
+     * @param double[] (equatorialPts)
+     * @param double[] (horizontalPts)
+     * @param boolean (parallel)
+     */
+    public static void positions(EclipticModel<?> body, long startMillis, long stepMillis, int count, GeographicCoordinates observer,
+            double[] equatorialPts, double[] horizontalPts, boolean parallel) {
+        checkArgument(count >= 0 && (equatorialPts != null || horizontalPts != null));
+        checkArgument(equatorialPts == null || equatorialPts.length >= 2*count);
+        checkArgument(horizontalPts == null || (observer != null && horizontalPts.length >= 2*count));
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream indexes = IntStream.range(0, chunks);
+        (parallel ? indexes.parallel() : indexes).forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            int size = Math.min(CHUNK_SIZE, count - from);
+            long chunkStartMillis = startMillis + from*stepMillis;
+            double[] dstPts = (horizontalPts != null) ? horizontalPts : equatorialPts;
+            double[] channels = new double[EclipticModel.CHANNELS];
+            for(int i = 0; i < size; ++i) {
+                body.channelsAt(Epoch.J2010.daysUntil(chunkStartMillis + i*stepMillis), channels);
+                dstPts[2*(from + i)] = Angle.normalizePositive(channels[0]);
+                dstPts[2*(from + i) + 1] = channels[1];
+            }
+            EclipticToEquatorialConversion.applyAt(chunkStartMillis, stepMillis, dstPts, 2*from, dstPts, 2*from, size);
+            if(horizontalPts != null) {
+                if(equatorialPts != null && equatorialPts != horizontalPts) {
+                    System.arraycopy(horizontalPts, 2*from, equatorialPts, 2*from, 2*size);
+                }
+                EquatorialToHorizontalConversion.applyAt(chunkStartMillis, stepMillis, observer, horizontalPts, 2*from, horizontalPts, 2*from, size);
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import ch.epfl.rigel.astronomy.SatelliteCatalogue.Builder;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Loader Of Two-Line Elements (TLE) Files.
+ * Reads the two-line (the satellites being named by their catalogue number) and three-line (the name preceding
+ * the two lines, possibly after a "0 ") formats. The other lines are ignored.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public enum TleLoader implements SatelliteCatalogue.Loader {
+
+    INSTANCE;
+
+    private final static int LINE_LENGTH = 69;
+    private final static double MINUTES_IN_DAY = 1440;
+
+    /**
+     * Loads satellites from a given InputStream and adds them in the Builder.
+     * Throws IOE in case of an IO error.
+     *
+     * @param InputStream (inputStream)
+     * @param Builder (builder)
+     * @throws IOException
+     */
+    @Override
+    public void load(InputStream inputStream, Builder builder) throws IOException {
+        try(BufferedReader b = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("US-ASCII")))) {
+            String name = null;
+            String line1 = null;
+            String line;
+            while((line = b.readLine()) != null) {
+                if(line.startsWith("1 ") && line.length() >= LINE_LENGTH) {
+                    line1 = line;
+                } else if(line.startsWith("2 ") && line.length() >= LINE_LENGTH && line1 != null) {
+                    add(builder, name, line1, line);
+                    name = null;
+                    line1 = null;
+                } else if(!line.isBlank()) {
+                    name = line.startsWith("0 ") ? line.substring(2).strip() : line.strip();
+                    line1 = null;
+                }
+            }
+        }
+    }
+
+    private static void add(Builder builder, String name, String line1, String line2) {
+        int year = Integer.parseInt(line1.substring(18, 20).strip());
+        year += (year < 57) ? 2000 : 1900;
+        double day = Double.parseDouble(line1.substring(20, 32).strip());
+        ZonedDateTime start = ZonedDateTime.of(year, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        long epochMillis = start.toInstant().toEpochMilli() + Math.round((day - 1) * 86400000);
+        builder.addSatellite((name == null) ? line1.substring(2, 7).strip() : name, epochMillis,
+                exponential(line1.substring(53, 61)),
+                degrees(line2, 8, 16), degrees(line2, 17, 25),
+                Double.parseDouble("0." + line2.substring(26, 33).strip()),
+                degrees(line2, 34, 42), degrees(line2, 43, 51),
+                Double.parseDouble(line2.substring(52, 63).strip()) * Angle.TAU / MINUTES_IN_DAY);
+    }
+
+    private static double degrees(String line, int from, int to) {
+        return Angle.ofDeg(Double.parseDouble(line.substring(from, to).strip()));
+    }
+
+    //A number with an implied decimal point and an exponent (e.g. " 28098-4" for 0.28098e-4)
+    private static double exponential(String field) {
+        String s = field.strip();
+        if(s.isEmpty()) return 0;
+        int exponentStart = Math.max(s.lastIndexOf('-'), s.lastIndexOf('+'));
+        if(exponentStart <= 0) return Double.parseDouble((s.startsWith("-") ? "-0." + s.substring(1) : "0." + s));
+        String mantissa = s.substring(0, exponentStart);
+        mantissa = mantissa.startsWith("-") ? "-0." + mantissa.substring(1) : "0." + mantissa.replace("+", "");
+        return Double.parseDouble(mantissa + "e" + s.substring(exponentStart));
+    }
+}
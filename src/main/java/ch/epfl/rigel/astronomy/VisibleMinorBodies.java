@@ -0,0 +1,114 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+/**
+ * The Minor Bodies Of A MinorBodyCatalogue Visible At A Given Moment And Position.
+ * Only the bodies bright enough and above the horizon are kept, in the order of the catalogue : the k-th of them
+ * is the body index(k) of the catalogue. Their positions are held in primitive arrays, the MinorBody objects
+ * being only created on demand.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class VisibleMinorBodies {
+
+    private final MinorBodyCatalogue catalogue;
+    private final int[] indices;
+    private final double[] equatorialPositions;
+    private final double[] horizontalPositions;
+    private final double[] magnitudes;
+
+    /**
+     * Default constructor of VisibleMinorBodies, the k-th one being the body indices[k] of the catalogue, with the
+     * equatorial position (equatorialPositions[2k], equatorialPositions[2k+1]), the horizontal position
+     * (horizontalPositions[2k], horizontalPositions[2k+1]) and the magnitude magnitudes[k]. The arrays are not copied.
+     *
+     * @param MinorBodyCatalogue (catalogue)
+     * @param int[] (indices)
+     * @param double[] (equatorialPositions)
+     * @param double[] (horizontalPositions)
+     * @param double[] (magnitudes)
+     */
+    VisibleMinorBodies(MinorBodyCatalogue catalogue, int[] indices, double[] equatorialPositions, double[] horizontalPositions, double[] magnitudes) {
+        this.catalogue = catalogue;
+        this.indices = indices;
+        this.equatorialPositions = equatorialPositions;
+        this.horizontalPositions = horizontalPositions;
+        this.magnitudes = magnitudes;
+    }
+
+    /**
+     * Returns the number of visible bodies.
+     *
+     * @return int (count)
+     */
+    public int count() {
+        return indices.length;
+    }
+
+    /**
+     * Returns the index in the catalogue of the k-th visible body.
+     *
+     * @param int (k)
+     * @return int (index)
+     */
+    public int index(int k) {
+        return indices[k];
+    }
+
+    /**
+     * Returns the apparent magnitude of the k-th visible body.
+     *
+     * @param int (k)
+     * @return double (magnitude)
+     */
+    public double magnitude(int k) {
+        return magnitudes[k];
+    }
+
+    /**
+     * Returns the equatorial positions of the visible bodies without copying them. The returned array must not be modified.
+     *
+     * @return [] double (equatorialPositions)
+     */
+    double[] sharedEquatorialPositions() {
+        return equatorialPositions;
+    }
+
+    /**
+     * Returns the horizontal positions of the visible bodies, in the form (az, alt) in radiant.
+     *
+     * @return [] double (horizontalPositions)
+     */
+    public double[] horizontalPositions() {
+        return horizontalPositions.clone();
+    }
+
+    /**
+     * Returns the horizontal positions of the visible bodies without copying them. The returned array must not be modified.
+     *
+     * @return [] double (horizontalPositions)
+     */
+    double[] sharedHorizontalPositions() {
+        return horizontalPositions;
+    }
+
+    /**
+     * Returns the visible bodies, with their equatorial positions and magnitudes.
+     *
+     * @return List<MinorBody> (bodies)
+     */
+    public List<MinorBody> bodies() {
+        List<MinorBody> bodies = new ArrayList<>(indices.length);
+        for(int k = 0; k < indices.length; ++k) {
+            EquatorialCoordinates equatorialPos = EquatorialCoordinates.of(equatorialPositions[2*k], equatorialPositions[2*k + 1]);
+            bodies.add(new MinorBody(catalogue.name(indices[k]), equatorialPos, (float) magnitudes[k], catalogue.isComet(indices[k])));
+        }
+        return Collections.unmodifiableList(bodies);
+    }
+}
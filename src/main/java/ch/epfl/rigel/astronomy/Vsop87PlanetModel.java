@@ -0,0 +1,99 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+/**
+ * A Planet Model Based On The Truncated VSOP87D Series.
+ * The heliocentric positions of the planet and of the Earth are given by their series (see vsop87d.txt), truncated
+ * to the terms whose amplitude is at least the given level (0 keeping all the terms of the file). The geocentric
+ * position is corrected for the light-time, and referred to the ecliptic and equinox of date as for PlanetModel.
+ * The angular size and the magnitude are computed as by PlanetModel, from the distances given by the series.
+ * The time is used as terrestrial time (the difference with the universal time, about a minute, is neglected).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Vsop87PlanetModel implements EclipticModel<Planet> {
+
+    //Days from J2000 to J2010, and days in a Julian millennium
+    final static double DAYS_J2000_TO_J2010 = 3651.5;
+    final static double DAYS_IN_MILLENNIUM = 365250;
+    //Light-time for one AU, in days
+    private final static double LIGHT_TIME_PER_AU = 0.0057755183;
+
+    private final PlanetModel planet;
+    private final Vsop87Series series;
+    private final Vsop87Series earthSeries;
+
+    /**
+     * Default constructor of a Vsop87PlanetModel of the given planet, keeping the terms whose amplitude is at least
+     * minAmplitude (in radiant for the angles, in AU for the distances).
+     * Throws IllegalArgumentException if the planet is the Earth or if minAmplitude is negative.
+     *
+     * @param PlanetModel (planet)
+     * @param double (minAmplitude)
+     */
+    public Vsop87PlanetModel(PlanetModel planet, double minAmplitude) {
+        checkArgument(planet != PlanetModel.EARTH);
+        this.planet = planet;
+        this.series = Vsop87Series.of(planet, minAmplitude);
+        this.earthSeries = Vsop87Series.of(PlanetModel.EARTH, minAmplitude);
+    }
+
+    /**
+     * Computes the channels of the Planet at the given numbers of days since J2010 :
+     * its geocentric ecliptic longitude and latitude, its angular size and its magnitude.
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (channels)
+     */
+    @Override
+    public void channelsAt(double daysSinceJ2010, double[] channels) {
+        double tau = (daysSinceJ2010 + DAYS_J2000_TO_J2010) / DAYS_IN_MILLENNIUM;
+        double[] values = new double[6];
+        earthSeries.heliocentric(tau, values, 3);
+        double cosEarthLatitude = Math.cos(values[4]);
+        double earthX = values[5] * cosEarthLatitude * Math.cos(values[3]);
+        double earthY = values[5] * cosEarthLatitude * Math.sin(values[3]);
+        double earthZ = values[5] * Math.sin(values[4]);
+        double x = 0, y = 0, z = 0, distance = 0;
+        //The second evaluation is done at the moment the light seen on the Earth left the planet
+        for(int i = 0; i < 2; ++i) {
+            series.heliocentric(tau - i*LIGHT_TIME_PER_AU*distance/DAYS_IN_MILLENNIUM, values, 0);
+            double cosLatitude = Math.cos(values[1]);
+            x = values[2] * cosLatitude * Math.cos(values[0]) - earthX;
+            y = values[2] * cosLatitude * Math.sin(values[0]) - earthY;
+            z = values[2] * Math.sin(values[1]) - earthZ;
+            distance = Math.sqrt(x*x + y*y + z*z);
+        }
+        double eclipticLon = Math.atan2(y, x);
+        double phase = (1 + Math.cos(eclipticLon - values[0])) / 2;
+        channels[0] = eclipticLon;
+        channels[1] = Math.atan2(z, Math.hypot(x, y));
+        channels[2] = planet.angularSize(distance);
+        channels[3] = planet.magnitude(values[2], distance, phase);
+    }
+
+    /**
+     * Returns the Planet determined by the given channels, as built by PlanetModel.
+     *
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return Planet (planet)
+     */
+    @Override
+    public Planet fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return planet.fromChannels(channels, eclipticToEquatorialConversion);
+    }
+
+    /**
+     * Returns the number of terms of the series of the planet and of the Earth kept.
+     *
+     * @return int (termCount)
+     */
+    public int termCount() {
+        return series.termCount() + earthSeries.termCount();
+    }
+}
@@ -0,0 +1,135 @@
+package ch.epfl.rigel.astronomy;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Truncated VSOP87D Series Of A Planet.
+ * Gives the heliocentric ecliptic longitude, latitude and radius vector of the planet, referred to the ecliptic
+ * and equinox of date, from the terms of the file vsop87d.txt whose amplitude is at least a given truncation level.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+final class Vsop87Series {
+
+    private final static String VSOP87_PATH = "/vsop87d.txt";
+    private final static String ENCODING = "US-ASCII";
+    private final static String VARIABLES = "LBR";
+    private final static double AMPLITUDE_UNIT = 1e-8;
+    //Terms of each body, in the form {variable, power, A, B, C}
+    private final static Map<String, List<double[]>> TERMS = load();
+
+    //Coefficients of each variable and power, in the form (A, B, C)
+    private final double[][][] coefficients;
+    private final int termCount;
+
+    private Vsop87Series(double[][][] coefficients, int termCount) {
+        this.coefficients = coefficients;
+        this.termCount = termCount;
+    }
+
+    /**
+     * Returns the series of the given planet, keeping the terms whose amplitude is at least minAmplitude
+     * (in radiant for the longitude and latitude, in AU for the radius vector).
+     * Throws IllegalArgumentException if the planet has no series or if minAmplitude is negative.
+     *
+     * @param PlanetModel (planet)
+     * @param double (minAmplitude)
+     * @return Vsop87Series (series)
+     */
+    static Vsop87Series of(PlanetModel planet, double minAmplitude) {
+        checkArgument(TERMS.containsKey(planet.name()) && minAmplitude >= 0);
+        List<List<List<double[]>>> kept = new ArrayList<>();
+        for(int v = 0; v < VARIABLES.length(); ++v) kept.add(new ArrayList<>());
+        int termCount = 0;
+        for(double[] term : TERMS.get(planet.name())) {
+            if(term[2] * AMPLITUDE_UNIT < minAmplitude) continue;
+            List<List<double[]>> powers = kept.get((int) term[0]);
+            while(powers.size() <= term[1]) powers.add(new ArrayList<>());
+            powers.get((int) term[1]).add(term);
+            ++termCount;
+        }
+        double[][][] coefficients = new double[VARIABLES.length()][][];
+        for(int v = 0; v < coefficients.length; ++v) {
+            List<List<double[]>> powers = kept.get(v);
+            coefficients[v] = new double[powers.size()][];
+            for(int p = 0; p < powers.size(); ++p) {
+                List<double[]> terms = powers.get(p);
+                coefficients[v][p] = new double[3*terms.size()];
+                for(int t = 0; t < terms.size(); ++t) {
+                    coefficients[v][p][3*t] = terms.get(t)[2] * AMPLITUDE_UNIT;
+                    coefficients[v][p][3*t + 1] = terms.get(t)[3];
+                    coefficients[v][p][3*t + 2] = terms.get(t)[4];
+                }
+            }
+        }
+        return new Vsop87Series(coefficients, termCount);
+    }
+
+    /**
+     * Computes the heliocentric ecliptic longitude (not normalized) and latitude in radiant and the radius vector
+     * in AU at the given number of Julian millennia since J2000, into the given array starting at offset.
+     *
+     * @param double (tau)
+     * @param double[] (values)
+     * @param int (offset)
+     */
+    void heliocentric(double tau, double[] values, int offset) {
+        for(int v = 0; v < coefficients.length; ++v) {
+            double value = 0;
+            for(int p = coefficients[v].length - 1; p >= 0; --p) {
+                double[] c = coefficients[v][p];
+                double sum = 0;
+                for(int t = 0; t < c.length; t += 3) sum += c[t] * Math.cos(c[t + 1] + c[t + 2]*tau);
+                value = value*tau + sum;
+            }
+            values[offset + v] = value;
+        }
+    }
+
+    /**
+     * Returns the number of terms kept.
+     *
+     * @return int (termCount)
+     */
+    int termCount() {
+        return termCount;
+    }
+
+    private static Map<String, List<double[]>> load() {
+        try (BufferedReader b = new BufferedReader(new InputStreamReader(Vsop87Series.class.getResourceAsStream(VSOP87_PATH), Charset.forName(ENCODING)))) {
+            Map<String, List<double[]>> terms = new HashMap<>();
+            String body = null;
+            double variable = 0;
+            double power = 0;
+            for(String line : (Iterable<String>) b.lines()::iterator) {
+                if(line.isBlank() || line.startsWith("#")) continue;
+                String[] str = line.strip().split("\\s+");
+                if(Character.isLetter(str[0].charAt(0))) {
+                    body = str[0];
+                    variable = VARIABLES.indexOf(str[1]);
+                    power = Integer.parseInt(str[2]);
+                    terms.computeIfAbsent(body, k -> new ArrayList<>());
+                } else {
+                    terms.get(body).add(new double[] {variable, power, Double.parseDouble(str[0]), Double.parseDouble(str[1]), Double.parseDouble(str[2])});
+                }
+            }
+            terms.replaceAll((k, l) -> Collections.unmodifiableList(l));
+            return Collections.unmodifiableMap(terms);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.Polynomial;
+
+/**
+ * A Sun Model Based On The Truncated VSOP87D Series Of The Earth.
+ * The geocentric position of the Sun is the opposite of the heliocentric position of the Earth, truncated as
+ * for Vsop87PlanetModel. The mean anomaly is the one of J. Meeus (Astronomical Algorithms, chapter 25).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Vsop87SunModel implements EclipticModel<Sun> {
+
+    private final static Polynomial MEAN_ANOMALY = Polynomial.of(-0.0001537, 35999.05029, 357.52911);
+
+    private final Vsop87Series earthSeries;
+
+    /**
+     * Default constructor of a Vsop87SunModel, keeping the terms whose amplitude is at least minAmplitude
+     * (in radiant for the angles, in AU for the distances).
+     * Throws IllegalArgumentException if minAmplitude is negative.
+     *
+     * @param double (minAmplitude)
+     */
+    public Vsop87SunModel(double minAmplitude) {
+        this.earthSeries = Vsop87Series.of(PlanetModel.EARTH, minAmplitude);
+    }
+
+    /**
+     * Computes the channels of the Sun at the given numbers of days since J2010 :
+     * its ecliptic longitude and latitude, its angular size and its mean anomaly (not normalized).
+     *
+     * @param double (daysSinceJ2010)
+     * @param double[] (channels)
+     */
+    @Override
+    public void channelsAt(double daysSinceJ2010, double[] channels) {
+        double daysSinceJ2000 = daysSinceJ2010 + Vsop87PlanetModel.DAYS_J2000_TO_J2010;
+        double[] values = new double[3];
+        earthSeries.heliocentric(daysSinceJ2000 / Vsop87PlanetModel.DAYS_IN_MILLENNIUM, values, 0);
+        channels[0] = values[0] + Math.PI;
+        channels[1] = -values[1];
+        channels[2] = SunModel.SUN.angularSize(values[2]);
+        channels[3] = Angle.ofDeg(MEAN_ANOMALY.at(daysSinceJ2000 / 36525));
+    }
+
+    /**
+     * Returns the Sun determined by the given channels, as built by SunModel.
+     *
+     * @param double[] (channels)
+     * @param EclipticToEquatorialConversion (eclipticToEquatorialConversion)
+     * @return Sun (sun)
+     */
+    @Override
+    public Sun fromChannels(double[] channels, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return SunModel.SUN.fromChannels(channels, eclipticToEquatorialConversion);
+    }
+
+    /**
+     * Returns the number of terms of the series of the Earth kept.
+     *
+     * @return int (termCount)
+     */
+    public int termCount() {
+        return earthSeries.termCount();
+    }
+}
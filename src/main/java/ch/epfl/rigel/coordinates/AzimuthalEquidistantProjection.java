@@ -0,0 +1,42 @@
+package ch.epfl.rigel.coordinates;
+
+/**
+ * An Azimuthal Equidistant Projection.
+ * The distances to the center are preserved : the whole sky fits in a disc of radius PI, which makes it suited
+ * to all-sky (dome) outputs when centered on the zenith.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class AzimuthalEquidistantProjection extends AzimuthalProjection {
+
+    /**
+     * Default constructor of an AzimuthalEquidistantProjection centered in the given HorizontalCoordinates.
+     *
+     * @param HorizontalCoordinates (center)
+     */
+    public AzimuthalEquidistantProjection(HorizontalCoordinates center) {
+        super(center);
+    }
+
+    @Override
+    double scale(double cosC) {
+        if(cosC >= 1) return 1;
+        return Math.acos(Math.max(cosC, -1)) / Math.sqrt(1 - cosC*cosC);
+    }
+
+    @Override
+    double radius(double c) {
+        return c;
+    }
+
+    @Override
+    double angularDistance(double radius) {
+        return Math.min(radius, Math.PI);
+    }
+
+    @Override
+    double maxAngularDistance() {
+        return Math.PI;
+    }
+}
@@ -0,0 +1,137 @@
+package ch.epfl.rigel.coordinates;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Locale;
+
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * An Azimuthal Projection.
+ * The projected position of a point only depends on its angular distance c to the center and on its direction
+ * seen from the center : the point is drawn in that direction, at the distance radius(c) from the origin.
+ * The subclasses only define the radius function, the batch kernels being shared.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+abstract class AzimuthalProjection implements Projection {
+
+    private final HorizontalCoordinates center;
+    final double cosCenterAlt;
+    final double sinCenterAlt;
+
+    /**
+     * Default constructor of an AzimuthalProjection centered in the given HorizontalCoordinates.
+     *
+     * @param HorizontalCoordinates (center)
+     */
+    AzimuthalProjection(HorizontalCoordinates center) {
+        this.center = center;
+        this.cosCenterAlt = Math.cos(center.alt());
+        this.sinCenterAlt = Math.sin(center.alt());
+    }
+
+    /**
+     * Returns the factor by which the direction (cosAlt sin(az - centerAz), sinAlt cosCenterAlt - cosAlt sinCenterAlt cos(az - centerAz)),
+     * of norm sin(c), must be multiplied to obtain the projected point, given the cosinus of the angular distance c.
+     * Returns NaN if the point cannot be represented.
+     *
+     * @param double (cosC)
+     * @return double (scale)
+     */
+    abstract double scale(double cosC);
+
+    /**
+     * Returns the distance from the origin of the projection of a point at the given angular distance from the center.
+     *
+     * @param double (c)
+     * @return double (radius)
+     */
+    abstract double radius(double c);
+
+    /**
+     * Inverse of radius : returns the angular distance from the center of the points projected at the given distance
+     * from the origin, reduced to the largest angular distance which can be represented.
+     *
+     * @param double (radius)
+     * @return double (c)
+     */
+    abstract double angularDistance(double radius);
+
+    /**
+     * Returns the largest angular distance from the center used to compute the projection of angles.
+     *
+     * @return double (c)
+     */
+    abstract double maxAngularDistance();
+
+    @Override
+    public HorizontalCoordinates center() {
+        return center;
+    }
+
+    @Override
+    public void apply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        double centerAz = center.az();
+        for(int i = 0; i < 2*numPts; i += 2) {
+            double ld = srcPts[srcOff + i] - centerAz;
+            double alt = srcPts[srcOff + i + 1];
+            double cosLd = Math.cos(ld);
+            double sinAlt = Math.sin(alt);
+            double cosAlt = Math.cos(alt);
+            double k = scale(sinAlt*sinCenterAlt + cosAlt*cosCenterAlt*cosLd);
+            dstPts[dstOff + i] = k*cosAlt*Math.sin(ld);
+            dstPts[dstOff + i + 1] = k*(sinAlt*cosCenterAlt - cosAlt*sinCenterAlt*cosLd);
+        }
+    }
+
+    @Override
+    public void inverseApply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        for(int i = 0; i < 2*numPts; i += 2) {
+            double x = srcPts[srcOff + i];
+            double y = srcPts[srcOff + i + 1];
+            double p = Math.sqrt(x*x + y*y);
+            if(p == 0) {
+                dstPts[dstOff + i] = center.az();
+                dstPts[dstOff + i + 1] = center.alt();
+                continue;
+            }
+            double c = angularDistance(p);
+            double sinC = Math.sin(c);
+            double cosC = Math.cos(c);
+            double sinAlt = Math.max(-1, Math.min(1, cosC*sinCenterAlt + (y*sinC*cosCenterAlt)/p));
+            dstPts[dstOff + i] = Angle.normalizePositive(Math.atan2(x*sinC, p*cosCenterAlt*cosC - y*sinCenterAlt*sinC) + center.az());
+            dstPts[dstOff + i + 1] = Math.asin(sinAlt);
+        }
+    }
+
+    @Override
+    public double applyToAngle(double rad) {
+        return 2*radius(Math.min(rad/2, maxAngularDistance()));
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final int hashCode() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Redefines the toString method. Expresses the projection in the form :
+     * - XProjection centered in horCoord(az=X°, alt=Y°)
+     * Four digits of precision.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s centered in horCoord %s", getClass().getSimpleName(), center);
+    }
+}
@@ -1,5 +1,7 @@
 package ch.epfl.rigel.coordinates;
 
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
 import java.time.ZonedDateTime;
 import java.util.function.Function;
 
@@ -30,13 +32,32 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
      * @param ZonedDateTime (when)
      */
     public EclipticToEquatorialConversion(ZonedDateTime when) {       
-        double t = Epoch.J2000.julianCenturiesUntil(when);
-        double inSeconds = P.at(t);
-        double inRadiant =  Angle.ofArcsec(inSeconds) + A; 
+        this(when.toInstant().toEpochMilli());
+    }
+
+    /**
+     * Creates an EclipticToEquatorialConversion at a given moment, in milliseconds since 1970-01-01T00:00Z.
+     * 
+     * @param long (epochMillis)
+     */
+    public EclipticToEquatorialConversion(long epochMillis) {
+        double inRadiant = eclipticObliquity(epochMillis);
         this.cosEclipticObliquity = Math.cos(inRadiant);
         this.sinEclipticObliquity = Math.sin(inRadiant);
     }
 
+    /**
+     * Returns the ecliptic obliquity of the earth at a given moment, in milliseconds since 1970-01-01T00:00Z.
+     *
+     * @param long (epochMillis)
+     * @return double (eclipticObliquity) [in radiant]
+     */
+    public static double eclipticObliquity(long epochMillis) {
+        double t = Epoch.J2000.julianCenturiesUntil(epochMillis);
+        double inSeconds = P.at(t);
+        return Angle.ofArcsec(inSeconds) + A;
+    }
+
     /**
      * Performs the conversion from given EclipticCoordinates to EquatorialCoordinates.
      *  
@@ -53,6 +74,58 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
         return EquatorialCoordinates.of(Angle.normalizePositive(ra), decl);
     }
 
+    /**
+     * Performs the conversion of an array of ecliptic positions, in the form (lon, lat) in radiant,
+     * to equatorial positions in the form (ra, dec) in radiant, the right ascension being normalized in [0;TAU[.
+     * The positions are read from srcPts starting at srcOff and written to dstPts starting at dstOff
+     * (both arrays may be the same). Contrary to apply(EclipticCoordinates), the values are neither validated
+     * nor wrapped into objects : the caller must provide valid ecliptic coordinates.
+     *
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public void apply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        for(int i = 0; i < 2*numPts; i += 2) {
+            convert(cosEclipticObliquity, sinEclipticObliquity, srcPts, srcOff + i, dstPts, dstOff + i);
+        }
+    }
+
+    /**
+     * Performs the conversion of an array of ecliptic positions taken at successive moments, the i-th position
+     * being converted with the ecliptic obliquity at startMillis + i*stepMillis (in milliseconds since 1970-01-01T00:00Z).
+     * The positions are in the same form as for apply(double[], int, double[], int, int), and are converted
+     * exactly as by the conversions created at each of the moments.
+     *
+     * @param long (startMillis)
+     * @param long (stepMillis)
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public static void applyAt(long startMillis, long stepMillis, double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        for(int i = 0; i < numPts; ++i) {
+            double eclipticObliquity = eclipticObliquity(startMillis + i*stepMillis);
+            convert(Math.cos(eclipticObliquity), Math.sin(eclipticObliquity), srcPts, srcOff + 2*i, dstPts, dstOff + 2*i);
+        }
+    }
+
+    private static void convert(double cosEclipticObliquity, double sinEclipticObliquity, double[] srcPts, int srcOff, double[] dstPts, int dstOff) {
+        double longitude = srcPts[srcOff];
+        double lat = srcPts[srcOff + 1];
+        double sinLongitude = Math.sin(longitude);
+        double decl = Math.asin(Math.sin(lat)*cosEclipticObliquity + Math.cos(lat)*sinEclipticObliquity*sinLongitude);
+        double ra = Math.atan2((sinLongitude*cosEclipticObliquity - Math.tan(lat)*sinEclipticObliquity), Math.cos(longitude));
+        dstPts[dstOff] = Angle.normalizePositive(ra);
+        dstPts[dstOff + 1] = decl;
+    }
+
     @Override
     public final boolean equals(Object o) {
         throw new UnsupportedOperationException();
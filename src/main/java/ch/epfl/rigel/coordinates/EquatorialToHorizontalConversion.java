@@ -1,5 +1,7 @@
 package ch.epfl.rigel.coordinates;
 
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
 import java.time.ZonedDateTime;
 import java.util.function.Function;
 
@@ -8,6 +10,9 @@ import ch.epfl.rigel.math.Angle;
 
 /**
  * Conversion From Equatorial To Horizontal Coordinates.
+ * The default conversions take coordinates of date. The ones created by ofJ2000 take coordinates of the mean equator
+ * and equinox of J2000 (those of the catalogues) : the precession and the nutation (see PrecessionNutation) are then
+ * fused with the rotation to the horizon into a single matrix, so that each position costs the same as of date.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
@@ -17,7 +22,8 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
     private final double siderealTime;
     private final double cosLatitude;
     private final double sinLatitude;
-
+    //Rotation from the J2000 frame to the local (east, north, zenith) frame, null for coordinates of date
+    private final double[] matrix;
     
     /**
      * Default constructor of EquatorialToHorizontalConversion.
@@ -29,9 +35,51 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
      * @param GeographicCoordinates (where)
      */
     public EquatorialToHorizontalConversion(ZonedDateTime when, GeographicCoordinates where) {
-        this.siderealTime = SiderealTime.local(when, where);
+        this(when.toInstant().toEpochMilli(), where);
+    }
+    
+    /**
+     * Creates an EquatorialToHorizontalConversion at a given moment, in milliseconds since 1970-01-01T00:00Z,
+     * and a given position (GeographicCoordinates).
+     * 
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     */
+    public EquatorialToHorizontalConversion(long epochMillis, GeographicCoordinates where) {
+        this.siderealTime = SiderealTime.local(epochMillis, where);
         this.cosLatitude = Math.cos(where.lat());
         this.sinLatitude = Math.sin(where.lat());
+        this.matrix = null;
+    }
+
+    private EquatorialToHorizontalConversion(long epochMillis, GeographicCoordinates where, double[] precessionNutation) {
+        this.siderealTime = Angle.normalizePositive(SiderealTime.local(epochMillis, where) + PrecessionNutation.equationOfEquinoxes(epochMillis));
+        this.cosLatitude = Math.cos(where.lat());
+        this.sinLatitude = Math.sin(where.lat());
+        double cosTime = Math.cos(siderealTime), sinTime = Math.sin(siderealTime);
+        double[] local = {-sinTime, cosTime, 0,
+                -sinLatitude*cosTime, -sinLatitude*sinTime, cosLatitude,
+                cosLatitude*cosTime, cosLatitude*sinTime, sinLatitude};
+        this.matrix = new double[9];
+        for(int i = 0; i < 3; ++i) {
+            for(int j = 0; j < 3; ++j) {
+                matrix[3*i + j] = local[3*i]*precessionNutation[j] + local[3*i + 1]*precessionNutation[3 + j] + local[3*i + 2]*precessionNutation[6 + j];
+            }
+        }
+    }
+
+    /**
+     * Creates an EquatorialToHorizontalConversion of the coordinates of the mean equator and equinox of J2000
+     * (e.g. the positions of a StarCatalogue), at a given moment, in milliseconds since 1970-01-01T00:00Z,
+     * and a given position (GeographicCoordinates). The coordinates are precessed and nutated to the true equator
+     * and equinox of date, and the apparent sidereal time is used.
+     * 
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @return EquatorialToHorizontalConversion (conversion)
+     */
+    public static EquatorialToHorizontalConversion ofJ2000(long epochMillis, GeographicCoordinates where) {
+        return new EquatorialToHorizontalConversion(epochMillis, where, PrecessionNutation.sharedMatrix(epochMillis));
     }
     
     /**
@@ -42,6 +90,11 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
      */
     @Override
     public HorizontalCoordinates apply(EquatorialCoordinates equ) {
+        if(matrix != null) {
+            double[] point = {equ.ra(), equ.dec()};
+            apply(point, 0, point, 0, 1);
+            return HorizontalCoordinates.of(point[0], point[1]);
+        }
         double angleH = siderealTime - equ.ra();
         double dec = equ.dec();
         double sinDec = Math.sin(dec);
@@ -50,6 +103,80 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
         double az = Math.atan2(-cosDec*cosLatitude*Math.sin(angleH), sinDec - sinLatitude*Math.sin(alt));
         return HorizontalCoordinates.of(Angle.normalizePositive(az),alt);
     }
+
+    /**
+     * Performs the conversion of an array of equatorial positions, in the form (ra, dec) in radiant,
+     * to horizontal positions in the form (az, alt) in radiant, the azimut being normalized in [0;TAU[.
+     * The positions are read from srcPts starting at srcOff and written to dstPts starting at dstOff
+     * (both arrays may be the same). Contrary to apply(EquatorialCoordinates), the values are neither validated
+     * nor wrapped into objects : the caller must provide valid equatorial coordinates.
+     *
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public void apply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        if(matrix != null) {
+            for(int i = 0; i < 2*numPts; i += 2) convertJ2000(matrix, srcPts, srcOff + i, dstPts, dstOff + i);
+            return;
+        }
+        for(int i = 0; i < 2*numPts; i += 2) {
+            convert(siderealTime, cosLatitude, sinLatitude, srcPts, srcOff + i, dstPts, dstOff + i);
+        }
+    }
+
+    /**
+     * Performs the conversion of an array of equatorial positions taken at successive moments from a given position,
+     * the i-th position being converted with the sidereal time at startMillis + i*stepMillis
+     * (in milliseconds since 1970-01-01T00:00Z). The positions are in the same form as for
+     * apply(double[], int, double[], int, int), and are converted exactly as by the conversions created at each of the moments.
+     *
+     * @param long (startMillis)
+     * @param long (stepMillis)
+     * @param GeographicCoordinates (where)
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public static void applyAt(long startMillis, long stepMillis, GeographicCoordinates where, double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        double cosLatitude = Math.cos(where.lat());
+        double sinLatitude = Math.sin(where.lat());
+        for(int i = 0; i < numPts; ++i) {
+            double siderealTime = SiderealTime.local(startMillis + i*stepMillis, where);
+            convert(siderealTime, cosLatitude, sinLatitude, srcPts, srcOff + 2*i, dstPts, dstOff + 2*i);
+        }
+    }
+
+    private static void convert(double siderealTime, double cosLatitude, double sinLatitude, double[] srcPts, int srcOff, double[] dstPts, int dstOff) {
+        double angleH = siderealTime - srcPts[srcOff];
+        double dec = srcPts[srcOff + 1];
+        double sinDec = Math.sin(dec);
+        double cosDec = Math.cos(dec);
+        double alt = Math.asin(sinDec*sinLatitude + cosDec*cosLatitude*Math.cos(angleH));
+        double az = Math.atan2(-cosDec*cosLatitude*Math.sin(angleH), sinDec - sinLatitude*Math.sin(alt));
+        dstPts[dstOff] = Angle.normalizePositive(az);
+        dstPts[dstOff + 1] = alt;
+    }
+    
+    private static void convertJ2000(double[] m, double[] srcPts, int srcOff, double[] dstPts, int dstOff) {
+        double ra = srcPts[srcOff];
+        double dec = srcPts[srcOff + 1];
+        double cosDec = Math.cos(dec);
+        double x = cosDec * Math.cos(ra);
+        double y = cosDec * Math.sin(ra);
+        double z = Math.sin(dec);
+        double east = m[0]*x + m[1]*y + m[2]*z;
+        double north = m[3]*x + m[4]*y + m[5]*z;
+        double zenith = m[6]*x + m[7]*y + m[8]*z;
+        dstPts[dstOff] = Angle.normalizePositive(Math.atan2(east, north));
+        dstPts[dstOff + 1] = Math.asin(Math.max(-1, Math.min(1, zenith)));
+    }
     
     @Override
     public final boolean equals(Object o) {
@@ -0,0 +1,45 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Gnomonic Projection.
+ * The great circles of the sphere are projected to straight lines, which makes it suited to narrow fields of view.
+ * Only the hemisphere around the center can be represented, the other points are projected to (NaN, NaN).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class GnomonicProjection extends AzimuthalProjection {
+
+    private final static double MAX_ANGULAR_DISTANCE = Angle.ofDeg(80);
+
+    /**
+     * Default constructor of a GnomonicProjection centered in the given HorizontalCoordinates.
+     *
+     * @param HorizontalCoordinates (center)
+     */
+    public GnomonicProjection(HorizontalCoordinates center) {
+        super(center);
+    }
+
+    @Override
+    double scale(double cosC) {
+        return (cosC > 0) ? 1/cosC : Double.NaN;
+    }
+
+    @Override
+    double radius(double c) {
+        return Math.tan(c);
+    }
+
+    @Override
+    double angularDistance(double radius) {
+        return Math.atan(radius);
+    }
+
+    @Override
+    double maxAngularDistance() {
+        return MAX_ANGULAR_DISTANCE;
+    }
+}
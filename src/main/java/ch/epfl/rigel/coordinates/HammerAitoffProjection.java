@@ -0,0 +1,113 @@
+package ch.epfl.rigel.coordinates;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Locale;
+
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Hammer-Aitoff Projection.
+ * Equal-area projection of the whole sphere in an ellipse of semi-axes 2*sqrt(2) and sqrt(2).
+ * The sphere is first rotated so that the center of the projection lies on the origin of its equator.
+ * The points of the meridian opposite to the center lie on the border of the ellipse, on both sides.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class HammerAitoffProjection implements Projection {
+
+    private final static double SQRT_2 = Math.sqrt(2);
+
+    private final HorizontalCoordinates center;
+    private final double cosCenterAlt;
+    private final double sinCenterAlt;
+
+    /**
+     * Default constructor of a HammerAitoffProjection centered in the given HorizontalCoordinates.
+     *
+     * @param HorizontalCoordinates (center)
+     */
+    public HammerAitoffProjection(HorizontalCoordinates center) {
+        this.center = center;
+        this.cosCenterAlt = Math.cos(center.alt());
+        this.sinCenterAlt = Math.sin(center.alt());
+    }
+
+    @Override
+    public HorizontalCoordinates center() {
+        return center;
+    }
+
+    @Override
+    public void apply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        double centerAz = center.az();
+        for(int i = 0; i < 2*numPts; i += 2) {
+            double ld = srcPts[srcOff + i] - centerAz;
+            double alt = srcPts[srcOff + i + 1];
+            double cosLd = Math.cos(ld);
+            double sinAlt = Math.sin(alt);
+            double cosAlt = Math.cos(alt);
+            //Rotated frame, in which the center is the origin of the equator
+            double lon = Math.atan2(cosAlt*Math.sin(ld), sinAlt*sinCenterAlt + cosAlt*cosCenterAlt*cosLd);
+            double lat = Math.asin(Math.max(-1, Math.min(1, sinAlt*cosCenterAlt - cosAlt*sinCenterAlt*cosLd)));
+            double cosLat = Math.cos(lat);
+            double d = Math.sqrt(1 + cosLat*Math.cos(lon/2));
+            dstPts[dstOff + i] = 2*SQRT_2*cosLat*Math.sin(lon/2) / d;
+            dstPts[dstOff + i + 1] = SQRT_2*Math.sin(lat) / d;
+        }
+    }
+
+    @Override
+    public void inverseApply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        for(int i = 0; i < 2*numPts; i += 2) {
+            double x = srcPts[srcOff + i];
+            double y = srcPts[srcOff + i + 1];
+            //Brings the points outside of the ellipse back to its border
+            double e = x*x/8 + y*y/2;
+            if(e > 1) {
+                x /= Math.sqrt(e);
+                y /= Math.sqrt(e);
+            }
+            double z = Math.sqrt(Math.max(0, 1 - x*x/16 - y*y/4));
+            double lon = 2*Math.atan2(z*x, 2*(2*z*z - 1));
+            double lat = Math.asin(Math.max(-1, Math.min(1, z*y)));
+            double cosLat = Math.cos(lat);
+            double sinLat = Math.sin(lat);
+            double cosLon = Math.cos(lon);
+            double sinAlt = Math.max(-1, Math.min(1, cosLat*cosLon*sinCenterAlt + sinLat*cosCenterAlt));
+            dstPts[dstOff + i] = Angle.normalizePositive(Math.atan2(cosLat*Math.sin(lon), cosLat*cosLon*cosCenterAlt - sinLat*sinCenterAlt) + center.az());
+            dstPts[dstOff + i + 1] = Math.asin(sinAlt);
+        }
+    }
+
+    @Override
+    public double applyToAngle(double rad) {
+        double halfLon = Math.min(rad/2, Math.PI) / 2;
+        return 2 * 2*SQRT_2*Math.sin(halfLon) / Math.sqrt(1 + Math.cos(halfLon));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int hashCode() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Redefines the toString method. Expresses HammerAitoffProjection in the form :
+     * - HammerAitoffProjection centered in horCoord(az=X°, alt=Y°)
+     * Four digits of precision.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "HammerAitoffProjection centered in horCoord %s", center);
+    }
+}
@@ -0,0 +1,41 @@
+package ch.epfl.rigel.coordinates;
+
+/**
+ * An Orthographic Projection.
+ * Represents the sphere as seen from an infinite distance : only the hemisphere around the center can be represented,
+ * the other points are projected to (NaN, NaN).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class OrthographicProjection extends AzimuthalProjection {
+
+    /**
+     * Default constructor of an OrthographicProjection centered in the given HorizontalCoordinates.
+     *
+     * @param HorizontalCoordinates (center)
+     */
+    public OrthographicProjection(HorizontalCoordinates center) {
+        super(center);
+    }
+
+    @Override
+    double scale(double cosC) {
+        return (cosC >= 0) ? 1 : Double.NaN;
+    }
+
+    @Override
+    double radius(double c) {
+        return Math.sin(c);
+    }
+
+    @Override
+    double angularDistance(double radius) {
+        return Math.asin(Math.min(radius, 1));
+    }
+
+    @Override
+    double maxAngularDistance() {
+        return Math.PI / 2;
+    }
+}
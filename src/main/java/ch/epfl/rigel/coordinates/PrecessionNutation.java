@@ -0,0 +1,162 @@
+package ch.epfl.rigel.coordinates;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.Polynomial;
+
+/**
+ * The Precession And The Nutation Of The Earth Axis.
+ * Gives the rotation matrix from the mean equator and equinox of J2000 (the frame of the catalogues) to the true
+ * equator and equinox of date : the precession follows the IAU 1976 angles, and the nutation its four main terms
+ * (J. Meeus, Astronomical Algorithms, ch. 21 and 22), within 0.5" in longitude and 0.1" in obliquity.
+ * The matrices are computed for the middle of steps of an hour, and the one of the current step is kept,
+ * so that all the conversions of a same frame share it.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class PrecessionNutation {
+
+    private final static Polynomial ZETA = Polynomial.of(0.017998, 0.30188, 2306.2181, 0);
+    private final static Polynomial Z = Polynomial.of(0.018203, 1.09468, 2306.2181, 0);
+    private final static Polynomial THETA = Polynomial.of(-0.041833, -0.42665, 2004.3109, 0);
+    private final static Polynomial MOON_NODE = Polynomial.of(-1934.136261, 125.04452);
+    private final static Polynomial SUN_LONGITUDE = Polynomial.of(36000.7698, 280.4665);
+    private final static Polynomial MOON_LONGITUDE = Polynomial.of(481267.8813, 218.3165);
+    private final static long MILLIS_IN_STEP = 60 * 60 * 1000;
+
+    private static volatile Step current = null;
+
+    private PrecessionNutation() {
+        // Non instantiable class
+    }
+
+    /**
+     * Returns the rotation matrix from the mean equator and equinox of J2000 to the true equator and equinox of
+     * a given moment, in milliseconds since 1970-01-01T00:00Z, as the 9 values of its rows.
+     *
+     * @param long (epochMillis)
+     * @return [] double (matrix)
+     */
+    public static double[] matrix(long epochMillis) {
+        return step(epochMillis).matrix.clone();
+    }
+
+    /**
+     * Returns the rotation matrix of matrix(epochMillis) without copying it. The returned array must not be modified.
+     *
+     * @param long (epochMillis)
+     * @return [] double (matrix)
+     */
+    static double[] sharedMatrix(long epochMillis) {
+        return step(epochMillis).matrix;
+    }
+
+    /**
+     * Returns the equation of the equinoxes at a given moment, in milliseconds since 1970-01-01T00:00Z : the difference
+     * in radiant between the apparent sidereal time, measured from the true equinox, and the mean sidereal time.
+     *
+     * @param long (epochMillis)
+     * @return double (equationOfEquinoxes)
+     */
+    public static double equationOfEquinoxes(long epochMillis) {
+        return step(epochMillis).equationOfEquinoxes;
+    }
+
+    /**
+     * Converts an array of equatorial positions of the mean equator and equinox of J2000, in the form (ra, dec) in
+     * radiant, to the true equator and equinox of a given moment, in milliseconds since 1970-01-01T00:00Z.
+     * The positions are read from srcPts starting at srcOff and written to dstPts starting at dstOff (both arrays
+     * may be the same), the right ascensions being normalized in [0;TAU[.
+     *
+     * @param long (epochMillis)
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public static void apply(long epochMillis, double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+        checkArgument(numPts >= 0);
+        double[] m = sharedMatrix(epochMillis);
+        for(int i = 0; i < 2*numPts; i += 2) {
+            double ra = srcPts[srcOff + i];
+            double dec = srcPts[srcOff + i + 1];
+            double cosDec = Math.cos(dec);
+            double x = cosDec * Math.cos(ra);
+            double y = cosDec * Math.sin(ra);
+            double z = Math.sin(dec);
+            double x1 = m[0]*x + m[1]*y + m[2]*z;
+            double y1 = m[3]*x + m[4]*y + m[5]*z;
+            double z1 = m[6]*x + m[7]*y + m[8]*z;
+            dstPts[dstOff + i] = Angle.normalizePositive(Math.atan2(y1, x1));
+            dstPts[dstOff + i + 1] = Math.atan2(z1, Math.sqrt(x1*x1 + y1*y1));
+        }
+    }
+
+    private static Step step(long epochMillis) {
+        long step = Math.floorDiv(epochMillis, MILLIS_IN_STEP);
+        Step s = current;
+        if(s == null || s.step != step) {
+            s = new Step(step, step * MILLIS_IN_STEP + MILLIS_IN_STEP / 2);
+            current = s;
+        }
+        return s;
+    }
+
+    //Product of two matrices given by their rows
+    private static double[] multiply(double[] a, double[] b) {
+        double[] c = new double[9];
+        for(int i = 0; i < 3; ++i) {
+            for(int j = 0; j < 3; ++j) c[3*i + j] = a[3*i]*b[j] + a[3*i + 1]*b[3 + j] + a[3*i + 2]*b[6 + j];
+        }
+        return c;
+    }
+
+    //Rotations of the frame (not of the vectors) around the axes x, y and z
+    private static double[] rotationX(double angle) {
+        double c = Math.cos(angle), s = Math.sin(angle);
+        return new double[] {1, 0, 0, 0, c, s, 0, -s, c};
+    }
+
+    private static double[] rotationY(double angle) {
+        double c = Math.cos(angle), s = Math.sin(angle);
+        return new double[] {c, 0, -s, 0, 1, 0, s, 0, c};
+    }
+
+    private static double[] rotationZ(double angle) {
+        double c = Math.cos(angle), s = Math.sin(angle);
+        return new double[] {c, s, 0, -s, c, 0, 0, 0, 1};
+    }
+
+    /**
+     * Private class representing the matrix and the equation of the equinoxes of a step.
+     */
+    private static final class Step {
+
+        private final long step;
+        private final double[] matrix;
+        private final double equationOfEquinoxes;
+
+        private Step(long step, long epochMillis) {
+            this.step = step;
+            double t = Epoch.J2000.julianCenturiesUntil(epochMillis);
+            double[] precession = multiply(rotationZ(-Angle.ofArcsec(Z.at(t))),
+                    multiply(rotationY(Angle.ofArcsec(THETA.at(t))), rotationZ(-Angle.ofArcsec(ZETA.at(t)))));
+            double node = Angle.ofDeg(MOON_NODE.at(t));
+            double sunLongitude = Angle.ofDeg(SUN_LONGITUDE.at(t));
+            double moonLongitude = Angle.ofDeg(MOON_LONGITUDE.at(t));
+            double nutationLongitude = Angle.ofArcsec(-17.20*Math.sin(node) - 1.32*Math.sin(2*sunLongitude)
+                    - 0.23*Math.sin(2*moonLongitude) + 0.21*Math.sin(2*node));
+            double nutationObliquity = Angle.ofArcsec(9.20*Math.cos(node) + 0.57*Math.cos(2*sunLongitude)
+                    + 0.10*Math.cos(2*moonLongitude) - 0.09*Math.cos(2*node));
+            double meanObliquity = EclipticToEquatorialConversion.eclipticObliquity(epochMillis);
+            double[] nutation = multiply(rotationX(-(meanObliquity + nutationObliquity)),
+                    multiply(rotationZ(-nutationLongitude), rotationX(meanObliquity)));
+            this.matrix = multiply(nutation, precession);
+            this.equationOfEquinoxes = nutationLongitude * Math.cos(meanObliquity + nutationObliquity);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ch.epfl.rigel.coordinates;
+
+import java.util.function.Function;
+
+/**
+ * A Projection of the celestial sphere on a plane, centered on a given point (HorizontalCoordinates).
+ * The points which cannot be represented by the projection (e.g. the hidden hemisphere of an orthographic projection)
+ * are projected to (NaN, NaN).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public interface Projection extends Function<HorizontalCoordinates, CartesianCoordinates> {
+
+    /**
+     * Returns the center of the projection, projected on the origin of the plane.
+     *
+     * @return HorizontalCoordinates (center)
+     */
+    public abstract HorizontalCoordinates center();
+
+    /**
+     * Performs the projection from given HorizontalCoordinates to CartesianCoordinates.
+     *
+     * @param HorizontalCoordinates (azAlt)
+     * @return CartesianCoordinates (xy)
+     */
+    @Override
+    public default CartesianCoordinates apply(HorizontalCoordinates azAlt) {
+        double[] point = {azAlt.az(), azAlt.alt()};
+        apply(point, 0, point, 0, 1);
+        return CartesianCoordinates.of(point[0], point[1]);
+    }
+
+    /**
+     * Performs the projection of an array of horizontal positions, in the form (az, alt) in radiant,
+     * to cartesian positions in the form (x, y). The positions are read from srcPts starting at srcOff and
+     * written to dstPts starting at dstOff (both arrays may be the same).
+     * Contrary to apply(HorizontalCoordinates), the values are neither validated nor wrapped into objects.
+     *
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public abstract void apply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts);
+
+    /**
+     * Performs the inverse projection from given CartesianCoordinates to HorizontalCoordinates.
+     * The points lying outside of the projected domain are brought back to its border.
+     *
+     * @param CartesianCoordinates (xy)
+     * @return HorizontalCoordinates (azAlt)
+     */
+    public default HorizontalCoordinates inverseApply(CartesianCoordinates xy) {
+        double[] point = {xy.x(), xy.y()};
+        inverseApply(point, 0, point, 0, 1);
+        return HorizontalCoordinates.of(point[0], point[1]);
+    }
+
+    /**
+     * Performs the inverse projection of an array of cartesian positions, in the form (x, y),
+     * to horizontal positions in the form (az, alt) in radiant, the azimut being normalized in [0;TAU[.
+     * The positions are read from srcPts starting at srcOff and written to dstPts starting at dstOff
+     * (both arrays may be the same). Contrary to inverseApply(CartesianCoordinates), the values are not wrapped into objects.
+     *
+     * @param double[] (srcPts)
+     * @param int (srcOff)
+     * @param double[] (dstPts)
+     * @param int (dstOff)
+     * @param int (numPts)
+     */
+    public abstract void inverseApply(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts);
+
+    /**
+     * Returns the projected diameter of a sphere of apparent diameter rad, which center is the center of the projection.
+     * Angles too large to be represented by the projection are reduced to the largest one it can represent.
+     *
+     * @param double (rad)
+     * @return double (diam)
+     */
+    public abstract double applyToAngle(double rad);
+}
@@ -1,21 +1,14 @@
 package ch.epfl.rigel.coordinates;
 
-import java.util.Locale;
-import java.util.function.Function;
-
-import ch.epfl.rigel.math.Angle;
-
 /**
  * A Stereographic Projection. 
+ * Conformal : the circles of the sphere are projected to circles (or straight lines) of the plane.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
  */
-public final class StereographicProjection implements Function<HorizontalCoordinates, CartesianCoordinates> {
+public final class StereographicProjection extends AzimuthalProjection {
 
-    private final HorizontalCoordinates center;
-    private final double cosCenterAlt;
-    private final double sinCenterAlt;
     private final double tanCenterAlt;
 
     /**
@@ -27,47 +20,28 @@ public final class StereographicProjection implements Function<HorizontalCoordin
      * @param HorizontalCoordinates (center)
      */
     public StereographicProjection(HorizontalCoordinates center) {
-        this.center = center;
-        this.cosCenterAlt = Math.cos(center.alt());
-        this.sinCenterAlt = Math.sin(center.alt());
+        super(center);
         this.tanCenterAlt = sinCenterAlt / cosCenterAlt;
     }
 
-    /**
-     * Performs the StereographicProjection conversion from given HorizontalCoordinates to CartesianCoordinates.
-     *  
-     * @param HorizontalCoordinates (hor)
-     * @return CartesianCoordinates (cart)
-     */
     @Override
-    public CartesianCoordinates apply(HorizontalCoordinates azAlt) {
-        double ld = azAlt.az() - center.az();
-        double cosLd = Math.cos(ld);
-        double sinAzAltAlt = Math.sin(azAlt.alt());
-        double cosAzAltAlt = Math.cos(azAlt.alt());
-        double d = 1/(1 + sinAzAltAlt*sinCenterAlt + cosAzAltAlt*cosCenterAlt*cosLd);
-        double x = d*cosAzAltAlt*Math.sin(ld);
-        double y = d*(sinAzAltAlt*cosCenterAlt - cosAzAltAlt*sinCenterAlt*cosLd);   
-        return CartesianCoordinates.of(x, y);
+    double scale(double cosC) {
+        return 1/(1 + cosC);
     }
-    
-    /**
-     * Performs the inverse StereographicProjection conversion from given CartesianCoordinates to HorizontalCoordinates.
-     *  
-     * @param CartesianCoordinates (cart)
-     * @return HorizontalCoordinates (hor)
-     */
-    public HorizontalCoordinates inverseApply(CartesianCoordinates xy) {
-        double x = xy.x();
-        double y = xy.y();
-        double p2 = x*x + y*y;
-        double p = Math.sqrt(p2);
-        if(x == 0 && y == 0) return center;
-        double sinC = (2*p)/(p2 + 1);
-        double cosC = (1 - p2)/(p2 + 1);
-        double az = Math.atan2(x*sinC, p*cosCenterAlt*cosC - y*sinCenterAlt*sinC) + center.az();
-        double alt = Math.asin(cosC*sinCenterAlt + (y*sinC*cosCenterAlt)/p);
-        return HorizontalCoordinates.of(Angle.normalizePositive(az), alt);
+
+    @Override
+    double radius(double c) {
+        return Math.tan(c/2);
+    }
+
+    @Override
+    double angularDistance(double radius) {
+        return 2*Math.atan(radius);
+    }
+
+    @Override
+    double maxAngularDistance() {
+        return Math.PI;
     }
 
     /**
@@ -98,7 +72,7 @@ public final class StereographicProjection implements Function<HorizontalCoordin
      * @return double (radius)
      */
     public double circleRadiusForMeridian(HorizontalCoordinates meridian) {
-        double lambda = meridian.az() - center.az();
+        double lambda = meridian.az() - center().az();
         return 1 / (cosCenterAlt * Math.sin(lambda));
     }
     
@@ -109,49 +83,9 @@ public final class StereographicProjection implements Function<HorizontalCoordin
      * @return (CartesianCoordinates) cart
      */
     public CartesianCoordinates circleCenterForMeridian(HorizontalCoordinates meridian) {
-        double lambda = meridian.az() - center.az();
+        double lambda = meridian.az() - center().az();
         double x = - Math.cos(lambda) / (cosCenterAlt * Math.sin(lambda));
         double y = - tanCenterAlt;
         return CartesianCoordinates.of(x, y);
     }
-    
-    /**
-     * Returns the CartesianCoordinates of the center of the projection.
-     * @return (HorizontalCoordinates) center
-     */
-    public HorizontalCoordinates center() {
-        return center;
-    }
-    
-    /**
-     * Returns the projected diameter of a sphere of apparent diameter rad, which center is the center of the projection.
-     *  
-     * @param double (rad)
-     * @return double (diam)
-     */
-    public double applyToAngle(double rad) {
-        return 2*Math.tan(rad/4);
-    }
-    
-    @Override
-    public boolean equals(Object o) {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public int hashCode() {
-        throw new UnsupportedOperationException();
-    }
-    
-    /**
-     * Redefines the toString method. Expresses StereographicProjection in the form : 
-     * - StereographicProjection of center horCoord(az=X°, alt=Y°)
-     * Four digits of precision.
-     *
-     * @return String
-     */
-    @Override
-    public String toString() {
-        return String.format(Locale.ROOT, "StereographicProjection centered in horCoord " + center.toString());
-    }
 }
\ No newline at end of file
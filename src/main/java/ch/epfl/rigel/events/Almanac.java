@@ -0,0 +1,155 @@
+package ch.epfl.rigel.events;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+
+/**
+ * The Almanac Of A Site During A Year.
+ * The events (phases of the Moon, rises and sets of the Sun and the Moon, dawns and dusks of the twilights) of the
+ * UTC calendar year are kept sorted by moment, in milliseconds since 1970-01-01T00:00Z, in two parallel arrays.
+ * The site is identified by its index in the sites of the AlmanacGenerator.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Almanac {
+
+    /**
+     * The kind of an event of an almanac.
+     */
+    public enum Kind {
+        NEW_MOON, FIRST_QUARTER, FULL_MOON, LAST_QUARTER,
+        SUNRISE, SUNSET,
+        CIVIL_DAWN, CIVIL_DUSK,
+        NAUTICAL_DAWN, NAUTICAL_DUSK,
+        ASTRONOMICAL_DAWN, ASTRONOMICAL_DUSK,
+        MOONRISE, MOONSET;
+
+        /**
+         * The kinds, in the order of their ordinals.
+         */
+        public final static Kind[] ALL = values();
+    }
+
+    private final int siteIndex;
+    private final GeographicCoordinates site;
+    private final int year;
+    private final long[] millis;
+    private final byte[] kinds;
+
+    /**
+     * Constructor of an Almanac. The arrays, holding the moments and the ordinals of the kinds of the events sorted
+     * by moment, are not copied.
+     *
+     * @param int (siteIndex)
+     * @param GeographicCoordinates (site)
+     * @param int (year)
+     * @param long[] (millis)
+     * @param byte[] (kinds)
+     */
+    Almanac(int siteIndex, GeographicCoordinates site, int year, long[] millis, byte[] kinds) {
+        this.siteIndex = siteIndex;
+        this.site = site;
+        this.year = year;
+        this.millis = millis;
+        this.kinds = kinds;
+    }
+
+    /**
+     * Returns the index of the site in the sites of the generator.
+     *
+     * @return int (siteIndex)
+     */
+    public int siteIndex() {
+        return siteIndex;
+    }
+
+    /**
+     * Returns the site.
+     *
+     * @return GeographicCoordinates (site)
+     */
+    public GeographicCoordinates site() {
+        return site;
+    }
+
+    /**
+     * Returns the year.
+     *
+     * @return int (year)
+     */
+    public int year() {
+        return year;
+    }
+
+    /**
+     * Returns the number of events.
+     *
+     * @return int (size)
+     */
+    public int size() {
+        return millis.length;
+    }
+
+    /**
+     * Returns the moment of the i-th event.
+     *
+     * @param int (i)
+     * @return long (millis)
+     */
+    public long millis(int i) {
+        return millis[i];
+    }
+
+    /**
+     * Returns the kind of the i-th event.
+     *
+     * @param int (i)
+     * @return Kind (kind)
+     */
+    public Kind kind(int i) {
+        return Kind.ALL[kinds[i]];
+    }
+
+    /**
+     * Returns the number of events of the given kind.
+     *
+     * @param Kind (kind)
+     * @return int (count)
+     */
+    public int count(Kind kind) {
+        int count = 0;
+        for(byte k : kinds) if(k == kind.ordinal()) ++count;
+        return count;
+    }
+
+    /**
+     * Imbricated interface representing an Almanac.Writer.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public interface Writer {
+
+        /**
+         * Writes the header of a file of almanacs to the given OutputStream.
+         * Throws IOE in case of an IO error.
+         *
+         * @param OutputStream (outputStream)
+         * @throws IOException
+         */
+        public abstract void writeHeader(OutputStream outputStream) throws IOException;
+
+        /**
+         * Writes the events of an almanac to the given OutputStream, after the header and the previous almanacs.
+         * Throws IOE in case of an IO error.
+         *
+         * @param Almanac (almanac)
+         * @param OutputStream (outputStream)
+         * @throws IOException
+         */
+        public abstract void write(Almanac almanac, OutputStream outputStream) throws IOException;
+    }
+}
@@ -0,0 +1,70 @@
+package ch.epfl.rigel.events;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A Writer Of Almanacs In A Compact Binary Format (big-endian, as written by DataOutputStream).
+ * -The header is the magic number 0x52414C4D ("RALM") followed by the version (short).
+ * -Each almanac is the index of its site (int), its longitude and latitude in degrees (floats), its year (int) and
+ *  its number of events (int), followed by the events : the ordinal of the kind (byte) and the moment in
+ *  milliseconds since 1970-01-01T00:00Z (long).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public enum AlmanacBinaryWriter implements Almanac.Writer {
+
+    INSTANCE;
+
+    /**
+     * The magic number starting the files.
+     */
+    public final static int MAGIC = 0x52414C4D;
+
+    /**
+     * The version of the format.
+     */
+    public final static short VERSION = 1;
+
+    /**
+     * Writes the magic number and the version to the given OutputStream.
+     * Throws IOE in case of an IO error.
+     *
+     * @param OutputStream (outputStream)
+     * @throws IOException
+     */
+    @Override
+    public void writeHeader(OutputStream outputStream) throws IOException {
+        DataOutputStream d = new DataOutputStream(outputStream);
+        d.writeInt(MAGIC);
+        d.writeShort(VERSION);
+        d.flush();
+    }
+
+    /**
+     * Writes the almanac and its events to the given OutputStream.
+     * Throws IOE in case of an IO error.
+     *
+     * @param Almanac (almanac)
+     * @param OutputStream (outputStream)
+     * @throws IOException
+     */
+    @Override
+    public void write(Almanac almanac, OutputStream outputStream) throws IOException {
+        //Not closed, since it would close the stream
+        DataOutputStream d = new DataOutputStream(new BufferedOutputStream(outputStream));
+        d.writeInt(almanac.siteIndex());
+        d.writeFloat((float) almanac.site().lonDeg());
+        d.writeFloat((float) almanac.site().latDeg());
+        d.writeInt(almanac.year());
+        d.writeInt(almanac.size());
+        for(int i = 0; i < almanac.size(); ++i) {
+            d.writeByte(almanac.kind(i).ordinal());
+            d.writeLong(almanac.millis(i));
+        }
+        d.flush();
+    }
+}
@@ -0,0 +1,79 @@
+package ch.epfl.rigel.events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * A Writer Of Almanacs In CSV.
+ * Each event is a line "site,lon,lat,year,event,utc,millis", the longitude and the latitude being in degrees and
+ * the moment given both in ISO-8601 (UTC, to the second) and in milliseconds since 1970-01-01T00:00Z.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public enum AlmanacCsvWriter implements Almanac.Writer {
+
+    INSTANCE;
+
+    private final static String HEADER = "site,lon,lat,year,event,utc,millis\n";
+    private final static long MILLIS_IN_SECOND = 1000;
+    private final static long SECONDS_IN_DAY = 24*60*60;
+
+    /**
+     * Writes the header line to the given OutputStream.
+     * Throws IOE in case of an IO error.
+     *
+     * @param OutputStream (outputStream)
+     * @throws IOException
+     */
+    @Override
+    public void writeHeader(OutputStream outputStream) throws IOException {
+        outputStream.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Writes a line per event of the almanac to the given OutputStream.
+     * Throws IOE in case of an IO error.
+     *
+     * @param Almanac (almanac)
+     * @param OutputStream (outputStream)
+     * @throws IOException
+     */
+    @Override
+    public void write(Almanac almanac, OutputStream outputStream) throws IOException {
+        //Not closed, since it would close the stream
+        Writer w = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+        String prefix = String.format(Locale.ROOT, "%d,%.4f,%.4f,%d,", almanac.siteIndex(),
+                almanac.site().lonDeg(), almanac.site().latDeg(), almanac.year());
+        StringBuilder line = new StringBuilder();
+        //The date is only formatted once per day
+        long day = Long.MIN_VALUE;
+        String date = null;
+        for(int i = 0; i < almanac.size(); ++i) {
+            long millis = almanac.millis(i);
+            long seconds = Math.floorDiv(millis + MILLIS_IN_SECOND / 2, MILLIS_IN_SECOND);
+            if(Math.floorDiv(seconds, SECONDS_IN_DAY) != day) {
+                day = Math.floorDiv(seconds, SECONDS_IN_DAY);
+                date = LocalDate.ofEpochDay(day).toString();
+            }
+            int secondOfDay = (int) Math.floorMod(seconds, SECONDS_IN_DAY);
+            line.setLength(0);
+            line.append(prefix).append(almanac.kind(i).name()).append(',').append(date).append('T');
+            appendTwoDigits(line, secondOfDay / 3600).append(':');
+            appendTwoDigits(line, secondOfDay / 60 % 60).append(':');
+            appendTwoDigits(line, secondOfDay % 60).append("Z,").append(millis).append('\n');
+            w.append(line);
+        }
+        w.flush();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder b, int value) {
+        return b.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,358 @@
+package ch.epfl.rigel.events;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.astronomy.EclipticModel;
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.MoonModel;
+import ch.epfl.rigel.astronomy.SiderealTime;
+import ch.epfl.rigel.astronomy.SunModel;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.events.Almanac.Kind;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Generator Of The Yearly Almanacs Of Many Sites.
+ * For each UTC calendar year, the Sun and the Moon (SunModel and MoonModel) are sampled every 30 minutes, once for
+ * all the sites : their declinations, their Greenwich hour angles (from SiderealTime, unwrapped so as to be
+ * continuous) and the elongation of the Moon. Between two samples, these smooth functions are linearly interpolated
+ * (within a second of arc for the Moon).
+ * -The phases of the Moon, independent of the site, are the moments at which the elongation crosses a multiple of
+ *  90°, refined on the models themselves.
+ * -At each site, the sine of the altitude of the Sun and of the Moon at the samples only costs a cosine. Each change
+ *  of sign of its difference with the sine of an altitude between two samples is an event, refined on the
+ *  interpolated functions. The Sun rises and sets on the apparent horizon of RiseTransitSetSolver lowered by its
+ *  radius, and the twilights begin and end at -6° (civil), -12° (nautical) and -18° (astronomical). The Moon rises
+ *  and sets on the same horizon, raised by its parallax, deduced from its apparent radius.
+ * The roots are refined to the second by the Illinois variant of the regula falsi, which converges in a few
+ * iterations on these smooth functions. An altitude crossed twice between two samples (grazing at high latitudes)
+ * is missed.
+ * The sites are solved in parallel on the given ForkJoinPool, and the next year is solved while the previous one
+ * is written.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class AlmanacGenerator {
+
+    private final static long SAMPLE_STEP_MILLIS = 30*60*1000L;
+    private final static long TOLERANCE_MILLIS = 1000L;
+    private final static int MAX_ITERATIONS = 50;
+    private final static double QUARTER = Math.PI / 2;
+    private final static double EARTH_RADIUS_KM = 6378.14;
+    private final static double MOON_RADIUS_KM = 1737.4;
+    private final static double[] SIN_TWILIGHT_ALTITUDES = {
+            Math.sin(Angle.ofDeg(-6)), Math.sin(Angle.ofDeg(-12)), Math.sin(Angle.ofDeg(-18))};
+    private final static Kind[] TWILIGHT_DAWNS = {Kind.CIVIL_DAWN, Kind.NAUTICAL_DAWN, Kind.ASTRONOMICAL_DAWN};
+    private final static Kind[] TWILIGHT_DUSKS = {Kind.CIVIL_DUSK, Kind.NAUTICAL_DUSK, Kind.ASTRONOMICAL_DUSK};
+    private final static Kind[] PHASES = {Kind.NEW_MOON, Kind.FIRST_QUARTER, Kind.FULL_MOON, Kind.LAST_QUARTER};
+    //Number of bits of the kind in the sorting keys of the events (moment * 2^KIND_BITS + ordinal of the kind)
+    private final static int KIND_BITS = 4;
+
+    private final List<GeographicCoordinates> sites;
+    private final ForkJoinPool pool;
+
+    /**
+     * Default constructor of an AlmanacGenerator of the given sites, solving in parallel on the common pool.
+     *
+     * @param List<GeographicCoordinates> (sites)
+     */
+    public AlmanacGenerator(List<GeographicCoordinates> sites) {
+        this(sites, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor of an AlmanacGenerator of the given sites, solving in parallel on the given pool.
+     *
+     * @param List<GeographicCoordinates> (sites)
+     * @param ForkJoinPool (pool)
+     */
+    public AlmanacGenerator(List<GeographicCoordinates> sites, ForkJoinPool pool) {
+        this.sites = List.copyOf(sites);
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the sites, in the order of their indexes.
+     *
+     * @return List<GeographicCoordinates> (sites)
+     */
+    public List<GeographicCoordinates> sites() {
+        return sites;
+    }
+
+    /**
+     * Returns the almanac of the site of the given index during the given year.
+     * Throws IOOBE if the index is not the one of a site.
+     *
+     * @param int (siteIndex)
+     * @param int (year)
+     * @return Almanac (almanac)
+     */
+    public Almanac almanac(int siteIndex, int year) {
+        GeographicCoordinates site = sites.get(siteIndex);
+        YearEphemeris ephemeris = new YearEphemeris(year);
+        return almanac(ephemeris, siteIndex, site, phases(ephemeris));
+    }
+
+    /**
+     * Returns the almanacs of all the sites during the given year, in the order of the sites.
+     *
+     * @param int (year)
+     * @return List<Almanac> (almanacs)
+     */
+    public List<Almanac> year(int year) {
+        return pool.submit(() -> {
+            YearEphemeris ephemeris = new YearEphemeris(year);
+            long[] phases = phases(ephemeris);
+            Almanac[] almanacs = new Almanac[sites.size()];
+            IntStream.range(0, almanacs.length).parallel().forEach(i ->
+                almanacs[i] = almanac(ephemeris, i, sites.get(i), phases)
+            );
+            return List.of(almanacs);
+        }).join();
+    }
+
+    /**
+     * Generates the almanacs of all the sites during the years from firstYear to lastYear (included) and writes them
+     * with the given writer to the given OutputStream, after the header, by year then in the order of the sites.
+     * The stream is neither flushed nor closed. Throws IAE if firstYear is greater than lastYear, IOE in case of an
+     * IO error.
+     *
+     * @param int (firstYear)
+     * @param int (lastYear)
+     * @param Almanac.Writer (writer)
+     * @param OutputStream (outputStream)
+     * @throws IOException
+     */
+    public void generate(int firstYear, int lastYear, Almanac.Writer writer, OutputStream outputStream) throws IOException {
+        checkArgument(firstYear <= lastYear);
+        writer.writeHeader(outputStream);
+        ForkJoinTask<List<Almanac>> next = pool.submit(() -> year(firstYear));
+        for(int year = firstYear; year <= lastYear; ++year) {
+            List<Almanac> almanacs = next.join();
+            int following = year + 1;
+            next = year < lastYear ? pool.submit(() -> year(following)) : null;
+            for(Almanac almanac : almanacs) writer.write(almanac, outputStream);
+        }
+    }
+
+    //The moments of the phases of the Moon during the year, as sorting keys of events
+    private static long[] phases(YearEphemeris e) {
+        long[] phases = new long[0];
+        double[] sun = new double[EclipticModel.CHANNELS];
+        double[] moon = new double[EclipticModel.CHANNELS];
+        for(int k = 1; k < e.count; ++k) {
+            double previous = Math.floor(e.elongations[k - 1] / QUARTER);
+            double current = Math.floor(e.elongations[k] / QUARTER);
+            if(current == previous) continue;
+            double target = current * QUARTER;
+            long from = e.startMillis + (k - 1)*SAMPLE_STEP_MILLIS;
+            DoubleUnaryOperator f = u -> {
+                double days = Epoch.J2010.daysUntil(from + Math.round(u * SAMPLE_STEP_MILLIS));
+                SunModel.SUN.channelsAt(days, sun);
+                MoonModel.MOON.channelsAt(days, moon);
+                return Math.IEEEremainder(moon[0] - sun[0] - target, Angle.TAU);
+            };
+            long millis = from + Math.round(root(f, e.elongations[k - 1] - target, e.elongations[k] - target) * SAMPLE_STEP_MILLIS);
+            if(millis < e.yearStartMillis || millis >= e.yearEndMillis) continue;
+            phases = Arrays.copyOf(phases, phases.length + 1);
+            phases[phases.length - 1] = key(millis, PHASES[(int) Math.floorMod((long) current, 4L)]);
+        }
+        return phases;
+    }
+
+    private static Almanac almanac(YearEphemeris e, int siteIndex, GeographicCoordinates site, long[] phases) {
+        double lon = site.lon();
+        double sinLat = Math.sin(site.lat());
+        double cosLat = Math.cos(site.lat());
+        double[] sunAltitudes = e.sinAltitudes(YearEphemeris.SUN, lon, sinLat, cosLat);
+        double[] moonAltitudes = e.sinAltitudes(YearEphemeris.MOON, lon, sinLat, cosLat);
+        Events events = new Events(phases);
+        e.crossings(YearEphemeris.SUN, sunAltitudes, null, 0, lon, sinLat, cosLat, Kind.SUNRISE, Kind.SUNSET, events);
+        for(int i = 0; i < SIN_TWILIGHT_ALTITUDES.length; ++i) {
+            e.crossings(YearEphemeris.SUN, sunAltitudes, SIN_TWILIGHT_ALTITUDES, i, lon, sinLat, cosLat, TWILIGHT_DAWNS[i], TWILIGHT_DUSKS[i], events);
+        }
+        e.crossings(YearEphemeris.MOON, moonAltitudes, null, 0, lon, sinLat, cosLat, Kind.MOONRISE, Kind.MOONSET, events);
+        long[] keys = Arrays.copyOf(events.keys, events.size);
+        Arrays.sort(keys);
+        long[] millis = new long[keys.length];
+        byte[] kinds = new byte[keys.length];
+        for(int i = 0; i < keys.length; ++i) {
+            millis[i] = keys[i] >> KIND_BITS;
+            kinds[i] = (byte) (keys[i] & ((1 << KIND_BITS) - 1));
+        }
+        return new Almanac(siteIndex, site, e.year, millis, kinds);
+    }
+
+    //Sorting key of an event : sorting the keys sorts the events by moment
+    private static long key(long millis, Kind kind) {
+        return (millis << KIND_BITS) | kind.ordinal();
+    }
+
+    //Root in [0;1] of f, of values fa at 0 and fb at 1 of opposite signs (or zero), by the Illinois method
+    private static double root(DoubleUnaryOperator f, double fa, double fb) {
+        if(fa == 0) return 0;
+        if(fb == 0) return 1;
+        double a = 0, b = 1;
+        double u = Double.NaN;
+        int side = 0;
+        for(int i = 0; i < MAX_ITERATIONS; ++i) {
+            double next = (a*fb - b*fa) / (fb - fa);
+            if(Math.abs(next - u) * SAMPLE_STEP_MILLIS < TOLERANCE_MILLIS) return next;
+            u = next;
+            double fu = f.applyAsDouble(u);
+            if(fu == 0) return u;
+            if((fu < 0) == (fb < 0)) {
+                b = u;
+                fb = fu;
+                if(side == -1) fa /= 2;
+                side = -1;
+            } else {
+                a = u;
+                fa = fu;
+                if(side == 1) fb /= 2;
+                side = 1;
+            }
+        }
+        return u;
+    }
+
+    /**
+     * Private class representing the events of an almanac being found, as sorting keys.
+     */
+    private static final class Events {
+
+        private long[] keys;
+        private int size;
+
+        private Events(long[] phases) {
+            this.keys = Arrays.copyOf(phases, Math.max(16, 2*phases.length));
+            this.size = phases.length;
+        }
+
+        private void add(long millis, Kind kind) {
+            if(size == keys.length) keys = Arrays.copyOf(keys, 2*size);
+            keys[size++] = key(millis, kind);
+        }
+    }
+
+    /**
+     * Private class representing the Sun and the Moon sampled during a year (and a sample before and after it).
+     */
+    private static final class YearEphemeris {
+
+        private final static int SUN = 0;
+        private final static int MOON = 1;
+
+        private final int year;
+        private final long yearStartMillis;
+        private final long yearEndMillis;
+        private final long startMillis;
+        private final int count;
+        //Per body : Greenwich hour angles (unwrapped), declinations, their sines and cosines, and sines of the horizon
+        private final double[][] hourAngles = new double[2][];
+        private final double[][] declinations = new double[2][];
+        private final double[][] sinDeclinations = new double[2][];
+        private final double[][] cosDeclinations = new double[2][];
+        private final double[][] sinHorizons = new double[2][];
+        //Ecliptic longitude of the Moon minus the one of the Sun (unwrapped)
+        private final double[] elongations;
+
+        private YearEphemeris(int year) {
+            this.year = year;
+            this.yearStartMillis = ZonedDateTime.of(year, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+            this.yearEndMillis = ZonedDateTime.of(year + 1, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+            this.startMillis = yearStartMillis - SAMPLE_STEP_MILLIS;
+            this.count = (int) ((yearEndMillis - yearStartMillis) / SAMPLE_STEP_MILLIS) + 3;
+            for(int b = 0; b < 2; ++b) {
+                hourAngles[b] = new double[count];
+                declinations[b] = new double[count];
+                sinDeclinations[b] = new double[count];
+                cosDeclinations[b] = new double[count];
+                sinHorizons[b] = new double[count];
+            }
+            this.elongations = new double[count];
+            IntStream.range(0, count).parallel().forEach(this::sample);
+            for(int k = 1; k < count; ++k) {
+                for(int b = 0; b < 2; ++b) hourAngles[b][k] = unwrap(hourAngles[b][k - 1], hourAngles[b][k]);
+                elongations[k] = unwrap(elongations[k - 1], elongations[k]);
+            }
+        }
+
+        private void sample(int k) {
+            long millis = startMillis + k*SAMPLE_STEP_MILLIS;
+            double days = Epoch.J2010.daysUntil(millis);
+            double[] sun = new double[EclipticModel.CHANNELS];
+            double[] moon = new double[EclipticModel.CHANNELS];
+            SunModel.SUN.channelsAt(days, sun);
+            MoonModel.MOON.channelsAt(days, moon);
+            double[] positions = {sun[0], sun[1], moon[0], moon[1]};
+            EclipticToEquatorialConversion.applyAt(millis, 0, positions, 0, positions, 0, 2);
+            double siderealTime = SiderealTime.greenwich(millis);
+            double sunRadius = sun[2] / 2;
+            double moonRadius = moon[2] / 2;
+            double moonParallax = Math.asin(EARTH_RADIUS_KM / MOON_RADIUS_KM * Math.sin(moonRadius));
+            set(SUN, k, siderealTime - positions[0], positions[1], RiseTransitSetSolver.STANDARD_HORIZON_ALTITUDE - sunRadius);
+            set(MOON, k, siderealTime - positions[2], positions[3], RiseTransitSetSolver.STANDARD_HORIZON_ALTITUDE - moonRadius + moonParallax);
+            elongations[k] = moon[0] - sun[0];
+        }
+
+        private void set(int body, int k, double hourAngle, double declination, double horizon) {
+            hourAngles[body][k] = hourAngle;
+            declinations[body][k] = declination;
+            sinDeclinations[body][k] = Math.sin(declination);
+            cosDeclinations[body][k] = Math.cos(declination);
+            sinHorizons[body][k] = Math.sin(horizon);
+        }
+
+        private static double unwrap(double previous, double angle) {
+            return previous + Math.IEEEremainder(angle - previous, Angle.TAU);
+        }
+
+        //Sines of the altitudes of a body at the samples, at a site
+        private double[] sinAltitudes(int body, double lon, double sinLat, double cosLat) {
+            double[] sinAltitudes = new double[count];
+            double[] h = hourAngles[body];
+            double[] sinDec = sinDeclinations[body];
+            double[] cosDec = cosDeclinations[body];
+            for(int k = 0; k < count; ++k) sinAltitudes[k] = sinLat*sinDec[k] + cosLat*cosDec[k]*Math.cos(h[k] + lon);
+            return sinAltitudes;
+        }
+
+        //Adds the crossings by a body of the altitude of sine thresholds[index] (of its horizon if thresholds is null)
+        private void crossings(int body, double[] sinAltitudes, double[] thresholds, int index, double lon, double sinLat, double cosLat,
+                Kind rise, Kind set, Events events) {
+            double[] h = hourAngles[body];
+            double[] dec = declinations[body];
+            double[] horizons = sinHorizons[body];
+            double previous = 0;
+            for(int k = 0; k < count; ++k) {
+                double current = sinAltitudes[k] - (thresholds == null ? horizons[k] : thresholds[index]);
+                if(k > 0 && (previous < 0) != (current < 0)) {
+                    int i = k - 1;
+                    DoubleUnaryOperator f = u -> {
+                        double d = dec[i] + u*(dec[i + 1] - dec[i]);
+                        double threshold = thresholds == null ? horizons[i] + u*(horizons[i + 1] - horizons[i]) : thresholds[index];
+                        return sinLat*Math.sin(d) + cosLat*Math.cos(d)*Math.cos(h[i] + u*(h[i + 1] - h[i]) + lon) - threshold;
+                    };
+                    long millis = startMillis + i*SAMPLE_STEP_MILLIS + Math.round(root(f, previous, current) * SAMPLE_STEP_MILLIS);
+                    if(millis >= yearStartMillis && millis < yearEndMillis) events.add(millis, previous < 0 ? rise : set);
+                }
+                previous = current;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ch.epfl.rigel.events;
+
+import java.time.Instant;
+import java.util.Locale;
+
+import ch.epfl.rigel.astronomy.CelestialObject;
+
+/**
+ * A Close Approach Of Two Bodies In The Sky (Geocentric).
+ * The moment is the one of the minimum of their angular separation, in milliseconds since 1970-01-01T00:00Z,
+ * and the bodies are given as they are at that moment.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Conjunction {
+
+    /**
+     * The kind of a close approach.
+     */
+    public enum Kind {
+        /**
+         * Two planets.
+         */
+        CONJUNCTION,
+        /**
+         * A planet and a star.
+         */
+        APPULSE,
+        /**
+         * The Moon passing in front of a star, as seen from some place of the Earth.
+         */
+        OCCULTATION;
+    }
+
+    private final Kind kind;
+    private final CelestialObject first;
+    private final CelestialObject second;
+    private final long millis;
+    private final double separation;
+
+    /**
+     * Constructor of a Conjunction.
+     *
+     * @param Kind (kind)
+     * @param CelestialObject (first)
+     * @param CelestialObject (second)
+     * @param long (millis)
+     * @param double (separation)
+     */
+    Conjunction(Kind kind, CelestialObject first, CelestialObject second, long millis, double separation) {
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+        this.millis = millis;
+        this.separation = separation;
+    }
+
+    /**
+     * Returns the kind of the approach.
+     *
+     * @return Kind (kind)
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Returns the moving body (a planet, or the Moon for an occultation).
+     *
+     * @return CelestialObject (first)
+     */
+    public CelestialObject first() {
+        return first;
+    }
+
+    /**
+     * Returns the other body (a planet or a star).
+     *
+     * @return CelestialObject (second)
+     */
+    public CelestialObject second() {
+        return second;
+    }
+
+    /**
+     * Returns the moment of the minimal separation, in milliseconds since 1970-01-01T00:00Z.
+     *
+     * @return long (millis)
+     */
+    public long millis() {
+        return millis;
+    }
+
+    /**
+     * Returns the minimal angular separation between the centers of the bodies, in radiant.
+     *
+     * @return double (separation)
+     */
+    public double separation() {
+        return separation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %s %s - %s (%.4f°)", Instant.ofEpochMilli(millis), kind, first.name(), second.name(), Math.toDegrees(separation));
+    }
+}
@@ -0,0 +1,379 @@
+package ch.epfl.rigel.events;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import ch.epfl.rigel.astronomy.CelestialObject;
+import ch.epfl.rigel.astronomy.EclipticModel;
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.MoonModel;
+import ch.epfl.rigel.astronomy.PlanetModel;
+import ch.epfl.rigel.astronomy.SolarSystemSnapshot;
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.TimeSeries;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.PrecessionNutation;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.events.Conjunction.Kind;
+
+/**
+ * A Search Engine Of Conjunctions, Appulses And Lunar Occultations.
+ * The geocentric positions of the planets are sampled every day and the one of the Moon every hour
+ * (see TimeSeries). A pair of bodies is a candidate when its sampled separation has a local minimum
+ * lower than the threshold of its kind, plus the largest distance the pair can travel in half a step.
+ * The stars close to the sampled position of a moving body are found with a spatial index of the bright
+ * stars of the catalogue, built for each chunk from their positions moved along their proper motions and precessed
+ * to the middle of the chunk. The separations are computed from the positions of date of the stars, interpolated
+ * between the bounds of the chunk, as the ones of the Moon and the planets. The minimum of each candidate is then refined to the second, by bisection on
+ * the sign of the derivative of the separation, and kept if it is lower than its threshold.
+ * A Moon-star approach is an occultation when the separation is lower than the apparent radius of the
+ * Moon plus its horizontal parallax (the star is then occulted from some place of the Earth).
+ * The time span is cut in chunks searched in parallel, each chunk keeping the minima of its own samples,
+ * so that each approach is found once.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ConjunctionSearch {
+
+    private final static long PLANET_STEP_MILLIS = 24*60*60*1000L;
+    private final static long MOON_STEP_MILLIS = 60*60*1000L;
+    //Largest distance a pair of planets (resp. a planet and a star) travels in half a day
+    private final static double PLANET_PAIR_MARGIN = Angle.ofDeg(2.5);
+    private final static double PLANET_STAR_MARGIN = Angle.ofDeg(1.25);
+    //Largest distance the Moon travels in half an hour, and largest radius plus parallax of the Moon
+    private final static double MOON_MARGIN = Angle.ofDeg(0.35);
+    private final static double MOON_MAX_OCCULTATION_RADIUS = Angle.ofDeg(1.35);
+    //Earth equatorial radius over the Moon radius, giving the parallax from the apparent radius
+    private final static double EARTH_MOON_RADIUS_RATIO = 6378.14 / 1737.4;
+    private final static long TOLERANCE_MILLIS = 1000L;
+
+    private final StarCatalogue catalogue;
+    private final List<Star> stars;
+    private final double magnitudeLimit;
+    private final int starCount;
+    private final double planetSeparation;
+    private final double starSeparation;
+    private final long chunkMillis;
+    private final ForkJoinPool pool;
+
+    private ConjunctionSearch(Builder builder) {
+        this.catalogue = builder.catalogue;
+        this.stars = catalogue.stars();
+        this.magnitudeLimit = builder.magnitudeLimit;
+        this.starCount = (int) stars.stream().filter(s -> s.magnitude() <= magnitudeLimit).count();
+        this.planetSeparation = builder.planetSeparation;
+        this.starSeparation = builder.starSeparation;
+        this.chunkMillis = builder.chunkMillis;
+        this.pool = builder.pool;
+    }
+
+    /**
+     * Returns the approaches whose minimum is in [startMillis;endMillis[ (in milliseconds since 1970-01-01T00:00Z),
+     * sorted by moment.
+     *
+     * @param long (startMillis)
+     * @param long (endMillis)
+     * @return List<Conjunction> (conjunctions)
+     */
+    public List<Conjunction> search(long startMillis, long endMillis) {
+        checkArgument(startMillis <= endMillis);
+        long chunks = (endMillis - startMillis + chunkMillis - 1) / chunkMillis;
+        return pool.submit(() -> LongStream.range(0, chunks).parallel()
+                .mapToObj(c -> searchChunk(startMillis + c*chunkMillis, Math.min(endMillis, startMillis + (c + 1)*chunkMillis)))
+                .flatMap(List::stream)
+                .filter(c -> startMillis <= c.millis() && c.millis() < endMillis)
+                .sorted(Comparator.comparingLong(Conjunction::millis))
+                .collect(Collectors.toList())).join();
+    }
+
+    /**
+     * Returns the number of stars of the catalogue taken into account (see Builder.setMagnitudeLimit).
+     *
+     * @return int (starCount)
+     */
+    public int starCount() {
+        return starCount;
+    }
+
+    /**
+     * Returns the angular separation between two equatorial positions, in radiant (haversine formula,
+     * precise for the small separations).
+     *
+     * @param double (ra1)
+     * @param double (dec1)
+     * @param double (ra2)
+     * @param double (dec2)
+     * @return double (separation)
+     */
+    static double separation(double ra1, double dec1, double ra2, double dec2) {
+        double sinDec = Math.sin((dec2 - dec1) / 2);
+        double sinRa = Math.sin((ra2 - ra1) / 2);
+        double h = sinDec*sinDec + Math.cos(dec1)*Math.cos(dec2)*sinRa*sinRa;
+        return 2*Math.asin(Math.sqrt(Math.min(1, h)));
+    }
+
+    private List<Conjunction> searchChunk(long from, long to) {
+        List<Conjunction> conjunctions = new ArrayList<>();
+        ChunkStars chunkStars = new ChunkStars(from, to);
+        List<PlanetModel> planets = SolarSystemSnapshot.PLANET_MODELS;
+        double[][] planetPositions = new double[planets.size()][];
+        for(int p = 0; p < planets.size(); ++p) {
+            planetPositions[p] = samples(planets.get(p), from, to, PLANET_STEP_MILLIS);
+        }
+        for(int p = 0; p < planets.size(); ++p) {
+            for(int q = p + 1; q < planets.size(); ++q) {
+                searchPair(planets.get(p), planetPositions[p], planets.get(q), planetPositions[q], from, conjunctions);
+            }
+            searchStars(chunkStars, planets.get(p), planetPositions[p], from, PLANET_STEP_MILLIS, conjunctions);
+        }
+        searchStars(chunkStars, MoonModel.MOON, samples(MoonModel.MOON, from, to, MOON_STEP_MILLIS), from, MOON_STEP_MILLIS, conjunctions);
+        return conjunctions;
+    }
+
+    //The equatorial positions at the samples from - step to the last sample before to, plus one
+    private static double[] samples(EclipticModel<?> model, long from, long to, long step) {
+        int count = (int) ((to - from + step - 1) / step) + 2;
+        double[] positions = new double[2*count];
+        TimeSeries.equatorialPositions(model, from - step, step, count, positions, false);
+        return positions;
+    }
+
+    private void searchPair(PlanetModel first, double[] firstPositions, PlanetModel second, double[] secondPositions, long from, List<Conjunction> conjunctions) {
+        int count = firstPositions.length / 2;
+        double[] separations = new double[count];
+        for(int k = 0; k < count; ++k) {
+            separations[k] = separation(firstPositions[2*k], firstPositions[2*k + 1], secondPositions[2*k], secondPositions[2*k + 1]);
+        }
+        for(int k = 1; k < count - 1; ++k) {
+            if(isMinimum(separations, k) && separations[k] < planetSeparation + PLANET_PAIR_MARGIN) {
+                double[] a = new double[2];
+                double[] b = new double[2];
+                long t = refine(millis -> {
+                    position(first, millis, a);
+                    position(second, millis, b);
+                    return separation(a[0], a[1], b[0], b[1]);
+                }, from + (k - 2)*PLANET_STEP_MILLIS, from + k*PLANET_STEP_MILLIS);
+                position(first, t, a);
+                position(second, t, b);
+                double separation = separation(a[0], a[1], b[0], b[1]);
+                if(separation <= planetSeparation) {
+                    conjunctions.add(new Conjunction(Kind.CONJUNCTION, object(first, t), object(second, t), t, separation));
+                }
+            }
+        }
+    }
+
+    private void searchStars(ChunkStars chunkStars, EclipticModel<? extends CelestialObject> body, double[] positions, long from, long step, List<Conjunction> conjunctions) {
+        boolean moon = body == MoonModel.MOON;
+        double threshold = moon ? MOON_MAX_OCCULTATION_RADIUS : starSeparation;
+        double radius = threshold + (moon ? MOON_MARGIN : PLANET_STAR_MARGIN);
+        int count = positions.length / 2;
+        for(int k = 1; k < count - 1; ++k) {
+            int sample = k;
+            chunkStars.index.query(positions[2*k], positions[2*k + 1], radius, i -> {
+                double[] star = new double[2];
+                chunkStars.position(i, from + (sample - 2)*step, star);
+                double before = separation(positions[2*sample - 2], positions[2*sample - 1], star[0], star[1]);
+                chunkStars.position(i, from + (sample - 1)*step, star);
+                double at = separation(positions[2*sample], positions[2*sample + 1], star[0], star[1]);
+                chunkStars.position(i, from + sample*step, star);
+                double after = separation(positions[2*sample + 2], positions[2*sample + 3], star[0], star[1]);
+                if(at <= before && at < after) {
+                    double[] a = new double[2];
+                    long t = refine(millis -> {
+                        position(body, millis, a);
+                        chunkStars.position(i, millis, star);
+                        return separation(a[0], a[1], star[0], star[1]);
+                    }, from + (sample - 2)*step, from + sample*step);
+                    double[] channels = position(body, t, a);
+                    chunkStars.position(i, t, star);
+                    double separation = separation(a[0], a[1], star[0], star[1]);
+                    double limit = moon ? occultationRadius(channels[2]) : starSeparation;
+                    if(separation <= limit) {
+                        conjunctions.add(new Conjunction(moon ? Kind.OCCULTATION : Kind.APPULSE, object(body, t), stars.get(i), t, separation));
+                    }
+                }
+            });
+        }
+    }
+
+    private static boolean isMinimum(double[] separations, int k) {
+        return separations[k] <= separations[k - 1] && separations[k] < separations[k + 1];
+    }
+
+    //Bisection on the sign of the derivative of the separation, the minimum lying in [low;high]
+    private static long refine(LongToDoubleFunction separation, long low, long high) {
+        long halfTolerance = TOLERANCE_MILLIS / 2;
+        while(high - low > TOLERANCE_MILLIS) {
+            long middle = (low + high) / 2;
+            if(separation.applyAsDouble(middle + halfTolerance) < separation.applyAsDouble(middle - halfTolerance)) low = middle;
+            else high = middle;
+        }
+        return (low + high) / 2;
+    }
+
+    //Writes the equatorial position of the body at the given moment into dstPts, and returns its channels
+    private static double[] position(EclipticModel<?> model, long millis, double[] dstPts) {
+        double[] channels = new double[EclipticModel.CHANNELS];
+        model.channelsAt(Epoch.J2010.daysUntil(millis), channels);
+        dstPts[0] = Angle.normalizePositive(channels[0]);
+        dstPts[1] = channels[1];
+        EclipticToEquatorialConversion.applyAt(millis, 0, dstPts, 0, dstPts, 0, 1);
+        return channels;
+    }
+
+    private static CelestialObject object(EclipticModel<? extends CelestialObject> model, long millis) {
+        return model.at(Epoch.J2010.daysUntil(millis), new EclipticToEquatorialConversion(millis));
+    }
+
+    private static double occultationRadius(double angularSize) {
+        double radius = angularSize / 2;
+        return radius + Math.asin(EARTH_MOON_RADIUS_RATIO * Math.sin(radius));
+    }
+
+    //The equatorial positions of date of the stars at the given moment
+    private double[] starPositions(long millis) {
+        double[] positions = catalogue.equatorialPositionsAt(millis);
+        PrecessionNutation.apply(millis, positions, 0, positions, 0, stars.size());
+        return positions;
+    }
+
+    /**
+     * Private class representing the stars during a chunk : their index, at their positions of the middle of the
+     * chunk, and their positions of date interpolated between its bounds.
+     */
+    private final class ChunkStars {
+
+        private final long from;
+        private final double span;
+        private final double[] fromPositions;
+        private final double[] toPositions;
+        private final StarIndex index;
+
+        private ChunkStars(long from, long to) {
+            this.from = from;
+            this.span = Math.max(1, to - from);
+            this.fromPositions = starPositions(from);
+            this.toPositions = starPositions(to);
+            this.index = new StarIndex(stars, starPositions(from + (to - from) / 2), magnitudeLimit);
+        }
+
+        //Writes the position (ra, dec) of date of the star i at the given moment into dstPts (ra being not normalized)
+        private void position(int i, long millis, double[] dstPts) {
+            double fraction = (millis - from) / span;
+            double ra = fromPositions[2*i];
+            double dec = fromPositions[2*i + 1];
+            dstPts[0] = ra + fraction * Math.IEEEremainder(toPositions[2*i] - ra, Angle.TAU);
+            dstPts[1] = dec + fraction * (toPositions[2*i + 1] - dec);
+        }
+    }
+
+    /**
+     * Static imbricated class representing a ConjunctionSearch.Builder.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public final static class Builder {
+
+        private final static double DEFAULT_PLANET_SEPARATION = Angle.ofDeg(1);
+        private final static double DEFAULT_STAR_SEPARATION = Angle.ofDeg(0.5);
+        private final static double DEFAULT_MAGNITUDE_LIMIT = 4;
+        private final static long DEFAULT_CHUNK_MILLIS = 365L*24*60*60*1000;
+
+        private final StarCatalogue catalogue;
+        private double planetSeparation = DEFAULT_PLANET_SEPARATION;
+        private double starSeparation = DEFAULT_STAR_SEPARATION;
+        private double magnitudeLimit = DEFAULT_MAGNITUDE_LIMIT;
+        private long chunkMillis = DEFAULT_CHUNK_MILLIS;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        /**
+         * Default constructor of a ConjunctionSearch.Builder for the stars of the given catalogue : planet
+         * conjunctions within 1°, appulses within 0.5° and stars up to magnitude 4, searched by chunks of 365 days
+         * on the common pool.
+         *
+         * @param StarCatalogue (catalogue)
+         */
+        public Builder(StarCatalogue catalogue) {
+            this.catalogue = catalogue;
+        }
+
+        /**
+         * Sets the largest separation of the conjunctions of two planets, in radiant.
+         *
+         * @param double (planetSeparation)
+         * @return Builder (this)
+         */
+        public Builder setPlanetSeparation(double planetSeparation) {
+            checkArgument(planetSeparation > 0);
+            this.planetSeparation = planetSeparation;
+            return this;
+        }
+
+        /**
+         * Sets the largest separation of the appulses of a planet and a star, in radiant.
+         *
+         * @param double (starSeparation)
+         * @return Builder (this)
+         */
+        public Builder setStarSeparation(double starSeparation) {
+            checkArgument(starSeparation > 0);
+            this.starSeparation = starSeparation;
+            return this;
+        }
+
+        /**
+         * Sets the largest magnitude of the stars searched for appulses and occultations.
+         *
+         * @param double (magnitudeLimit)
+         * @return Builder (this)
+         */
+        public Builder setMagnitudeLimit(double magnitudeLimit) {
+            this.magnitudeLimit = magnitudeLimit;
+            return this;
+        }
+
+        /**
+         * Sets the length of the chunks of time searched in parallel, in milliseconds (a multiple of a day,
+         * so that the chunks share the same samples).
+         *
+         * @param long (chunkMillis)
+         * @return Builder (this)
+         */
+        public Builder setChunkMillis(long chunkMillis) {
+            checkArgument(chunkMillis > 0 && chunkMillis % PLANET_STEP_MILLIS == 0);
+            this.chunkMillis = chunkMillis;
+            return this;
+        }
+
+        /**
+         * Sets the pool on which the chunks are searched.
+         *
+         * @param ForkJoinPool (pool)
+         * @return Builder (this)
+         */
+        public Builder setPool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Builds the ConjunctionSearch. The stars of the catalogue are indexed for each chunk searched.
+         *
+         * @return ConjunctionSearch (search)
+         */
+        public ConjunctionSearch build() {
+            return new ConjunctionSearch(this);
+        }
+    }
+}
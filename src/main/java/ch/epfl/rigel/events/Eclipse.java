@@ -0,0 +1,116 @@
+package ch.epfl.rigel.events;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * An Eclipse Of The Sun Or Of The Moon, Seen By An Observer.
+ * The moment is the one of the greatest eclipse, in milliseconds since 1970-01-01T00:00Z.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Eclipse {
+
+    /**
+     * The eclipsed body.
+     */
+    public enum Type {
+        SOLAR, LUNAR;
+    }
+
+    /**
+     * The kind of an eclipse : a solar eclipse is partial, annular or total, a lunar eclipse penumbral
+     * (the Moon only enters the penumbra), partial or total (in the umbra).
+     */
+    public enum Kind {
+        PENUMBRAL, PARTIAL, ANNULAR, TOTAL;
+    }
+
+    private final Type type;
+    private final Kind kind;
+    private final long millis;
+    private final double magnitude;
+    private final double obscuration;
+    private final boolean visible;
+
+    /**
+     * Constructor of an Eclipse.
+     *
+     * @param Type (type)
+     * @param Kind (kind)
+     * @param long (millis)
+     * @param double (magnitude)
+     * @param double (obscuration)
+     * @param boolean (visible)
+     */
+    Eclipse(Type type, Kind kind, long millis, double magnitude, double obscuration, boolean visible) {
+        this.type = type;
+        this.kind = kind;
+        this.millis = millis;
+        this.magnitude = magnitude;
+        this.obscuration = obscuration;
+        this.visible = visible;
+    }
+
+    /**
+     * Returns the eclipsed body.
+     *
+     * @return Type (type)
+     */
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * Returns the kind of the eclipse.
+     *
+     * @return Kind (kind)
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Returns the moment of the greatest eclipse, in milliseconds since 1970-01-01T00:00Z.
+     *
+     * @return long (millis)
+     */
+    public long millis() {
+        return millis;
+    }
+
+    /**
+     * Returns the magnitude of the eclipse : the fraction of the diameter of the eclipsed body covered by the Moon
+     * (solar eclipse) or by the umbra (lunar eclipse, by the penumbra for a penumbral one).
+     *
+     * @return double (magnitude)
+     */
+    public double magnitude() {
+        return magnitude;
+    }
+
+    /**
+     * Returns the obscuration of the eclipse : the fraction of the area of the disk of the eclipsed body covered
+     * by the Moon (solar eclipse) or by the umbra (lunar eclipse, by the penumbra for a penumbral one).
+     *
+     * @return double (obscuration)
+     */
+    public double obscuration() {
+        return obscuration;
+    }
+
+    /**
+     * Returns true if and only if the eclipsed body is above the horizon of the observer at the greatest eclipse.
+     *
+     * @return boolean (visible)
+     */
+    public boolean visible() {
+        return visible;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %s %s (magnitude=%.3f, obscuration=%.3f%s)", Instant.ofEpochMilli(millis), kind, type, magnitude, obscuration, visible ? "" : ", not visible");
+    }
+}
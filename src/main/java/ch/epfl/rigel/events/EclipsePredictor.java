@@ -0,0 +1,271 @@
+package ch.epfl.rigel.events;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongToDoubleFunction;
+
+import ch.epfl.rigel.astronomy.EclipticModel;
+import ch.epfl.rigel.astronomy.EphemerisTier;
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.Moon;
+import ch.epfl.rigel.astronomy.SiderealTime;
+import ch.epfl.rigel.astronomy.Sun;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.events.Eclipse.Kind;
+import ch.epfl.rigel.events.Eclipse.Type;
+
+/**
+ * A Predictor Of The Solar And Lunar Eclipses Seen By An Observer.
+ * The syzygies are found by stepping from one new (or full) moon to the next one, each being refined by Newton's
+ * method on the elongation of the Moon. A syzygy at which the geocentric separation of the bodies (or of the Moon
+ * and the shadow of the Earth) is beyond the eclipse limit is discarded. For the others, the separation is sampled
+ * every 10 minutes around the syzygy, and its minimum refined to the second by bisection on the sign of its derivative.
+ * -The solar eclipses are computed with the topocentric positions of the Sun and the Moon, corrected for the parallax
+ *  at the position of the observer (on a spherical Earth).
+ * -The lunar eclipses are geocentric : the umbra and penumbra of the Earth have the apparent radii
+ *  1.02*(moonParallax + sunParallax -/+ sunRadius) at the distance of the Moon (the 2% accounting for the atmosphere).
+ * The parallaxes are deduced from the apparent radii given by the models. An eclipse is visible when the eclipsed
+ * body is above the horizon of the observer at the greatest eclipse.
+ * The Sun and the Moon are given by the models of an EphemerisTier. The position of the Moon given by the STANDARD
+ * MoonModel is precise to a few minutes of arc : near the limits of the path of a total or annular solar eclipse
+ * (a hundred kilometers wide), the kind may therefore be wrong. The series of the TRUNCATED and FULL tiers
+ * (see ElpMoonModel) are precise to a few seconds of arc, at the cost of slower searches.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class EclipsePredictor {
+
+    private final static double SYNODIC_MONTH_MILLIS = 29.530588853 * 24*60*60*1000;
+    //The new moon of 2000-01-06T18:14Z
+    private final static long REFERENCE_NEW_MOON_MILLIS = 947_182_440_000L;
+    private final static long SYZYGY_TOLERANCE_MILLIS = 60*1000L;
+    private final static int MAX_NEWTON_ITERATIONS = 10;
+    private final static long SAMPLE_STEP_MILLIS = 10*60*1000L;
+    private final static int HALF_SAMPLES = 24;
+    private final static long TOLERANCE_MILLIS = 1000L;
+    //Geocentric separations beyond which no eclipse can occur
+    private final static double SOLAR_ECLIPSE_LIMIT = Angle.ofDeg(1.6);
+    private final static double LUNAR_ECLIPSE_LIMIT = Angle.ofDeg(1.7);
+    private final static double SHADOW_ENLARGEMENT = 1.02;
+    private final static double EARTH_RADIUS_KM = 6378.14;
+    private final static double SUN_RADIUS_KM = 696_000;
+    private final static double MOON_RADIUS_KM = 1737.4;
+
+    private final GeographicCoordinates observer;
+    private final EclipticModel<Sun> sunModel;
+    private final EclipticModel<Moon> moonModel;
+
+    /**
+     * Default constructor of an EclipsePredictor for the given observer, using the STANDARD models.
+     *
+     * @param GeographicCoordinates (observer)
+     */
+    public EclipsePredictor(GeographicCoordinates observer) {
+        this(observer, EphemerisTier.STANDARD);
+    }
+
+    /**
+     * Constructor of an EclipsePredictor for the given observer, using the models of the Sun and the Moon
+     * of the given tier.
+     *
+     * @param GeographicCoordinates (observer)
+     * @param EphemerisTier (tier)
+     */
+    public EclipsePredictor(GeographicCoordinates observer, EphemerisTier tier) {
+        this.observer = observer;
+        this.sunModel = tier.sun();
+        this.moonModel = tier.moon();
+    }
+
+    /**
+     * Returns the eclipses seen by the observer whose greatest eclipse is in [startMillis;endMillis[
+     * (in milliseconds since 1970-01-01T00:00Z), sorted by moment. The lunar eclipses are returned whether they
+     * are visible or not, the solar eclipses only when the Moon covers a part of the Sun as seen by the observer.
+     *
+     * @param long (startMillis)
+     * @param long (endMillis)
+     * @return List<Eclipse> (eclipses)
+     */
+    public List<Eclipse> search(long startMillis, long endMillis) {
+        checkArgument(startMillis <= endMillis);
+        List<Eclipse> eclipses = new ArrayList<>();
+        double[] sun = new double[EclipticModel.CHANNELS];
+        double[] moon = new double[EclipticModel.CHANNELS];
+        //Half lunations : even ones are new moons, odd ones full moons
+        long half = (long) Math.floor((startMillis - REFERENCE_NEW_MOON_MILLIS) / (SYNODIC_MONTH_MILLIS / 2)) - 1;
+        while(true) {
+            long estimate = REFERENCE_NEW_MOON_MILLIS + Math.round(half * SYNODIC_MONTH_MILLIS / 2);
+            if(estimate - SYNODIC_MONTH_MILLIS / 4 >= endMillis) break;
+            boolean newMoon = Math.floorMod(half, 2) == 0;
+            long syzygy = syzygy(estimate, newMoon ? 0 : Math.PI, sun, moon);
+            Eclipse eclipse = newMoon ? solarEclipse(syzygy, sun, moon) : lunarEclipse(syzygy, sun, moon);
+            if(eclipse != null && startMillis <= eclipse.millis() && eclipse.millis() < endMillis) eclipses.add(eclipse);
+            ++half;
+        }
+        return eclipses;
+    }
+
+    //Newton's method on the elongation of the Moon (difference of the ecliptic longitudes), until it equals target
+    private long syzygy(long estimate, double target, double[] sun, double[] moon) {
+        long t = estimate;
+        for(int i = 0; i < MAX_NEWTON_ITERATIONS; ++i) {
+            double error = wrap(elongation(t, sun, moon) - target);
+            double variation = wrap(elongation(t + SAMPLE_STEP_MILLIS, sun, moon) - elongation(t - SAMPLE_STEP_MILLIS, sun, moon));
+            long correction = Math.round(error / variation * 2*SAMPLE_STEP_MILLIS);
+            t -= correction;
+            if(Math.abs(correction) < SYZYGY_TOLERANCE_MILLIS) break;
+        }
+        return t;
+    }
+
+    private double elongation(long millis, double[] sun, double[] moon) {
+        channels(millis, sun, moon);
+        return moon[0] - sun[0];
+    }
+
+    private Eclipse solarEclipse(long syzygy, double[] sun, double[] moon) {
+        channels(syzygy, sun, moon);
+        if(Math.abs(moon[1]) > SOLAR_ECLIPSE_LIMIT) return null;
+        double[] state = new double[4];
+        long t = minimum(millis -> solarState(millis, state), syzygy);
+        solarState(t, state);
+        double separation = state[0];
+        double sunRadius = state[1];
+        double moonRadius = state[2];
+        if(separation >= sunRadius + moonRadius) return null;
+        Kind kind = Kind.PARTIAL;
+        if(separation <= Math.abs(sunRadius - moonRadius)) kind = (moonRadius >= sunRadius) ? Kind.TOTAL : Kind.ANNULAR;
+        double magnitude = (sunRadius + moonRadius - separation) / (2*sunRadius);
+        double obscuration = overlap(sunRadius, moonRadius, separation) / (Math.PI * sunRadius*sunRadius);
+        return new Eclipse(Type.SOLAR, kind, t, magnitude, obscuration, state[3] > 0);
+    }
+
+    private Eclipse lunarEclipse(long syzygy, double[] sun, double[] moon) {
+        channels(syzygy, sun, moon);
+        if(Math.abs(moon[1]) > LUNAR_ECLIPSE_LIMIT) return null;
+        double[] state = new double[4];
+        long t = minimum(millis -> lunarState(millis, state), syzygy);
+        lunarState(t, state);
+        double separation = state[0];
+        double moonRadius = state[1];
+        double umbraRadius = state[2];
+        double penumbraRadius = state[3];
+        if(separation >= penumbraRadius + moonRadius) return null;
+        double shadowRadius = (separation < umbraRadius + moonRadius) ? umbraRadius : penumbraRadius;
+        Kind kind = (shadowRadius == penumbraRadius) ? Kind.PENUMBRAL : (separation <= umbraRadius - moonRadius) ? Kind.TOTAL : Kind.PARTIAL;
+        double magnitude = (shadowRadius + moonRadius - separation) / (2*moonRadius);
+        double obscuration = overlap(moonRadius, shadowRadius, separation) / (Math.PI * moonRadius*moonRadius);
+        return new Eclipse(Type.LUNAR, kind, t, magnitude, obscuration, altitude(moonModel, t) > 0);
+    }
+
+    //Coarse sampling of the separation around the syzygy, then bisection on the sign of its derivative
+    private static long minimum(LongToDoubleFunction separation, long syzygy) {
+        int best = -HALF_SAMPLES;
+        double bestSeparation = Double.POSITIVE_INFINITY;
+        for(int k = -HALF_SAMPLES; k <= HALF_SAMPLES; ++k) {
+            double s = separation.applyAsDouble(syzygy + k*SAMPLE_STEP_MILLIS);
+            if(s < bestSeparation) {
+                bestSeparation = s;
+                best = k;
+            }
+        }
+        long low = syzygy + (best - 1)*SAMPLE_STEP_MILLIS;
+        long high = syzygy + (best + 1)*SAMPLE_STEP_MILLIS;
+        long halfTolerance = TOLERANCE_MILLIS / 2;
+        while(high - low > TOLERANCE_MILLIS) {
+            long middle = (low + high) / 2;
+            if(separation.applyAsDouble(middle + halfTolerance) < separation.applyAsDouble(middle - halfTolerance)) low = middle;
+            else high = middle;
+        }
+        return (low + high) / 2;
+    }
+
+    //Topocentric separation of the Sun and the Moon, their topocentric radii, and the height of the Sun above the horizon
+    private double solarState(long millis, double[] state) {
+        double[] sun = new double[EclipticModel.CHANNELS];
+        double[] moon = new double[EclipticModel.CHANNELS];
+        channels(millis, sun, moon);
+        double[] positions = {Angle.normalizePositive(sun[0]), sun[1], Angle.normalizePositive(moon[0]), moon[1]};
+        EclipticToEquatorialConversion.applyAt(millis, 0, positions, 0, positions, 0, 2);
+        double localSiderealTime = SiderealTime.local(millis, observer);
+        double sunScale = topocentric(positions, 0, parallax(sun[2] / 2, SUN_RADIUS_KM), localSiderealTime);
+        double moonScale = topocentric(positions, 2, parallax(moon[2] / 2, MOON_RADIUS_KM), localSiderealTime);
+        state[0] = ConjunctionSearch.separation(positions[0], positions[1], positions[2], positions[3]);
+        state[1] = sunScale * sun[2] / 2;
+        state[2] = moonScale * moon[2] / 2;
+        EquatorialToHorizontalConversion.applyAt(millis, 0, observer, positions, 0, positions, 0, 1);
+        state[3] = positions[1] - (RiseTransitSetSolver.STANDARD_HORIZON_ALTITUDE - state[1]);
+        return state[0];
+    }
+
+    //Separation of the Moon and the center of the shadow (opposite to the Sun), radii of the Moon, the umbra and the penumbra
+    private double lunarState(long millis, double[] state) {
+        double[] sun = new double[EclipticModel.CHANNELS];
+        double[] moon = new double[EclipticModel.CHANNELS];
+        channels(millis, sun, moon);
+        double sunRadius = sun[2] / 2;
+        double moonRadius = moon[2] / 2;
+        double parallaxes = parallax(moonRadius, MOON_RADIUS_KM) + parallax(sunRadius, SUN_RADIUS_KM);
+        //The separation is the same in ecliptic and equatorial coordinates
+        state[0] = ConjunctionSearch.separation(moon[0], moon[1], sun[0] + Math.PI, -sun[1]);
+        state[1] = moonRadius;
+        state[2] = SHADOW_ENLARGEMENT * (parallaxes - sunRadius);
+        state[3] = SHADOW_ENLARGEMENT * (parallaxes + sunRadius);
+        return state[0];
+    }
+
+    //Corrects the equatorial position at offset for the parallax, returns the ratio of the geocentric to the topocentric distances
+    private double topocentric(double[] positions, int offset, double parallax, double localSiderealTime) {
+        double distance = 1 / Math.sin(parallax);
+        double ra = positions[offset];
+        double dec = positions[offset + 1];
+        double cosLatitude = Math.cos(observer.lat());
+        double x = distance*Math.cos(dec)*Math.cos(ra) - cosLatitude*Math.cos(localSiderealTime);
+        double y = distance*Math.cos(dec)*Math.sin(ra) - cosLatitude*Math.sin(localSiderealTime);
+        double z = distance*Math.sin(dec) - Math.sin(observer.lat());
+        double topocentricDistance = Math.sqrt(x*x + y*y + z*z);
+        positions[offset] = Angle.normalizePositive(Math.atan2(y, x));
+        positions[offset + 1] = Math.asin(z / topocentricDistance);
+        return distance / topocentricDistance;
+    }
+
+    //Height of the center of the body above the apparent horizon of the observer
+    private double altitude(EclipticModel<?> model, long millis) {
+        double[] channels = new double[EclipticModel.CHANNELS];
+        model.channelsAt(Epoch.J2010.daysUntil(millis), channels);
+        double[] position = {Angle.normalizePositive(channels[0]), channels[1]};
+        EclipticToEquatorialConversion.applyAt(millis, 0, position, 0, position, 0, 1);
+        EquatorialToHorizontalConversion.applyAt(millis, 0, observer, position, 0, position, 0, 1);
+        return position[1] - (RiseTransitSetSolver.STANDARD_HORIZON_ALTITUDE - channels[2] / 2);
+    }
+
+    private void channels(long millis, double[] sun, double[] moon) {
+        double days = Epoch.J2010.daysUntil(millis);
+        sunModel.channelsAt(days, sun);
+        moonModel.channelsAt(days, moon);
+    }
+
+    //Horizontal parallax of a body of the given apparent radius and real radius
+    private static double parallax(double apparentRadius, double radiusKm) {
+        return Math.asin(EARTH_RADIUS_KM / radiusKm * Math.sin(apparentRadius));
+    }
+
+    //Area of the intersection of two disks of radii r1 and r2 whose centers are at a distance d
+    private static double overlap(double r1, double r2, double d) {
+        if(d >= r1 + r2) return 0;
+        if(d <= Math.abs(r1 - r2)) return Math.PI * Math.min(r1, r2)*Math.min(r1, r2);
+        double a1 = r1*r1 * Math.acos((d*d + r1*r1 - r2*r2) / (2*d*r1));
+        double a2 = r2*r2 * Math.acos((d*d + r2*r2 - r1*r1) / (2*d*r2));
+        return a1 + a2 - Math.sqrt((-d + r1 + r2)*(d + r1 - r2)*(d - r1 + r2)*(d + r1 + r2)) / 2;
+    }
+
+    private static double wrap(double angle) {
+        return Math.PI - Angle.normalizePositive(Math.PI - angle);
+    }
+}
@@ -0,0 +1,117 @@
+package ch.epfl.rigel.events;
+
+import java.util.Locale;
+import java.util.OptionalLong;
+
+/**
+ * The Rise, Transit And Set Of A Body During A Day.
+ * The moments are in milliseconds since 1970-01-01T00:00Z. A body that never crosses the horizon during the day
+ * is either circumpolar (always above it) or never rising (always below it) : it then has neither rise nor set,
+ * but still has a transit (upper culmination), above or below the horizon.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class RiseTransitSet {
+
+    /**
+     * The kind of the daily motion of a body with respect to the horizon.
+     */
+    public enum Kind {
+        RISES_AND_SETS, CIRCUMPOLAR, NEVER_RISES;
+    }
+
+    /**
+     * The value given to the constructor for a missing event.
+     */
+    final static long NO_EVENT = Long.MIN_VALUE;
+
+    private final Kind kind;
+    private final long riseMillis;
+    private final long transitMillis;
+    private final long setMillis;
+    private final double transitAltitude;
+
+    /**
+     * Constructor of a RiseTransitSet. The missing events are given as Long.MIN_VALUE.
+     *
+     * @param Kind (kind)
+     * @param long (riseMillis)
+     * @param long (transitMillis)
+     * @param long (setMillis)
+     * @param double (transitAltitude)
+     */
+    RiseTransitSet(Kind kind, long riseMillis, long transitMillis, long setMillis, double transitAltitude) {
+        this.kind = kind;
+        this.riseMillis = riseMillis;
+        this.transitMillis = transitMillis;
+        this.setMillis = setMillis;
+        this.transitAltitude = transitAltitude;
+    }
+
+    /**
+     * Returns a RiseTransitSet of a body that does not cross the horizon during the day.
+     *
+     * @param Kind (kind)
+     * @param long (transitMillis)
+     * @param double (transitAltitude)
+     * @return RiseTransitSet (riseTransitSet)
+     */
+    static RiseTransitSet withoutCrossing(Kind kind, long transitMillis, double transitAltitude) {
+        return new RiseTransitSet(kind, NO_EVENT, transitMillis, NO_EVENT, transitAltitude);
+    }
+
+    /**
+     * Returns the kind of the daily motion of the body.
+     *
+     * @return Kind (kind)
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Returns the moment of the rise, if the body rises during the day.
+     *
+     * @return OptionalLong (riseMillis)
+     */
+    public OptionalLong rise() {
+        return optional(riseMillis);
+    }
+
+    /**
+     * Returns the moment of the transit, if the body culminates during the day.
+     *
+     * @return OptionalLong (transitMillis)
+     */
+    public OptionalLong transit() {
+        return optional(transitMillis);
+    }
+
+    /**
+     * Returns the moment of the set, if the body sets during the day.
+     *
+     * @return OptionalLong (setMillis)
+     */
+    public OptionalLong set() {
+        return optional(setMillis);
+    }
+
+    /**
+     * Returns the altitude of the body at its transit, in radiant (NaN if there is no transit).
+     *
+     * @return double (transitAltitude)
+     */
+    public double transitAltitude() {
+        return transitAltitude;
+    }
+
+    private static OptionalLong optional(long millis) {
+        return (millis == NO_EVENT) ? OptionalLong.empty() : OptionalLong.of(millis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s (rise=%s, transit=%s, set=%s)", kind, rise(), transit(), set());
+    }
+}
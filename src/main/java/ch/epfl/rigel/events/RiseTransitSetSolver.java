@@ -0,0 +1,241 @@
+package ch.epfl.rigel.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.astronomy.ChebyshevEphemeris;
+import ch.epfl.rigel.astronomy.EclipticModel;
+import ch.epfl.rigel.astronomy.EphemerisTier;
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.PlanetModel;
+import ch.epfl.rigel.astronomy.SiderealTime;
+import ch.epfl.rigel.astronomy.SolarSystemSnapshot;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.PrecessionNutation;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.events.RiseTransitSet.Kind;
+
+/**
+ * A Solver Of The Rises, Transits And Sets At A Site.
+ * The events of a day are searched in the 24 hours following its start, in milliseconds since 1970-01-01T00:00Z.
+ * A body rises or sets when its center crosses the altitude of the apparent horizon : -34' (standard refraction),
+ * lowered by the apparent radius of the body. The parallax of the Moon is not taken into account, since its model
+ * is geocentric.
+ * -The stars (fixed equatorial positions) use the closed form given by the hour angle of the horizon crossing :
+ *  cos(H0) = (sin(h0) - sin(lat)*sin(dec)) / (cos(lat)*cos(dec)), the moments following from the sidereal time.
+ * -The moving bodies are sampled every 10 minutes, and each crossing of the horizon (or of the meridian for the
+ *  transit) found between two samples is refined by bisection to the second.
+ * The catalogue and the solar system are solved in parallel, on the given ForkJoinPool.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class RiseTransitSetSolver {
+
+    /**
+     * The altitude of the apparent horizon for a point-like body : the standard refraction at the horizon.
+     */
+    public final static double STANDARD_HORIZON_ALTITUDE = Angle.ofDeg(-34.0 / 60);
+
+    private final static long MILLIS_IN_DAY = 24*60*60*1000L;
+    private final static long SAMPLE_STEP_MILLIS = 10*60*1000L;
+    private final static long TOLERANCE_MILLIS = 1000L;
+    //Rate of the sidereal time, in radiant per millisecond (see SiderealTime)
+    final static double SIDEREAL_RATE = Angle.ofHr(1.002737909) / (60*60*1000);
+
+    private final GeographicCoordinates site;
+    private final ForkJoinPool pool;
+    private final double cosLatitude;
+    private final double sinLatitude;
+
+    /**
+     * Default constructor of a RiseTransitSetSolver at the given site, solving in parallel on the common pool.
+     *
+     * @param GeographicCoordinates (site)
+     */
+    public RiseTransitSetSolver(GeographicCoordinates site) {
+        this(site, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor of a RiseTransitSetSolver at the given site, solving in parallel on the given pool.
+     *
+     * @param GeographicCoordinates (site)
+     * @param ForkJoinPool (pool)
+     */
+    public RiseTransitSetSolver(GeographicCoordinates site, ForkJoinPool pool) {
+        this.site = site;
+        this.pool = pool;
+        this.cosLatitude = Math.cos(site.lat());
+        this.sinLatitude = Math.sin(site.lat());
+    }
+
+    /**
+     * Returns the rise, transit and set during the day starting at startMillis of a fixed body of the given
+     * equatorial position (in radiant), seen on the apparent horizon of a point-like body.
+     *
+     * @param double (ra)
+     * @param double (dec)
+     * @param long (startMillis)
+     * @return RiseTransitSet (riseTransitSet)
+     */
+    public RiseTransitSet fixed(double ra, double dec, long startMillis) {
+        return fixed(ra, dec, startMillis, SiderealTime.local(startMillis, site));
+    }
+
+    /**
+     * Returns the rises, transits and sets during the day starting at startMillis of the stars of the catalogue, moved
+     * along their proper motions and precessed to that day, in the order of StarCatalogue.stars().
+     *
+     * @param StarCatalogue (catalogue)
+     * @param long (startMillis)
+     * @return List<RiseTransitSet> (riseTransitSets)
+     */
+    public List<RiseTransitSet> stars(StarCatalogue catalogue, long startMillis) {
+        double[] positions = catalogue.equatorialPositionsAt(startMillis);
+        PrecessionNutation.apply(startMillis, positions, 0, positions, 0, positions.length / 2);
+        double localSiderealTime = SiderealTime.local(startMillis, site);
+        RiseTransitSet[] riseTransitSets = new RiseTransitSet[positions.length / 2];
+        pool.submit(() -> IntStream.range(0, riseTransitSets.length).parallel().forEach(i -> 
+            riseTransitSets[i] = fixed(positions[2*i], positions[2*i + 1], startMillis, localSiderealTime)
+        )).join();
+        return List.of(riseTransitSets);
+    }
+
+    /**
+     * Returns the rise, transit and set during the day starting at startMillis of the body of the given model.
+     *
+     * @param EclipticModel<?> (model)
+     * @param long (startMillis)
+     * @return RiseTransitSet (riseTransitSet)
+     */
+    public RiseTransitSet moving(EclipticModel<?> model, long startMillis) {
+        int samples = (int) (MILLIS_IN_DAY / SAMPLE_STEP_MILLIS) + 1;
+        double[] heights = new double[samples];
+        double[] hourAngles = new double[samples];
+        double[] state = new double[2];
+        double[] channels = new double[EclipticModel.CHANNELS];
+        for(int k = 0; k < samples; ++k) {
+            evaluate(model, startMillis + k*SAMPLE_STEP_MILLIS, channels, state);
+            heights[k] = state[0];
+            hourAngles[k] = state[1];
+        }
+        long rise = RiseTransitSet.NO_EVENT;
+        long set = RiseTransitSet.NO_EVENT;
+        long transit = RiseTransitSet.NO_EVENT;
+        boolean above = false;
+        boolean below = false;
+        for(int k = 0; k < samples; ++k) {
+            above |= heights[k] >= 0;
+            below |= heights[k] < 0;
+            if(k == 0) continue;
+            long from = startMillis + (k - 1)*SAMPLE_STEP_MILLIS;
+            if(rise == RiseTransitSet.NO_EVENT && heights[k - 1] < 0 && heights[k] >= 0) {
+                rise = bisect(model, from, 0, channels, state);
+            }
+            if(set == RiseTransitSet.NO_EVENT && heights[k - 1] >= 0 && heights[k] < 0) {
+                set = bisect(model, from, 0, channels, state);
+            }
+            //The hour angle also jumps from PI to -PI at the lower culmination
+            if(transit == RiseTransitSet.NO_EVENT && hourAngles[k - 1] < 0 && hourAngles[k] >= 0 && hourAngles[k] - hourAngles[k - 1] < Math.PI) {
+                transit = bisect(model, from, 1, channels, state);
+            }
+        }
+        double transitAltitude = Double.NaN;
+        if(transit != RiseTransitSet.NO_EVENT) {
+            evaluate(model, transit, channels, state);
+            transitAltitude = state[0] + horizonAltitude(channels);
+        }
+        if(above && below) return new RiseTransitSet(Kind.RISES_AND_SETS, rise, transit, set, transitAltitude);
+        return RiseTransitSet.withoutCrossing(above ? Kind.CIRCUMPOLAR : Kind.NEVER_RISES, transit, transitAltitude);
+    }
+
+    /**
+     * Returns the rises, transits and sets during the day starting at startMillis of the Sun, the Moon and the planets,
+     * in this order (the planets in the order of SolarSystemSnapshot.PLANET_MODELS), given by the STANDARD models.
+     *
+     * @param long (startMillis)
+     * @return List<RiseTransitSet> (riseTransitSets)
+     */
+    public List<RiseTransitSet> solarSystem(long startMillis) {
+        return solarSystem(startMillis, EphemerisTier.STANDARD);
+    }
+
+    /**
+     * Returns the rises, transits and sets during the day starting at startMillis of the Sun, the Moon and the planets,
+     * in this order (the planets in the order of SolarSystemSnapshot.PLANET_MODELS), given by the models of the given
+     * tier. The STANDARD models are evaluated through the shared ephemerides of ChebyshevEphemeris, whose windows
+     * serve the samples and bisections of all the days and sites they cover.
+     *
+     * @param long (startMillis)
+     * @param EphemerisTier (tier)
+     * @return List<RiseTransitSet> (riseTransitSets)
+     */
+    public List<RiseTransitSet> solarSystem(long startMillis, EphemerisTier tier) {
+        boolean standard = tier == EphemerisTier.STANDARD;
+        List<EclipticModel<?>> models = new ArrayList<>();
+        models.add(standard ? ChebyshevEphemeris.SUN : tier.sun());
+        models.add(standard ? ChebyshevEphemeris.MOON : tier.moon());
+        for(PlanetModel planet : SolarSystemSnapshot.PLANET_MODELS) models.add(standard ? ChebyshevEphemeris.of(planet) : tier.planet(planet));
+        RiseTransitSet[] riseTransitSets = new RiseTransitSet[models.size()];
+        pool.submit(() -> IntStream.range(0, riseTransitSets.length).parallel().forEach(i -> 
+            riseTransitSets[i] = moving(models.get(i), startMillis)
+        )).join();
+        return List.of(riseTransitSets);
+    }
+
+    private RiseTransitSet fixed(double ra, double dec, long startMillis, double localSiderealTime) {
+        double sinDec = Math.sin(dec);
+        double cosDec = Math.cos(dec);
+        long transit = startMillis + millisUntil(ra - localSiderealTime);
+        double transitAltitude = Math.asin(sinDec*sinLatitude + cosDec*cosLatitude);
+        double cosH0 = (Math.sin(STANDARD_HORIZON_ALTITUDE) - sinLatitude*sinDec) / (cosLatitude*cosDec);
+        if(cosH0 >= 1) return RiseTransitSet.withoutCrossing(Kind.NEVER_RISES, transit, transitAltitude);
+        if(!(cosH0 > -1)) return RiseTransitSet.withoutCrossing(Kind.CIRCUMPOLAR, transit, transitAltitude);
+        double h0 = Math.acos(cosH0);
+        long rise = startMillis + millisUntil(ra - h0 - localSiderealTime);
+        long set = startMillis + millisUntil(ra + h0 - localSiderealTime);
+        return new RiseTransitSet(Kind.RISES_AND_SETS, rise, transit, set, transitAltitude);
+    }
+
+    //Milliseconds until the local sidereal time increases by the given angle (modulo TAU)
+    private static long millisUntil(double angle) {
+        return Math.round(Angle.normalizePositive(angle) / SIDEREAL_RATE);
+    }
+
+    //Refines the change of sign of state[index] between from and from + SAMPLE_STEP_MILLIS
+    private long bisect(EclipticModel<?> model, long from, int index, double[] channels, double[] state) {
+        long low = from;
+        long high = from + SAMPLE_STEP_MILLIS;
+        evaluate(model, low, channels, state);
+        boolean lowNegative = state[index] < 0;
+        while(high - low > TOLERANCE_MILLIS) {
+            long middle = (low + high) / 2;
+            evaluate(model, middle, channels, state);
+            if((state[index] < 0) == lowNegative) low = middle;
+            else high = middle;
+        }
+        return (low + high) / 2;
+    }
+
+    //Computes the height above the apparent horizon and the hour angle (in ]-PI;PI]) of the body at a given moment
+    private void evaluate(EclipticModel<?> model, long millis, double[] channels, double[] state) {
+        model.channelsAt(Epoch.J2010.daysUntil(millis), channels);
+        state[0] = Angle.normalizePositive(channels[0]);
+        state[1] = channels[1];
+        EclipticToEquatorialConversion.applyAt(millis, 0, state, 0, state, 0, 1);
+        double ra = state[0];
+        EquatorialToHorizontalConversion.applyAt(millis, 0, site, state, 0, state, 0, 1);
+        state[0] = state[1] - horizonAltitude(channels);
+        state[1] = Math.PI - Angle.normalizePositive(Math.PI - SiderealTime.local(millis, site) + ra);
+    }
+
+    private static double horizonAltitude(double[] channels) {
+        return STANDARD_HORIZON_ALTITUDE - channels[2] / 2;
+    }
+}
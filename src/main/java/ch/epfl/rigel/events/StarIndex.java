@@ -0,0 +1,149 @@
+package ch.epfl.rigel.events;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Spatial Index Of Stars On The Celestial Sphere.
+ * The sphere is cut in bands of declination of CELL_SIZE, each band being cut in cells of right ascension
+ * of about CELL_SIZE on the sky. The indexes of the stars of each cell are stored contiguously, so that the
+ * stars close to a position are found by visiting only the few cells around it.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+final class StarIndex {
+
+    private final static int CELL_SIZE_DEG = 2;
+    private final static double CELL_SIZE = Angle.ofDeg(CELL_SIZE_DEG);
+    private final static int BANDS = 180 / CELL_SIZE_DEG;
+
+    private final double[] positions;
+    private final int[] bandFirstCell;
+    private final int[] cellsInBand;
+    private final int[] cellStart;
+    private final int[] starIndexes;
+
+    /**
+     * Constructor of a StarIndex of the given stars whose magnitude is at most magnitudeLimit, at the given
+     * equatorial positions (ra, dec) in radiant, in the order of the list (typically the positions of date of a
+     * StarCatalogue). The positions are not copied. The indexes given by the queries are the ones of the stars in
+     * the given list.
+     *
+     * @param List<Star> (stars)
+     * @param [] double (positions)
+     * @param double (magnitudeLimit)
+     */
+    StarIndex(List<Star> stars, double[] positions, double magnitudeLimit) {
+        checkArgument(positions.length == 2*stars.size());
+        this.positions = positions;
+        this.bandFirstCell = new int[BANDS + 1];
+        this.cellsInBand = new int[BANDS];
+        for(int b = 0; b < BANDS; ++b) {
+            double maxCos = Math.cos(Math.max(0, Math.min(Math.abs(bandLow(b)), Math.abs(bandLow(b) + CELL_SIZE))));
+            cellsInBand[b] = Math.max(1, (int) (Angle.TAU * maxCos / CELL_SIZE));
+            bandFirstCell[b + 1] = bandFirstCell[b] + cellsInBand[b];
+        }
+        int[] cellOfStar = new int[stars.size()];
+        int[] counts = new int[bandFirstCell[BANDS] + 1];
+        int indexed = 0;
+        for(int i = 0; i < stars.size(); ++i) {
+            cellOfStar[i] = (stars.get(i).magnitude() <= magnitudeLimit) ? cell(positions[2*i], positions[2*i + 1]) : -1;
+            if(cellOfStar[i] >= 0) {
+                ++counts[cellOfStar[i] + 1];
+                ++indexed;
+            }
+        }
+        this.cellStart = new int[counts.length];
+        for(int c = 1; c < counts.length; ++c) cellStart[c] = cellStart[c - 1] + counts[c];
+        this.starIndexes = new int[indexed];
+        int[] filled = new int[counts.length];
+        for(int i = 0; i < stars.size(); ++i) {
+            int c = cellOfStar[i];
+            if(c >= 0) starIndexes[cellStart[c] + filled[c]++] = i;
+        }
+    }
+
+    /**
+     * Calls the given action with the index of every indexed star whose angular distance to the given position
+     * (in radiant) is at most radius. The stars are tested exactly, after the cells around the position are pruned.
+     *
+     * @param double (ra)
+     * @param double (dec)
+     * @param double (radius)
+     * @param IntConsumer (action)
+     */
+    void query(double ra, double dec, double radius, IntConsumer action) {
+        int firstBand = band(dec - radius);
+        int lastBand = band(dec + radius);
+        //Half width in right ascension of the disk, if it does not contain a pole
+        double halfWidth = (Math.abs(dec) + radius < Math.PI / 2) ? Math.asin(Math.sin(radius) / Math.cos(dec)) : Math.PI;
+        for(int b = firstBand; b <= lastBand; ++b) {
+            int cells = cellsInBand[b];
+            int firstCell = 0;
+            int lastCell = cells - 1;
+            if(halfWidth < Math.PI) {
+                firstCell = (int) Math.floor((ra - halfWidth) / Angle.TAU * cells);
+                lastCell = (int) Math.floor((ra + halfWidth) / Angle.TAU * cells);
+                if(lastCell - firstCell >= cells) {
+                    firstCell = 0;
+                    lastCell = cells - 1;
+                }
+            }
+            for(int c = firstCell; c <= lastCell; ++c) {
+                int cell = bandFirstCell[b] + Math.floorMod(c, cells);
+                for(int k = cellStart[cell]; k < cellStart[cell + 1]; ++k) {
+                    int i = starIndexes[k];
+                    if(ConjunctionSearch.separation(ra, dec, positions[2*i], positions[2*i + 1]) <= radius) action.accept(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed stars.
+     *
+     * @return int (size)
+     */
+    int size() {
+        return starIndexes.length;
+    }
+
+    /**
+     * Returns the right ascension of the star at the given index (of the list given to the constructor).
+     *
+     * @param int (i)
+     * @return double (ra)
+     */
+    double ra(int i) {
+        return positions[2*i];
+    }
+
+    /**
+     * Returns the declination of the star at the given index (of the list given to the constructor).
+     *
+     * @param int (i)
+     * @return double (dec)
+     */
+    double dec(int i) {
+        return positions[2*i + 1];
+    }
+
+    private int cell(double ra, double dec) {
+        int b = band(dec);
+        return bandFirstCell[b] + Math.min(cellsInBand[b] - 1, (int) (ra / Angle.TAU * cellsInBand[b]));
+    }
+
+    private static int band(double dec) {
+        return Math.max(0, Math.min(BANDS - 1, (int) Math.floor((dec + Math.PI / 2) / CELL_SIZE)));
+    }
+
+    private static double bandLow(int b) {
+        return b * CELL_SIZE - Math.PI / 2;
+    }
+}
@@ -0,0 +1,207 @@
+package ch.epfl.rigel.events;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.astronomy.EclipticModel;
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.SiderealTime;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.SunModel;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.PrecessionNutation;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Map Of The Visibility Of A Body Over The Whole Earth At A Given Moment.
+ * The map is an equirectangular raster of width x height cells, stored row by row in a float[] from the north-west
+ * corner : the cell (x, y) is at the index y*width + x, and its center has the longitude -180° + (x + 0.5)*360°/width
+ * and the latitude 90° - (y + 0.5)*180°/height.
+ * The equatorial position of the body is computed once, and the altitudes follow from the formula of
+ * EquatorialToHorizontalConversion : sin(alt) = sin(lat)*sin(dec) + cos(lat)*cos(dec)*cos(H). The hour angle H
+ * only depends on the column, so that its cosines are computed once per map, and a cell only costs a multiply-add
+ * and an arc sine. The rows are computed in parallel, on the given ForkJoinPool.
+ * The positions of the models are geocentric (the parallax of the Moon, up to 1°, is neglected) and the altitudes
+ * are geometric (without refraction).
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class VisibilityMap {
+
+    private final int width;
+    private final int height;
+    private final ForkJoinPool pool;
+    private final double[] lons;
+    private final double[] sinLats;
+    private final double[] cosLats;
+
+    /**
+     * Default constructor of a VisibilityMap of the given size, computing in parallel on the common pool.
+     * Throws IAE if the size is not positive.
+     *
+     * @param int (width)
+     * @param int (height)
+     */
+    public VisibilityMap(int width, int height) {
+        this(width, height, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor of a VisibilityMap of the given size, computing in parallel on the given pool.
+     * Throws IAE if the size is not positive.
+     *
+     * @param int (width)
+     * @param int (height)
+     * @param ForkJoinPool (pool)
+     */
+    public VisibilityMap(int width, int height, ForkJoinPool pool) {
+        checkArgument(width > 0 && height > 0);
+        this.width = width;
+        this.height = height;
+        this.pool = pool;
+        this.lons = new double[width];
+        this.sinLats = new double[height];
+        this.cosLats = new double[height];
+        for(int x = 0; x < width; ++x) lons[x] = Angle.ofDeg(lonDeg(x));
+        for(int y = 0; y < height; ++y) {
+            sinLats[y] = Math.sin(Angle.ofDeg(latDeg(y)));
+            cosLats[y] = Math.cos(Angle.ofDeg(latDeg(y)));
+        }
+    }
+
+    /**
+     * Returns the width of the map (the number of columns).
+     *
+     * @return int (width)
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the map (the number of rows).
+     *
+     * @return int (height)
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns the longitude of the centers of the cells of the given column, in degrees.
+     *
+     * @param int (x)
+     * @return double (lonDeg)
+     */
+    public double lonDeg(int x) {
+        return -180 + (x + 0.5) * 360 / width;
+    }
+
+    /**
+     * Returns the latitude of the centers of the cells of the given row, in degrees.
+     *
+     * @param int (y)
+     * @return double (latDeg)
+     */
+    public double latDeg(int y) {
+        return 90 - (y + 0.5) * 180 / height;
+    }
+
+    /**
+     * Returns the altitudes, in degrees, at a given moment (in milliseconds since 1970-01-01T00:00Z) of a body of
+     * the given equatorial position of date (in radiant).
+     *
+     * @param double (ra)
+     * @param double (dec)
+     * @param long (epochMillis)
+     * @return [] float (altitudes)
+     */
+    public float[] altitudes(double ra, double dec, long epochMillis) {
+        float[] raster = new float[width * height];
+        double[] cosHourAngles = cosHourAngles(ra, epochMillis);
+        double sinDec = Math.sin(dec);
+        double cosDec = Math.cos(dec);
+        pool.submit(() -> IntStream.range(0, height).parallel().forEach(y -> {
+            double a = sinLats[y]*sinDec;
+            double b = cosLats[y]*cosDec;
+            for(int x = 0; x < width; ++x) raster[y*width + x] = (float) Angle.toDeg(Angle.asin(a + b*cosHourAngles[x]));
+        })).join();
+        return raster;
+    }
+
+    /**
+     * Returns the altitudes, in degrees, at a given moment (in milliseconds since 1970-01-01T00:00Z) of the body of
+     * the given model (e.g. the Moon or a planet).
+     *
+     * @param EclipticModel<?> (model)
+     * @param long (epochMillis)
+     * @return [] float (altitudes)
+     */
+    public float[] altitudes(EclipticModel<?> model, long epochMillis) {
+        double[] position = position(model, epochMillis);
+        return altitudes(position[0], position[1], epochMillis);
+    }
+
+    /**
+     * Returns the visibility at a given moment (in milliseconds since 1970-01-01T00:00Z) of the star of the given index
+     * in the catalogue, moved along its proper motion and precessed to that moment : the star is visible where it
+     * is above minAltitude while the Sun is below maxSunAltitude (e.g. -12° for a bright star, -18° for a faint
+     * one). The value of a cell is the margin of visibility in degrees, min(alt - minAltitude, maxSunAltitude -
+     * sunAlt) : positive where the star is visible, and continuous, so that its edges can be smoothed.
+     * Throws IOOBE if the index is not the one of a star.
+     *
+     * @param StarCatalogue (catalogue)
+     * @param int (starIndex)
+     * @param long (epochMillis)
+     * @param double (minAltitude)
+     * @param double (maxSunAltitude)
+     * @return [] float (margins)
+     */
+    public float[] starVisibility(StarCatalogue catalogue, int starIndex, long epochMillis, double minAltitude, double maxSunAltitude) {
+        double[] star = new double[2];
+        catalogue.equatorialPositionAt(starIndex, epochMillis, star, 0);
+        PrecessionNutation.apply(epochMillis, star, 0, star, 0, 1);
+        double[] sun = position(SunModel.SUN, epochMillis);
+        float[] raster = new float[width * height];
+        double[] starCosHourAngles = cosHourAngles(star[0], epochMillis);
+        double[] sunCosHourAngles = cosHourAngles(sun[0], epochMillis);
+        double sinStarDec = Math.sin(star[1]);
+        double cosStarDec = Math.cos(star[1]);
+        double sinSunDec = Math.sin(sun[1]);
+        double cosSunDec = Math.cos(sun[1]);
+        double minAltitudeDeg = Angle.toDeg(minAltitude);
+        double maxSunAltitudeDeg = Angle.toDeg(maxSunAltitude);
+        pool.submit(() -> IntStream.range(0, height).parallel().forEach(y -> {
+            double starA = sinLats[y]*sinStarDec;
+            double starB = cosLats[y]*cosStarDec;
+            double sunA = sinLats[y]*sinSunDec;
+            double sunB = cosLats[y]*cosSunDec;
+            for(int x = 0; x < width; ++x) {
+                double starMargin = Angle.toDeg(Angle.asin(starA + starB*starCosHourAngles[x])) - minAltitudeDeg;
+                double sunMargin = maxSunAltitudeDeg - Angle.toDeg(Angle.asin(sunA + sunB*sunCosHourAngles[x]));
+                raster[y*width + x] = (float) Math.min(starMargin, sunMargin);
+            }
+        })).join();
+        return raster;
+    }
+
+    //Cosines of the hour angles of a body of right ascension ra at the longitudes of the columns
+    private double[] cosHourAngles(double ra, long epochMillis) {
+        double greenwichHourAngle = SiderealTime.greenwich(epochMillis) - ra;
+        double[] cosHourAngles = new double[width];
+        for(int x = 0; x < width; ++x) cosHourAngles[x] = Math.cos(greenwichHourAngle + lons[x]);
+        return cosHourAngles;
+    }
+
+    //Equatorial position (ra, dec) of date of the body of a model
+    private static double[] position(EclipticModel<?> model, long epochMillis) {
+        double[] channels = new double[EclipticModel.CHANNELS];
+        model.channelsAt(Epoch.J2010.daysUntil(epochMillis), channels);
+        double[] position = {Angle.normalizePositive(channels[0]), channels[1]};
+        EclipticToEquatorialConversion.applyAt(epochMillis, 0, position, 0, position, 0, 1);
+        return position;
+    }
+}
@@ -0,0 +1,125 @@
+package ch.epfl.rigel.events;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * The Visibility Of The Stars Of A Catalogue During A Night.
+ * A star is visible when it is above the minimal altitude of the planner while the Sun is below its altitude
+ * (see VisibilityPlanner). The windows of visibility of all the stars are kept in a single array of moments,
+ * in milliseconds since 1970-01-01T00:00Z : the windows of the star i are the pairs (start, end) found between
+ * the indexes 2*offsets[i] and 2*offsets[i + 1]. The stars are indexed in the order of StarCatalogue.stars().
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class VisibilityPlan {
+
+    private final long nightStartMillis;
+    private final long[] darkness;
+    private final int[] offsets;
+    private final long[] windows;
+    private final long[] peakMillis;
+    private final double[] peakAltitudes;
+
+    /**
+     * Constructor of a VisibilityPlan. The arrays are not copied. The stars that are never visible have the peak
+     * Long.MIN_VALUE and the peak altitude NaN.
+     *
+     * @param long (nightStartMillis)
+     * @param long[] (darkness)
+     * @param int[] (offsets)
+     * @param long[] (windows)
+     * @param long[] (peakMillis)
+     * @param double[] (peakAltitudes)
+     */
+    VisibilityPlan(long nightStartMillis, long[] darkness, int[] offsets, long[] windows, long[] peakMillis, double[] peakAltitudes) {
+        this.nightStartMillis = nightStartMillis;
+        this.darkness = darkness;
+        this.offsets = offsets;
+        this.windows = windows;
+        this.peakMillis = peakMillis;
+        this.peakAltitudes = peakAltitudes;
+    }
+
+    /**
+     * Returns the start of the night.
+     *
+     * @return long (nightStartMillis)
+     */
+    public long nightStartMillis() {
+        return nightStartMillis;
+    }
+
+    /**
+     * Returns the intervals of the night during which the Sun is below the altitude of the planner, as pairs
+     * (start, end). The array is empty if the Sun never goes below it.
+     *
+     * @return long[] (darkness)
+     */
+    public long[] darkness() {
+        return darkness.clone();
+    }
+
+    /**
+     * Returns the number of stars of the plan.
+     *
+     * @return int (starCount)
+     */
+    public int starCount() {
+        return peakMillis.length;
+    }
+
+    /**
+     * Returns the number of windows of visibility of the star of the given index.
+     *
+     * @param int (index)
+     * @return int (windowCount)
+     */
+    public int windowCount(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Returns the windows of visibility of the star of the given index, as pairs (start, end) sorted by moment.
+     *
+     * @param int (index)
+     * @return long[] (windows)
+     */
+    public long[] windows(int index) {
+        return Arrays.copyOfRange(windows, 2*offsets[index], 2*offsets[index + 1]);
+    }
+
+    /**
+     * Returns the total time during which the star of the given index is visible, in milliseconds.
+     *
+     * @param int (index)
+     * @return long (visibleMillis)
+     */
+    public long visibleMillis(int index) {
+        long visibleMillis = 0;
+        for(int w = 2*offsets[index]; w < 2*offsets[index + 1]; w += 2) visibleMillis += windows[w + 1] - windows[w];
+        return visibleMillis;
+    }
+
+    /**
+     * Returns the moment at which the star of the given index is the highest while visible, if it is visible.
+     *
+     * @param int (index)
+     * @return OptionalLong (peakMillis)
+     */
+    public OptionalLong peak(int index) {
+        long millis = peakMillis[index];
+        return (millis == RiseTransitSet.NO_EVENT) ? OptionalLong.empty() : OptionalLong.of(millis);
+    }
+
+    /**
+     * Returns the altitude of the star of the given index at its peak, in radiant (NaN if it is not visible).
+     *
+     * @param int (index)
+     * @return double (peakAltitude)
+     */
+    public double peakAltitude(int index) {
+        return peakAltitudes[index];
+    }
+}
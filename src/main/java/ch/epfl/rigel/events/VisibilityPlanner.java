@@ -0,0 +1,291 @@
+package ch.epfl.rigel.events;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import ch.epfl.rigel.astronomy.SiderealTime;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.SunModel;
+import ch.epfl.rigel.astronomy.TimeSeries;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.PrecessionNutation;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * A Planner Of The Nightly Visibility Of The Stars At A Site.
+ * A night covers the 24 hours following its start, in milliseconds since 1970-01-01T00:00Z (a local noon is
+ * a good start). The state shared by all the stars is computed once per night :
+ * -the Sun is sampled every 10 minutes with the batch conversions (see TimeSeries), and the moments at which it
+ *  crosses its altitude are refined by bisection to the second, giving the intervals of darkness ;
+ * -the local sidereal time is computed once at the start of each interval of darkness.
+ * The stars being fixed during a night, the hour angles between which a star is above the minimal altitude follow
+ * in closed form from cos(H0) = (sin(h) - sin(lat)*sin(dec)) / (cos(lat)*cos(dec)), computed once for every span
+ * of SPAN_NIGHTS nights from the positions of the catalogue moved along their proper motions and precessed to the
+ * middle of the span : the windows of a star are the intersections of these hour angles with the intervals of
+ * darkness, and its peak is its transit, or the end of a window closest to it. The altitudes are geometric
+ * (without refraction).
+ * The nights are planned in parallel, on the given ForkJoinPool.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class VisibilityPlanner {
+
+    private final static long MILLIS_IN_DAY = 24*60*60*1000L;
+    private final static long SAMPLE_STEP_MILLIS = 10*60*1000L;
+    private final static long TOLERANCE_MILLIS = 1000L;
+    //The stars precess by about 5" in a span, the step of the proper motions of StarCatalogue
+    private final static int SPAN_NIGHTS = 36;
+    //Half arcs of the stars that are never (resp. always) above the minimal altitude
+    private final static double NEVER_ABOVE = -1;
+    private final static double ALWAYS_ABOVE = Math.PI;
+
+    private final StarCatalogue catalogue;
+    private final GeographicCoordinates site;
+    private final double sinMinAltitude;
+    private final double sunAltitude;
+    private final ForkJoinPool pool;
+
+    private VisibilityPlanner(Builder builder) {
+        this.catalogue = builder.catalogue;
+        this.site = builder.site;
+        this.sinMinAltitude = Math.sin(builder.minAltitude);
+        this.sunAltitude = builder.sunAltitude;
+        this.pool = builder.pool;
+    }
+
+    /**
+     * Returns the visibility of the stars during the given number of consecutive nights, the first one starting
+     * at startMillis, in the order of the nights.
+     *
+     * @param long (startMillis)
+     * @param int (nights)
+     * @return List<VisibilityPlan> (plans)
+     */
+    public List<VisibilityPlan> plan(long startMillis, int nights) {
+        checkArgument(nights >= 0);
+        return pool.submit(() -> {
+            Stars[] spans = IntStream.range(0, (nights + SPAN_NIGHTS - 1) / SPAN_NIGHTS).parallel()
+                    .mapToObj(s -> stars(startMillis + (s*SPAN_NIGHTS + Math.min(SPAN_NIGHTS, nights - s*SPAN_NIGHTS) / 2.0)*MILLIS_IN_DAY))
+                    .toArray(Stars[]::new);
+            return IntStream.range(0, nights).parallel()
+                    .mapToObj(n -> planNight(startMillis + n*MILLIS_IN_DAY, spans[n / SPAN_NIGHTS]))
+                    .collect(Collectors.toList());
+        }).join();
+    }
+
+    /**
+     * Returns the visibility of the stars during the night starting at startMillis.
+     *
+     * @param long (startMillis)
+     * @return VisibilityPlan (plan)
+     */
+    public VisibilityPlan planNight(long startMillis) {
+        return planNight(startMillis, stars(startMillis + MILLIS_IN_DAY / 2));
+    }
+
+    private VisibilityPlan planNight(long startMillis, Stars stars) {
+        double[] ra = stars.ra;
+        double[] sinAltitudeTerm = stars.sinAltitudeTerm;
+        double[] cosAltitudeTerm = stars.cosAltitudeTerm;
+        double[] halfArcs = stars.halfArcs;
+        long[] darkness = darkness(startMillis);
+        double[] darknessSiderealTimes = new double[darkness.length / 2];
+        for(int d = 0; d < darknessSiderealTimes.length; ++d) darknessSiderealTimes[d] = SiderealTime.local(darkness[2*d], site);
+        int count = ra.length;
+        int[] offsets = new int[count + 1];
+        long[] windows = new long[2*count];
+        long[] peakMillis = new long[count];
+        double[] peakAltitudes = new double[count];
+        int size = 0;
+        for(int i = 0; i < count; ++i) {
+            offsets[i] = size / 2;
+            peakMillis[i] = RiseTransitSet.NO_EVENT;
+            peakAltitudes[i] = Double.NaN;
+            double halfArc = halfArcs[i];
+            if(halfArc == NEVER_ABOVE) continue;
+            for(int d = 0; d < darknessSiderealTimes.length; ++d) {
+                long from = darkness[2*d];
+                long to = darkness[2*d + 1];
+                //x is the hour angle shifted by the half arc : the star is above when x (modulo TAU) is in [0;2*halfArc]
+                double x0 = Angle.normalizePositive(darknessSiderealTimes[d] - ra[i] + halfArc);
+                double x1 = x0 + (to - from) * RiseTransitSetSolver.SIDEREAL_RATE;
+                for(int k = 0; k*Angle.TAU <= x1; ++k) {
+                    double low = Math.max(x0, k*Angle.TAU);
+                    double high = Math.min(x1, k*Angle.TAU + 2*halfArc);
+                    if(!(low < high)) continue;
+                    long start = from + Math.round((low - x0) / RiseTransitSetSolver.SIDEREAL_RATE);
+                    long end = Math.min(to, from + Math.round((high - x0) / RiseTransitSetSolver.SIDEREAL_RATE));
+                    if(size > 2*offsets[i] && start <= windows[size - 1]) {
+                        windows[size - 1] = end;
+                    } else {
+                        if(size == windows.length) windows = Arrays.copyOf(windows, 2*windows.length);
+                        windows[size++] = start;
+                        windows[size++] = end;
+                    }
+                    //The peak is the transit if it is in the window, otherwise the end of the window closest to it
+                    double peak = Math.max(low, Math.min(high, k*Angle.TAU + halfArc));
+                    double altitude = Math.asin(sinAltitudeTerm[i] + cosAltitudeTerm[i] * Math.cos(peak - halfArc));
+                    if(!(altitude <= peakAltitudes[i])) {
+                        peakAltitudes[i] = altitude;
+                        peakMillis[i] = from + Math.round((peak - x0) / RiseTransitSetSolver.SIDEREAL_RATE);
+                    }
+                }
+            }
+        }
+        offsets[count] = size / 2;
+        return new VisibilityPlan(startMillis, darkness, offsets, Arrays.copyOf(windows, size), peakMillis, peakAltitudes);
+    }
+
+    //The terms of the altitudes of the stars, from their positions of date at the given moment
+    private Stars stars(double millis) {
+        long epochMillis = Math.round(millis);
+        double[] positions = catalogue.equatorialPositionsAt(epochMillis);
+        int count = positions.length / 2;
+        PrecessionNutation.apply(epochMillis, positions, 0, positions, 0, count);
+        double sinLatitude = Math.sin(site.lat());
+        double cosLatitude = Math.cos(site.lat());
+        Stars stars = new Stars(count);
+        for(int i = 0; i < count; ++i) {
+            double dec = positions[2*i + 1];
+            stars.ra[i] = positions[2*i];
+            stars.sinAltitudeTerm[i] = sinLatitude * Math.sin(dec);
+            stars.cosAltitudeTerm[i] = cosLatitude * Math.cos(dec);
+            double cosH0 = (sinMinAltitude - stars.sinAltitudeTerm[i]) / stars.cosAltitudeTerm[i];
+            if(cosH0 >= 1) stars.halfArcs[i] = NEVER_ABOVE;
+            else if(!(cosH0 > -1)) stars.halfArcs[i] = ALWAYS_ABOVE;
+            else stars.halfArcs[i] = Math.acos(cosH0);
+        }
+        return stars;
+    }
+
+    //The intervals of the night during which the Sun is below its altitude, as pairs (start, end)
+    private long[] darkness(long startMillis) {
+        int samples = (int) (MILLIS_IN_DAY / SAMPLE_STEP_MILLIS) + 1;
+        double[] horizontalPts = new double[2*samples];
+        TimeSeries.positions(SunModel.SUN, startMillis, SAMPLE_STEP_MILLIS, samples, site, null, horizontalPts, false);
+        long[] darkness = new long[samples + 1];
+        int size = 0;
+        boolean wasDark = false;
+        for(int k = 0; k < samples; ++k) {
+            boolean dark = horizontalPts[2*k + 1] < sunAltitude;
+            if(k == 0 && dark) darkness[size++] = startMillis;
+            else if(k > 0 && dark != wasDark) darkness[size++] = bisect(startMillis + (k - 1)*SAMPLE_STEP_MILLIS, wasDark, horizontalPts);
+            wasDark = dark;
+        }
+        if(wasDark) darkness[size++] = startMillis + MILLIS_IN_DAY;
+        return Arrays.copyOf(darkness, size);
+    }
+
+    //Refines the crossing of the altitude of the Sun between from and from + SAMPLE_STEP_MILLIS
+    private long bisect(long from, boolean lowDark, double[] buffer) {
+        long low = from;
+        long high = from + SAMPLE_STEP_MILLIS;
+        while(high - low > TOLERANCE_MILLIS) {
+            long middle = (low + high) / 2;
+            TimeSeries.positions(SunModel.SUN, middle, 0, 1, site, null, buffer, false);
+            if((buffer[1] < sunAltitude) == lowDark) low = middle;
+            else high = middle;
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Private class representing the terms of the altitudes of the stars during a span of nights, in the order
+     * of the catalogue.
+     */
+    private static final class Stars {
+
+        private final double[] ra;
+        private final double[] sinAltitudeTerm;
+        private final double[] cosAltitudeTerm;
+        private final double[] halfArcs;
+
+        private Stars(int count) {
+            this.ra = new double[count];
+            this.sinAltitudeTerm = new double[count];
+            this.cosAltitudeTerm = new double[count];
+            this.halfArcs = new double[count];
+        }
+    }
+
+    /**
+     * Static imbricated class representing a VisibilityPlanner.Builder.
+     *
+     * @author Paul Guillon (314517)
+     * @author Alexis Schlomer (315616)
+     */
+    public final static class Builder {
+
+        private final static double DEFAULT_MIN_ALTITUDE = 0;
+        private final static double DEFAULT_SUN_ALTITUDE = Angle.ofDeg(-18);
+
+        private final StarCatalogue catalogue;
+        private final GeographicCoordinates site;
+        private double minAltitude = DEFAULT_MIN_ALTITUDE;
+        private double sunAltitude = DEFAULT_SUN_ALTITUDE;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        /**
+         * Default constructor of a VisibilityPlanner.Builder for the stars of the given catalogue seen from the
+         * given site : the stars above the horizon during the astronomical night (the Sun below -18°),
+         * planned on the common pool.
+         *
+         * @param StarCatalogue (catalogue)
+         * @param GeographicCoordinates (site)
+         */
+        public Builder(StarCatalogue catalogue, GeographicCoordinates site) {
+            this.catalogue = catalogue;
+            this.site = site;
+        }
+
+        /**
+         * Sets the altitude above which a star is visible, in radiant.
+         *
+         * @param double (minAltitude)
+         * @return Builder (this)
+         */
+        public Builder setMinAltitude(double minAltitude) {
+            checkArgument(Math.abs(minAltitude) <= Math.PI / 2);
+            this.minAltitude = minAltitude;
+            return this;
+        }
+
+        /**
+         * Sets the altitude of the Sun below which the sky is dark, in radiant.
+         *
+         * @param double (sunAltitude)
+         * @return Builder (this)
+         */
+        public Builder setSunAltitude(double sunAltitude) {
+            checkArgument(Math.abs(sunAltitude) <= Math.PI / 2);
+            this.sunAltitude = sunAltitude;
+            return this;
+        }
+
+        /**
+         * Sets the pool on which the nights are planned.
+         *
+         * @param ForkJoinPool (pool)
+         * @return Builder (this)
+         */
+        public Builder setPool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Builds the VisibilityPlanner. The hour angles of the stars are computed by the plans.
+         *
+         * @return VisibilityPlanner (planner)
+         */
+        public VisibilityPlanner build() {
+            return new VisibilityPlanner(this);
+        }
+    }
+}
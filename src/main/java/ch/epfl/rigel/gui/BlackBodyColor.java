@@ -5,9 +5,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 import ch.epfl.rigel.math.ClosedInterval;
 import javafx.scene.paint.Color;
@@ -18,6 +15,9 @@ import static ch.epfl.rigel.Preconditions.checkInInterval;
 /**
  * Non Instantiable Class Used To Obtain A Black Body´s Temperature Given It´s
  * Temperature.
+ * The colors of the BBR_COLOR database (every 100K from 1000K to 40000K) are parsed once, into a dense table
+ * indexed by the bucket of the temperature, holding both the packed ARGB values and the Color instances : a lookup
+ * neither parses nor allocates.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
@@ -25,19 +25,25 @@ import static ch.epfl.rigel.Preconditions.checkInInterval;
 public class BlackBodyColor {
     
     private final static ClosedInterval LEGAL_TEMPERATURES = ClosedInterval.of(950, 40049);
-    private final static Map<Integer, String> DATA_MAP = getData();
     private final static String BBR_COLOR_PATH = "/bbr_color.txt";
     private final static String ENCODING = "US-ASCII";
+    private final static int MIN_TEMPERATURE = 1000;
+    private final static int TEMPERATURE_STEP = 100;
+    private final static int BUCKETS = (40000 - MIN_TEMPERATURE) / TEMPERATURE_STEP + 1;
+    private final static int OPAQUE = 0xFF000000;
+    private final static int[] ARGB_TABLE = new int[BUCKETS];
+    private final static Color[] COLOR_TABLE = new Color[BUCKETS];
     
-    private static Map<Integer, String> getData() {
+    static {
         try (BufferedReader b = new BufferedReader(new InputStreamReader(BlackBodyColor.class.getResourceAsStream(BBR_COLOR_PATH), Charset.forName(ENCODING)))) {
-            Map<Integer, String> data = new HashMap<Integer, String>();
             b.lines().filter(s -> !s.startsWith("#") && s.contains("10deg"))
                      .forEachOrdered(s -> {
                          String [] str = s.stripLeading().split("\\s+");
-                         data.put(Integer.parseInt(str[0]), str[12]);
+                         int bucket = (Integer.parseInt(str[0]) - MIN_TEMPERATURE) / TEMPERATURE_STEP;
+                         int rgb = Integer.parseInt(str[12].substring(1), 16);
+                         ARGB_TABLE[bucket] = OPAQUE | rgb;
+                         COLOR_TABLE[bucket] = Color.rgb((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
                      });
-            return Collections.unmodifiableMap(data);
         }      
         catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -58,9 +64,26 @@ public class BlackBodyColor {
      * @return Color (color)
      */
     public static Color ofTemperature(double temperature) {
+        return COLOR_TABLE[bucket(temperature)];
+    }
+    
+    /**
+     * Returns the color of a given temperature as ofTemperature, packed in an int (0xAARRGGBB, opaque).
+     * Throws IAE if the temperature is not inside the interval [950, 40049].
+     * 
+     * @throws IllegalArgumentException 
+     * @param double (temperature)
+     * @return int (argb)
+     */
+    public static int argbOfTemperature(double temperature) {
+        return ARGB_TABLE[bucket(temperature)];
+    }
+    
+    //Index of the temperature rounded to the closest hundred in the tables
+    private static int bucket(double temperature) {
         int truncated = (int) checkInInterval(LEGAL_TEMPERATURES, temperature);
-        int shift = truncated % 100;
-        int value = (shift >= 50) ? (truncated + (100 - shift)) : (truncated - shift);
-        return Color.web(DATA_MAP.get(value));
+        int shift = truncated % TEMPERATURE_STEP;
+        int value = (shift >= TEMPERATURE_STEP / 2) ? (truncated + (TEMPERATURE_STEP - shift)) : (truncated - shift);
+        return (value - MIN_TEMPERATURE) / TEMPERATURE_STEP;
     }
 }
\ No newline at end of file
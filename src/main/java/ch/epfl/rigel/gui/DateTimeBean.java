@@ -5,6 +5,7 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
@@ -20,6 +21,19 @@ public final class DateTimeBean {
     private final ObjectProperty<LocalDate> dateProperty = new SimpleObjectProperty<>(null);
     private final ObjectProperty<LocalTime> timeProperty = new SimpleObjectProperty<>(null);
     private final ObjectProperty<ZoneId> zoneProperty = new SimpleObjectProperty<>(null);
+    //Cached combination of the three properties, null when it must be recomputed
+    private ZonedDateTime zonedDateTime = null;
+    private long epochMillis;
+    
+    /**
+     * Default constructor of a DateTimeBean. Its properties are initially null.
+     */
+    public DateTimeBean() {
+        InvalidationListener invalidator = o -> zonedDateTime = null;
+        dateProperty.addListener(invalidator);
+        timeProperty.addListener(invalidator);
+        zoneProperty.addListener(invalidator);
+    }
             
     /**
      * Returns the property containing the date.
@@ -104,11 +118,26 @@ public final class DateTimeBean {
     
     /**
      * Getter of the date, time and zone in the form of a ZonedDateTime instance.
+     * The instance is only built again after a change of the properties.
      * 
      * @return ZonedDateTime (zdt)
      */
     public ZonedDateTime getZonedDateTime() {
-        return ZonedDateTime.of(dateProperty.get(), timeProperty.get(), zoneProperty.get());
+        if(zonedDateTime == null) {
+            zonedDateTime = ZonedDateTime.of(dateProperty.get(), timeProperty.get(), zoneProperty.get());
+            epochMillis = zonedDateTime.toInstant().toEpochMilli();
+        }
+        return zonedDateTime;
+    }
+    
+    /**
+     * Getter of the date, time and zone in the form of a number of milliseconds since 1970-01-01T00:00Z.
+     * 
+     * @return long (epochMillis)
+     */
+    public long getEpochMillis() {
+        getZonedDateTime();
+        return epochMillis;
     }
     
     /**
@@ -1,16 +1,26 @@
 package ch.epfl.rigel.gui;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.function.UnaryOperator;
 
 import ch.epfl.rigel.astronomy.AsterismLoader;
+import ch.epfl.rigel.astronomy.Atmosphere;
 import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.MinorBodyCatalogue;
+import ch.epfl.rigel.astronomy.MpcOrbitLoader;
+import ch.epfl.rigel.astronomy.ObservedSkyCache;
+import ch.epfl.rigel.astronomy.SatelliteCatalogue;
+import ch.epfl.rigel.astronomy.Sgp4Propagator;
 import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.TleLoader;
 import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import javafx.application.Application;
@@ -32,7 +42,6 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.Pane;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.text.Font;
@@ -60,6 +69,11 @@ public final class Main extends Application {
     private final static String AST_DATA = "/asterisms.txt";
     private final static String SOUND_MUTED_STRING = "\uf6a9";
     private final static String SOUND_ENABLED_STRING = "\uf028";
+    //Optional files of orbital elements of the Minor Planet Center, given as --asteroids=<file> and --comets=<file>
+    private final static String ASTEROIDS_PARAMETER = "asteroids";
+    private final static String COMETS_PARAMETER = "comets";
+    private final static String SATELLITES_PARAMETER = "satellites";
+    private final static double MAX_MINOR_BODY_MAGNITUDE = 10;
     
     //Initial Parameters
     private final static ZonedDateTime INIT_WHEN = ZonedDateTime.now();
@@ -71,11 +85,15 @@ public final class Main extends Application {
     private final static int MIN_WIDTH = 800;
     private final static int MIN_HEIGHT = 600;
     private final static NamedTimeAccelerator INIT_ACC = NamedTimeAccelerator.TIMES_30;
+    private final static NamedProjection INIT_PROJECTION = NamedProjection.STEREOGRAPHIC;
     private final static int FONT_SIZE = 15;
     private final static boolean INITIAL_ASTERISMS_ON = true;
     private final static boolean INITIAL_GRID_ON = false;
     private final static boolean INITIAL_TRACKER_ON = false;
+    private final static boolean INITIAL_STARS_RASTERIZED = false;
     private final static double VOLUME_VALUE = 0.15;
+    private final static double INIT_TEMPERATURE = 10;
+    private final static double INIT_PRESSURE = 1010;
     
     /**
      * Launches the program.
@@ -94,6 +112,43 @@ public final class Main extends Application {
         return getClass().getResourceAsStream(resourceName);
     }
 
+    /**
+     * Private method loading the minor bodies of the files given as named parameters of the program.
+     * @return MinorBodyCatalogue (minorBodies)
+     * @throws IOException
+     */
+    private MinorBodyCatalogue minorBodies() throws IOException {
+        Map<String, String> parameters = getParameters().getNamed();
+        MinorBodyCatalogue.Builder builder = new MinorBodyCatalogue.Builder();
+        if(parameters.containsKey(ASTEROIDS_PARAMETER)) {
+            try(InputStream s = new FileInputStream(parameters.get(ASTEROIDS_PARAMETER))) {
+                builder.loadFrom(s, MpcOrbitLoader.ASTEROIDS);
+            }
+        }
+        if(parameters.containsKey(COMETS_PARAMETER)) {
+            try(InputStream s = new FileInputStream(parameters.get(COMETS_PARAMETER))) {
+                builder.loadFrom(s, MpcOrbitLoader.COMETS);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Private method loading the satellites of the TLE file given as named parameter of the program.
+     * @return SatelliteCatalogue (satellites)
+     * @throws IOException
+     */
+    private SatelliteCatalogue satellites() throws IOException {
+        Map<String, String> parameters = getParameters().getNamed();
+        SatelliteCatalogue.Builder builder = new SatelliteCatalogue.Builder();
+        if(parameters.containsKey(SATELLITES_PARAMETER)) {
+            try(InputStream s = new FileInputStream(parameters.get(SATELLITES_PARAMETER))) {
+                builder.loadFrom(s, TleLoader.INSTANCE);
+            }
+        }
+        return builder.build();
+    }
+
     /**
      * Effectively starts the JavaFX program.
      */
@@ -119,21 +174,24 @@ public final class Main extends Application {
             ViewingParametersBean viewingParametersBean = new ViewingParametersBean();
             viewingParametersBean.setCenter(INIT_SKY_WHERE);
             viewingParametersBean.setFieldOfViewDeg(INIT_POV);
+            viewingParametersBean.setProjection(INIT_PROJECTION);
             
             UsersParametersBean bonusParametersBean = new UsersParametersBean();
             bonusParametersBean.setAsterismsOn(INITIAL_ASTERISMS_ON);
             bonusParametersBean.setGridOn(INITIAL_GRID_ON);
             bonusParametersBean.setTrackerOn(INITIAL_TRACKER_ON);
+            bonusParametersBean.setStarsRasterized(INITIAL_STARS_RASTERIZED);
+            bonusParametersBean.setTemperature(INIT_TEMPERATURE);
+            bonusParametersBean.setPressure(INIT_PRESSURE);
     
             TimeAnimator timeAnimator = new TimeAnimator(dateTimeBean);            
-            SkyCanvasManager canvasManager = new SkyCanvasManager(catalogue, dateTimeBean, observerLocationBean, viewingParametersBean, bonusParametersBean);
+            ObservedSkyCache skyCache = new ObservedSkyCache.Builder(catalogue).setMinorBodies(minorBodies(), MAX_MINOR_BODY_MAGNITUDE)
+                                                                    .setAtmosphere(Atmosphere.of(INIT_TEMPERATURE, INIT_PRESSURE)).build();
+            SkyCanvasManager canvasManager = new SkyCanvasManager(skyCache, new Sgp4Propagator(satellites()), dateTimeBean, observerLocationBean, viewingParametersBean, bonusParametersBean);
             
             primaryStage.setTitle(PROJECT_NAME);
             Canvas sky = canvasManager.canvas();
-            Pane canvasPane = new Pane(sky);
-            sky.widthProperty().bind(canvasPane.widthProperty());
-            sky.heightProperty().bind(canvasPane.heightProperty());    
-            BorderPane root = new BorderPane(canvasPane, controlBar(observerLocationBean, dateTimeBean, bonusParametersBean, timeAnimator, fontAwesome, player), null, infoBar(viewingParametersBean, canvasManager), null);                        
+            BorderPane root = new BorderPane(canvasManager.pane(), controlBar(observerLocationBean, dateTimeBean, viewingParametersBean, bonusParametersBean, timeAnimator, fontAwesome, player), null, infoBar(viewingParametersBean, canvasManager), null);                        
             
             primaryStage.setMinWidth(MIN_WIDTH);
             primaryStage.setMinHeight(MIN_HEIGHT);
@@ -153,28 +211,32 @@ public final class Main extends Application {
      * Private method creating the HBox controller of the program.
      * @param ObserverLocationBean (olb)
      * @param DateTimeBean (dtb)
+     * @param ViewingParametersBean (vpb)
      * @param BonusParametersBean (bpb)
      * @param TimeAnimator (timeAnimator)
      * @param Font (font)
      * @return HBox (controlBar)
      */
-    private static HBox controlBar(ObserverLocationBean olb, DateTimeBean dtb, UsersParametersBean upb, TimeAnimator timeAnimator, Font font, MediaPlayer player) {        
+    private static HBox controlBar(ObserverLocationBean olb, DateTimeBean dtb, ViewingParametersBean vpb, UsersParametersBean upb, TimeAnimator timeAnimator, Font font, MediaPlayer player) {        
         Separator verticalSeparator1 = new Separator(Orientation.VERTICAL);
         Separator verticalSeparator2 = new Separator(Orientation.VERTICAL);
         Separator verticalSeparator3 = new Separator(Orientation.VERTICAL);
-        HBox controlBar = new HBox(observerPos(olb), verticalSeparator1, observerTime(dtb, timeAnimator), verticalSeparator2, timeAcc(dtb, timeAnimator, font), verticalSeparator3, bonusControl(upb, player, font));
+        Separator verticalSeparator4 = new Separator(Orientation.VERTICAL);
+        HBox controlBar = new HBox(observerPos(olb), verticalSeparator1, observerTime(dtb, timeAnimator), verticalSeparator2, timeAcc(dtb, timeAnimator, font), verticalSeparator3, bonusControl(vpb, upb, player, font),
+                verticalSeparator4, atmosphereControl(upb));
         controlBar.setStyle("-fx-spacing: 4; -fx-padding: 4;");
         return controlBar;
     }
     
     /**
      * Private method creating the HBox controlling all the graphic and sound options.
+     * @param ViewingParametersBean (vpb)
      * @param BonusParametersBean (bpb)
      * @param MediaPlayer (player)
      * @param Font (font)
      * @return HBox (bonusControl)
      */
-    private static HBox bonusControl(UsersParametersBean upb, MediaPlayer player, Font font) {
+    private static HBox bonusControl(ViewingParametersBean vpb, UsersParametersBean upb, MediaPlayer player, Font font) {
         Label asterismsLabel = new Label("Astérismes : ");
         CheckBox asterismsCheckBox = new CheckBox();
         asterismsCheckBox.setSelected(INITIAL_ASTERISMS_ON);
@@ -185,6 +247,16 @@ public final class Main extends Application {
         gridCheckBox.setSelected(INITIAL_GRID_ON);
         gridCheckBox.setStyle("-fx-spacing: 4; -fx-padding: 4;");
         upb.gridOnProperty().bind(gridCheckBox.selectedProperty());
+        Label rasterLabel = new Label("Rendu rapide : ");
+        CheckBox rasterCheckBox = new CheckBox();
+        rasterCheckBox.setSelected(INITIAL_STARS_RASTERIZED);
+        rasterCheckBox.setStyle("-fx-spacing: 4; -fx-padding: 4;");
+        upb.starsRasterizedProperty().bind(rasterCheckBox.selectedProperty());
+        Label projectionLabel = new Label("Projection : ");
+        ChoiceBox<NamedProjection> projectionBox = new ChoiceBox<>();
+        projectionBox.setItems(FXCollections.observableArrayList(NamedProjection.values()));
+        projectionBox.setValue(INIT_PROJECTION);
+        vpb.projectionProperty().bind(projectionBox.valueProperty());
         Button musicButton = new Button(SOUND_ENABLED_STRING);
         musicButton.setFont(font);
         musicButton.setOnAction(e -> {
@@ -197,11 +269,36 @@ public final class Main extends Application {
             }
         });
         Separator verticalSeparator = new Separator(Orientation.VERTICAL);
-        HBox graphicsControl = new HBox(asterismsLabel, asterismsCheckBox, gridLabel, gridCheckBox, verticalSeparator, musicButton);
+        HBox graphicsControl = new HBox(asterismsLabel, asterismsCheckBox, gridLabel, gridCheckBox, rasterLabel, rasterCheckBox, projectionLabel, projectionBox, verticalSeparator, musicButton);
         graphicsControl.setStyle("-fx-spacing: inherit; -fx-alignment: baseline-left;");
         return graphicsControl;
     }
     
+    /**
+     * Private method creating the HBox controlling the temperature and the pressure of the atmosphere.
+     * @param BonusParametersBean (bpb)
+     * @return HBox (atmosphereControl)
+     */
+    private static HBox atmosphereControl(UsersParametersBean upb) {
+        TextFormatter<Number> temperatureTextFormatter = FilterType.TEMPERATURE.createTextFormatter();
+        temperatureTextFormatter.setValue(INIT_TEMPERATURE);
+        upb.temperatureProperty().bind(temperatureTextFormatter.valueProperty());
+        TextFormatter<Number> pressureTextFormatter = FilterType.PRESSURE.createTextFormatter();
+        pressureTextFormatter.setValue(INIT_PRESSURE);
+        upb.pressureProperty().bind(pressureTextFormatter.valueProperty());
+        TextField temperatureTextField = new TextField();
+        TextField pressureTextField = new TextField();
+        temperatureTextField.setTextFormatter(temperatureTextFormatter);
+        pressureTextField.setTextFormatter(pressureTextFormatter);
+        temperatureTextField.setStyle("-fx-pref-width: 60; -fx-alignment: baseline-right;");
+        pressureTextField.setStyle("-fx-pref-width: 70; -fx-alignment: baseline-right;");
+        Label temperatureLabel = new Label("Température (°C) : ");
+        Label pressureLabel = new Label("Pression (hPa) : ");
+        HBox atmosphereControl = new HBox(temperatureLabel, temperatureTextField, pressureLabel, pressureTextField);
+        atmosphereControl.setStyle("-fx-spacing: inherit; -fx-alignment: baseline-left;");
+        return atmosphereControl;
+    }
+    
     /**
      * Private method creating the HBox controlling the observer position.
      * @param ObserverLocationBean (olb)
@@ -320,7 +417,7 @@ public final class Main extends Application {
      */
     private enum FilterType {
         
-        LON, LAT;
+        LON, LAT, TEMPERATURE, PRESSURE;
    
         private final static NumberStringConverter STRING_CONVERTER = new NumberStringConverter("#0.00");
 
@@ -339,6 +436,10 @@ public final class Main extends Application {
                         return GeographicCoordinates.isValidLonDeg(newValue) ? change : null;
                     case LAT:
                         return GeographicCoordinates.isValidLatDeg(newValue) ? change : null;
+                    case TEMPERATURE:
+                        return Atmosphere.isValidTemperature(newValue) ? change : null;
+                    case PRESSURE:
+                        return Atmosphere.isValidPressure(newValue) ? change : null;
                     default:
                         return null;
                     }
@@ -0,0 +1,64 @@
+package ch.epfl.rigel.gui;
+
+import java.util.function.Function;
+
+import ch.epfl.rigel.coordinates.AzimuthalEquidistantProjection;
+import ch.epfl.rigel.coordinates.GnomonicProjection;
+import ch.epfl.rigel.coordinates.HammerAitoffProjection;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.OrthographicProjection;
+import ch.epfl.rigel.coordinates.Projection;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+/**
+ * A NamedProjection enum.
+ * 
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public enum NamedProjection {
+
+    STEREOGRAPHIC("stéréographique", StereographicProjection::new),
+    GNOMONIC("gnomonique", GnomonicProjection::new),
+    ORTHOGRAPHIC("orthographique", OrthographicProjection::new),
+    AZIMUTHAL_EQUIDISTANT("azimutale équidistante", AzimuthalEquidistantProjection::new),
+    HAMMER_AITOFF("Hammer-Aitoff", HammerAitoffProjection::new);
+    
+    private final String name;
+    private final Function<HorizontalCoordinates, Projection> factory;
+    
+    private NamedProjection(String name, Function<HorizontalCoordinates, Projection> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+    
+    /**
+     * Returns the name of the NamedProjection.
+     * 
+     * @return (String) name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Returns the projection of the NamedProjection centered in the given HorizontalCoordinates.
+     * 
+     * @param HorizontalCoordinates (center)
+     * @return (Projection) projection
+     */
+    public Projection centeredAt(HorizontalCoordinates center) {
+        return factory.apply(center);
+    }
+    
+    @Override
+    /**
+     * Redefinition of the toString method :
+     * Returns the name of the NamedProjection.
+     * 
+     * @return (String) name
+     */
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,138 @@
+package ch.epfl.rigel.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.epfl.rigel.astronomy.Atmosphere;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.ObservedSkyCache;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.Projection;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+/**
+ * An Asynchronous Computer Of ObservedSky.
+ * The skies are fully computed on a background thread from an immutable snapshot (moment, position and projection).
+ * Only the result of the latest request is published (on the JavaFX thread), superseded requests are cancelled
+ * if they did not start yet and dropped otherwise.
+ * The skies are obtained through an ObservedSkyCache, so that going back to a recent moment or view is immediate.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ObservedSkyComputer {
+
+    private final static String THREAD_NAME = "rigel-observed-sky";
+
+    private final ObservedSkyCache cache;
+    private final ExecutorService executor;
+    private final AtomicLong latestRequest = new AtomicLong(0);
+    private final ReadOnlyObjectWrapper<ObservedSky> observedSkyProperty;
+    private Future<?> pendingRequest;
+
+    /**
+     * Default constructor of an ObservedSkyComputer. The initial ObservedSky is computed synchronously
+     * from the given moment (in milliseconds since 1970-01-01T00:00Z), position (GeographicCoordinates) and projection (Projection),
+     * so that the property never contains null.
+     *
+     * @param ObservedSkyCache (cache)
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @param Projection (projection)
+     */
+    public ObservedSkyComputer(ObservedSkyCache cache, long epochMillis, GeographicCoordinates where, Projection projection) {
+        this.cache = cache;
+        this.observedSkyProperty = new ReadOnlyObjectWrapper<>(cache.get(epochMillis, where, projection).computeAll());
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, THREAD_NAME);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates an ObservedSkyComputer using a cache with the default parameters for the given StarCatalogue.
+     *
+     * @param StarCatalogue (catalogue)
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @param Projection (projection)
+     */
+    public ObservedSkyComputer(StarCatalogue catalogue, long epochMillis, GeographicCoordinates where, Projection projection) {
+        this(new ObservedSkyCache.Builder(catalogue).build(), epochMillis, where, projection);
+    }
+
+    /**
+     * Requests the computation of the ObservedSky for the given snapshot. Must be called on the JavaFX thread.
+     * Any previous request still waiting is cancelled, and the result of a previous request still running
+     * will not be published.
+     *
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @param Projection (projection)
+     */
+    public void request(long epochMillis, GeographicCoordinates where, Projection projection) {
+        request(epochMillis, where, projection, cache.atmosphere());
+    }
+
+    /**
+     * Requests the computation of the ObservedSky for the given snapshot, seen through the given Atmosphere.
+     * Must be called on the JavaFX thread (see request(long, GeographicCoordinates, Projection)).
+     *
+     * @param long (epochMillis)
+     * @param GeographicCoordinates (where)
+     * @param Projection (projection)
+     * @param Atmosphere (atmosphere)
+     */
+    public void request(long epochMillis, GeographicCoordinates where, Projection projection, Atmosphere atmosphere) {
+        if(executor.isShutdown()) return;
+        long id = latestRequest.incrementAndGet();
+        if(pendingRequest != null) pendingRequest.cancel(false);
+        pendingRequest = executor.submit(() -> {
+            if(id != latestRequest.get()) return; //Superseded while waiting
+            ObservedSky sky = cache.get(epochMillis, where, projection, atmosphere).computeAll(); //Nothing left to compute on the JavaFX thread
+            Platform.runLater(() -> {
+                if(id == latestRequest.get()) observedSkyProperty.set(sky);
+            });
+        });
+    }
+
+    /**
+     * Returns the property containing the latest computed ObservedSky.
+     *
+     * @return ReadOnlyObjectProperty<ObservedSky> (observedSkyProperty)
+     */
+    public ReadOnlyObjectProperty<ObservedSky> observedSkyProperty() {
+        return observedSkyProperty.getReadOnlyProperty();
+    }
+
+    /**
+     * ObservedSky getter.
+     *
+     * @return ObservedSky (currentSky)
+     */
+    public ObservedSky getObservedSky() {
+        return observedSkyProperty.get();
+    }
+
+    /**
+     * Returns the cache used to obtain the skies.
+     *
+     * @return ObservedSkyCache (cache)
+     */
+    public ObservedSkyCache cache() {
+        return cache;
+    }
+
+    /**
+     * Stops the background thread. Requests made afterwards are ignored.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,28 +2,40 @@ package ch.epfl.rigel.gui;
 
 import java.util.Optional;
 
+import ch.epfl.rigel.astronomy.Atmosphere;
 import ch.epfl.rigel.astronomy.CelestialObject;
 import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.ObservedSkyCache;
+import ch.epfl.rigel.astronomy.SatelliteCatalogue;
+import ch.epfl.rigel.astronomy.Sgp4Propagator;
 import ch.epfl.rigel.astronomy.StarCatalogue;
 import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
-import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.coordinates.Projection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
 import javafx.scene.transform.Transform;
 
 
 /**
  * A Sky Canvas Manager.
+ * The sky is drawn on four stacked canvases, each repainted only when its own inputs change : the celestial objects
+ * (at the bottom, on a black background), the satellites, the horizon and the grid, and the interactive overlays
+ * (the tracker and the highlight of the object under the mouse, at the top, receiving the events). Moving the mouse
+ * thus only repaints the overlays, and a frame of the animation whose sky is cached only repaints the satellites.
  * 
  * @author Paul Guillon (314517)
  * @author Alexis Schlomer (315616)
@@ -40,14 +52,35 @@ public final class SkyCanvasManager {
     
     //Drawing Properties
     private final UsersParametersBean upb;
-    //The canvas and its painter
+    private final DateTimeBean dtb;
+    private final ObserverLocationBean olb;
+    //The layers, from the bottom to the top, and their painters
+    private final Canvas skyCanvas = new Canvas(800, 600);
+    private final Canvas satelliteCanvas = new Canvas(800, 600);
+    private final Canvas gridCanvas = new Canvas(800, 600);
     private final Canvas canvas = new Canvas(800, 600);
-    private final SkyCanvasPainter painter = new SkyCanvasPainter(canvas);
+    private final Pane pane = new Pane(skyCanvas, satelliteCanvas, gridCanvas, canvas);
+    private final SkyCanvasPainter skyPainter = new SkyCanvasPainter(skyCanvas);
+    private final SkyCanvasPainter satellitePainter = new SkyCanvasPainter(satelliteCanvas);
+    private final SkyCanvasPainter gridPainter = new SkyCanvasPainter(gridCanvas);
+    private final SkyCanvasPainter overlayPainter = new SkyCanvasPainter(canvas);
+    //Projection of the last drawing of the grid layer
+    private Projection gridProjection = null;
     
     //Main Properties
-    private final ObjectBinding<StereographicProjection> projectionProperty;
+    private final ObjectBinding<Projection> projectionProperty;
     private final ObjectBinding<Transform> planeToCanvasProperty;
-    private final ObjectBinding<ObservedSky> observedSkyProperty;   
+    private final ObjectBinding<Atmosphere> atmosphereProperty;
+    private final ObservedSkyComputer skyComputer;
+    private final ReadOnlyObjectProperty<ObservedSky> observedSkyProperty;
+    private boolean skyRequestScheduled = false;
+    //Satellites, propagated at each frame into reused arrays
+    private final Sgp4Propagator satellites;
+    private final double[] satellitePositions;
+    private final boolean[] satellitesIlluminated;
+    private long satellitesEpochMillis = Long.MIN_VALUE;
+    private double satellitesLon = Double.NaN;
+    private double satellitesLat = Double.NaN;
     //Mouse
     private final ObjectProperty<Point2D> mousePositionProperty = new SimpleObjectProperty<>(new Point2D(0, 0));
     private final ObjectBinding<HorizontalCoordinates> mouseHorizontalPositionProperty;
@@ -68,18 +101,69 @@ public final class SkyCanvasManager {
      * @param BonusParametersBean (bpb)
      */
     public SkyCanvasManager(StarCatalogue catalogue, DateTimeBean dtb, ObserverLocationBean olb, ViewingParametersBean vpb, UsersParametersBean upb) {
+        this(new ObservedSkyCache.Builder(catalogue).build(), dtb, olb, vpb, upb);
+    }
+    
+    /**
+     * Creates a SkyCanvasManager whose skies are obtained through the given ObservedSkyCache (e.g. one containing
+     * minor bodies), given a DateTimeBean, an ObserverLocationBean, a ViewingParametersBean and a BonusParametersBean.
+     * 
+     * @param ObservedSkyCache (cache)
+     * @param DateTimeBean (dtb)
+     * @param ObserverLocationBean (olb)
+     * @param ViewingParametersBean (vpb)
+     * @param BonusParametersBean (bpb)
+     */
+    public SkyCanvasManager(ObservedSkyCache cache, DateTimeBean dtb, ObserverLocationBean olb, ViewingParametersBean vpb, UsersParametersBean upb) {
+        this(cache, new Sgp4Propagator(new SatelliteCatalogue.Builder().build()), dtb, olb, vpb, upb);
+    }
+    
+    /**
+     * Creates a SkyCanvasManager whose skies are obtained through the given ObservedSkyCache, and drawing the
+     * satellites of the given Sgp4Propagator, given a DateTimeBean, an ObserverLocationBean, a ViewingParametersBean
+     * and a BonusParametersBean. The satellites are propagated at each drawing, outside of the cache, so that they
+     * move at every frame of the animation.
+     * 
+     * @param ObservedSkyCache (cache)
+     * @param Sgp4Propagator (satellites)
+     * @param DateTimeBean (dtb)
+     * @param ObserverLocationBean (olb)
+     * @param ViewingParametersBean (vpb)
+     * @param BonusParametersBean (bpb)
+     */
+    public SkyCanvasManager(ObservedSkyCache cache, Sgp4Propagator satellites, DateTimeBean dtb, ObserverLocationBean olb, ViewingParametersBean vpb, UsersParametersBean upb) {
         //Main Bindings
         this.upb = upb;
-        this.projectionProperty = Bindings.createObjectBinding(() -> new StereographicProjection(vpb.centerProperty().get()) , vpb.centerProperty());
+        this.dtb = dtb;
+        this.olb = olb;
+        this.satellites = satellites;
+        this.satellitePositions = new double[2*satellites.size()];
+        this.satellitesIlluminated = new boolean[satellites.size()];
+        for(Canvas layer : new Canvas[] {skyCanvas, satelliteCanvas, gridCanvas, canvas}) {
+            layer.widthProperty().bind(pane.widthProperty());
+            layer.heightProperty().bind(pane.heightProperty());
+        }
+        skyCanvas.setMouseTransparent(true);
+        satelliteCanvas.setMouseTransparent(true);
+        gridCanvas.setMouseTransparent(true);
+        this.projectionProperty = Bindings.createObjectBinding(() -> vpb.getProjection().centeredAt(vpb.getCenter()), vpb.centerProperty(), vpb.projectionProperty());
         this.planeToCanvasProperty = Bindings.createObjectBinding(() -> {
                 int dilatation = (int) (canvas.widthProperty().get() / projectionProperty.get().applyToAngle(Angle.ofDeg(vpb.fieldOfViewDegProperty().get())));
                 Transform t = Transform.affine(dilatation, 0, 0, -dilatation, canvas.widthProperty().get() / 2, canvas.heightProperty().get() / 2);
                 if(t.determinant() == 0) return DEFAULT_DEBUG_TRANS;
                 return t;
             }, canvas.widthProperty(), canvas.heightProperty(), vpb.fieldOfViewDegProperty(), projectionProperty);
-        this.observedSkyProperty = Bindings.createObjectBinding(() -> new ObservedSky(dtb.getZonedDateTime(),
-                olb.coordinatesProperty().get(), projectionProperty.get(), catalogue), dtb.dateProperty(), dtb.timeProperty(), dtb.zoneProperty(),
-                olb.coordinatesProperty(), projectionProperty);
+        this.atmosphereProperty = Bindings.createObjectBinding(() -> Atmosphere.of(upb.getTemperature(), upb.getPressure()), upb.temperatureProperty(), upb.pressureProperty());
+        this.skyComputer = new ObservedSkyComputer(cache, dtb.getEpochMillis(), olb.getCoordinates(), projectionProperty.get());
+        this.observedSkyProperty = skyComputer.observedSkyProperty();
+        //The initial sky is the one of the atmosphere of the cache, replaced by the one of the bean
+        skyComputer.request(dtb.getEpochMillis(), olb.getCoordinates(), projectionProperty.get(), atmosphereProperty.get());
+        dtb.dateProperty().addListener(o -> requestSky(dtb, olb));
+        dtb.timeProperty().addListener(o -> requestSky(dtb, olb));
+        dtb.zoneProperty().addListener(o -> requestSky(dtb, olb));
+        olb.coordinatesProperty().addListener(o -> requestSky(dtb, olb));
+        projectionProperty.addListener(o -> requestSky(dtb, olb));
+        atmosphereProperty.addListener(o -> requestSky(dtb, olb));
         //Mouse Bindings
         this.canvas.setOnMouseMoved(e -> {
             if(canvas.isHover()) mousePositionProperty.set(new Point2D(e.getX(), e.getY()));  
@@ -93,14 +177,30 @@ public final class SkyCanvasManager {
         this.mouseAltDegProperty = Bindings.createDoubleBinding(() -> mouseHorizontalPositionProperty.get().altDeg(), mouseHorizontalPositionProperty);
         this.objectUnderMouseProperty = Bindings.createObjectBinding(() -> observedSkyProperty.get().objectClosestTo(mouseCartesianPositionProperty.get(), DISTANCE_DET), 
                 mouseCartesianPositionProperty, observedSkyProperty);
-        this.planeToCanvasProperty.addListener(o -> drawSky());
-        this.observedSkyProperty.addListener(o -> drawSky());
+        //A new center of projection gives a new transform of the same scale and translation, drawn when the sky arrives
+        this.planeToCanvasProperty.addListener((o, oldTransform, newTransform) -> {
+            if(sameTransform(oldTransform, newTransform)) return;
+            drawSky();
+            drawSatellites();
+            drawGrid();
+            drawOverlays();
+        });
+        this.observedSkyProperty.addListener(o -> {
+            drawSky();
+            drawSatellites();
+            //The grid only depends on the projection of the sky (compared by identity), which does not change with the time
+            if(observedSkyProperty.get().projection() != gridProjection) drawGrid();
+            drawOverlays();
+        });
         this.upb.asterismsOnProperty().addListener(o -> drawSky());
-        this.upb.gridOnProperty().addListener(o -> drawSky());
-        this.upb.trackerOnProperty().addListener(o -> drawSky());
+        this.upb.starsRasterizedProperty().addListener(o -> drawSky());
+        this.upb.gridOnProperty().addListener(o -> drawGrid());
+        this.upb.trackerOnProperty().addListener(o -> drawOverlays());
         this.mouseHorizontalPositionProperty.addListener(o -> {
-            if(upb.isTrackerOn()) drawSky();
+            if(upb.isTrackerOn()) drawOverlays();
         });
+        //Only when the object under the mouse changes
+        this.objectUnderMouseProperty.addListener((o, oldObject, newObject) -> drawOverlays());
        //Movement Interaction
         this.canvas.setOnMouseClicked(e -> {
                 if(e.getButton() == MouseButton.PRIMARY) canvas.requestFocus();
@@ -181,7 +281,7 @@ public final class SkyCanvasManager {
     } 
     
     /**
-     * Canvas getter.
+     * Canvas getter : the top layer, receiving the events of the mouse and of the keyboard.
      * 
      * @return Canvas (canvas)
      */
@@ -190,16 +290,102 @@ public final class SkyCanvasManager {
     }
     
     /**
-     * Private method drawing the full sky in the right order. With asterims or not, according to the values inside the bean.
+     * Returns the Pane stacking the layers, whose size is the one of all of them.
+     * 
+     * @return Pane (pane)
+     */
+    public Pane pane() {
+        return pane;
+    }
+    
+    /**
+     * Private method scheduling a new sky computation. The snapshot of the beans is taken once
+     * the current event has been handled, so that successive changes (e.g. the date, time and zone set by the TimeAnimator)
+     * produce a single consistent request.
+     * @param DateTimeBean (dtb)
+     * @param ObserverLocationBean (olb)
+     */
+    private void requestSky(DateTimeBean dtb, ObserverLocationBean olb) {
+        if(skyRequestScheduled) return;
+        skyRequestScheduled = true;
+        Platform.runLater(() -> {
+            skyRequestScheduled = false;
+            skyComputer.request(dtb.getEpochMillis(), olb.getCoordinates(), projectionProperty.get(), atmosphereProperty.get());
+            //The cached sky may not change at each frame, but the satellites do : only their layer is repainted
+            drawSatellites();
+        });
+    }
+
+    /**
+     * Private method comparing two affine transforms by their coefficients.
+     * @param Transform (t1)
+     * @param Transform (t2)
+     * @return boolean (same)
+     */
+    private static boolean sameTransform(Transform t1, Transform t2) {
+        return t1.getMxx() == t2.getMxx() && t1.getMxy() == t2.getMxy() && t1.getTx() == t2.getTx()
+                && t1.getMyx() == t2.getMyx() && t1.getMyy() == t2.getMyy() && t1.getTy() == t2.getTy();
+    }
+
+    /**
+     * Private method propagating the satellites to the current moment and position of the beans, if they changed
+     * since the last propagation.
+     */
+    private void updateSatellites() {
+        long epochMillis = dtb.getEpochMillis();
+        GeographicCoordinates where = olb.getCoordinates();
+        if(epochMillis == satellitesEpochMillis && where.lon() == satellitesLon && where.lat() == satellitesLat) return;
+        satellites.horizontalPositions(epochMillis, where, satellitePositions, satellitesIlluminated, true);
+        satellitesEpochMillis = epochMillis;
+        satellitesLon = where.lon();
+        satellitesLat = where.lat();
+    }
+
+    /**
+     * Private method drawing the celestial objects of the sky in the right order. With asterims or not, according to the values inside the bean.
      */
     private void drawSky() {
-        painter.clear();
-        painter.drawStarsAndAsterisms(observedSkyProperty.getValue(), planeToCanvasProperty.getValue(), upb.isAsterismsOn());
-        painter.drawPlanets(observedSkyProperty.getValue(), planeToCanvasProperty.getValue());
-        painter.drawSun(observedSkyProperty.getValue(), planeToCanvasProperty.getValue());
-        painter.drawMoon(observedSkyProperty.getValue(), planeToCanvasProperty.getValue());
-        painter.drawHorizon(observedSkyProperty.getValue(), planeToCanvasProperty.getValue());
-        if(upb.isGridOn()) painter.drawGrid(observedSkyProperty.getValue(), planeToCanvasProperty.getValue());
-        if(upb.isTrackerOn()) painter.drawTracker(observedSkyProperty.getValue(), planeToCanvasProperty.getValue(), mouseHorizontalPositionProperty.get());
+        ObservedSky sky = observedSkyProperty.getValue();
+        Transform planeToCanvas = planeToCanvasProperty.getValue();
+        skyPainter.clear();
+        if(upb.isStarsRasterized()) skyPainter.rasterizeStarsAndAsterisms(sky, planeToCanvas, upb.isAsterismsOn());
+        else skyPainter.drawStarsAndAsterisms(sky, planeToCanvas, upb.isAsterismsOn());
+        skyPainter.drawPlanets(sky, planeToCanvas);
+        skyPainter.drawMinorBodies(sky, planeToCanvas);
+        skyPainter.drawSun(sky, planeToCanvas);
+        skyPainter.drawMoon(sky, planeToCanvas);
+    }
+    
+    /**
+     * Private method drawing the satellites, propagated to the current moment and position of the beans, with the
+     * projection of the current sky.
+     */
+    private void drawSatellites() {
+        if(satellites.size() == 0) return;
+        updateSatellites();
+        satellitePainter.erase();
+        satellitePainter.drawSatellites(observedSkyProperty.getValue(), satellitePositions, satellitesIlluminated, satellites.size(), planeToCanvasProperty.getValue());
+    }
+    
+    /**
+     * Private method drawing the horizon, and the grid according to the value inside the bean.
+     */
+    private void drawGrid() {
+        ObservedSky sky = observedSkyProperty.getValue();
+        gridPainter.erase();
+        gridPainter.drawHorizon(sky, planeToCanvasProperty.getValue());
+        if(upb.isGridOn()) gridPainter.drawGrid(sky, planeToCanvasProperty.getValue());
+        gridProjection = sky.projection();
+    }
+    
+    /**
+     * Private method drawing the interactive overlays : the tracker according to the value inside the bean, and the
+     * highlight of the object under the mouse.
+     */
+    private void drawOverlays() {
+        ObservedSky sky = observedSkyProperty.getValue();
+        overlayPainter.erase();
+        if(upb.isTrackerOn()) overlayPainter.drawTracker(sky, planeToCanvasProperty.getValue(), mouseHorizontalPositionProperty.get());
+        objectUnderMouseProperty.get().ifPresent(o -> overlayPainter.drawHighlight(sky, planeToCanvasProperty.getValue(), o));
     }
 }
\ No newline at end of file
@@ -1,10 +1,11 @@
 package ch.epfl.rigel.gui;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.IntBuffer;
 import java.util.List;
 
 import ch.epfl.rigel.astronomy.Asterism;
+import ch.epfl.rigel.astronomy.CelestialObject;
+import ch.epfl.rigel.astronomy.MinorBody;
 import ch.epfl.rigel.astronomy.Moon;
 import ch.epfl.rigel.astronomy.ObservedSky;
 import ch.epfl.rigel.astronomy.Planet;
@@ -12,14 +13,15 @@ import ch.epfl.rigel.astronomy.Star;
 import ch.epfl.rigel.astronomy.Sun;
 import ch.epfl.rigel.coordinates.CartesianCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
-import ch.epfl.rigel.math.AffineFunction;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
-import ch.epfl.rigel.math.RightOpenInterval;
 import javafx.geometry.Point2D;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextAlignment;
 import javafx.scene.transform.Transform;
@@ -32,38 +34,47 @@ import javafx.scene.transform.Transform;
  */
 public final class SkyCanvasPainter {
 
-    private final static double SUN_AVERAGE_DIAMETER = 2*Math.tan(Angle.ofDeg(0.5)/4);
+    private final static double SUN_AVERAGE_ANGULAR_SIZE = Angle.ofDeg(0.5);
     private final static ClosedInterval MAGNITUDES_INTERVAL = ClosedInterval.of(-2, 5);
-    private final static HorizontalCoordinates CENTER_OF_HOR = HorizontalCoordinates.ofDeg(0, 0);
-    private final static HorizontalCoordinates TOP_HOR = HorizontalCoordinates.ofDeg(0, 90);
     private final static int CARDINAL_POINT_SPACING = 45;
     private final static Color SPECIAL_YELLOW = Color.YELLOW.deriveColor(0, 1, 1, 0.25);
-    private final static List<HorizontalCoordinates> PARAL_GRID_POINTS = loadParalGridList();
-    private final static List<HorizontalCoordinates> MERID_GRID_POINTS = loadMeridGridList();
-    private final static ClosedInterval STRAIGHT_LINE_SENSITIVITY_ALT_TOP = ClosedInterval.of(89.9, 90);
-    private final static ClosedInterval STRAIGHT_LINE_SENSITIVITY_AZ_1 = ClosedInterval.of(0, 0.1);
-    private final static ClosedInterval STRAIGHT_LINE_SENSITIVITY_AZ_2 = ClosedInterval.of(179.9, 180.1);
-    private final static RightOpenInterval STRAIGHT_LINE_SENSITIVITY_AZ_3 = RightOpenInterval.of(359.9, 360);
-    private final static double TOLERANCE = 0.1;
+    private final static Color ASTEROID_COLOR = Color.TAN;
+    private final static Color COMET_COLOR = Color.LIGHTCYAN;
+    private final static Color LIT_SATELLITE_COLOR = Color.WHITE;
+    private final static Color SHADOWED_SATELLITE_COLOR = Color.DIMGRAY;
+    private final static double SATELLITE_DIAMETER = 2.5;
+    private final static Color HIGHLIGHT_COLOR = Color.LIGHTGREEN;
+    private final static double HIGHLIGHT_DIAMETER = 16;
+    private final static double[] PARAL_GRID_ALTS = loadParalGridAlts();
+    private final static double[] MERID_GRID_AZS = loadMeridGridAzs();
+    private final static double SAMPLING_STEP_DEG = 1;
+    private final static double MAX_CHECKED_SEGMENT = 20;
+    private final static double DISCONTINUITY_RATIO = 0.25;
     
-    private static List<HorizontalCoordinates> loadParalGridList() {
-        List<HorizontalCoordinates> temp = new ArrayList<HorizontalCoordinates>();
-        for(int i = -90 ; i < 90 ; i += 15) {
-            if(i != 0) temp.add(HorizontalCoordinates.ofDeg(0, i));           
+    private static double[] loadParalGridAlts() {
+        double[] temp = new double[10];
+        int counter = 0;
+        for(int i = -75 ; i < 90 ; i += 15) {
+            if(i != 0) temp[counter++] = i;           
         }
-        return Collections.unmodifiableList(temp);
+        return temp;
     }
     
-    private static List<HorizontalCoordinates> loadMeridGridList() {
-        List<HorizontalCoordinates> temp = new ArrayList<HorizontalCoordinates>();
-        for(int i = 0 ; i < 360 ; i += 30) {
-            temp.add(HorizontalCoordinates.ofDeg(i, 0));           
-        }
-        return Collections.unmodifiableList(temp);
+    private static double[] loadMeridGridAzs() {
+        //Each meridian is drawn with its opposite one
+        double[] temp = new double[6];
+        for(int i = 0 ; i < 6 ; ++i) temp[i] = 30*i;
+        return temp;
     }
     
     private final Canvas canvas;
     private final GraphicsContext graphics;
+    //Colors of the stars of the last list drawn
+    private StarColors starColors = null;
+    //Rasterized stars : the rasterizer and the image sharing its pixels (of the size of the canvas)
+    private StarRasterizer rasterizer = null;
+    private PixelBuffer<IntBuffer> pixelBuffer = null;
+    private WritableImage starImage = null;
     
     /**
      * Default constructor of a SkyCanvasPainter given a Canvas.
@@ -75,15 +86,16 @@ public final class SkyCanvasPainter {
     }
     
     /**
-     * Calculates the diameter of a CelestialObject given its magnitude.
+     * Calculates the diameter of a CelestialObject given its magnitude and the projected diameter of the Sun.
      * 
      * @param double (magnitude)
+     * @param double (sunDiameter)
      * @return double (diameter) 
      */
-    private static double diameter(double magnitude) {
+    private static double diameter(double magnitude, double sunDiameter) {
         double clippedMagnitude = MAGNITUDES_INTERVAL.clip(magnitude);
         double sizeFactor = (99 - 17*clippedMagnitude) / 140;
-        return sizeFactor * SUN_AVERAGE_DIAMETER;
+        return sizeFactor * sunDiameter;
     }
     
     /**
@@ -95,39 +107,94 @@ public final class SkyCanvasPainter {
         graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
     }
     
+    /**
+     * Clears all the drawings and turns everything transparent, so that the canvases below show through
+     * (e.g. for a layer drawn over the sky).
+     */
+    public void erase() {
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+    
     /**
      * Draws the stars and asterisms of a given sky (ObservedSky) and a plane to canvas transformation (Transform). Third argument represents whether or not the asterisms should be activated.
+     * The stars are dimmed by the extinction of the atmosphere of the sky.
      * @param ObservedSky (sky)
      * @param Transform (planeToCanvas)
      * @param boolean (asterisms)
      */
     public void drawStarsAndAsterisms(ObservedSky sky, Transform planeToCanvas, boolean asterisms) {
-        double [] starPositions = sky.starPositions();
-        double [] transformedStarPositions = new double[starPositions.length];
-        planeToCanvas.transform2DPoints(starPositions, 0, transformedStarPositions, 0, starPositions.length / 2);
-        if(asterisms) {
-            graphics.setStroke(Color.BLUE);
-            graphics.setLineWidth(1);
-            for(Asterism a : sky.asterisms()) {
-                for(int i = 0 ; i < sky.asterismIndices(a).size() - 1 ; ++i) {
-                    int index1 = sky.asterismIndices(a).get(i);
-                    int index2 = sky.asterismIndices(a).get(i + 1);
-                    double x1 =  transformedStarPositions[2*index1];
-                    double y1 =  transformedStarPositions[2*index1 + 1];
-                    double x2 =  transformedStarPositions[2*index2];
-                    double y2 =  transformedStarPositions[2*index2 + 1];
-                    if(canvas.getBoundsInLocal().contains(x1, y1) || canvas.getBoundsInLocal().contains(x2, y2)) graphics.strokeLine(x1, y1, x2, y2);
-                }
-            }
-        }
+        double[] transformedStarPositions = transformedStarPositions(sky, planeToCanvas);
+        if(asterisms) drawAsterisms(sky, transformedStarPositions);
         int counter = 0;
+        double sunDiameter = sky.projection().applyToAngle(SUN_AVERAGE_ANGULAR_SIZE);
+        double[] extinctions = sky.starExtinctions();
+        StarColors colors = starColors(sky.stars());
         for(Star s : sky.stars()) {
-            double diam = planeToCanvas.deltaTransform(diameter(s.magnitude()), 0).magnitude();
-            setFillAndFillCircle(BlackBodyColor.ofTemperature(s.colorTemperature()), transformedStarPositions[counter], transformedStarPositions[counter + 1], diam);
+            double diam = planeToCanvas.deltaTransform(diameter(s.magnitude() + extinctions[counter / 2], sunDiameter), 0).magnitude();
+            setFillAndFillCircle(colors.color(counter / 2), transformedStarPositions[counter], transformedStarPositions[counter + 1], diam);
             counter += 2;
         }
     }
     
+    /**
+     * Draws the stars and asterisms as drawStarsAndAsterisms, but rasterizes the stars in software (see StarRasterizer)
+     * into an image of the size of the canvas, blitted with a single drawImage, instead of issuing a fill per star.
+     * @param ObservedSky (sky)
+     * @param Transform (planeToCanvas)
+     * @param boolean (asterisms)
+     */
+    public void rasterizeStarsAndAsterisms(ObservedSky sky, Transform planeToCanvas, boolean asterisms) {
+        double[] transformedStarPositions = transformedStarPositions(sky, planeToCanvas);
+        if(asterisms) drawAsterisms(sky, transformedStarPositions);
+        int width = (int) Math.ceil(canvas.getWidth());
+        int height = (int) Math.ceil(canvas.getHeight());
+        if(width <= 0 || height <= 0) return;
+        if(rasterizer == null || rasterizer.width() != width || rasterizer.height() != height) {
+            rasterizer = new StarRasterizer(width, height);
+            pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(rasterizer.pixels()), PixelFormat.getIntArgbPreInstance());
+            starImage = new WritableImage(pixelBuffer);
+        }
+        List<Star> stars = sky.stars();
+        double sunDiameter = sky.projection().applyToAngle(SUN_AVERAGE_ANGULAR_SIZE);
+        //The transformation is a scaling : the diameters are scaled by the length of a transformed unit vector
+        double scale = planeToCanvas.deltaTransform(1, 0).magnitude();
+        double[] extinctions = sky.starExtinctions();
+        double[] diameters = new double[stars.size()];
+        for(int i = 0; i < diameters.length; ++i) diameters[i] = scale * diameter(stars.get(i).magnitude() + extinctions[i], sunDiameter);
+        rasterizer.clear();
+        rasterizer.draw(transformedStarPositions, diameters, starColors(stars).sharedArgbs(), diameters.length);
+        pixelBuffer.updateBuffer(b -> null);
+        graphics.drawImage(starImage, 0, 0);
+    }
+    
+    private static double[] transformedStarPositions(ObservedSky sky, Transform planeToCanvas) {
+        double[] starPositions = sky.starPositions();
+        double[] transformedStarPositions = new double[starPositions.length];
+        planeToCanvas.transform2DPoints(starPositions, 0, transformedStarPositions, 0, starPositions.length / 2);
+        return transformedStarPositions;
+    }
+    
+    private void drawAsterisms(ObservedSky sky, double[] transformedStarPositions) {
+        graphics.setStroke(Color.BLUE);
+        graphics.setLineWidth(1);
+        for(Asterism a : sky.asterisms()) {
+            for(int i = 0 ; i < sky.asterismIndices(a).size() - 1 ; ++i) {
+                int index1 = sky.asterismIndices(a).get(i);
+                int index2 = sky.asterismIndices(a).get(i + 1);
+                double x1 =  transformedStarPositions[2*index1];
+                double y1 =  transformedStarPositions[2*index1 + 1];
+                double x2 =  transformedStarPositions[2*index2];
+                double y2 =  transformedStarPositions[2*index2 + 1];
+                if(canvas.getBoundsInLocal().contains(x1, y1) || canvas.getBoundsInLocal().contains(x2, y2)) graphics.strokeLine(x1, y1, x2, y2);
+            }
+        }
+    }
+    
+    private StarColors starColors(List<Star> stars) {
+        if(starColors == null || starColors.stars() != stars) starColors = new StarColors(stars);
+        return starColors;
+    }
+    
     /**
      * Draws the planets of a given sky (ObservedSky) and a plane to canvas transformation (Transform).
      * @param ObservedSky (sky)
@@ -138,13 +205,60 @@ public final class SkyCanvasPainter {
         double [] transformedPlanetPositions = new double[planetPositions.length];
         planeToCanvas.transform2DPoints(planetPositions, 0, transformedPlanetPositions, 0, planetPositions.length / 2);
         int counter = 0;
+        double sunDiameter = sky.projection().applyToAngle(SUN_AVERAGE_ANGULAR_SIZE);
+        double[] extinctions = sky.planetExtinctions();
         for(Planet p : sky.planets()) {
-            double diam = planeToCanvas.deltaTransform(diameter(p.magnitude()), 0).magnitude();
+            double diam = planeToCanvas.deltaTransform(diameter(p.magnitude() + extinctions[counter / 2], sunDiameter), 0).magnitude();
             setFillAndFillCircle(Color.LIGHTGREY, transformedPlanetPositions[counter], transformedPlanetPositions[counter + 1], diam);
             counter += 2;
         }
     }
     
+    /**
+     * Draws the visible minor bodies (asteroids and comets) of a given sky (ObservedSky) and a plane to canvas transformation (Transform).
+     * @param ObservedSky (sky)
+     * @param Transform (planeToCanvas)
+     */
+    public void drawMinorBodies(ObservedSky sky, Transform planeToCanvas) {
+        double [] minorBodyPositions = sky.minorBodyPositions();
+        planeToCanvas.transform2DPoints(minorBodyPositions, 0, minorBodyPositions, 0, minorBodyPositions.length / 2);
+        int counter = 0;
+        double sunDiameter = sky.projection().applyToAngle(SUN_AVERAGE_ANGULAR_SIZE);
+        double[] extinctions = sky.minorBodyExtinctions();
+        for(MinorBody b : sky.minorBodies()) {
+            double diam = planeToCanvas.deltaTransform(diameter(b.magnitude() + extinctions[counter / 2], sunDiameter), 0).magnitude();
+            setFillAndFillCircle(b.isComet() ? COMET_COLOR : ASTEROID_COLOR, minorBodyPositions[counter], minorBodyPositions[counter + 1], diam);
+            counter += 2;
+        }
+    }
+    
+    /**
+     * Draws the count satellites whose horizontal positions (az, alt) are given in horizontalPts, in the projection of
+     * the given sky (ObservedSky) and with a plane to canvas transformation (Transform), as small dots of a fixed size,
+     * white if they are illuminated and gray otherwise. The satellites under the horizon (or whose position is NaN)
+     * are not drawn.
+     * @param ObservedSky (sky)
+     * @param double[] (horizontalPts)
+     * @param boolean[] (illuminated)
+     * @param int (count)
+     * @param Transform (planeToCanvas)
+     */
+    public void drawSatellites(ObservedSky sky, double[] horizontalPts, boolean[] illuminated, int count, Transform planeToCanvas) {
+        double[] visiblePts = new double[2*count];
+        boolean[] visibleLit = new boolean[count];
+        int visible = 0;
+        for(int i = 0; i < count; ++i) {
+            if(!(horizontalPts[2*i + 1] >= 0)) continue;
+            visiblePts[2*visible] = horizontalPts[2*i];
+            visiblePts[2*visible + 1] = horizontalPts[2*i + 1];
+            visibleLit[visible++] = illuminated[i];
+        }
+        sky.projection().apply(visiblePts, 0, visiblePts, 0, visible);
+        planeToCanvas.transform2DPoints(visiblePts, 0, visiblePts, 0, visible);
+        for(int k = 0; k < visible; ++k)
+            setFillAndFillCircle(visibleLit[k] ? LIT_SATELLITE_COLOR : SHADOWED_SATELLITE_COLOR, visiblePts[2*k], visiblePts[2*k + 1], SATELLITE_DIAMETER);
+    }
+    
     /**
      * Draws the moon of a given sky (ObservedSky) as well as a plane to canvas transformation (Transform).
      * @param ObservedSky (sky)
@@ -176,19 +290,13 @@ public final class SkyCanvasPainter {
         graphics.fillOval(x - diam / 2, y - diam / 2, diam, diam);
     }
     
-    private void setStrokeAndStrokeCircle(Color c, double x, double y, double diam, double lineWidth) {
-        graphics.setStroke(c);
-        graphics.setLineWidth(lineWidth);
-        graphics.strokeOval(x - diam / 2, y - diam / 2, diam, diam);
-    }
-    
     /**
      * Draws the horizon of a given sky (ObservedSky) and a plane to canvas transformation (Transform).
      * @param ObservedSky (sky)
      * @param Transform (planeToCanvas)
      */
     public void drawHorizon(ObservedSky sky, Transform planeToCanvas) {
-        drawParallel(sky, planeToCanvas, CENTER_OF_HOR, Color.RED, 2);
+        drawParallel(sky, planeToCanvas, 0, Color.RED, 2);
         graphics.setFill(Color.RED);
         graphics.setTextAlign(TextAlignment.CENTER);
         graphics.setTextBaseline(VPos.TOP);
@@ -196,8 +304,8 @@ public final class SkyCanvasPainter {
             HorizontalCoordinates cardinalPoint = HorizontalCoordinates.ofDeg(CARDINAL_POINT_SPACING * i, -0.5);
             String pointName = cardinalPoint.azOctantName("N", "E", "S", "O");
             CartesianCoordinates projectedPoint = sky.projection().apply(cardinalPoint);
-            graphics.fillText(pointName, planeToCanvas.transform(projectedPoint.x(), projectedPoint.y()).getX(),
-                                         planeToCanvas.transform(projectedPoint.x(), projectedPoint.y()).getY());
+            Point2D p = planeToCanvas.transform(projectedPoint.x(), projectedPoint.y());
+            if(Double.isFinite(p.getX()) && Double.isFinite(p.getY())) graphics.fillText(pointName, p.getX(), p.getY());
         }
     }
     
@@ -207,88 +315,110 @@ public final class SkyCanvasPainter {
      * @param Transform (planeToCanvas) 
      */
     public void drawGrid(ObservedSky sky, Transform planeToCanvas) {
-        for(HorizontalCoordinates point : PARAL_GRID_POINTS) drawParallel(sky, planeToCanvas, point, Color.LIGHTGRAY, 1);
-        for(HorizontalCoordinates point : MERID_GRID_POINTS) drawMeridian(sky, planeToCanvas, point, Color.LIGHTGRAY, 1);
+        for(double altDeg : PARAL_GRID_ALTS) drawParallel(sky, planeToCanvas, altDeg, Color.LIGHTGRAY, 1);
+        for(double azDeg : MERID_GRID_AZS) drawMeridian(sky, planeToCanvas, azDeg, Color.LIGHTGRAY, 1);
     }
     
     /**
-     * Draws a meridian on the canvas. If it is a line, truncates big values (JavaFX does not support INFINITY)
+     * Draws the great circle going through the zenith and the given azimut (in degrees) on the canvas.
      * @param ObservedSky (sky)
      * @param Transform (planeToCanvas)
-     * @param HorizontalCoordinates (meridian)
+     * @param double (azDeg)
      * @param Color (color)
      * @param double (lineWidth)
      */
-    private void drawMeridian(ObservedSky sky, Transform planeToCanvas, HorizontalCoordinates meridian, Color color, double lineWidth) {
-        double lambda = Angle.toDeg(Angle.normalizePositive(meridian.az() - sky.projection().center().az()));
-        //Condition that a line must be drawn instead of a meridian.
-        if(STRAIGHT_LINE_SENSITIVITY_ALT_TOP.contains(sky.projection().center().altDeg()) || STRAIGHT_LINE_SENSITIVITY_AZ_1.contains(lambda) || STRAIGHT_LINE_SENSITIVITY_AZ_2.contains(lambda) || STRAIGHT_LINE_SENSITIVITY_AZ_3.contains(lambda)) {
-            CartesianCoordinates topCart = sky.projection().apply(TOP_HOR);
-            Point2D topPoint = planeToCanvas.transform(topCart.x(), topCart.y());
-            HorizontalCoordinates meridianHor = HorizontalCoordinates.ofDeg(meridian.azDeg(), 0);
-            CartesianCoordinates meridianCart = sky.projection().apply(meridianHor);
-            Point2D meridianOnHorizonP = planeToCanvas.transform(meridianCart.x(), meridianCart.y());
-            List<Point2D> points = new ArrayList<>(); //p1 and p2 will represent the two points of the line that we want to draw on the intersections with the two sides of the canvas
-            if(meridianOnHorizonP.getX() - topPoint.getX() == 0) { //Horizontal Case
-                points.add(new Point2D(meridianOnHorizonP.getX(), 0));
-                points.add(new Point2D(meridianOnHorizonP.getX(), canvas.getHeight()));
-            } else if(topPoint.getY() - meridianOnHorizonP.getY() == 0) { //Vertical Case
-                points.add(new Point2D(0, meridianOnHorizonP.getY()));
-                points.add(new Point2D(canvas.getWidth(), meridianOnHorizonP.getY()));
-            } else { //Oblic Case
-                double m = (meridianOnHorizonP.getY() - topPoint.getY()) / (meridianOnHorizonP.getX() - topPoint.getX());
-                double h = topPoint.getY() - m*topPoint.getX();
-                AffineFunction line = new AffineFunction(m, h);
-                ClosedInterval topBot = ClosedInterval.of(0, canvas.getWidth());
-                ClosedInterval rightLeft = ClosedInterval.of(0, canvas.getHeight());
-                double x1 = line.inverseApply(0); //Intersection with TOP side of the canvas 
-                double x2 = line.inverseApply(canvas.getHeight()); //Intersection with BOTTOM
-                double y1 = line.apply(0); //Intersection with LEFT
-                double y2 = line.apply(canvas.getWidth()); //Intersection with RIGHT
-                if(topBot.contains(x1)) points.add(new Point2D(x1, 0));
-                if(topBot.contains(x2)) points.add(new Point2D(x2, canvas.getHeight()));
-                if(rightLeft.contains(y1)) points.add(new Point2D(0, y1));
-                if(rightLeft.contains(y2)) points.add(new Point2D(canvas.getWidth(), y2));
-            }           
-            graphics.setStroke(color);
-            graphics.setLineWidth(1);
-            graphics.strokeLine(points.get(0).getX(), points.get(0).getY(), points.get(1).getX(), points.get(1).getY());
-        } else {
-            CartesianCoordinates meridianCenter = sky.projection().circleCenterForMeridian(meridian);
-            Point2D meridianCenterP = planeToCanvas.transform(meridianCenter.x(), meridianCenter.y());
-            double radiusMeridian = sky.projection().circleRadiusForMeridian(meridian);
-            double diamMeridian = planeToCanvas.deltaTransform(2*radiusMeridian, 0).magnitude();
-            setStrokeAndStrokeCircle(color, meridianCenterP.getX(), meridianCenterP.getY(), diamMeridian, lineWidth);
+    private void drawMeridian(ObservedSky sky, Transform planeToCanvas, double azDeg, Color color, double lineWidth) {
+        int halfCount = (int) Math.round(180 / SAMPLING_STEP_DEG);
+        double[] points = new double[2 * (2*halfCount + 1)];
+        for(int i = 0; i <= 2*halfCount; ++i) {
+            //Up the meridian of the given azimut, then down the opposite one
+            boolean up = i <= halfCount;
+            double altDeg = up ? -90 + i*SAMPLING_STEP_DEG : 90 - (i - halfCount)*SAMPLING_STEP_DEG;
+            points[2*i] = Angle.ofDeg(up ? azDeg : azDeg + 180);
+            points[2*i + 1] = Angle.ofDeg(altDeg);
         }
+        drawCurve(sky, planeToCanvas, points, color, lineWidth);
     }
     
     /**
-     * Draws a parallel on the canvas. If it is a line, truncates big values (JavaFX does not support INFINITY)
+     * Draws the parallel of the given altitude (in degrees) on the canvas.
      * @param ObservedSky (sky)
      * @param Transform (planeToCanvas)
-     * @param HorizontalCoordinates (parallel)
+     * @param double (altDeg)
      * @param Color (color)
      * @param double (lineWidth)
      */
-    private void drawParallel(ObservedSky sky, Transform planeToCanvas, HorizontalCoordinates parallel, Color color, double lineWidth) {
-        //Condition that a line must be drawn instead of a parallel.
-        if(Math.abs(sky.projection().center().altDeg() + parallel.altDeg()) <= TOLERANCE) {
-            HorizontalCoordinates parallelBeginH = HorizontalCoordinates.ofDeg(0, parallel.altDeg());
-            CartesianCoordinates parallelBeginC = sky.projection().apply(parallelBeginH);
-            Point2D parallelBeginP = planeToCanvas.transform(parallelBeginC.x(), parallelBeginC.y());
-            Point2D p1 = new Point2D(0, parallelBeginP.getY());
-            Point2D p2 = new Point2D(canvas.getWidth(), parallelBeginP.getY()); //Only the horizontal case must be considered
-            graphics.setStroke(color);
-            graphics.setLineWidth(1);
-            graphics.strokeLine(p1.getX(), p1.getY(), p2.getX(), p2.getY());
-
-        } else {
-            CartesianCoordinates parallelCenter = sky.projection().circleCenterForParallel(parallel);
-            Point2D parallelCenterP = planeToCanvas.transform(parallelCenter.x(), parallelCenter.y());
-            double radiusParallel = sky.projection().circleRadiusForParallel(parallel);
-            double diamParallel = planeToCanvas.deltaTransform(2*radiusParallel, 0).magnitude();
-            setStrokeAndStrokeCircle(color, parallelCenterP.getX(), parallelCenterP.getY(), diamParallel, lineWidth);
+    private void drawParallel(ObservedSky sky, Transform planeToCanvas, double altDeg, Color color, double lineWidth) {
+        int count = (int) Math.round(360 / SAMPLING_STEP_DEG);
+        double[] points = new double[2 * (count + 1)];
+        for(int i = 0; i <= count; ++i) {
+            points[2*i] = Angle.ofDeg(i*SAMPLING_STEP_DEG);
+            points[2*i + 1] = Angle.ofDeg(altDeg);
+        }
+        drawCurve(sky, planeToCanvas, points, color, lineWidth);
+    }
+    
+    /**
+     * Draws the curve going through the given horizontal points (az, alt), whatever the projection of the sky.
+     * The curve is interrupted on the points which cannot be projected, and on the discontinuities of the projection.
+     * @param ObservedSky (sky)
+     * @param Transform (planeToCanvas)
+     * @param double[] (horPoints)
+     * @param Color (color)
+     * @param double (lineWidth)
+     */
+    private void drawCurve(ObservedSky sky, Transform planeToCanvas, double[] horPoints, Color color, double lineWidth) {
+        int count = horPoints.length / 2;
+        double[] canvasPoints = new double[horPoints.length];
+        sky.projection().apply(horPoints, 0, canvasPoints, 0, count);
+        planeToCanvas.transform2DPoints(canvasPoints, 0, canvasPoints, 0, count);
+        graphics.setStroke(color);
+        graphics.setLineWidth(lineWidth);
+        boolean drawing = false;
+        for(int i = 0; i < count; ++i) {
+            double x = canvasPoints[2*i];
+            double y = canvasPoints[2*i + 1];
+            if(!Double.isFinite(x) || !Double.isFinite(y)) {
+                if(drawing) graphics.stroke();
+                drawing = false;
+                continue;
+            }
+            if(drawing && isDiscontinuous(sky, planeToCanvas, horPoints, canvasPoints, i - 1)) {
+                graphics.stroke();
+                drawing = false;
+            }
+            if(drawing) {
+                graphics.lineTo(x, y);
+            } else {
+                graphics.beginPath();
+                graphics.moveTo(x, y);
+                drawing = true;
+            }
         }
+        if(drawing) graphics.stroke();
+    }
+    
+    /**
+     * Returns true if the projection is discontinuous between the point i and the point i + 1 of the curve :
+     * the projection of their middle must then lie close to one of them instead of halfway.
+     * Only the segments longer than MAX_CHECKED_SEGMENT (canvas units) are checked.
+     * @param ObservedSky (sky)
+     * @param Transform (planeToCanvas)
+     * @param double[] (horPoints)
+     * @param double[] (canvasPoints)
+     * @param int (i)
+     * @return boolean (discontinuous)
+     */
+    private static boolean isDiscontinuous(ObservedSky sky, Transform planeToCanvas, double[] horPoints, double[] canvasPoints, int i) {
+        double x1 = canvasPoints[2*i], y1 = canvasPoints[2*i + 1];
+        double x2 = canvasPoints[2*i + 2], y2 = canvasPoints[2*i + 3];
+        double length = Math.hypot(x2 - x1, y2 - y1);
+        if(length <= MAX_CHECKED_SEGMENT) return false;
+        double[] middle = {(horPoints[2*i] + horPoints[2*i + 2]) / 2, (horPoints[2*i + 1] + horPoints[2*i + 3]) / 2};
+        sky.projection().apply(middle, 0, middle, 0, 1);
+        planeToCanvas.transform2DPoints(middle, 0, middle, 0, 1);
+        double toClosest = Math.min(Math.hypot(middle[0] - x1, middle[1] - y1), Math.hypot(middle[0] - x2, middle[1] - y2));
+        return !(toClosest >= DISCONTINUITY_RATIO * length);
     }
         
     /**
@@ -297,7 +427,23 @@ public final class SkyCanvasPainter {
      * @param Transform (planeToCanvas)
      */
     public void drawTracker(ObservedSky sky, Transform planeToCanvas, HorizontalCoordinates trackPoint) {
-        drawMeridian(sky, planeToCanvas, trackPoint, Color.LIGHTGREEN, 1);
-        drawParallel(sky, planeToCanvas, trackPoint, Color.LIGHTGREEN, 1);
+        drawMeridian(sky, planeToCanvas, trackPoint.azDeg(), Color.LIGHTGREEN, 1);
+        drawParallel(sky, planeToCanvas, trackPoint.altDeg(), Color.LIGHTGREEN, 1);
     } 
+    
+    /**
+     * Draws a ring around the given CelestialObject (e.g. the one under the mouse) of a given sky (ObservedSky) and a
+     * plane to canvas transformation (Transform). Nothing is drawn if the object is not one of the sky.
+     * @param ObservedSky (sky)
+     * @param Transform (planeToCanvas)
+     * @param CelestialObject (celestObj)
+     */
+    public void drawHighlight(ObservedSky sky, Transform planeToCanvas, CelestialObject celestObj) {
+        sky.positionOf(celestObj).ifPresent(c -> {
+            Point2D p = planeToCanvas.transform(c.x(), c.y());
+            graphics.setStroke(HIGHLIGHT_COLOR);
+            graphics.setLineWidth(1);
+            graphics.strokeOval(p.getX() - HIGHLIGHT_DIAMETER / 2, p.getY() - HIGHLIGHT_DIAMETER / 2, HIGHLIGHT_DIAMETER, HIGHLIGHT_DIAMETER);
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package ch.epfl.rigel.gui;
+
+import java.util.List;
+
+import ch.epfl.rigel.astronomy.Star;
+import javafx.scene.paint.Color;
+
+/**
+ * The Colors Of The Stars Of A Catalogue.
+ * The color of each star (see BlackBodyColor) is looked up once, when the StarColors is built : the colors are then
+ * returned by the index of the star in the catalogue (the order of StarCatalogue.stars()), without any parsing nor
+ * allocation.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class StarColors {
+
+    private final List<Star> stars;
+    private final int[] argbs;
+    private final Color[] colors;
+
+    /**
+     * Constructor of the StarColors of the given stars, in the order of the catalogue.
+     * Throws IAE if the color temperature of a star is not inside the interval [950, 40049].
+     *
+     * @param List<Star> (stars)
+     */
+    public StarColors(List<Star> stars) {
+        this.stars = stars;
+        this.argbs = new int[stars.size()];
+        this.colors = new Color[stars.size()];
+        for(int i = 0; i < argbs.length; ++i) {
+            int temperature = stars.get(i).colorTemperature();
+            argbs[i] = BlackBodyColor.argbOfTemperature(temperature);
+            colors[i] = BlackBodyColor.ofTemperature(temperature);
+        }
+    }
+
+    /**
+     * Returns the stars, in the order of the catalogue.
+     *
+     * @return List<Star> (stars)
+     */
+    public List<Star> stars() {
+        return stars;
+    }
+
+    /**
+     * Returns the color of the star of the given index.
+     *
+     * @param int (index)
+     * @return Color (color)
+     */
+    public Color color(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Returns the color of the star of the given index, packed in an int (0xAARRGGBB, opaque).
+     *
+     * @param int (index)
+     * @return int (argb)
+     */
+    public int argb(int index) {
+        return argbs[index];
+    }
+
+    /**
+     * Returns the packed colors of all the stars without copying them. The returned array must not be modified.
+     *
+     * @return [] int (argbs)
+     */
+    int[] sharedArgbs() {
+        return argbs;
+    }
+}
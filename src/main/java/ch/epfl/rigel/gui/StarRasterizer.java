@@ -0,0 +1,202 @@
+package ch.epfl.rigel.gui;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+/**
+ * A Software Rasterizer Of Star Discs Into An Array Of Pixels.
+ * The pixels are premultiplied ARGB ints (the format of PixelFormat.getIntArgbPreInstance()), stored row by row, and
+ * transparent where no star is drawn, so that the array can back a WritableImage blitted over the rest of the sky.
+ * A disc is stamped from a sprite : a mask of the coverage (0 to 255) of the pixels by the disc, computed once with
+ * 8x8 samples per pixel for each diameter (in steps of a quarter of pixel) and each position of the center in its
+ * pixel (in steps of half a pixel). The discs are composited with the "over" operator, so that overlapping stars
+ * look as when drawn with fillOval. Instances are not thread safe.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class StarRasterizer {
+
+    private final static int DIAMETER_STEPS_PER_PIXEL = 4;
+    private final static int PHASES_PER_PIXEL = 2;
+    private final static int SAMPLES_PER_PIXEL = 8;
+    private final static int OPAQUE = 0xFF000000;
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    //Indexed by (diameter step)*PHASES_PER_PIXEL^2 + phase, filled on demand
+    private Sprite[] sprites = new Sprite[0];
+
+    /**
+     * Constructor of a StarRasterizer of the given size, in pixels. Throws IAE if the size is not positive.
+     *
+     * @param int (width)
+     * @param int (height)
+     */
+    public StarRasterizer(int width, int height) {
+        checkArgument(width > 0 && height > 0);
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    /**
+     * Returns the width of the rasterizer, in pixels.
+     *
+     * @return int (width)
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the rasterizer, in pixels.
+     *
+     * @return int (height)
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Returns the pixels, without copying them : the pixel (x, y) is at the index y*width + x.
+     *
+     * @return [] int (pixels)
+     */
+    public int[] pixels() {
+        return pixels;
+    }
+
+    /**
+     * Makes all the pixels transparent.
+     */
+    public void clear() {
+        Arrays.fill(pixels, 0);
+    }
+
+    /**
+     * Draws count discs, the i-th centered at (canvasPts[2*i], canvasPts[2*i + 1]), of diameter diameters[i] (in
+     * pixels) and of the opaque color rgbs[i] (0xRRGGBB, the alpha being ignored). The discs are drawn in order, those not inside the
+     * rasterizer (or of a non finite center) being skipped.
+     *
+     * @param double[] (canvasPts)
+     * @param double[] (diameters)
+     * @param int[] (rgbs)
+     * @param int (count)
+     */
+    public void draw(double[] canvasPts, double[] diameters, int[] rgbs, int count) {
+        checkArgument(count >= 0);
+        for(int i = 0; i < count; ++i) {
+            double diameter = diameters[i];
+            if(!(diameter > 0)) continue;
+            //Center rounded to the nearest half pixel, as the base pixel plus a phase
+            double x = Math.floor(canvasPts[2*i] * PHASES_PER_PIXEL + 0.5) / PHASES_PER_PIXEL;
+            double y = Math.floor(canvasPts[2*i + 1] * PHASES_PER_PIXEL + 0.5) / PHASES_PER_PIXEL;
+            double reach = diameter / 2 + 2;
+            if(!(x > -reach && x < width + reach && y > -reach && y < height + reach)) continue;
+            int baseX = (int) Math.floor(x);
+            int baseY = (int) Math.floor(y);
+            int phase = (int) ((x - baseX) * PHASES_PER_PIXEL) * PHASES_PER_PIXEL + (int) ((y - baseY) * PHASES_PER_PIXEL);
+            stamp(sprite((int) Math.round(diameter * DIAMETER_STEPS_PER_PIXEL), phase), baseX, baseY, rgbs[i]);
+        }
+    }
+
+    private Sprite sprite(int step, int phase) {
+        int index = step * PHASES_PER_PIXEL * PHASES_PER_PIXEL + phase;
+        if(index >= sprites.length) sprites = Arrays.copyOf(sprites, Math.max(index + 1, 2*sprites.length));
+        Sprite s = sprites[index];
+        if(s == null) {
+            s = new Sprite((double) step / DIAMETER_STEPS_PER_PIXEL,
+                    (double) (phase / PHASES_PER_PIXEL) / PHASES_PER_PIXEL, (double) (phase % PHASES_PER_PIXEL) / PHASES_PER_PIXEL);
+            sprites[index] = s;
+        }
+        return s;
+    }
+
+    private void stamp(Sprite s, int baseX, int baseY, int rgb) {
+        int left = baseX - s.reach;
+        int top = baseY - s.reach;
+        int fromU = Math.max(0, -left);
+        int toU = Math.min(s.size, width - left);
+        int fromV = Math.max(0, -top);
+        int toV = Math.min(s.size, height - top);
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+        for(int v = fromV; v < toV; ++v) {
+            int row = (top + v) * width + left;
+            int maskRow = v * s.size;
+            int end = Math.min(toU, s.spanEnds[v]);
+            for(int u = Math.max(fromU, s.spanStarts[v]); u < end; ++u) {
+                int a = s.mask[maskRow + u] & 0xFF;
+                if(a == 0) continue;
+                if(a == 0xFF) {
+                    pixels[row + u] = OPAQUE | rgb;
+                    continue;
+                }
+                int dst = pixels[row + u];
+                int inverse = 0xFF - a;
+                int outA = a + scale(dst >>> 24, inverse);
+                int outR = scale(red, a) + scale((dst >> 16) & 0xFF, inverse);
+                int outG = scale(green, a) + scale((dst >> 8) & 0xFF, inverse);
+                int outB = scale(blue, a) + scale(dst & 0xFF, inverse);
+                pixels[row + u] = (outA << 24) | (outR << 16) | (outG << 8) | outB;
+            }
+        }
+    }
+
+    //value * factor / 255, rounded
+    private static int scale(int value, int factor) {
+        int p = value * factor + 128;
+        return (p + (p >> 8)) >> 8;
+    }
+
+    /**
+     * Private class representing the coverage mask of a disc of given diameter and phase.
+     */
+    private static final class Sprite {
+
+        private final int reach;
+        private final int size;
+        private final byte[] mask;
+        //Per row, the columns between which the coverage is not zero
+        private final int[] spanStarts;
+        private final int[] spanEnds;
+
+        private Sprite(double diameter, double phaseX, double phaseY) {
+            double radius = diameter / 2;
+            //The disc, whose center is at most half a pixel after the one of the base pixel, fits in the sprite
+            this.reach = (int) Math.ceil(radius) + 1;
+            this.size = 2*reach + 1;
+            this.mask = new byte[size * size];
+            this.spanStarts = new int[size];
+            this.spanEnds = new int[size];
+            //Center of the disc in the sprite, the base pixel being at (reach, reach)
+            double centerX = reach + phaseX;
+            double centerY = reach + phaseY;
+            double radius2 = radius * radius;
+            int samples = SAMPLES_PER_PIXEL * SAMPLES_PER_PIXEL;
+            for(int v = 0; v < size; ++v) {
+                for(int u = 0; u < size; ++u) {
+                    int inside = 0;
+                    for(int j = 0; j < SAMPLES_PER_PIXEL; ++j) {
+                        double dy = v + (j + 0.5) / SAMPLES_PER_PIXEL - centerY;
+                        for(int i = 0; i < SAMPLES_PER_PIXEL; ++i) {
+                            double dx = u + (i + 0.5) / SAMPLES_PER_PIXEL - centerX;
+                            if(dx*dx + dy*dy <= radius2) ++inside;
+                        }
+                    }
+                    mask[v*size + u] = (byte) ((inside * 0xFF + samples / 2) / samples);
+                }
+                int start = 0;
+                int end = size;
+                while(start < end && mask[v*size + start] == 0) ++start;
+                while(end > start && mask[v*size + end - 1] == 0) --end;
+                spanStarts[v] = start;
+                spanEnds[v] = end;
+            }
+        }
+    }
+}
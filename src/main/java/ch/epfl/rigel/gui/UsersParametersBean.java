@@ -1,7 +1,9 @@
 package ch.epfl.rigel.gui;
 
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 
 /**
  * A Bonus Parameters Bean.
@@ -11,9 +13,17 @@ import javafx.beans.property.SimpleBooleanProperty;
  */
 public final class UsersParametersBean {
 
+    private final static double DEFAULT_TEMPERATURE = 10;
+    private final static double DEFAULT_PRESSURE = 1010;
+
     private final BooleanProperty asterismsOnProperty;
     private final BooleanProperty trackerOnProperty;
     private final BooleanProperty gridOnProperty;
+    //Stars rasterized in software (see SkyCanvasPainter.rasterizeStarsAndAsterisms)
+    private final BooleanProperty starsRasterizedProperty = new SimpleBooleanProperty(false);
+    //Atmosphere, in degrees Celsius and hectopascals
+    private final DoubleProperty temperatureProperty = new SimpleDoubleProperty(DEFAULT_TEMPERATURE);
+    private final DoubleProperty pressureProperty = new SimpleDoubleProperty(DEFAULT_PRESSURE);
     
     /**
      * Specific BonusParametersBean constructor.
@@ -103,4 +113,76 @@ public final class UsersParametersBean {
     public BooleanProperty gridOnProperty() {
         return gridOnProperty;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Setter of the rasterized stars property state.
+     * @param boolean (newValue)
+     */
+    public void setStarsRasterized(boolean newValue) {
+        starsRasterizedProperty.set(newValue);
+    }
+    
+    /**
+     * Getter of the rasterized stars property state.
+     * @return boolean (currentValue)
+     */
+    public boolean isStarsRasterized() {
+        return starsRasterizedProperty.get();
+    }
+    
+    /**
+     * Getter of the rasterized stars property.
+     * @return BooleanProperty (starsRasterizedProperty)
+     */
+    public BooleanProperty starsRasterizedProperty() {
+        return starsRasterizedProperty;
+    }
+    
+    /**
+     * Setter of the temperature of the atmosphere, in degrees Celsius (10 by default).
+     * @param double (newValue)
+     */
+    public void setTemperature(double newValue) {
+        temperatureProperty.set(newValue);
+    }
+    
+    /**
+     * Getter of the temperature of the atmosphere, in degrees Celsius.
+     * @return double (currentValue)
+     */
+    public double getTemperature() {
+        return temperatureProperty.get();
+    }
+    
+    /**
+     * Getter of the temperature property.
+     * @return DoubleProperty (temperatureProperty)
+     */
+    public DoubleProperty temperatureProperty() {
+        return temperatureProperty;
+    }
+    
+    /**
+     * Setter of the pressure of the atmosphere, in hectopascals (1010 by default).
+     * @param double (newValue)
+     */
+    public void setPressure(double newValue) {
+        pressureProperty.set(newValue);
+    }
+    
+    /**
+     * Getter of the pressure of the atmosphere, in hectopascals.
+     * @return double (currentValue)
+     */
+    public double getPressure() {
+        return pressureProperty.get();
+    }
+    
+    /**
+     * Getter of the pressure property.
+     * @return DoubleProperty (pressureProperty)
+     */
+    public DoubleProperty pressureProperty() {
+        return pressureProperty;
+    }
+}
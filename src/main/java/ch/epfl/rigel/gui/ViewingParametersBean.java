@@ -16,10 +16,11 @@ public final class ViewingParametersBean {
 
     private final ObjectProperty<HorizontalCoordinates> centerProperty;
     private final DoubleProperty fieldOfViewDegProperty;
+    private final ObjectProperty<NamedProjection> projectionProperty = new SimpleObjectProperty<>(NamedProjection.STEREOGRAPHIC);
     
     /**
      * Default constructor of a ViewingParametersBean. Creates an instance of ViewingParametersBean
-     * with the given values as initial properties values. 
+     * with the given values as initial properties values. The projection is initially stereographic.
      * 
      * @param double (initialFOV) [in degrees]
      * @param HorizontalCoordinates (initialCenter)
@@ -89,5 +90,32 @@ public final class ViewingParametersBean {
      */
     public void setFieldOfViewDeg(double newFieldOfViewDeg) {
         fieldOfViewDegProperty.set(newFieldOfViewDeg);
-    } 
+    }
+    
+    /**
+     * Returns the property containing the projection.
+     * 
+     * @return ObjectProperty<NamedProjection> (projectionProperty)
+     */
+    public ObjectProperty<NamedProjection> projectionProperty() {
+        return projectionProperty;
+    }
+    
+    /** 
+     * Projection getter.
+     * 
+     * @return NamedProjection (currentProjection)
+     */
+    public NamedProjection getProjection() {
+        return projectionProperty.get();
+    }
+    
+    /** 
+     * Projection setter.
+     * 
+     * @param NamedProjection (newProjection)
+     */
+    public void setProjection(NamedProjection newProjection) {
+        projectionProperty.set(newProjection);
+    }
 }
\ No newline at end of file
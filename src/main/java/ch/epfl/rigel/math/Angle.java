@@ -95,4 +95,16 @@ public final class Angle {
     public static double toHr(double rad) {
         return rad * HR_PER_RAD;
     }
+
+    /**
+     * Returns the arc sine in radiant of the given sine, clamped to [-1,1], taken as an arc tangent :
+     * several times faster than Math.asin, for the loops evaluating many altitudes.
+     * 
+     * @param double (sin)
+     * @return double (rad)
+     */
+    public static double asin(double sin) {
+        double s = Math.max(-1, Math.min(1, sin));
+        return Math.atan(s / Math.sqrt(1 - s*s));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package ch.epfl.rigel.math;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A Chebyshev Series On An Interval [low;high].
+ * Counterpart of Polynomial in the Chebyshev basis : c0/2 + c1*T1(t) + ... + cn*Tn(t), where t is the
+ * position of x mapped linearly from [low;high] to [-1;1]. This basis is the one to use to approximate
+ * a smooth function on an interval, since the interpolation at the Chebyshev nodes is close to the best
+ * polynomial approximation of its degree.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ChebyshevSeries {
+
+    private final double low;
+    private final double high;
+    private final double[] coefficients;
+
+    private ChebyshevSeries(double low, double high, double[] coefficients) {
+        this.low = low;
+        this.high = high;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Returns the count Chebyshev nodes of the interval [low;high], in increasing order.
+     * Throws IllegalArgumentException if count is not strictly positive or the interval is empty.
+     *
+     * @param double (low)
+     * @param double (high)
+     * @param int (count)
+     * @return double[] (nodes)
+     */
+    public static double[] nodes(double low, double high, int count) {
+        checkArgument(count > 0 && low < high);
+        double[] nodes = new double[count];
+        for(int k = 0; k < count; ++k) {
+            double t = -Math.cos(Math.PI * (k + 0.5) / count);
+            nodes[k] = low + (t + 1) * (high - low) / 2;
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the ChebyshevSeries of degree values.length - 1 interpolating the given values,
+     * taken at the Chebyshev nodes of [low;high] (in the order of nodes(low, high, values.length)).
+     *
+     * @param double (low)
+     * @param double (high)
+     * @param double[] (values)
+     * @return ChebyshevSeries (series)
+     */
+    public static ChebyshevSeries interpolating(double low, double high, double[] values) {
+        checkArgument(values.length > 0 && low < high);
+        int n = values.length;
+        double[] coefficients = new double[n];
+        for(int j = 0; j < n; ++j) {
+            double sum = 0;
+            for(int k = 0; k < n; ++k) {
+                //Node k is -cos(PI*(k+0.5)/n), hence the sign of the odd polynomials
+                sum += values[k] * Math.cos(Math.PI * j * (k + 0.5) / n);
+            }
+            coefficients[j] = ((j % 2 == 0) ? 2.0 : -2.0) * sum / n;
+        }
+        coefficients[0] /= 2;
+        return new ChebyshevSeries(low, high, coefficients);
+    }
+
+    /**
+     * Returns the ChebyshevSeries of the given degree interpolating the function f on [low;high].
+     *
+     * @param DoubleUnaryOperator (f)
+     * @param double (low)
+     * @param double (high)
+     * @param int (degree)
+     * @return ChebyshevSeries (series)
+     */
+    public static ChebyshevSeries fit(DoubleUnaryOperator f, double low, double high, int degree) {
+        checkArgument(degree >= 0);
+        double[] nodes = nodes(low, high, degree + 1);
+        double[] values = new double[nodes.length];
+        for(int k = 0; k < nodes.length; ++k) values[k] = f.applyAsDouble(nodes[k]);
+        return interpolating(low, high, values);
+    }
+
+    /**
+     * Evaluates the series at a given value x (Clenshaw's recurrence), without checking that x lies in [low;high].
+     *
+     * @param double (x)
+     * @return double (result)
+     */
+    public double at(double x) {
+        double t = (2*x - low - high) / (high - low);
+        double b1 = 0;
+        double b2 = 0;
+        for(int j = coefficients.length - 1; j >= 1; --j) {
+            double b0 = 2*t*b1 - b2 + coefficients[j];
+            b2 = b1;
+            b1 = b0;
+        }
+        return t*b1 - b2 + coefficients[0];
+    }
+
+    /**
+     * Returns the degree of the series.
+     *
+     * @return int (degree)
+     */
+    public int degree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * Returns the lower bound of the interval of the series.
+     *
+     * @return double (low)
+     */
+    public double low() {
+        return low;
+    }
+
+    /**
+     * Returns the upper bound of the interval of the series.
+     *
+     * @return double (high)
+     */
+    public double high() {
+        return high;
+    }
+}
@@ -5,4 +5,7 @@ module ch.epfl.rigel {
 
     opens ch.epfl.rigel to javafx.fxml;
     exports ch.epfl.rigel.gui;
+    exports ch.epfl.rigel.coordinates;
+    exports ch.epfl.rigel.astronomy;
+    exports ch.epfl.rigel.events;
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package ch.epfl.rigel.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.events.Almanac;
+import ch.epfl.rigel.events.AlmanacBinaryWriter;
+import ch.epfl.rigel.events.AlmanacCsvWriter;
+import ch.epfl.rigel.events.AlmanacGenerator;
+
+/**
+ * Measures The Throughput Of The AlmanacGenerator.
+ * Generates the almanacs of a year for 1000 sites spread over the Earth (every 18° of longitude, and every 3.6° of
+ * latitude between -88.2° and 88.2°), after a warmup year :
+ * -without writing them ;
+ * -written in the binary format ;
+ * -written in CSV.
+ * The almanacs are written to a stream discarding them, so that the disk is not measured.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class AlmanacBenchmark {
+
+    private final static int YEAR = 2024;
+    private final static int LONGITUDES = 20;
+    private final static int LATITUDES = 50;
+    private final static int RUNS = 3;
+
+    private AlmanacBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     * @param String (args)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        List<GeographicCoordinates> sites = new ArrayList<>();
+        for(int i = 0; i < LONGITUDES; ++i) {
+            for(int j = 0; j < LATITUDES; ++j) {
+                sites.add(GeographicCoordinates.ofDeg(-180 + 360.0 * i / LONGITUDES, -90 + 180.0 * (j + 0.5) / LATITUDES));
+            }
+        }
+        AlmanacGenerator generator = new AlmanacGenerator(sites);
+        generator.year(YEAR - 1);
+
+        for(int run = 0; run < RUNS; ++run) {
+            long before = System.nanoTime();
+            List<Almanac> almanacs = generator.year(YEAR);
+            double seconds = (System.nanoTime() - before) / 1e9;
+            long events = almanacs.stream().mapToLong(Almanac::size).sum();
+            before = System.nanoTime();
+            generator.generate(YEAR, YEAR, AlmanacBinaryWriter.INSTANCE, OutputStream.nullOutputStream());
+            double binarySeconds = (System.nanoTime() - before) / 1e9;
+            before = System.nanoTime();
+            generator.generate(YEAR, YEAR, AlmanacCsvWriter.INSTANCE, OutputStream.nullOutputStream());
+            double csvSeconds = (System.nanoTime() - before) / 1e9;
+            System.out.println(String.format(Locale.ROOT, "run %d : %d events (%d sites) in %.2f s, %.2f s (binary), %.2f s (CSV)",
+                    run, events, sites.size(), seconds, binarySeconds, csvSeconds));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ch.epfl.rigel.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+import ch.epfl.rigel.astronomy.Atmosphere;
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * Measures The Per-Star Cost Of The Atmosphere.
+ * Each operation converts all the stars of the catalogue to horizontal coordinates at a different moment (one minute
+ * apart) :
+ * -without atmosphere ;
+ * -with the refraction and the extinction of an Atmosphere (lookup tables) ;
+ * -with the refraction and the extinction computed by their formulas for each star, for comparison.
+ * The overheads per star are printed relatively to the conversion without atmosphere.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class AtmosphereBenchmark {
+
+    private final static String HYG_DATA = "/hygdata_v3.csv";
+    private final static long STEP_MILLIS = 60 * 1000;
+    private final static long START_MILLIS = 1_600_000_000_000L;
+    private final static GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private final static double TEMPERATURE = 10;
+    private final static double PRESSURE = 1010;
+
+    private AtmosphereBenchmark() {}
+
+    /**
+     * Runs the benchmarks.
+     * @param String (args)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        StarCatalogue catalogue;
+        try(InputStream s = AtmosphereBenchmark.class.getResourceAsStream(HYG_DATA)) {
+            catalogue = new StarCatalogue.Builder().loadFrom(s, HygDatabaseLoader.INSTANCE).build();
+        }
+        double[] equatorialPositions = catalogue.equatorialPositions();
+        int count = equatorialPositions.length / 2;
+        double[] horizontalPositions = new double[2*count];
+        double[] extinctions = new double[count];
+        Atmosphere atmosphere = Atmosphere.of(TEMPERATURE, PRESSURE);
+        Benchmark benchmark = new Benchmark();
+
+        double none = benchmark.run("no atmosphere", i -> {
+            EquatorialToHorizontalConversion.ofJ2000(START_MILLIS + i*STEP_MILLIS, WHERE).apply(equatorialPositions, 0, horizontalPositions, 0, count);
+            return horizontalPositions[1];
+        });
+        double tables = benchmark.run("atmosphere (tables)", i -> {
+            EquatorialToHorizontalConversion.ofJ2000(START_MILLIS + i*STEP_MILLIS, WHERE).apply(equatorialPositions, 0, horizontalPositions, 0, count);
+            atmosphere.refract(horizontalPositions, 0, count);
+            atmosphere.extinctions(horizontalPositions, 0, extinctions, 0, count);
+            return horizontalPositions[1] + extinctions[0];
+        });
+        double formulas = benchmark.run("atmosphere (formulas)", i -> {
+            EquatorialToHorizontalConversion.ofJ2000(START_MILLIS + i*STEP_MILLIS, WHERE).apply(equatorialPositions, 0, horizontalPositions, 0, count);
+            for(int k = 0; k < count; ++k) {
+                horizontalPositions[2*k + 1] += refraction(horizontalPositions[2*k + 1]);
+                extinctions[k] = extinction(horizontalPositions[2*k + 1]);
+            }
+            return horizontalPositions[1] + extinctions[0];
+        });
+        System.out.println(String.format(Locale.ROOT, "%d stars : %.1f ns/star without atmosphere, overhead %.1f ns/star (tables), %.1f ns/star (formulas)",
+                count, none / count, (tables - none) / count, (formulas - none) / count));
+    }
+
+    //The formulas tabulated by Atmosphere, for the same temperature and pressure
+    private static double refraction(double alt) {
+        double altDeg = Math.max(-2, Angle.toDeg(alt));
+        double refractionArcmin = 1.02 / Math.tan(Angle.ofDeg(altDeg + 10.3 / (altDeg + 5.11)));
+        return Angle.ofArcsec(60 * Math.max(0, refractionArcmin) * (PRESSURE / 1010) * (283 / (273 + TEMPERATURE)));
+    }
+
+    private static double extinction(double alt) {
+        double altDeg = Math.max(0, Angle.toDeg(alt));
+        return 0.2 * PRESSURE / 1013.25 / (Math.sin(Angle.ofDeg(altDeg)) + 0.50572 * Math.pow(altDeg + 6.07995, -1.6364));
+    }
+}
@@ -0,0 +1,96 @@
+package ch.epfl.rigel.benchmark;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+import java.util.Locale;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A Minimal Microbenchmark Harness.
+ * Follows the methodology of JMH without depending on it : each benchmark runs warmup iterations (letting the JIT
+ * compile the code) before measured iterations, and every result is consumed so that the computation cannot be
+ * eliminated as dead code. The operation receives the index of the call, to vary its inputs.
+ * The harness and the benchmarks are kept in the test sources, outside of the application module : they are run
+ * after mvn test-compile, e.g. java -cp target/classes:target/test-classes ch.epfl.rigel.benchmark.AlmanacBenchmark.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class Benchmark {
+
+    private final static int DEFAULT_WARMUP_ITERATIONS = 5;
+    private final static int DEFAULT_MEASUREMENT_ITERATIONS = 10;
+    private final static long DEFAULT_ITERATION_NANOS = 200_000_000L;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private int index;
+    private volatile double sink;
+
+    /**
+     * Default constructor of a Benchmark : 5 warmup and 10 measurement iterations of 200ms.
+     */
+    public Benchmark() {
+        this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_MEASUREMENT_ITERATIONS, DEFAULT_ITERATION_NANOS);
+    }
+
+    /**
+     * Constructor of a Benchmark with the given numbers of iterations and duration of an iteration, in nanoseconds.
+     *
+     * @param int (warmupIterations)
+     * @param int (measurementIterations)
+     * @param long (iterationNanos)
+     */
+    public Benchmark(int warmupIterations, int measurementIterations, long iterationNanos) {
+        checkArgument(warmupIterations >= 0 && measurementIterations > 0 && iterationNanos > 0);
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationNanos;
+    }
+
+    /**
+     * Runs the given operation, prints its average time per call (and its standard deviation over the
+     * iterations) with the given name, and returns the average time, in nanoseconds.
+     *
+     * @param String (name)
+     * @param IntToDoubleFunction (operation)
+     * @return double (nanosPerOperation)
+     */
+    public double run(String name, IntToDoubleFunction operation) {
+        index = 0;
+        int batch = 1;
+        //Calibration of the number of calls between two readings of the clock
+        while(true) {
+            long start = System.nanoTime();
+            calls(operation, batch);
+            if(System.nanoTime() - start > iterationNanos / 100 || batch >= (1 << 30)) break;
+            batch *= 2;
+        }
+        for(int i = 0; i < warmupIterations; ++i) iteration(operation, batch);
+        double[] nanos = new double[measurementIterations];
+        for(int i = 0; i < measurementIterations; ++i) nanos[i] = iteration(operation, batch);
+        double mean = 0;
+        for(double n : nanos) mean += n / nanos.length;
+        double variance = 0;
+        for(double n : nanos) variance += (n - mean) * (n - mean) / nanos.length;
+        System.out.println(String.format(Locale.ROOT, "%-48s %12.1f +- %8.1f ns/op", name, mean, Math.sqrt(variance)));
+        return mean;
+    }
+
+    private double iteration(IntToDoubleFunction operation, int batch) {
+        long start = System.nanoTime();
+        long calls = 0;
+        while(System.nanoTime() - start < iterationNanos) {
+            calls(operation, batch);
+            calls += batch;
+        }
+        return (double) (System.nanoTime() - start) / calls;
+    }
+
+    private void calls(IntToDoubleFunction operation, int batch) {
+        double sum = 0;
+        for(int i = 0; i < batch; ++i) sum += operation.applyAsDouble(index++);
+        sink += sum;
+    }
+}
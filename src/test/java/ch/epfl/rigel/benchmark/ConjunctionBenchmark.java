@@ -0,0 +1,60 @@
+package ch.epfl.rigel.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.events.Conjunction;
+import ch.epfl.rigel.events.ConjunctionSearch;
+
+/**
+ * Measures The Throughput Of The ConjunctionSearch, In Simulated Years Per Second.
+ * Searches the conjunctions, appulses and occultations of the bright stars from 2000 to 2050, after a warmup
+ * search of 10 years.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class ConjunctionBenchmark {
+
+    private final static int START_YEAR = 2000;
+    private final static int YEARS = 50;
+    private final static int WARMUP_YEARS = 10;
+    private final static int RUNS = 3;
+
+    private ConjunctionBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     * @param String (args)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        StarCatalogue catalogue;
+        try(InputStream hygStream = ConjunctionBenchmark.class.getResourceAsStream("/hygdata_v3.csv")) {
+            catalogue = new StarCatalogue.Builder().loadFrom(hygStream, HygDatabaseLoader.INSTANCE).build();
+        }
+        ConjunctionSearch search = new ConjunctionSearch.Builder(catalogue).build();
+        long start = ZonedDateTime.of(START_YEAR, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        long warmupEnd = ZonedDateTime.of(START_YEAR + WARMUP_YEARS, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        long end = ZonedDateTime.of(START_YEAR + YEARS, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        search.search(start, warmupEnd);
+
+        List<Conjunction> conjunctions = List.of();
+        for(int run = 0; run < RUNS; ++run) {
+            long before = System.nanoTime();
+            conjunctions = search.search(start, end);
+            double seconds = (System.nanoTime() - before) / 1e9;
+            System.out.println(String.format(Locale.ROOT, "run %d : %d events (%d stars) in %.2f s, %.1f simulated years/s",
+                    run, conjunctions.size(), search.starCount(), seconds, YEARS / seconds));
+        }
+        for(Conjunction.Kind kind : Conjunction.Kind.values()) {
+            System.out.println(kind + " : " + conjunctions.stream().filter(c -> c.kind() == kind).count());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ch.epfl.rigel.benchmark;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ch.epfl.rigel.astronomy.EclipticModel;
+import ch.epfl.rigel.astronomy.EphemerisTier;
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.PlanetModel;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * Compares The Speed And The Accuracy Of The Precision Tiers Of The Models Of The Solar System.
+ * For each tier :
+ * -the throughput : each operation computes the channels of the Sun, the Moon and the 7 planets at a different
+ *  moment (one hour apart) ;
+ * -the error against a reference table of published geocentric ecliptic positions (worked examples of J. Meeus,
+ *  Astronomical Algorithms, whose instants are in terrestrial time) ;
+ * -the largest angular distance to the FULL tier, for each body, every 10 days from 1950 to 2050.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class EphemerisTierBenchmark {
+
+    private final static double STEP_DAYS = 1.0 / 24;
+    private final static int MOMENTS = 1 << 12;
+    private final static double SAMPLE_STEP_DAYS = 10;
+    private final static double SAMPLE_FROM_DAYS = daysSinceJ2010(1950, 1, 1);
+    private final static double SAMPLE_TO_DAYS = daysSinceJ2010(2050, 1, 1);
+    private final static double ARCSECONDS_IN_DEGREE = 3600;
+
+    //Reference positions, in the form {body (-2 for the Sun, -1 for the Moon, else the index in PlanetModel.ALL), days since J2010, longitude, latitude (in degrees)}
+    private final static double[][] REFERENCES = {
+            {-2, daysSinceJ2010(1992, 10, 13), 199.907372, 0.000179},
+            {-1, daysSinceJ2010(1992, 4, 12), 133.162655, -3.229126},
+            {PlanetModel.ALL.indexOf(PlanetModel.VENUS), daysSinceJ2010(1992, 12, 20), 313.08102, -2.08474}
+    };
+
+    private EphemerisTierBenchmark() {}
+
+    /**
+     * Runs the benchmarks.
+     * @param String (args)
+     */
+    public static void main(String[] args) {
+        Benchmark benchmark = new Benchmark();
+        double[] channels = new double[EclipticModel.CHANNELS];
+
+        for(EphemerisTier tier : EphemerisTier.values()) {
+            List<EclipticModel<?>> models = models(tier);
+            benchmark.run(tier + " (channels)", i -> {
+                double days = (i % MOMENTS) * STEP_DAYS;
+                double sum = 0;
+                for(EclipticModel<?> model : models) {
+                    model.channelsAt(days, channels);
+                    sum += channels[0];
+                }
+                return sum;
+            });
+        }
+
+        for(EphemerisTier tier : EphemerisTier.values()) {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-9s reference errors :", tier));
+            for(double[] reference : REFERENCES) {
+                EclipticModel<?> model = (reference[0] == -2) ? tier.sun() : (reference[0] == -1) ? tier.moon() : tier.planet(PlanetModel.ALL.get((int) reference[0]));
+                model.channelsAt(reference[1], channels);
+                double error = distance(channels[0], channels[1], Angle.ofDeg(reference[2]), Angle.ofDeg(reference[3]));
+                line.append(String.format(Locale.ROOT, " %.2f\"", Angle.toDeg(error) * ARCSECONDS_IN_DEGREE));
+            }
+            System.out.println(line);
+        }
+
+        List<EclipticModel<?>> references = models(EphemerisTier.FULL);
+        double[] referenceChannels = new double[EclipticModel.CHANNELS];
+        for(EphemerisTier tier : EphemerisTier.values()) {
+            if(tier == EphemerisTier.FULL) continue;
+            List<EclipticModel<?>> models = models(tier);
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-9s max deviation from FULL :", tier));
+            for(int b = 0; b < models.size(); ++b) {
+                double max = 0;
+                for(double days = SAMPLE_FROM_DAYS; days < SAMPLE_TO_DAYS; days += SAMPLE_STEP_DAYS) {
+                    models.get(b).channelsAt(days, channels);
+                    references.get(b).channelsAt(days, referenceChannels);
+                    max = Math.max(max, distance(channels[0], channels[1], referenceChannels[0], referenceChannels[1]));
+                }
+                line.append(String.format(Locale.ROOT, " %.1f\"", Angle.toDeg(max) * ARCSECONDS_IN_DEGREE));
+            }
+            System.out.println(line);
+        }
+    }
+
+    //The Sun, the Moon and the planets other than the Earth, in the order of PlanetModel.ALL
+    private static List<EclipticModel<?>> models(EphemerisTier tier) {
+        List<EclipticModel<?>> models = new ArrayList<>();
+        models.add(tier.sun());
+        models.add(tier.moon());
+        for(PlanetModel planet : PlanetModel.ALL) {
+            if(planet != PlanetModel.EARTH) models.add(tier.planet(planet));
+        }
+        return models;
+    }
+
+    private static double distance(double lon1, double lat1, double lon2, double lat2) {
+        double cos = Math.sin(lat1)*Math.sin(lat2) + Math.cos(lat1)*Math.cos(lat2)*Math.cos(lon1 - lon2);
+        return Math.acos(Math.min(1, cos));
+    }
+
+    private static double daysSinceJ2010(int year, int month, int day) {
+        return Epoch.J2010.daysUntil(ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,86 @@
+package ch.epfl.rigel.benchmark;
+
+import java.util.Locale;
+
+import ch.epfl.rigel.astronomy.Epoch;
+import ch.epfl.rigel.astronomy.Sun;
+import ch.epfl.rigel.astronomy.SunModel;
+import ch.epfl.rigel.astronomy.SolarPositions;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * Measures The Per-Row Cost Of SolarPositions.
+ * The rows are 100 moments (5 minutes apart), each at the same 1000 locations. Each operation computes them :
+ * -with the objects of the model (a Sun and the conversions per row), for comparison ;
+ * -with SolarPositions.compute, the rows being sorted by moment ;
+ * -with SolarPositions.grid.
+ * The largest difference between the altitudes of the first and the second is printed.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class SolarPositionsBenchmark {
+
+    private final static int MOMENTS = 100;
+    private final static int LOCATIONS = 1000;
+    private final static long STEP_MILLIS = 5 * 60 * 1000;
+    private final static long START_MILLIS = 1_600_000_000_000L;
+
+    private SolarPositionsBenchmark() {}
+
+    /**
+     * Runs the benchmarks.
+     * @param String (args)
+     */
+    public static void main(String[] args) {
+        int rows = MOMENTS * LOCATIONS;
+        long[] gridMillis = new long[MOMENTS];
+        double[] locationLons = new double[LOCATIONS];
+        double[] locationLats = new double[LOCATIONS];
+        for(int t = 0; t < MOMENTS; ++t) gridMillis[t] = START_MILLIS + t*STEP_MILLIS;
+        for(int l = 0; l < LOCATIONS; ++l) {
+            locationLons[l] = Angle.ofDeg(-180 + 360.0 * l / LOCATIONS);
+            locationLats[l] = Angle.ofDeg(-89 + 178.0 * ((l * 37) % LOCATIONS) / LOCATIONS);
+        }
+        long[] millis = new long[rows];
+        double[] lons = new double[rows];
+        double[] lats = new double[rows];
+        for(int i = 0; i < rows; ++i) {
+            millis[i] = gridMillis[i / LOCATIONS];
+            lons[i] = locationLons[i % LOCATIONS];
+            lats[i] = locationLats[i % LOCATIONS];
+        }
+        double[] objects = new double[2*rows];
+        double[] batch = new double[2*rows];
+        double[] grid = new double[2*rows];
+        SolarPositions positions = new SolarPositions();
+        Benchmark benchmark = new Benchmark();
+
+        double objectsNanos = benchmark.run("objects", i -> {
+            for(int r = 0; r < rows; ++r) {
+                Sun sun = SunModel.SUN.at(Epoch.J2010.daysUntil(millis[r]), new EclipticToEquatorialConversion(millis[r]));
+                HorizontalCoordinates h = new EquatorialToHorizontalConversion(millis[r], GeographicCoordinates.ofDeg(Angle.toDeg(lons[r]), Angle.toDeg(lats[r])))
+                        .apply(sun.equatorialPos());
+                objects[2*r] = h.az();
+                objects[2*r + 1] = h.alt();
+            }
+            return objects[1];
+        });
+        double batchNanos = benchmark.run("compute", i -> {
+            positions.compute(millis, lons, lats, 0, batch, 0, rows);
+            return batch[1];
+        });
+        double gridNanos = benchmark.run("grid", i -> {
+            positions.grid(gridMillis, locationLons, locationLats, grid);
+            return grid[1];
+        });
+        double maxDifference = 0;
+        for(int r = 0; r < rows; ++r) maxDifference = Math.max(maxDifference, Math.abs(objects[2*r + 1] - batch[2*r + 1]));
+        System.out.println(String.format(Locale.ROOT, "%d rows : %.1f ns/row (objects), %.1f ns/row (compute), %.1f ns/row (grid), max difference %.2e\"",
+                rows, objectsNanos / rows, batchNanos / rows, gridNanos / rows, Angle.toDeg(maxDifference) * 3600));
+    }
+}
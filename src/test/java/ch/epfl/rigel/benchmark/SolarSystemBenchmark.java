@@ -0,0 +1,63 @@
+package ch.epfl.rigel.benchmark;
+
+import java.util.List;
+
+import ch.epfl.rigel.astronomy.Moon;
+import ch.epfl.rigel.astronomy.MoonModel;
+import ch.epfl.rigel.astronomy.Planet;
+import ch.epfl.rigel.astronomy.PlanetModel;
+import ch.epfl.rigel.astronomy.SolarSystemSnapshot;
+import ch.epfl.rigel.astronomy.Sun;
+import ch.epfl.rigel.astronomy.SunModel;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+/**
+ * Compares The Evaluation Of The Solar System By The Separate Models And By A SolarSystemSnapshot.
+ * Each operation evaluates the Sun, the Moon and the 7 planets at a different moment (one hour apart),
+ * with the ecliptic to equatorial conversion built beforehand.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class SolarSystemBenchmark {
+
+    private final static double STEP_DAYS = 1.0 / 24;
+    private final static int MOMENTS = 1 << 12;
+
+    private SolarSystemBenchmark() {}
+
+    /**
+     * Runs the benchmarks.
+     * @param String (args)
+     */
+    public static void main(String[] args) {
+        EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(0L);
+        double[] positions = new double[2*SolarSystemSnapshot.BODY_COUNT];
+        Benchmark benchmark = new Benchmark();
+
+        benchmark.run("models (objects)", i -> {
+            double days = (i % MOMENTS) * STEP_DAYS;
+            Sun sun = SunModel.SUN.at(days, conversion);
+            Moon moon = MoonModel.MOON.at(days, conversion);
+            double sum = sun.equatorialPos().ra() + moon.equatorialPos().ra();
+            for(PlanetModel model : PlanetModel.ALL) {
+                if(!model.equals(PlanetModel.EARTH)) sum += model.at(days, conversion).equatorialPos().ra();
+            }
+            return sum;
+        });
+        benchmark.run("snapshot (objects)", i -> {
+            SolarSystemSnapshot snapshot = new SolarSystemSnapshot((i % MOMENTS) * STEP_DAYS, conversion);
+            double sum = snapshot.sun().equatorialPos().ra() + snapshot.moon().equatorialPos().ra();
+            List<Planet> planets = snapshot.planets();
+            for(Planet planet : planets) sum += planet.equatorialPos().ra();
+            return sum;
+        });
+        benchmark.run("snapshot (equatorial positions)", i -> {
+            SolarSystemSnapshot snapshot = new SolarSystemSnapshot((i % MOMENTS) * STEP_DAYS, conversion);
+            snapshot.equatorialPositions(positions, 0);
+            double sum = 0;
+            for(int j = 0; j < positions.length; j += 2) sum += positions[j];
+            return sum;
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package ch.epfl.rigel.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.gui.StarColors;
+import ch.epfl.rigel.gui.StarRasterizer;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ClosedInterval;
+
+/**
+ * Measures The Frame Time Of The StarRasterizer.
+ * Each operation clears a 1280x720 frame and rasterizes :
+ * -the stars of the catalogue, as projected by the stereographic projection of the initial view of the application
+ *  (field of view of 100°) ;
+ * -100'000 stars at random positions in the frame, of random magnitudes in [-2;6].
+ * The diameters and colors are those of SkyCanvasPainter. The blit of the frame (a single drawImage) and the
+ * GraphicsContext path, which both need the JavaFX toolkit, are not measured.
+ *
+ * @author Paul Guillon (314517)
+ * @author Alexis Schlomer (315616)
+ */
+public final class StarRasterizerBenchmark {
+
+    private final static String HYG_DATA = "/hygdata_v3.csv";
+    private final static int WIDTH = 1280;
+    private final static int HEIGHT = 720;
+    private final static double FIELD_OF_VIEW_DEG = 100;
+    private final static long EPOCH_MILLIS = 1_600_000_000_000L;
+    private final static int RANDOM_STARS = 100_000;
+    private final static double SUN_AVERAGE_ANGULAR_SIZE = Angle.ofDeg(0.5);
+    private final static ClosedInterval MAGNITUDES_INTERVAL = ClosedInterval.of(-2, 5);
+
+    private StarRasterizerBenchmark() {}
+
+    /**
+     * Runs the benchmarks.
+     * @param String (args)
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        StarCatalogue catalogue;
+        try(InputStream s = StarRasterizerBenchmark.class.getResourceAsStream(HYG_DATA)) {
+            catalogue = new StarCatalogue.Builder().loadFrom(s, HygDatabaseLoader.INSTANCE).build();
+        }
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(160, 15));
+        ObservedSky sky = new ObservedSky(EPOCH_MILLIS, GeographicCoordinates.ofDeg(6.57, 46.52), projection, catalogue);
+        double scale = WIDTH / (2 * projection.applyToAngle(Angle.ofDeg(FIELD_OF_VIEW_DEG)));
+        double sunDiameter = scale * projection.applyToAngle(SUN_AVERAGE_ANGULAR_SIZE);
+
+        List<Star> stars = catalogue.stars();
+        double[] planePositions = sky.starPositions();
+        double[] catalogueCanvasPts = new double[planePositions.length];
+        double[] catalogueDiameters = new double[stars.size()];
+        StarColors colors = new StarColors(stars);
+        int[] catalogueRgbs = new int[stars.size()];
+        for(int i = 0; i < stars.size(); ++i) {
+            catalogueCanvasPts[2*i] = WIDTH / 2.0 + scale * planePositions[2*i];
+            catalogueCanvasPts[2*i + 1] = HEIGHT / 2.0 - scale * planePositions[2*i + 1];
+            catalogueDiameters[i] = diameter(stars.get(i).magnitude(), sunDiameter);
+            catalogueRgbs[i] = colors.argb(i);
+        }
+
+        Random random = new Random(2020);
+        double[] randomCanvasPts = new double[2*RANDOM_STARS];
+        double[] randomDiameters = new double[RANDOM_STARS];
+        int[] randomRgbs = new int[RANDOM_STARS];
+        for(int i = 0; i < RANDOM_STARS; ++i) {
+            randomCanvasPts[2*i] = random.nextDouble() * WIDTH;
+            randomCanvasPts[2*i + 1] = random.nextDouble() * HEIGHT;
+            randomDiameters[i] = diameter(-2 + 8 * random.nextDouble(), sunDiameter);
+            randomRgbs[i] = catalogueRgbs[random.nextInt(catalogueRgbs.length)];
+        }
+
+        StarRasterizer rasterizer = new StarRasterizer(WIDTH, HEIGHT);
+        Benchmark benchmark = new Benchmark();
+        double catalogueNanos = benchmark.run("catalogue", i -> {
+            rasterizer.clear();
+            rasterizer.draw(catalogueCanvasPts, catalogueDiameters, catalogueRgbs, catalogueDiameters.length);
+            return rasterizer.pixels()[i % rasterizer.pixels().length];
+        });
+        double randomNanos = benchmark.run("100k stars", i -> {
+            rasterizer.clear();
+            rasterizer.draw(randomCanvasPts, randomDiameters, randomRgbs, RANDOM_STARS);
+            return rasterizer.pixels()[i % rasterizer.pixels().length];
+        });
+        System.out.println(String.format(Locale.ROOT, "%dx%d frame : %.2f ms for %d stars (catalogue), %.2f ms for %d stars",
+                WIDTH, HEIGHT, catalogueNanos / 1e6, stars.size(), randomNanos / 1e6, RANDOM_STARS));
+    }
+
+    //The diameter of SkyCanvasPainter, in pixels
+    private static double diameter(double magnitude, double sunDiameter) {
+        return (99 - 17 * MAGNITUDES_INTERVAL.clip(magnitude)) / 140 * sunDiameter;
+    }
+}